@@ -0,0 +1,126 @@
+package com.inghub.credit.benchmark;
+
+import com.inghub.credit.Application;
+import com.inghub.credit.repository.LoanSearchCriteria;
+import com.inghub.credit.repository.page.CountMode;
+import com.inghub.credit.response.ListLoanResponse;
+import com.inghub.credit.service.LoanService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//GET /loans filters over 100k and 1M seeded loans. Every customer holds LOANS_PER_CUSTOMER loans, so with index
+//backed filters the cost follows the matching rows of one customer and not the table size.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 8, time = 5)
+@Measurement(iterations = 5, time = 5)
+//a million loans with their indexes take about 2.5 GB in the in-memory database
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LoanSearchBenchmark {
+
+    private static final int LOANS_PER_CUSTOMER = 1000;
+    private static final int PAGE_SIZE = 20;
+    private static final int SEED_CHUNK_SIZE = 50_000;
+
+    @Param({"100000", "1000000"})
+    private int loans;
+
+    private ConfigurableApplicationContext context;
+    private LoanService loanService;
+    private int customers;
+
+    private final LoanSearchCriteria amountRange = new LoanSearchCriteria(null, new BigDecimal("10000"), new BigDecimal("10999"),
+                                                                          null, null, null, null, null, null);
+    private final LoanSearchCriteria lastWeek = new LoanSearchCriteria(null, null, null, null, null,
+                                                                       LocalDate.now().minusDays(7), LocalDate.now(), null, null);
+    private final LoanSearchCriteria interestRateRange = new LoanSearchCriteria(null, null, null, null, null, null, null,
+                                                                                new BigDecimal("0.30"), new BigDecimal("0.30"));
+    private final LoanSearchCriteria installmentCounts = new LoanSearchCriteria(null, null, null, List.of(6, 24), null,
+                                                                                null, null, null, null);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        //command line arguments, default properties would lose against application.yml
+        context = new SpringApplicationBuilder(Application.class)
+                .run("--spring.datasource.url=jdbc:h2:mem:search-bench",
+                     "--server.port=0",
+                     "--spring.jpa.show-sql=false",
+                     "--logging.level.com.inghub.credit=WARN",
+                     "--logging.level.org.hibernate=WARN",
+                     "--credit.outbox.relay.enabled=false",
+                     "--credit.archive.enabled=false",
+                     "--credit.timing.enabled=false");
+        loanService = context.getBean(LoanService.class);
+        customers = loans / LOANS_PER_CUSTOMER;
+
+        //K is the position of a loan in its customer's portfolio: amounts 1000..99999 spread evenly, creation dates over
+        //the last 2 years, 40 interest rates 0.10..0.49 and 4 installment counts in every portfolio
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("INSERT INTO customer SELECT X + 1, CURRENT_TIMESTAMP, NULL, 'name', 'surname', 1000000000.00, 0.00 "
+                            + "FROM SYSTEM_RANGE(1, ?)", customers);
+        //one transaction per chunk keeps the undo log small
+        for (int first = 0; first < loans; first += SEED_CHUNK_SIZE) {
+            jdbcTemplate.update("INSERT INTO loan (idate, udate, customer_id, loan_amount, number_of_installment, is_paid, interest_rate) "
+                                + "SELECT DATEADD('DAY', -MOD(K * 7, 730), CURRENT_TIMESTAMP), NULL, C, 1000 + MOD(K * 7919, 99000), "
+                                + "ARRAY[6, 9, 12, 24][MOD(K, 4) + 1], MOD(K, 3) = 0, 0.10 + MOD(K, 40) / 100.0 "
+                                + "FROM (SELECT MOD(X, ?) + 2 AS C, X / ? AS K FROM SYSTEM_RANGE(?, ?))",
+                                customers, customers, first, Math.min(first + SEED_CHUNK_SIZE, loans) - 1);
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private long randomCustomer() {
+        return 2 + ThreadLocalRandom.current().nextInt(customers);
+    }
+
+    @Benchmark
+    public ListLoanResponse unfiltered() {
+        return loanService.searchLoansByCustomerId(randomCustomer(), LoanSearchCriteria.NONE, false, CountMode.EXACT, PAGE_SIZE, 1, null);
+    }
+
+    //after warmup every customer's count is cached, nothing writes during the run
+    @Benchmark
+    public ListLoanResponse unfilteredEstimatedCount() {
+        return loanService.searchLoansByCustomerId(randomCustomer(), LoanSearchCriteria.NONE, false, CountMode.ESTIMATE, PAGE_SIZE, 1, null);
+    }
+
+    @Benchmark
+    public ListLoanResponse unfilteredWithoutCount() {
+        return loanService.searchLoansByCustomerId(randomCustomer(), LoanSearchCriteria.NONE, false, CountMode.NONE, PAGE_SIZE, 1, null);
+    }
+
+    @Benchmark
+    public ListLoanResponse amountRange() {
+        return loanService.searchLoansByCustomerId(randomCustomer(), amountRange, false, CountMode.EXACT, PAGE_SIZE, 1, null);
+    }
+
+    @Benchmark
+    public ListLoanResponse createdLastWeek() {
+        return loanService.searchLoansByCustomerId(randomCustomer(), lastWeek, false, CountMode.EXACT, PAGE_SIZE, 1, null);
+    }
+
+    @Benchmark
+    public ListLoanResponse interestRateRange() {
+        return loanService.searchLoansByCustomerId(randomCustomer(), interestRateRange, false, CountMode.EXACT, PAGE_SIZE, 1, null);
+    }
+
+    @Benchmark
+    public ListLoanResponse installmentCountIn() {
+        return loanService.searchLoansByCustomerId(randomCustomer(), installmentCounts, false, CountMode.EXACT, PAGE_SIZE, 1, null);
+    }
+}
@@ -0,0 +1,80 @@
+package com.inghub.credit.benchmark;
+
+import com.inghub.credit.repository.UnpaidInstallmentRow;
+import com.inghub.credit.service.UnpaidInstallments;
+import com.inghub.credit.service.allocation.PaymentAllocation;
+import com.inghub.credit.service.allocation.PaymentAllocationEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+//Allocation of one payment over a 24 installment loan, 2 installments overdue, paying 3.5 installments.
+//"list" is the allocation payLoan used before the engine: BigDecimal amounts, a LinkedList copy and
+//LocalDate.now() per installment (without its log lines).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentAllocationBenchmark {
+
+    private static final int INSTALLMENT_COUNT = 24;
+    private static final BigDecimal INSTALLMENT_AMOUNT = new BigDecimal("91.67");
+    private static final BigDecimal PAID_AMOUNT = new BigDecimal("320.85");
+
+    @Param({"oldest-first", "partial", "latest-first"})
+    private String strategy;
+
+    private PaymentAllocationEngine engine;
+    private UnpaidInstallments unpaidInstallments;
+    private long paidAmount;
+    private List<UnpaidInstallmentRow> rows;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new PaymentAllocationEngine(Clock.systemDefaultZone(), PaymentAllocationEngine.strategyOf(strategy), 3);
+        LocalDate firstDueDate = LocalDate.now().withDayOfMonth(1).minusMonths(2);
+        rows = new ArrayList<>(INSTALLMENT_COUNT);
+        for (int i = 0; i < INSTALLMENT_COUNT; i++) {
+            rows.add(new UnpaidInstallmentRow(i + 1L, firstDueDate.plusMonths(i), INSTALLMENT_AMOUNT, 1L, new BigDecimal("2000.00")));
+        }
+        unpaidInstallments = UnpaidInstallments.of(1L, rows);
+        paidAmount = UnpaidInstallments.toMinorUnits(PAID_AMOUNT);
+    }
+
+    @Benchmark
+    public PaymentAllocation allocate() {
+        return engine.allocate(unpaidInstallments, paidAmount);
+    }
+
+    //allocation and the entry replacing the cached one once the payment committed
+    @Benchmark
+    public UnpaidInstallments allocateAndAdvance() {
+        return unpaidInstallments.afterPayment(engine.allocate(unpaidInstallments, paidAmount));
+    }
+
+    @Benchmark
+    public List<UnpaidInstallmentRow> list() {
+        Queue<UnpaidInstallmentRow> queue = new LinkedList<>(rows);
+        List<UnpaidInstallmentRow> eligible = new ArrayList<>();
+        BigDecimal remaining = PAID_AMOUNT;
+        while (!queue.isEmpty() && remaining.compareTo(BigDecimal.ZERO) > 0) {
+            UnpaidInstallmentRow next = queue.peek();
+            if (next.dueDate().isAfter(LocalDate.now().plusMonths(3)) || remaining.compareTo(next.outstandingAmount()) < 0) {
+                break;
+            }
+            remaining = remaining.subtract(next.outstandingAmount());
+            eligible.add(next);
+            queue.poll();
+        }
+        return eligible;
+    }
+}
@@ -0,0 +1,56 @@
+package com.inghub.credit.benchmark;
+
+import com.inghub.credit.journal.FsyncPolicy;
+import com.inghub.credit.journal.MappedPaymentJournal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+//Cost of journaling one payment of three installments (MappedPaymentJournal.append), in a fresh temporary directory.
+//"interval" forces from a scheduler thread in the application, here appends never wait for it, like "never".
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentJournalBenchmark {
+
+    private static final List<Long> INSTALLMENT_IDS = List.of(101L, 102L, 103L);
+
+    @Param({"never", "always"})
+    private String fsync;
+
+    private Path directory;
+    private MappedPaymentJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("payment-journal-benchmark");
+        journal = new MappedPaymentJournal(directory, 65536, FsyncPolicy.of(fsync), Clock.systemDefaultZone(), new SimpleMeterRegistry());
+    }
+
+    //a trial writes gigabytes of segments
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void append() {
+        journal.append(1L, 27501, INSTALLMENT_IDS, 0, 0);
+    }
+}
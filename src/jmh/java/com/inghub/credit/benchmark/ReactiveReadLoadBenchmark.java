@@ -0,0 +1,176 @@
+package com.inghub.credit.benchmark;
+
+import com.inghub.credit.Application;
+import com.inghub.credit.datasource.ShardRoutingDataSource;
+import com.inghub.credit.reactive.ReactiveReadServer;
+import com.inghub.credit.reactive.ReactiveShardConnections;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+//Load test of GET /loans and GET /loans/{loanId}/installments over HTTP from 16 concurrent clients: LoanController on
+//Tomcat with Hikari against the reactive read API on Netty with R2DBC, both with at most 10 connections. SampleTime
+//reports the latency percentiles (p0.99) of every api; the peak number of connections in use during a measurement
+//iteration, Hikari active against R2DBC acquired, is sampled every millisecond and printed when the iteration ends.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(16)
+@Fork(1)
+public class ReactiveReadLoadBenchmark {
+
+    private static final int CUSTOMERS = 1000;
+    private static final int LOANS_PER_CUSTOMER = 20;
+    private static final int INSTALLMENTS_PER_LOAN = 12;
+    private static final int POOL_SIZE = 10;
+    //BCrypt cost is read from the hash: the benchmark user costs ~1 ms instead of the ~60 ms of the configured user,
+    //so the password check does not hide the difference of the read paths
+    private static final String USER = "bench";
+    private static final int BCRYPT_STRENGTH = 4;
+    //a stuck request fails the iteration instead of hanging it
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    @Param({"servlet", "reactive"})
+    private String api;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private String authorization;
+    private long firstLoanId;
+    private long lastLoanId;
+
+    private IntSupplier connectionsInUse;
+    private ScheduledExecutorService sampler;
+    private final AtomicInteger peakConnections = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        //command line arguments, default properties would lose against application.yml
+        context = new SpringApplicationBuilder(Application.class)
+                .run("--spring.datasource.url=jdbc:h2:mem:reactive-bench",
+                     "--server.port=0",
+                     "--credit.reactive.enabled=true",
+                     "--credit.reactive.port=0",
+                     "--credit.reactive.pool.max-size=" + POOL_SIZE,
+                     //both stacks queue for a connection up to the R2DBC max-acquire-time
+                     "--credit.datasource.connection-timeout-ms=5000",
+                     "--spring.jpa.show-sql=false",
+                     "--logging.level.com.inghub.credit=WARN",
+                     "--logging.level.org.hibernate=WARN",
+                     "--credit.outbox.relay.enabled=false",
+                     "--credit.archive.enabled=false",
+                     "--credit.reminder.enabled=false",
+                     "--credit.timing.enabled=false",
+                     //the reactive API neither caches nor coalesces, the servlet one must reach the database too
+                     "--credit.response-cache.enabled=false",
+                     "--credit.coalescing.enabled=false");
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        jdbcTemplate.update("INSERT INTO customer SELECT X + 1, CURRENT_TIMESTAMP, NULL, 'name', 'surname', 1000000000.00, 0.00 "
+                            + "FROM SYSTEM_RANGE(1, ?)", CUSTOMERS);
+        jdbcTemplate.update("INSERT INTO loan (idate, udate, customer_id, loan_amount, number_of_installment, is_paid, interest_rate) "
+                            + "SELECT DATEADD('DAY', -MOD(X, 730), CURRENT_TIMESTAMP), NULL, MOD(X, ?) + 2, 1000 + MOD(X * 7919, 99000), ?, FALSE, 0.20 "
+                            + "FROM SYSTEM_RANGE(1, ?)", CUSTOMERS, INSTALLMENTS_PER_LOAN, CUSTOMERS * LOANS_PER_CUSTOMER);
+        firstLoanId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM loan WHERE customer_id > 1", Long.class);
+        lastLoanId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM loan", Long.class);
+        jdbcTemplate.update("INSERT INTO loan_installment (idate, udate, loan_id, amount, paid_amount, due_date, payment_date, is_paid) "
+                            + "SELECT CURRENT_TIMESTAMP, NULL, l.id, 100.00, 0.00, DATEADD('MONTH', r.X, CURRENT_DATE), NULL, FALSE "
+                            + "FROM loan l, SYSTEM_RANGE(1, ?) r WHERE l.customer_id > 1", INSTALLMENTS_PER_LOAN);
+        jdbcTemplate.execute("ANALYZE");
+
+        ((InMemoryUserDetailsManager) context.getBean(UserDetailsService.class)).createUser(
+                User.withUsername(USER).password(new BCryptPasswordEncoder(BCRYPT_STRENGTH).encode(USER)).roles("ADMIN").build());
+        //the servlet provider would rehash the password at the configured cost on the first login, the reactive one does not
+        ProviderManager authenticationManager = (ProviderManager) context.getBean(AuthenticationConfiguration.class).getAuthenticationManager();
+        authenticationManager.getProviders().stream()
+                .filter(DaoAuthenticationProvider.class::isInstance)
+                .forEach(provider -> ((DaoAuthenticationProvider) provider).setUserDetailsPasswordService(null));
+        authorization = "Basic " + Base64.getEncoder().encodeToString((USER + ":" + USER).getBytes(StandardCharsets.UTF_8));
+
+        if ("reactive".equals(api)) {
+            baseUrl = "http://localhost:" + context.getBean(ReactiveReadServer.class).getPort();
+            ReactiveShardConnections shardConnections = context.getBean(ReactiveShardConnections.class);
+            connectionsInUse = shardConnections::acquiredConnections;
+        } else {
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            ShardRoutingDataSource dataSource = (ShardRoutingDataSource) context.getBean(DataSource.class);
+            connectionsInUse = () -> dataSource.getResolvedDataSources().values().stream()
+                    .mapToInt(shard -> ((HikariDataSource) shard).getHikariPoolMXBean().getActiveConnections())
+                    .sum();
+        }
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakConnections.accumulateAndGet(connectionsInUse.getAsInt(), Math::max), 1, 1, TimeUnit.MILLISECONDS);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeak() {
+        peakConnections.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void printPeak() {
+        System.out.println("\npeak connections in use (" + api + "): " + peakConnections.get());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        sampler.shutdownNow();
+        context.close();
+    }
+
+    //one page of 10 out of the customer's 20 loans, so the total takes a count query
+    @Benchmark
+    public int loans() throws Exception {
+        long customerId = 2 + ThreadLocalRandom.current().nextInt(CUSTOMERS);
+        return get("/api/v1/loans?customerId=" + customerId + "&pageSize=10&count=exact&sort=-insertDate");
+    }
+
+    @Benchmark
+    public int loanInstallments() throws Exception {
+        long loanId = ThreadLocalRandom.current().nextLong(firstLoanId, lastLoanId + 1);
+        return get("/api/v1/loans/" + loanId + "/installments?count=exact");
+    }
+
+    private int get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", authorization)
+                .header("Accept", "application/json")
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " returned " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
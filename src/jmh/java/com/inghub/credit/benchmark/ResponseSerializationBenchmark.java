@@ -0,0 +1,72 @@
+package com.inghub.credit.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inghub.credit.config.BinaryFormatConfiguration;
+import com.inghub.credit.response.ApiModelPage;
+import com.inghub.credit.response.ListLoanInstallmentsResponse;
+import com.inghub.credit.response.ListLoanResponse;
+import com.inghub.credit.response.dto.LoanDTO;
+import com.inghub.credit.response.dto.LoanInstallmentDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//Serialization cost of the listing responses: JSON (current path) vs CBOR vs Smile.
+//Payload sizes are printed once per trial.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ListLoanResponse loans;
+    private ListLoanInstallmentsResponse installments;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        objectMapper = switch (format) {
+            case "cbor" -> BinaryFormatConfiguration.cborObjectMapper();
+            case "smile" -> BinaryFormatConfiguration.smileObjectMapper();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+
+        LocalDateTime now = LocalDateTime.of(2025, 1, 22, 11, 59, 35);
+        List<LoanDTO> loanList = new ArrayList<>(size);
+        List<LoanInstallmentDTO> installmentList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            loanList.add(new LoanDTO((long) i, now, now.plusHours(i), 1L, 1000.0 + i, 12, i % 2 == 0));
+            installmentList.add(new LoanInstallmentDTO((long) i, now, now.plusHours(i), 91.67, i % 3 == 0 ? 91.67 : 0.0,
+                                                       LocalDate.of(2025, 2, 1).plusMonths(i), i % 3 == 0 ? now.plusDays(i) : null, i % 3 == 0));
+        }
+        ApiModelPage page = new ApiModelPage(1, size, size * 10L, 10, true, false);
+        loans = new ListLoanResponse(loanList, page);
+        installments = new ListLoanInstallmentsResponse(1L, installmentList, page);
+
+        System.out.printf("%n[%s] ListLoanResponse: %d bytes, ListLoanInstallmentsResponse: %d bytes%n",
+                          format, objectMapper.writeValueAsBytes(loans).length, objectMapper.writeValueAsBytes(installments).length);
+    }
+
+    @Benchmark
+    public byte[] serializeLoans() throws Exception {
+        return objectMapper.writeValueAsBytes(loans);
+    }
+
+    @Benchmark
+    public byte[] serializeInstallments() throws Exception {
+        return objectMapper.writeValueAsBytes(installments);
+    }
+}
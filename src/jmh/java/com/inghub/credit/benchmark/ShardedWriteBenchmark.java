@@ -0,0 +1,72 @@
+package com.inghub.credit.benchmark;
+
+import com.inghub.credit.Application;
+import com.inghub.credit.datasource.ShardRouter;
+import com.inghub.credit.datasource.ShardRoutingDataSource;
+import com.inghub.credit.service.LoanService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//Loan creation throughput (LoanService.saveLoan: customer update, loan, installments, outbox row)
+//with customers spread over 1, 2 and 4 local H2 shards.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class ShardedWriteBenchmark {
+
+    private static final int CUSTOMERS = 1000;
+    private static final BigDecimal LOAN_AMOUNT = new BigDecimal("1200.00");
+    private static final BigDecimal INTEREST_RATE = new BigDecimal("0.2");
+
+    @Param({"1", "2", "4"})
+    private int shards;
+
+    private ConfigurableApplicationContext context;
+    private LoanService loanService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String urls = IntStream.range(0, shards).mapToObj(shard -> "jdbc:h2:mem:bench-" + shard).collect(Collectors.joining(","));
+        //command line arguments, default properties would lose against application.yml
+        context = new SpringApplicationBuilder(Application.class)
+                .run("--credit.sharding.urls=" + urls,
+                     "--server.port=0",
+                     "--spring.jpa.show-sql=false",
+                     "--logging.level.com.inghub.credit=WARN",
+                     "--logging.level.org.hibernate=WARN",
+                     "--credit.outbox.relay.enabled=false",
+                     "--credit.archive.enabled=false");
+        loanService = context.getBean(LoanService.class);
+
+        ShardRouter shardRouter = context.getBean(ShardRouter.class);
+        ShardRoutingDataSource dataSource = (ShardRoutingDataSource) context.getBean(DataSource.class);
+        for (long customerId = 2; customerId < CUSTOMERS + 2; customerId++) {
+            new JdbcTemplate(dataSource.getResolvedDataSources().get(shardRouter.shardOfCustomer(customerId)))
+                    .update("INSERT INTO customer VALUES (?, CURRENT_TIMESTAMP, NULL, 'name', 'surname', 1000000000.00, 0.00)", customerId);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long createLoan() {
+        long customerId = 2 + ThreadLocalRandom.current().nextInt(CUSTOMERS);
+        return loanService.saveLoan(customerId, LOAN_AMOUNT, 12, INTEREST_RATE).getId();
+    }
+}
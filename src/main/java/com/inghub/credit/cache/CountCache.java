@@ -0,0 +1,95 @@
+package com.inghub.credit.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+//Row counts of listings, grouped by the owner whose writes change them (a customer for loans, a loan for installments).
+//invalidate(owner) drops every count of the owner. A count is only stored if no invalidation of its owner happened
+//since generation(owner) was read before the count query, so a count read before a write committed is never kept.
+//Memory is bounded: at most maxOwners owners with maxCountsPerOwner counts each, further counts are not cached.
+public class CountCache<K> {
+
+    //generations are striped instead of kept per owner, an invalidation of one owner only costs its stripe a store
+    private static final int GENERATION_STRIPES = 64;
+
+    private final int maxOwners;
+    private final int maxCountsPerOwner;
+    private final Map<Long, Map<K, Long>> counts = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public CountCache(String operation, int maxOwners, int maxCountsPerOwner, MeterRegistry meterRegistry) {
+        this.maxOwners = maxOwners;
+        this.maxCountsPerOwner = maxCountsPerOwner;
+        this.hitCounter = meterRegistry.counter("credit.count.cache", "operation", operation, "outcome", "hit");
+        this.missCounter = meterRegistry.counter("credit.count.cache", "operation", operation, "outcome", "miss");
+    }
+
+    //read before the queries whose count may be stored with put
+    public long generation(long owner) {
+        return generations.get(stripe(owner));
+    }
+
+    //cached count, or counter's result which is then cached
+    public long get(long owner, K key, long generation, LongSupplier counter) {
+        Long count = find(owner, key);
+        if (count != null) {
+            return count;
+        }
+        long counted = counter.getAsLong();
+        put(owner, key, generation, counted);
+        return counted;
+    }
+
+    //cached count or null, for callers that run the count query themselves and put its result
+    public Long find(long owner, K key) {
+        Map<K, Long> ownerCounts = counts.get(owner);
+        Long count = ownerCounts == null ? null : ownerCounts.get(key);
+        if (count != null) {
+            hitCounter.increment();
+        } else {
+            missCounter.increment();
+        }
+        return count;
+    }
+
+    public void put(long owner, K key, long generation, long count) {
+        if (generation(owner) != generation || (!counts.containsKey(owner) && counts.size() >= maxOwners)) {
+            return;
+        }
+        Map<K, Long> ownerCounts = counts.computeIfAbsent(owner, id -> new ConcurrentHashMap<>());
+        if (ownerCounts.size() < maxCountsPerOwner || ownerCounts.containsKey(key)) {
+            ownerCounts.put(key, count);
+        }
+        //an invalidation between the check above and the put must not leave the count behind
+        if (generation(owner) != generation) {
+            counts.remove(owner);
+        }
+    }
+
+    public void invalidate(long owner) {
+        generations.incrementAndGet(stripe(owner));
+        counts.remove(owner);
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        counts.clear();
+    }
+
+    int size() {
+        return counts.values().stream().mapToInt(Map::size).sum();
+    }
+
+    private static int stripe(long owner) {
+        return (int) (owner & (GENERATION_STRIPES - 1));
+    }
+}
@@ -0,0 +1,131 @@
+package com.inghub.credit.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Serialized responses of listings, grouped by the owner whose writes change them like CountCache: invalidate(owner)
+//drops every response of the owner, and a response is only stored if its owner was not invalidated since
+//generation(owner) was read before the request was handled. Memory is bounded by maxBytes of bodies in total,
+//maxEntriesPerOwner responses per owner and maxOwners owners; responses beyond the bounds are not cached.
+public class ResponseCache {
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final int maxOwners;
+    private final int maxEntriesPerOwner;
+    private final long maxBytes;
+    private final Map<Long, OwnerEntries> entries = new ConcurrentHashMap<>();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong bytes = new AtomicLong();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public ResponseCache(String listing, int maxOwners, int maxEntriesPerOwner, long maxBytes, MeterRegistry meterRegistry) {
+        this.maxOwners = maxOwners;
+        this.maxEntriesPerOwner = maxEntriesPerOwner;
+        this.maxBytes = maxBytes;
+        this.hitCounter = meterRegistry.counter("credit.response.cache", "listing", listing, "outcome", "hit");
+        this.missCounter = meterRegistry.counter("credit.response.cache", "listing", listing, "outcome", "miss");
+        Gauge.builder("credit.response.cache.bytes", bytes, AtomicLong::get).tag("listing", listing).register(meterRegistry);
+    }
+
+    //read before the request whose response may be stored with put
+    public long generation(long owner) {
+        return generations.get(stripe(owner));
+    }
+
+    //null when not cached
+    public CachedResponse get(long owner, String key) {
+        OwnerEntries ownerEntries = entries.get(owner);
+        CachedResponse response = ownerEntries == null ? null : ownerEntries.get(key);
+        if (response != null) {
+            hitCounter.increment();
+        } else {
+            missCounter.increment();
+        }
+        return response;
+    }
+
+    public void put(long owner, String key, long generation, CachedResponse response) {
+        if (generation(owner) != generation || bytes.get() + response.body().length > maxBytes
+            || (!entries.containsKey(owner) && entries.size() >= maxOwners)) {
+            return;
+        }
+        OwnerEntries ownerEntries = entries.computeIfAbsent(owner, id -> new OwnerEntries());
+        ownerEntries.put(key, response);
+        //an invalidation between the check above and the put must not leave the response behind
+        if (generation(owner) != generation) {
+            remove(owner);
+        }
+    }
+
+    public void invalidate(long owner) {
+        generations.incrementAndGet(stripe(owner));
+        remove(owner);
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        entries.keySet().forEach(this::remove);
+    }
+
+    public long bytes() {
+        return bytes.get();
+    }
+
+    int size() {
+        return entries.values().stream().mapToInt(OwnerEntries::size).sum();
+    }
+
+    private void remove(long owner) {
+        OwnerEntries removed = entries.remove(owner);
+        if (removed != null) {
+            removed.close();
+        }
+    }
+
+    private static int stripe(long owner) {
+        return (int) (owner & (GENERATION_STRIPES - 1));
+    }
+
+    public record CachedResponse(String contentType, byte[] body) {
+    }
+
+    //responses of one owner, closed once removed so a put racing with the removal neither lands nor leaks bytes
+    private class OwnerEntries {
+
+        private final Map<String, CachedResponse> responses = new HashMap<>();
+        private boolean closed;
+
+        synchronized CachedResponse get(String key) {
+            return responses.get(key);
+        }
+
+        synchronized void put(String key, CachedResponse response) {
+            if (closed || (responses.size() >= maxEntriesPerOwner && !responses.containsKey(key))) {
+                return;
+            }
+            CachedResponse previous = responses.put(key, response);
+            bytes.addAndGet(response.body().length - (previous == null ? 0 : previous.body().length));
+        }
+
+        synchronized int size() {
+            return responses.size();
+        }
+
+        synchronized void close() {
+            closed = true;
+            bytes.addAndGet(-responses.values().stream().mapToLong(response -> response.body().length).sum());
+            responses.clear();
+        }
+    }
+}
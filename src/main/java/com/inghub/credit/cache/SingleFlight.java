@@ -0,0 +1,76 @@
+package com.inghub.credit.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+//Concurrent calls with an equal key share one execution: the first caller runs the supplier, the others wait for
+//its result. With a window > 0 the result is also handed to calls arriving up to window after it completed.
+//Failures are never shared with later calls.
+public class SingleFlight<K, V> {
+
+    private final Duration window;
+    private final Map<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+    private final Counter executedCounter;
+    private final Counter coalescedCounter;
+
+    public SingleFlight(String operation, Duration window, MeterRegistry meterRegistry) {
+        this.window = window;
+        this.executedCounter = meterRegistry.counter("credit.coalescing.calls", "operation", operation, "outcome", "executed");
+        this.coalescedCounter = meterRegistry.counter("credit.coalescing.calls", "operation", operation, "outcome", "coalesced");
+    }
+
+    public V execute(K key, Supplier<V> supplier) {
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> existing = calls.putIfAbsent(key, call);
+        if (existing != null) {
+            coalescedCounter.increment();
+            return join(existing);
+        }
+
+        executedCounter.increment();
+        try {
+            V value = supplier.get();
+            call.complete(value);
+            release(key, call);
+            return value;
+        } catch (RuntimeException | Error e) {
+            calls.remove(key, call);
+            call.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int size() {
+        return calls.size();
+    }
+
+    private void release(K key, CompletableFuture<V> call) {
+        if (window.isZero()) {
+            calls.remove(key, call);
+        } else {
+            CompletableFuture.delayedExecutor(window.toNanos(), TimeUnit.NANOSECONDS).execute(() -> calls.remove(key, call));
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
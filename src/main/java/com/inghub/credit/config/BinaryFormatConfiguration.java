@@ -0,0 +1,95 @@
+package com.inghub.credit.config;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.Annotated;
+import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+//Compact encodings for service-to-service callers, selected with "Accept: application/cbor" or "application/x-jackson-smile".
+//Same field names as the JSON records, but dates are epoch values instead of formatted strings:
+//LocalDate -> epoch day, LocalDateTime and Date -> epoch milliseconds (server time zone).
+@Configuration
+public class BinaryFormatConfiguration {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(cborObjectMapper());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(smileObjectMapper());
+    }
+
+    public static ObjectMapper cborObjectMapper() {
+        return configure(Jackson2ObjectMapperBuilder.cbor()).build();
+    }
+
+    public static ObjectMapper smileObjectMapper() {
+        return configure(Jackson2ObjectMapperBuilder.smile()).build();
+    }
+
+    private static Jackson2ObjectMapperBuilder configure(Jackson2ObjectMapperBuilder builder) {
+        return builder.annotationIntrospector(new EpochDateAnnotationIntrospector())
+                .modules(epochDateModule())
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static SimpleModule epochDateModule() {
+        SimpleModule module = new SimpleModule("EpochDateModule");
+        module.addSerializer(LocalDate.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(LocalDate value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                generator.writeNumber(value.toEpochDay());
+            }
+        });
+        module.addSerializer(LocalDateTime.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(LocalDateTime value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                generator.writeNumber(value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        });
+        module.addDeserializer(LocalDate.class, new JsonDeserializer<>() {
+            @Override
+            public LocalDate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return LocalDate.ofEpochDay(parser.getLongValue());
+            }
+        });
+        module.addDeserializer(LocalDateTime.class, new JsonDeserializer<>() {
+            @Override
+            public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return LocalDateTime.ofInstant(Instant.ofEpochMilli(parser.getLongValue()), ZoneId.systemDefault());
+            }
+        });
+        return module;
+    }
+
+    //@JsonFormat patterns on the records are meant for JSON, ignore them so dates stay numeric
+    private static class EpochDateAnnotationIntrospector extends JacksonAnnotationIntrospector {
+
+        @Override
+        public JsonFormat.Value findFormat(Annotated annotated) {
+            JsonFormat.Value format = super.findFormat(annotated);
+            return (format != null && format.hasPattern()) ? null : format;
+        }
+    }
+}
@@ -1,20 +1,52 @@
 package com.inghub.credit.config;
 
 
+import com.inghub.credit.datasource.ShardContext;
+import com.inghub.credit.datasource.ShardRouter;
+import com.inghub.credit.datasource.ShardRoutingDataSource;
+import com.inghub.credit.snapshot.DatabaseSnapshots;
+import com.inghub.credit.snapshot.SnapshotMode;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+//One pool per shard behind a routing DataSource. credit.sharding.urls lists the shard databases,
+//without it the application runs on a single shard at spring.datasource.url.
+//With credit.snapshot.directory the shards start from a snapshot (see DatabaseSnapshots) instead of running
+//schema.sql and data.sql.
+@Slf4j
 @Configuration
+@EnableConfigurationProperties(SqlInitializationProperties.class)
 public class DataSourceConfiguration {
 
+    //customer of data.sql, the seed rows go to its shard
+    private static final long SEED_CUSTOMER_ID = 1L;
+
     @Value("${spring.datasource.url}")
     private String url;
 
+    @Value("${credit.sharding.urls:}")
+    private List<String> shardUrls;
+
     @Value("${spring.datasource.username}")
     private String username;
 
@@ -27,22 +59,133 @@ public class DataSourceConfiguration {
     @Value("${spring.datasource.poolName}")
     private String poolName;
 
+    //shared by requests and jobs, independent of credit.limiter.pool-wait-threshold-ms which sheds writes early
+    @Value("${credit.datasource.connection-timeout-ms:30000}")
+    private long connectionTimeoutMs;
+
+    @Value("${credit.snapshot.directory:}")
+    private String snapshotDirectory;
+
+    @Value("${credit.snapshot.mode:file}")
+    private String snapshotMode;
+
+    @Value("${credit.snapshot.work-directory:${java.io.tmpdir}/credit-snapshot-work}")
+    private String snapshotWorkDirectory;
+
+    @Bean
+    public ShardRouter shardRouter() {
+        return new ShardRouter(getShardUrls().size());
+    }
+
     @Bean
     public DataSource dataSource() {
-        return new HikariDataSource(hikariConfig());
+        List<String> urls = getShardUrls();
+        SnapshotMode mode = StringUtils.isBlank(snapshotDirectory) ? null : SnapshotMode.of(snapshotMode);
+        if (mode == SnapshotMode.FILE) {
+            urls = copySnapshot(urls.size());
+        }
+        Map<Object, Object> shardDataSources = new HashMap<>();
+        for (int shard = 0; shard < urls.size(); shard++) {
+            String shardPoolName = urls.size() == 1 ? poolName : poolName + "-" + shard;
+            HikariDataSource shardDataSource = new HikariDataSource(hikariConfig(urls.get(shard), shardPoolName));
+            if (mode == SnapshotMode.SCRIPT) {
+                long start = System.nanoTime();
+                DatabaseSnapshots.load(shardDataSource, Path.of(snapshotDirectory), shard);
+                log.info("Shard {} loaded from snapshot {} in {} ms", shard, snapshotDirectory, (System.nanoTime() - start) / 1_000_000);
+            }
+            shardDataSources.put(shard, shardDataSource);
+        }
+        ShardRoutingDataSource dataSource = new ShardRoutingDataSource();
+        dataSource.setTargetDataSources(shardDataSources);
+        dataSource.setDefaultTargetDataSource(shardDataSources.get(0));
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    //schema.sql and data.sql on the shard of the seed customer, replaces the auto-configured initializer
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptDatabaseInitializer(DataSource dataSource, ShardRouter shardRouter,
+                                                                                      SqlInitializationProperties properties) {
+        DataSource seedShard = ((ShardRoutingDataSource) dataSource).getResolvedDataSources().get(shardRouter.shardOfCustomer(SEED_CUSTOMER_ID));
+        DatabaseInitializationSettings settings = SqlDataSourceScriptDatabaseInitializer.getSettings(properties);
+        settings.setMode(initializationMode(properties));
+        return new SqlDataSourceScriptDatabaseInitializer(seedShard, settings);
+    }
+
+    //schema.sql only on every other shard
+    @Bean
+    public DataSourceScriptDatabaseInitializer shardSchemaInitializer(DataSource dataSource, ShardRouter shardRouter,
+                                                                      SqlInitializationProperties properties) {
+        DatabaseInitializationSettings settings = new DatabaseInitializationSettings();
+        settings.setSchemaLocations(properties.getSchemaLocations() != null ? properties.getSchemaLocations() : List.of("optional:classpath*:schema.sql"));
+        settings.setContinueOnError(properties.isContinueOnError());
+        settings.setSeparator(properties.getSeparator());
+        settings.setEncoding(properties.getEncoding());
+        settings.setMode(initializationMode(properties));
+        int seedShard = shardRouter.shardOfCustomer(SEED_CUSTOMER_ID);
+        return new DataSourceScriptDatabaseInitializer(dataSource, settings) {
+            @Override
+            protected void runScripts(Scripts scripts) {
+                for (int shard : shardRouter.shards()) {
+                    if (shard != seedShard) {
+                        ShardContext.runInShard(shard, () -> super.runScripts(scripts));
+                    }
+                }
+            }
+        };
+    }
+
+    //loan ids of shard s are s, s + n, s + 2n...: restart every identity on the next free id of its residue
+    @Bean
+    public SmartInitializingSingleton shardLoanIdAligner(DataSource dataSource, ShardRouter shardRouter) {
+        return () -> {
+            int shardCount = shardRouter.shardCount();
+            if (shardCount == 1) {
+                return;
+            }
+            for (int shard : shardRouter.shards()) {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(((ShardRoutingDataSource) dataSource).getResolvedDataSources().get(shard));
+                Long maxId = jdbcTemplate.queryForObject("SELECT GREATEST(COALESCE((SELECT MAX(id) FROM loan), 0), " +
+                                                                 "COALESCE((SELECT MAX(id) FROM loan_archive), 0))", Long.class);
+                long nextId = maxId + 1 + Math.floorMod(shard - (maxId + 1), shardCount);
+                jdbcTemplate.execute("ALTER TABLE loan ALTER COLUMN id RESTART WITH " + nextId + " SET INCREMENT BY " + shardCount);
+                log.info("Shard {} hands out loan ids from {} in steps of {}", shard, nextId, shardCount);
+            }
+        };
+    }
+
+    //a snapshot already holds schema and data, the shared properties stay as configured
+    private DatabaseInitializationMode initializationMode(SqlInitializationProperties properties) {
+        return StringUtils.isNotBlank(snapshotDirectory) ? DatabaseInitializationMode.NEVER : properties.getMode();
+    }
+
+    //every start takes a fresh copy into the work directory, so the disk use is one copy of the snapshot
+    private List<String> copySnapshot(int shardCount) {
+        List<String> urls = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            String copyUrl = DatabaseSnapshots.copy(Path.of(snapshotDirectory), shard, Path.of(snapshotWorkDirectory));
+            log.info("Shard {} opens snapshot copy {}", shard, copyUrl);
+            urls.add(copyUrl);
+        }
+        return urls;
+    }
+
+    private List<String> getShardUrls() {
+        List<String> urls = shardUrls == null ? List.of() : shardUrls.stream().filter(StringUtils::isNotBlank).toList();
+        return urls.isEmpty() ? List.of(url) : urls;
     }
 
-    private HikariConfig hikariConfig() {
+    private HikariConfig hikariConfig(String jdbcUrl, String shardPoolName) {
         HikariConfig config = new HikariConfig();
         config.setDriverClassName(driverClassName);
-        config.setJdbcUrl(url);
+        config.setJdbcUrl(jdbcUrl);
         config.setUsername(username);
         config.setPassword(password);
-        config.setPoolName(poolName);
-        config.setConnectionTimeout(150 * 1000);
+        config.setPoolName(shardPoolName);
+        config.setConnectionTimeout(connectionTimeoutMs);
         config.addDataSourceProperty("cachePrepStmts", "true");
         config.addDataSourceProperty("prepStmtCacheSize", "250");
         config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
         return config;
     }
-}
\ No newline at end of file
+}
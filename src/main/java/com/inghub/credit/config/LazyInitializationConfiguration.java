@@ -0,0 +1,19 @@
+package com.inghub.credit.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class LazyInitializationConfiguration {
+
+    private static final String APPLICATION_PACKAGE = "com.inghub.credit";
+
+    //Only takes effect when spring.main.lazy-initialization is on (fast profile).
+    //Credit module beans stay eager, which also pulls the DataSource and JPA stack they depend on,
+    //so the first request does not pay for them. springdoc, Swagger UI and other infrastructure stay lazy.
+    @Bean
+    public static LazyInitializationExcludeFilter creditModuleBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType.getPackageName().startsWith(APPLICATION_PACKAGE);
+    }
+}
@@ -0,0 +1,24 @@
+package com.inghub.credit.config;
+
+import com.inghub.credit.service.ListingResponseCache;
+import com.inghub.credit.web.ListingResponseCacheFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//Disabled, listings always reach the controller and nothing is stored in ListingResponseCache.
+@Configuration
+@ConditionalOnProperty(name = "credit.response-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ListingResponseCacheConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<ListingResponseCacheFilter> listingResponseCacheFilter(ListingResponseCache listingResponseCache) {
+        FilterRegistrationBean<ListingResponseCacheFilter> registration = new FilterRegistrationBean<>(new ListingResponseCacheFilter(listingResponseCache));
+        registration.addUrlPatterns("/api/v1/loans/*");
+        //after authentication
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,88 @@
+package com.inghub.credit.config;
+
+import com.inghub.credit.domain.AbstractEntity;
+import com.inghub.credit.domain.Customer;
+import com.inghub.credit.domain.Loan;
+import com.inghub.credit.domain.LoanInstallment;
+import com.inghub.credit.domain.LoanInstallmentView;
+import com.inghub.credit.domain.LoanView;
+import com.inghub.credit.domain.OutboxEvent;
+import com.inghub.credit.exception.BindingErrorMessage;
+import com.inghub.credit.exception.BindingErrorsResponse;
+import com.inghub.credit.exception.ErrorResponse;
+import com.inghub.credit.request.CreateLoanRequest;
+import com.inghub.credit.request.PayLoanRequest;
+import com.inghub.credit.response.ApiModelPage;
+import com.inghub.credit.response.CreateLoanResponse;
+import com.inghub.credit.response.ListChangesResponse;
+import com.inghub.credit.response.ListLoanInstallmentsResponse;
+import com.inghub.credit.response.ListLoanResponse;
+import com.inghub.credit.response.PayLoanResponse;
+import com.inghub.credit.response.dto.LoanDTO;
+import com.inghub.credit.response.dto.LoanInstallmentChangeDTO;
+import com.inghub.credit.response.dto.LoanInstallmentDTO;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+
+//Reachability metadata for the native image (mvn -Pnative native:compile).
+@Configuration
+@ImportRuntimeHints(NativeHintsConfiguration.CreditRuntimeHints.class)
+public class NativeHintsConfiguration {
+
+    static class CreditRuntimeHints implements RuntimeHintsRegistrar {
+
+        private static final List<Class<?>> ENTITIES = List.of(AbstractEntity.class, Customer.class, Loan.class, LoanInstallment.class,
+                                                                LoanView.class, LoanInstallmentView.class, OutboxEvent.class);
+
+        private static final List<Class<?>> JSON_TYPES = List.of(CreateLoanRequest.class, PayLoanRequest.class,
+                                                                 ApiModelPage.class, CreateLoanResponse.class, ListLoanResponse.class,
+                                                                 ListLoanInstallmentsResponse.class, PayLoanResponse.class, ListChangesResponse.class,
+                                                                 LoanDTO.class, LoanInstallmentDTO.class, LoanInstallmentChangeDTO.class,
+                                                                 ErrorResponse.class, BindingErrorMessage.class, BindingErrorsResponse.class);
+
+        //Loaded by name from application.yml / HikariConfig
+        private static final List<String> JDBC_TYPES = List.of("org.h2.Driver", "org.hibernate.dialect.H2Dialect");
+
+        //JDK proxies created by TimedConnectionProxy while a request is timed
+        private static final List<Class<?>> JDBC_PROXY_TYPES = List.of(Connection.class, Statement.class, PreparedStatement.class,
+                                                                       CallableStatement.class);
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            //Lombok generated accessors and the attribute names used by LoanSpecification's criteria lambdas
+            //("customer", "loanAmount", ...) are resolved reflectively by Hibernate. The lambdas themselves need no hints.
+            for (Class<?> entity : ENTITIES) {
+                hints.reflection().registerType(entity, MemberCategory.DECLARED_FIELDS,
+                                                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                                                MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+
+            //Jackson records of request/response and error payloads
+            BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+            bindingRegistrar.registerReflectionHints(hints.reflection(), JSON_TYPES.toArray(new Class<?>[0]));
+
+            for (String type : JDBC_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+
+            for (Class<?> type : JDBC_PROXY_TYPES) {
+                hints.proxies().registerJdkProxy(type);
+            }
+
+            hints.resources().registerPattern("schema.sql");
+            hints.resources().registerPattern("data.sql");
+            hints.resources().registerPattern("logback.xml");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.inghub.credit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inghub.credit.event.FileOutboxEventSink;
+import com.inghub.credit.event.InMemoryOutboxEventSink;
+import com.inghub.credit.event.OutboxEventSink;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class OutboxConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "credit.outbox.sink", havingValue = "file", matchIfMissing = true)
+    public OutboxEventSink fileOutboxEventSink(@Value("${credit.outbox.file}") String file, ObjectMapper objectMapper) {
+        return new FileOutboxEventSink(Path.of(file), objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "credit.outbox.sink", havingValue = "memory")
+    public InMemoryOutboxEventSink inMemoryOutboxEventSink() {
+        return new InMemoryOutboxEventSink();
+    }
+}
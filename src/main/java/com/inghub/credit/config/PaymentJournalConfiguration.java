@@ -0,0 +1,38 @@
+package com.inghub.credit.config;
+
+import com.inghub.credit.journal.FsyncPolicy;
+import com.inghub.credit.journal.MappedPaymentJournal;
+import com.inghub.credit.journal.PaymentJournal;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+
+//Opt-in: the journal directory belongs to one instance and its database, so it has no shared default.
+@Configuration
+public class PaymentJournalConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "credit.journal.enabled", havingValue = "true")
+    public MappedPaymentJournal mappedPaymentJournal(@Value("${credit.journal.directory:}") String directory,
+                                                     @Value("${credit.journal.segment-records:4096}") int segmentRecords,
+                                                     @Value("${credit.journal.fsync:always}") String fsync,
+                                                     Clock clock, MeterRegistry meterRegistry) throws IOException {
+        if (StringUtils.isBlank(directory)) {
+            throw new IllegalArgumentException("credit.journal.directory is required when credit.journal.enabled is true");
+        }
+        return new MappedPaymentJournal(Path.of(directory), segmentRecords, FsyncPolicy.of(fsync), clock, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "credit.journal.enabled", havingValue = "false", matchIfMissing = true)
+    public PaymentJournal noPaymentJournal() {
+        return PaymentJournal.NONE;
+    }
+}
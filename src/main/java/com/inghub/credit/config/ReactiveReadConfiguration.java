@@ -0,0 +1,89 @@
+package com.inghub.credit.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inghub.credit.datasource.ShardRouter;
+import com.inghub.credit.datasource.ShardRoutingDataSource;
+import com.inghub.credit.reactive.ReactiveLoanHandler;
+import com.inghub.credit.reactive.ReactiveLoanReadService;
+import com.inghub.credit.reactive.ReactiveLoanRepository;
+import com.inghub.credit.reactive.ReactiveReadServer;
+import com.inghub.credit.reactive.ReactiveShardConnections;
+import com.inghub.credit.service.LoanCountService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authorization.AuthenticatedReactiveAuthorizationManager;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authorization.AuthorizationWebFilter;
+import org.springframework.security.web.server.authorization.ExceptionTranslationWebFilter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+//Reactive read API on its own port: the loan and installment listings over WebFlux and R2DBC, next to the servlet API
+//whose endpoints stay unchanged. Off by default, it opens a second port and a second pool per shard.
+@Configuration
+@ConditionalOnProperty(name = "credit.reactive.enabled", havingValue = "true")
+public class ReactiveReadConfiguration {
+
+    @Bean
+    public ReactiveShardConnections reactiveShardConnections(DataSource dataSource, ShardRouter shardRouter, MeterRegistry meterRegistry,
+                                                             @Value("${credit.reactive.pool.initial-size:1}") int initialSize,
+                                                             @Value("${credit.reactive.pool.max-size:4}") int maxSize,
+                                                             @Value("${credit.reactive.pool.max-acquire-time-ms:5000}") long maxAcquireTimeMs) {
+        ShardRoutingDataSource routingDataSource = (ShardRoutingDataSource) dataSource;
+        List<HikariDataSource> shardDataSources = Arrays.stream(shardRouter.shards())
+                .mapToObj(shard -> (HikariDataSource) routingDataSource.getResolvedDataSources().get(shard))
+                .toList();
+        return new ReactiveShardConnections(shardDataSources, initialSize, maxSize, Duration.ofMillis(maxAcquireTimeMs), meterRegistry);
+    }
+
+    @Bean
+    public ReactiveLoanReadService reactiveLoanReadService(ReactiveShardConnections reactiveShardConnections, ShardRouter shardRouter,
+                                                           LoanCountService loanCountService) {
+        return new ReactiveLoanReadService(new ReactiveLoanRepository(reactiveShardConnections, shardRouter), loanCountService);
+    }
+
+    @Bean
+    public ReactiveReadServer reactiveReadServer(ReactiveLoanReadService reactiveLoanReadService, ObjectMapper objectMapper,
+                                                 UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                                 @Value("${credit.reactive.port:8081}") int port) {
+        //the ObjectMapper of the servlet API, so both render the same JSON
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .webFilter(authenticationFilter(userDetailsService, passwordEncoder))
+                .webFilter(new ExceptionTranslationWebFilter())
+                .webFilter(new AuthorizationWebFilter(AuthenticatedReactiveAuthorizationManager.authenticated()))
+                .build();
+        ReactiveLoanHandler handler = new ReactiveLoanHandler(reactiveLoanReadService);
+        return new ReactiveReadServer(port, RouterFunctions.toHttpHandler(handler.routes(), strategies));
+    }
+
+    //HTTP Basic against the users of SecurityConfig, every request of the reactive API must be authenticated.
+    //The password check runs on the bounded elastic scheduler, not on the event loop.
+    private static AuthenticationWebFilter authenticationFilter(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+        ReactiveUserDetailsService reactiveUserDetailsService = username -> Mono.fromCallable(() -> userDetailsService.loadUserByUsername(username))
+                .onErrorResume(UsernameNotFoundException.class, e -> Mono.empty());
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(reactiveUserDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        return new AuthenticationWebFilter(authenticationManager);
+    }
+}
@@ -0,0 +1,24 @@
+package com.inghub.credit.config;
+
+import com.inghub.credit.reminder.InMemoryReminderSink;
+import com.inghub.credit.reminder.LoggingReminderSink;
+import com.inghub.credit.reminder.ReminderSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ReminderConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "credit.reminder.sink", havingValue = "log", matchIfMissing = true)
+    public ReminderSink loggingReminderSink() {
+        return new LoggingReminderSink();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "credit.reminder.sink", havingValue = "memory")
+    public InMemoryReminderSink inMemoryReminderSink() {
+        return new InMemoryReminderSink();
+    }
+}
@@ -0,0 +1,34 @@
+package com.inghub.credit.config;
+
+import com.inghub.credit.timing.RepositoryTimingAspect;
+import com.inghub.credit.timing.RequestTimingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+//Disabled, neither the filter nor the aspect exist and no request carries RequestTimings.
+@Configuration
+@ConditionalOnProperty(name = "credit.timing.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestTimingConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<RequestTimingFilter> requestTimingFilter(MeterRegistry meterRegistry,
+                                                                           @Value("${credit.timing.slow-request-ms:500}") long slowRequestMillis,
+                                                                           @Value("${credit.timing.sample-rate:0.01}") double sampleRate,
+                                                                           @Value("${credit.timing.statement-budget:20}") int statementBudget) {
+        RequestTimingFilter filter = new RequestTimingFilter(slowRequestMillis, sampleRate, statementBudget, meterRegistry);
+        FilterRegistrationBean<RequestTimingFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    public RepositoryTimingAspect repositoryTimingAspect() {
+        return new RepositoryTimingAspect();
+    }
+}
@@ -0,0 +1,44 @@
+package com.inghub.credit.config;
+
+import com.inghub.credit.datasource.ShardRoutingDataSource;
+import com.inghub.credit.web.TokenBucketRateLimiter;
+import com.inghub.credit.web.WriteAdmissionInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfiguration implements WebMvcConfigurer {
+
+    private final ObjectProvider<WriteAdmissionInterceptor> writeAdmissionInterceptor;
+
+    @Bean
+    @ConditionalOnProperty(name = "credit.limiter.enabled", havingValue = "true", matchIfMissing = true)
+    public WriteAdmissionInterceptor writeAdmissionInterceptor(DataSource dataSource, MeterRegistry meterRegistry,
+                                                               @Value("${credit.limiter.rate.permits-per-second:20}") double permitsPerSecond,
+                                                               @Value("${credit.limiter.rate.burst:40}") int burst,
+                                                               @Value("${credit.limiter.concurrency.initial-limit:20}") int initialLimit,
+                                                               @Value("${credit.limiter.concurrency.min-limit:2}") int minLimit,
+                                                               @Value("${credit.limiter.concurrency.max-limit:100}") int maxLimit,
+                                                               @Value("${credit.limiter.pool-wait-threshold-ms:100}") long poolWaitThresholdMillis,
+                                                               @Value("${credit.limiter.max-waiting-threads:20}") int maxWaitingThreads,
+                                                               @Value("${credit.limiter.retry-after-seconds:1}") long retryAfterSeconds) {
+        return new WriteAdmissionInterceptor(new TokenBucketRateLimiter(permitsPerSecond, burst, System::nanoTime),
+                                             ((ShardRoutingDataSource) dataSource).getConnectionWaitMonitor(), meterRegistry,
+                                             initialLimit, minLimit, maxLimit, poolWaitThresholdMillis, maxWaitingThreads, retryAfterSeconds);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        writeAdmissionInterceptor.ifAvailable(registry::addInterceptor);
+    }
+}
@@ -8,4 +8,8 @@ public class ConstantValues {
     public static final List<Integer> VALID_INSTALLMENT_NUMBERS = List.of(6, 9, 12, 24);
     public static final BigDecimal VALID_INTEREST_RATE_RANGE_MIN = new BigDecimal("0.1");
     public static final BigDecimal VALID_INTEREST_RATE_RANGE_MAX = new BigDecimal("0.5");
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_CHANGE_LIMIT = 500;
+    public static final int MAX_CHANGE_LIMIT = 1000;
 }
@@ -0,0 +1,30 @@
+package com.inghub.credit.controller;
+
+import com.inghub.credit.response.ListChangesResponse;
+import com.inghub.credit.service.ChangeFeedService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RequestMapping("/api/v1")
+@RestController
+@RequiredArgsConstructor
+public class ChangeController {
+
+    private final ChangeFeedService changeFeedService;
+
+    //loans and installments of a shard modified after the cursor, pass nextCursor of the response to continue
+    @GetMapping("/changes")
+    public ResponseEntity<ListChangesResponse> getChanges(@RequestParam(value = "shard", defaultValue = "0") int shard,
+                                                          @Valid @RequestParam(value = "since", required = false) String since,
+                                                          @Valid @RequestParam(value = "limit", required = false) Integer limit) {
+
+        ListChangesResponse changes = changeFeedService.findChanges(shard, since, limit);
+        return new ResponseEntity<>(changes, HttpStatus.OK);
+    }
+}
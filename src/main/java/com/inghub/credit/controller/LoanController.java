@@ -1,16 +1,22 @@
 package com.inghub.credit.controller;
 
+import com.inghub.credit.repository.LoanSearchCriteria;
+import com.inghub.credit.repository.page.CountMode;
 import com.inghub.credit.request.CreateLoanRequest;
+import com.inghub.credit.request.PayCustomerLoansRequest;
 import com.inghub.credit.request.PayLoanRequest;
 import com.inghub.credit.response.CreateLoanResponse;
 import com.inghub.credit.response.ListLoanInstallmentsResponse;
 import com.inghub.credit.response.ListLoanResponse;
+import com.inghub.credit.response.PayCustomerLoansResponse;
 import com.inghub.credit.response.PayLoanResponse;
-import com.inghub.credit.service.LoanInstallmentService;
 import com.inghub.credit.service.LoanPaymentService;
+import com.inghub.credit.service.LoanQueryCoalescingService;
 import com.inghub.credit.service.LoanService;
+import com.inghub.credit.web.RateLimited;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindException;
@@ -19,6 +25,8 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 
 @RequestMapping("/api/v1")
 @RestController
@@ -26,36 +34,52 @@ import java.math.BigDecimal;
 public class LoanController {
 
     private final LoanService loanService;
-    private final LoanInstallmentService loanInstallmentService;
     private final LoanPaymentService loanPaymentService;
+    private final LoanQueryCoalescingService loanQueryCoalescingService;
 
 
     //list loans of customer
     @GetMapping("/loans")
     public ResponseEntity<ListLoanResponse> getLoansOfCustomer(@Valid @RequestParam("customerId") Long customerId,
                                                                @Valid @RequestParam(value = "loanAmount", required = false) BigDecimal loanAmount,
-                                                               @Valid @RequestParam(value = "installmentCount", required = false) Integer installmentCount,
+                                                               @RequestParam(value = "minLoanAmount", required = false) BigDecimal minLoanAmount,
+                                                               @RequestParam(value = "maxLoanAmount", required = false) BigDecimal maxLoanAmount,
+                                                               //installmentCount=6,12 or installmentCount=6&installmentCount=12
+                                                               @Valid @RequestParam(value = "installmentCount", required = false) List<Integer> installmentCounts,
                                                                @Valid @RequestParam(value = "isPaid", required = false) Boolean paid,
+                                                               @RequestParam(value = "createdFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdFrom,
+                                                               @RequestParam(value = "createdTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate createdTo,
+                                                               @RequestParam(value = "minInterestRate", required = false) BigDecimal minInterestRate,
+                                                               @RequestParam(value = "maxInterestRate", required = false) BigDecimal maxInterestRate,
+                                                               @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived,
+                                                               @RequestParam(value = "count", required = false) String count,
                                                                @Valid @RequestParam(value = "pageSize", required = false) Integer pageSize,
                                                                @Valid @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
                                                                @Valid @RequestParam(value = "sort", required = false) String sort) {
 
-        ListLoanResponse loans = loanService.searchLoansByCustomerId(customerId, loanAmount, installmentCount, paid, pageSize, pageNumber, sort);
+        LoanSearchCriteria criteria = new LoanSearchCriteria(loanAmount, minLoanAmount, maxLoanAmount, installmentCounts, paid,
+                                                             createdFrom, createdTo, minInterestRate, maxInterestRate);
+        ListLoanResponse loans = loanQueryCoalescingService.searchLoansByCustomerId(customerId, criteria, includeArchived, CountMode.of(count),
+                                                                                        pageSize, pageNumber, sort);
         return new ResponseEntity<>(loans, HttpStatus.OK);
     }
 
     //list installments for loan
     @GetMapping("/loans/{loanId}/installments")
     public ResponseEntity<ListLoanInstallmentsResponse> getLoanInstallments(@PathVariable("loanId") Long loanId,
+                                                                            @RequestParam(value = "includeArchived", defaultValue = "false") boolean includeArchived,
+                                                                            @RequestParam(value = "count", required = false) String count,
                                                                             @Valid @RequestParam(value = "pageSize", required = false) Integer pageSize,
                                                                             @Valid @RequestParam(value = "pageNumber", required = false) Integer pageNumber,
                                                                             @Valid @RequestParam(value = "sort", required = false) String sort) {
 
-        ListLoanInstallmentsResponse loanInstallments = loanInstallmentService.searchLoanInstallmentsByLoanId(loanId, pageSize, pageNumber, sort);
+        ListLoanInstallmentsResponse loanInstallments = loanQueryCoalescingService.searchLoanInstallmentsByLoanId(loanId, includeArchived, CountMode.of(count),
+                                                                                                                  pageSize, pageNumber, sort);
         return new ResponseEntity<>(loanInstallments, HttpStatus.OK);
     }
 
     //create loan for customer
+    @RateLimited
     @PostMapping("/loans")
     public ResponseEntity<CreateLoanResponse> createLoan(@Valid @RequestBody CreateLoanRequest request, BindingResult bindingResult,
                                                          UriComponentsBuilder uriComponentsBuilder) throws BindException {
@@ -72,6 +96,7 @@ public class LoanController {
                 .body(response);
     }
 
+    @RateLimited
     @PostMapping("/loans/pay")
     public ResponseEntity<PayLoanResponse> payLoan(@Valid @RequestBody PayLoanRequest request, BindingResult bindingResult) throws BindException {
 
@@ -84,4 +109,19 @@ public class LoanController {
 
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
+
+    //one payment over the earliest dues of all open loans of the customer
+    @RateLimited
+    @PostMapping("/customers/{customerId}/pay")
+    public ResponseEntity<PayCustomerLoansResponse> payCustomerLoans(@PathVariable("customerId") Long customerId,
+                                                                     @Valid @RequestBody PayCustomerLoansRequest request,
+                                                                     BindingResult bindingResult) throws BindException {
+
+        if (bindingResult.hasErrors() || (request == null)) {
+            throw new BindException(bindingResult);
+        }
+
+        PayCustomerLoansResponse response = loanPaymentService.payCustomerLoans(customerId, request.paidAmount());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
 }
@@ -0,0 +1,69 @@
+package com.inghub.credit.datasource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+//How long getConnection() blocks on the pools: moving average of completed waits and the number of threads waiting now.
+//The average also halves every half-life without a completed wait, so a single long wait stops counting as congestion
+//after a few half-lives even when no request reaches the pools any more.
+//Lock-free: every checkout passes here, the average and its timestamp are swapped together as one immutable sample.
+public class ConnectionWaitMonitor {
+
+    //weight of the newest sample, 1/8
+    private static final int AVERAGE_SHIFT = 3;
+    private static final long DEFAULT_HALF_LIFE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long halfLifeNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+    private final AtomicReference<Sample> average;
+
+    public ConnectionWaitMonitor() {
+        this(DEFAULT_HALF_LIFE_NANOS, System::nanoTime);
+    }
+
+    public ConnectionWaitMonitor(long halfLifeNanos, LongSupplier nanoTime) {
+        if (halfLifeNanos <= 0) {
+            throw new IllegalArgumentException("halfLifeNanos must be greater than 0");
+        }
+        this.halfLifeNanos = halfLifeNanos;
+        this.nanoTime = nanoTime;
+        this.average = new AtomicReference<>(new Sample(0, nanoTime.getAsLong()));
+    }
+
+    public long beginWait() {
+        waitingThreads.incrementAndGet();
+        return nanoTime.getAsLong();
+    }
+
+    public void endWait(long startNanos) {
+        waitingThreads.decrementAndGet();
+        long now = nanoTime.getAsLong();
+        long waitNanos = now - startNanos;
+        Sample current;
+        Sample next;
+        do {
+            current = average.get();
+            double decayed = current.decayedNanos(now, halfLifeNanos);
+            next = new Sample(decayed + (waitNanos - decayed) / (1 << AVERAGE_SHIFT), Math.max(now, current.atNanos()));
+        } while (!average.compareAndSet(current, next));
+    }
+
+    public long getAverageWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis((long) average.get().decayedNanos(nanoTime.getAsLong(), halfLifeNanos));
+    }
+
+    public int getWaitingThreads() {
+        return waitingThreads.get();
+    }
+
+    private record Sample(double averageNanos, long atNanos) {
+
+        double decayedNanos(long now, long halfLifeNanos) {
+            long elapsedNanos = now - atNanos;
+            return elapsedNanos <= 0 ? averageNanos : averageNanos * Math.pow(0.5, (double) elapsedNanos / halfLifeNanos);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.inghub.credit.datasource;
+
+import java.util.function.Supplier;
+
+//Shard of the current thread, read by ShardRoutingDataSource when a connection is taken.
+//Set by ShardRoutingAspect for service calls, or explicitly by jobs that walk every shard.
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    public static <T> T callInShard(int shard, Supplier<T> action) {
+        Integer previous = enter(shard);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void runInShard(int shard, Runnable action) {
+        callInShard(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static Integer enter(int shard) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT_SHARD.remove();
+        } else {
+            CURRENT_SHARD.set(previous);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.inghub.credit.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//Marks the service method parameter that decides the shard of the call, see ShardRoutingAspect.
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+
+    Type value();
+
+    enum Type {
+        CUSTOMER,
+        LOAN,
+        SHARD
+    }
+}
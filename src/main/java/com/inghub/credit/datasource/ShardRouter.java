@@ -0,0 +1,42 @@
+package com.inghub.credit.datasource;
+
+import com.inghub.credit.exception.BadRequestException;
+
+import java.util.stream.IntStream;
+
+//Customers are placed by the hash of their id, loans carry their shard in the id: every shard hands out
+//loan ids with id % shardCount == shard (see DataSourceConfiguration), so a loan id routes without a lookup.
+public class ShardRouter {
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be greater than 0");
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int[] shards() {
+        return IntStream.range(0, shardCount).toArray();
+    }
+
+    public int shardOfCustomer(long customerId) {
+        return Math.floorMod(Long.hashCode(customerId), shardCount);
+    }
+
+    public int shardOfLoan(long loanId) {
+        return Math.floorMod(loanId, shardCount);
+    }
+
+    public int checkShard(int shard) {
+        if (shard < 0 || shard >= shardCount) {
+            throw new BadRequestException("shard must be between 0 and " + (shardCount - 1));
+        }
+        return shard;
+    }
+}
@@ -0,0 +1,76 @@
+package com.inghub.credit.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Runs before the transaction interceptor: the transaction takes its connection from the shard chosen here.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+
+    private final ShardRouter shardRouter;
+
+    private final Map<Method, ShardKeyParameter> shardKeyParameters = new ConcurrentHashMap<>();
+
+    @Around("execution(* com.inghub.credit.service..*(.., @com.inghub.credit.datasource.ShardKey (*), ..))")
+    public Object routeToShard(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        ShardKeyParameter parameter = shardKeyParameters.computeIfAbsent(method, ShardRoutingAspect::findShardKeyParameter);
+        Object key = joinPoint.getArgs()[parameter.index()];
+        if (key == null) {
+            return joinPoint.proceed();
+        }
+
+        int shard = resolveShard(parameter.type(), ((Number) key).longValue());
+        Integer currentShard = ShardContext.currentShard();
+        if (currentShard != null) {
+            if (currentShard != shard) {
+                throw new IllegalStateException("Call to " + method.getName() + " for shard " + shard + " inside shard " + currentShard);
+            }
+            return joinPoint.proceed();
+        }
+
+        Integer previous = ShardContext.enter(shard);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    private int resolveShard(ShardKey.Type type, long key) {
+        return switch (type) {
+            case CUSTOMER -> shardRouter.shardOfCustomer(key);
+            case LOAN -> shardRouter.shardOfLoan(key);
+            case SHARD -> shardRouter.checkShard((int) key);
+        };
+    }
+
+    private static ShardKeyParameter findShardKeyParameter(Method method) {
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof ShardKey shardKey) {
+                    return new ShardKeyParameter(i, shardKey.value());
+                }
+            }
+        }
+        throw new IllegalStateException("No @ShardKey parameter on " + method);
+    }
+
+    private record ShardKeyParameter(int index, ShardKey.Type type) {
+    }
+}
@@ -0,0 +1,56 @@
+package com.inghub.credit.datasource;
+
+import com.inghub.credit.timing.RequestTimings;
+import com.inghub.credit.timing.RequestTimings.Phase;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+//Without a shard in context connections go to shard 0, only shard independent work (health checks) should rely on it.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ConnectionWaitMonitor connectionWaitMonitor = new ConnectionWaitMonitor();
+
+    public ConnectionWaitMonitor getConnectionWaitMonitor() {
+        return connectionWaitMonitor;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = connectionWaitMonitor.beginWait();
+        Connection connection;
+        try {
+            connection = super.getConnection();
+        } finally {
+            connectionWaitMonitor.endWait(start);
+        }
+        return timed(connection, start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = connectionWaitMonitor.beginWait();
+        Connection connection;
+        try {
+            connection = super.getConnection(username, password);
+        } finally {
+            connectionWaitMonitor.endWait(start);
+        }
+        return timed(connection, start);
+    }
+
+    private static Connection timed(Connection connection, long waitStart) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            return connection;
+        }
+        timings.add(Phase.POOL, System.nanoTime() - waitStart);
+        return TimedConnectionProxy.wrap(connection, timings);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.currentShard();
+    }
+}
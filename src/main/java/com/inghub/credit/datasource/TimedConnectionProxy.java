@@ -0,0 +1,71 @@
+package com.inghub.credit.datasource;
+
+import com.inghub.credit.timing.RequestTimings;
+import com.inghub.credit.timing.RequestTimings.Phase;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+//Counts statements, execute time and rows of a connection borrowed while a request is timed. Connections and
+//statements are JDK proxies, result sets a RowCountingResultSet so column reads stay direct calls.
+//Connections taken without RequestTimings are handed out unwrapped.
+final class TimedConnectionProxy {
+
+    private TimedConnectionProxy() {
+    }
+
+    static Connection wrap(Connection connection, RequestTimings timings) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return wrapStatement(method.getReturnType(), statement, timings);
+            }
+            return result;
+        });
+    }
+
+    private static Object wrapStatement(Class<?> type, Statement statement, RequestTimings timings) {
+        return proxy(type, statement, (target, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                Object result = invoke(target, method, args);
+                return result instanceof ResultSet resultSet && method.getReturnType() == ResultSet.class
+                        ? wrapResultSet(resultSet, timings) : result;
+            }
+            long start = System.nanoTime();
+            try {
+                Object result = invoke(target, method, args);
+                return result instanceof ResultSet resultSet ? wrapResultSet(resultSet, timings) : result;
+            } finally {
+                timings.add(Phase.SQL, System.nanoTime() - start);
+                timings.incrementStatements();
+            }
+        });
+    }
+
+    private static ResultSet wrapResultSet(ResultSet resultSet, RequestTimings timings) {
+        return new RowCountingResultSet(resultSet, timings);
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, TargetHandler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.invoke(target, method, args);
+        return type.cast(Proxy.newProxyInstance(TimedConnectionProxy.class.getClassLoader(), new Class<?>[]{type}, invocationHandler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface TargetHandler {
+        Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,52 @@
+package com.inghub.credit.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+//Read-only union of loan_installment and loan_installment_archive, used by listings with includeArchived=true.
+@Setter
+@Getter
+@Entity
+@Immutable
+@Table(name = "loan_installment_all")
+public class LoanInstallmentView extends AbstractEntity {
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "loan_id", nullable = false)
+    private Long loanId;
+
+    @Column(name = "amount", nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "paid_amount", nullable = false)
+    private BigDecimal paidAmount;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Column(name = "payment_date")
+    private LocalDateTime paymentDate;
+
+    @Column(name = "is_paid", columnDefinition = "TINYINT", nullable = false)
+    private boolean paid;
+
+    @Override
+    public String toString() {
+        return "LoanInstallmentView{" +
+                "id=" + id +
+                ", loanId=" + loanId +
+                ", amount=" + amount +
+                ", dueDate=" + dueDate +
+                ", paid=" + paid +
+                '}';
+    }
+}
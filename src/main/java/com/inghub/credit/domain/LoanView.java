@@ -0,0 +1,51 @@
+package com.inghub.credit.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+//Read-only union of loan and loan_archive, used by listings with includeArchived=true.
+@Getter
+@Setter
+@Entity
+@Immutable
+@Table(name = "loan_all")
+public class LoanView extends AbstractEntity {
+
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "customer_id", referencedColumnName = "id", nullable = false)
+    private Customer customer;
+
+    @Column(name = "loan_amount", nullable = false)
+    private BigDecimal loanAmount;
+
+    @Column(name = "interest_rate", nullable = false)
+    private BigDecimal interestRate;
+
+    @Column(name = "number_of_installment", columnDefinition = "SMALLINT", nullable = false)
+    private Integer numberOfInstallment;
+
+    @Column(name = "is_paid", columnDefinition = "TINYINT", nullable = false)
+    private boolean paid;
+
+    @Column(name = "archived", nullable = false)
+    private boolean archived;
+
+    @Override
+    public String toString() {
+        return "LoanView{" +
+                "id=" + id +
+                ", loanAmount=" + loanAmount +
+                ", numberOfInstallment=" + numberOfInstallment +
+                ", paid=" + paid +
+                ", archived=" + archived +
+                '}';
+    }
+}
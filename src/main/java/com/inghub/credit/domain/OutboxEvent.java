@@ -0,0 +1,41 @@
+package com.inghub.credit.domain;
+
+import com.inghub.credit.event.LoanEventType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "outbox_event")
+public class OutboxEvent extends AbstractEntity {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private LoanEventType eventType;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Column(name = "loan_id", nullable = false)
+    private Long loanId;
+
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Override
+    public String toString() {
+        return "OutboxEvent{" +
+                "id=" + id +
+                ", eventType=" + eventType +
+                ", customerId=" + customerId +
+                ", loanId=" + loanId +
+                '}';
+    }
+}
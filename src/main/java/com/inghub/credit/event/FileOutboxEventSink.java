@@ -0,0 +1,36 @@
+package com.inghub.credit.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+//Appends relayed messages as JSON lines to a local file (credit.outbox.sink=file).
+@Slf4j
+public class FileOutboxEventSink implements OutboxEventSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxEventSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        log.info("Outbox messages are written to {}", file.toAbsolutePath());
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> batch) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (OutboxMessage message : batch) {
+                writer.write(objectMapper.writeValueAsString(message));
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.inghub.credit.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Keeps relayed messages in memory, for tests and local runs (credit.outbox.sink=memory).
+public class InMemoryOutboxEventSink implements OutboxEventSink {
+
+    private final List<OutboxMessage> messages = new ArrayList<>();
+
+    @Override
+    public synchronized void publish(List<OutboxMessage> batch) {
+        messages.addAll(batch);
+    }
+
+    public synchronized List<OutboxMessage> getMessages() {
+        return List.copyOf(messages);
+    }
+
+    public synchronized void clear() {
+        messages.clear();
+    }
+}
@@ -0,0 +1,23 @@
+package com.inghub.credit.event;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+//partialInstallmentId and partialOutstandingAmount (what it still owes) are null unless the payment ended with a
+//partially paid installment
+public record InstallmentsPaidEvent(long loanId,
+                                    long customerId,
+                                    List<Long> installmentIds,
+                                    BigDecimal paidAmount,
+                                    Long partialInstallmentId,
+                                    BigDecimal partialOutstandingAmount) implements LoanEvent {
+
+    public InstallmentsPaidEvent(long loanId, long customerId, List<Long> installmentIds, BigDecimal paidAmount) {
+        this(loanId, customerId, installmentIds, paidAmount, null, null);
+    }
+
+    @Override
+    public LoanEventType type() {
+        return LoanEventType.INSTALLMENTS_PAID;
+    }
+}
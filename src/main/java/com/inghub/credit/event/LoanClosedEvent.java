@@ -0,0 +1,13 @@
+package com.inghub.credit.event;
+
+import java.math.BigDecimal;
+
+public record LoanClosedEvent(long loanId,
+                              long customerId,
+                              BigDecimal loanAmount) implements LoanEvent {
+
+    @Override
+    public LoanEventType type() {
+        return LoanEventType.LOAN_CLOSED;
+    }
+}
@@ -0,0 +1,15 @@
+package com.inghub.credit.event;
+
+import java.math.BigDecimal;
+
+public record LoanCreatedEvent(long loanId,
+                               long customerId,
+                               BigDecimal loanAmount,
+                               int numberOfInstallment,
+                               BigDecimal interestRate) implements LoanEvent {
+
+    @Override
+    public LoanEventType type() {
+        return LoanEventType.LOAN_CREATED;
+    }
+}
@@ -0,0 +1,11 @@
+package com.inghub.credit.event;
+
+//Written to the outbox in the transaction of the change and published in-process to @TransactionalEventListener's.
+public sealed interface LoanEvent permits LoanCreatedEvent, InstallmentsPaidEvent, LoanClosedEvent {
+
+    LoanEventType type();
+
+    long loanId();
+
+    long customerId();
+}
@@ -0,0 +1,7 @@
+package com.inghub.credit.event;
+
+public enum LoanEventType {
+    LOAN_CREATED,
+    INSTALLMENTS_PAID,
+    LOAN_CLOSED
+}
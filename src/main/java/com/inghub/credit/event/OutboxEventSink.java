@@ -0,0 +1,10 @@
+package com.inghub.credit.event;
+
+import java.util.List;
+
+//Destination of the outbox relay. A batch is deleted from the outbox only after publish returns,
+//so sinks must tolerate redelivery of a batch (at-least-once).
+public interface OutboxEventSink {
+
+    void publish(List<OutboxMessage> batch) throws Exception;
+}
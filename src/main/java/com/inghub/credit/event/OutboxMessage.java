@@ -0,0 +1,15 @@
+package com.inghub.credit.event;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+
+//Relayed form of an outbox row, payload is the JSON of the LoanEvent record.
+public record OutboxMessage(long id,
+                            LoanEventType type,
+                            long loanId,
+                            long customerId,
+                            @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss.SSS") LocalDateTime createDate,
+                            @JsonRawValue String payload) {
+}
@@ -0,0 +1,8 @@
+package com.inghub.credit.exception;
+
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String msg) {
+        super(msg);
+    }
+}
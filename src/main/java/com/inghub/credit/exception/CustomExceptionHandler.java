@@ -1,18 +1,30 @@
 package com.inghub.credit.exception;
 
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.BindException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 
+import java.sql.SQLTransientConnectionException;
 import java.util.Date;
 
 @ControllerAdvice
 public class CustomExceptionHandler {
 
+    private final long retryAfterSeconds;
+
+    public CustomExceptionHandler(@Value("${credit.limiter.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponse> resourceNotFoundException(ResourceNotFoundException ex, WebRequest request) {
         ErrorResponse message = new ErrorResponse(new Date(),
@@ -23,8 +35,47 @@ public class CustomExceptionHandler {
         return new ResponseEntity<>(message, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorResponse> badRequestException(BadRequestException ex, WebRequest request) {
+        ErrorResponse message = new ErrorResponse(new Date(),
+                                                  HttpStatus.BAD_REQUEST.value(),
+                                                  ex.getMessage(),
+                                                  ((ServletWebRequest) request).getRequest().getRequestURI());
+
+        return new ResponseEntity<>(message, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(RequestThrottledException.class)
+    public ResponseEntity<ErrorResponse> requestThrottledException(RequestThrottledException ex, WebRequest request) {
+        ErrorResponse message = new ErrorResponse(new Date(),
+                                                  ex.getStatus().value(),
+                                                  ex.getMessage(),
+                                                  ((ServletWebRequest) request).getRequest().getRequestURI());
+
+        return ResponseEntity.status(ex.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(message);
+    }
+
+    //no connection within credit.datasource.connection-timeout-ms: overloaded like a shed request, not broken
+    @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class})
+    public ResponseEntity<ErrorResponse> connectionUnavailableException(Exception ex, WebRequest request) {
+        ErrorResponse message = new ErrorResponse(new Date(),
+                                                  HttpStatus.SERVICE_UNAVAILABLE.value(),
+                                                  ex.getMessage(),
+                                                  ((ServletWebRequest) request).getRequest().getRequestURI());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(message);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> globalExceptionHandler(Exception ex, WebRequest request) {
+        //pool timeouts translated to another data access exception, e.g. outside a transaction
+        if (ExceptionUtils.indexOfType(ex, SQLTransientConnectionException.class) != -1) {
+            return connectionUnavailableException(ex, request);
+        }
         ErrorResponse message = new ErrorResponse(new Date(),
                                                   HttpStatus.INTERNAL_SERVER_ERROR.value(),
                                                   ex.getMessage(),
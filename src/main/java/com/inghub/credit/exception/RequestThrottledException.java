@@ -0,0 +1,17 @@
+package com.inghub.credit.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class RequestThrottledException extends RuntimeException {
+
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public RequestThrottledException(HttpStatus status, long retryAfterSeconds, String msg) {
+        super(msg);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,4 @@
+package com.inghub.credit.generator;
+
+public record PortfolioGenerationResult(long customers, long loans, long paidLoans, long installments, long elapsedMillis) {
+}
@@ -0,0 +1,276 @@
+package com.inghub.credit.generator;
+
+import com.inghub.credit.datasource.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+//Writes a synthetic portfolio with batched JDBC into the shard databases, next to the rows already there. The JPA
+//services, the outbox and the in-memory indexes are bypassed. Every value is drawn from one SplittableRandom seeded
+//with settings.seed in customer order, the same settings on the same database give the same rows.
+//Amounts follow the services: installment amount = loan amount * (1 + rate) / count, used credit limit = loan
+//amounts - paid installment amounts. Loan ids keep the residue of their shard (see DataSourceConfiguration).
+@Slf4j
+public class PortfolioGenerator {
+
+    private static final String INSERT_CUSTOMER = "INSERT INTO customer (id, idate, udate, name, surname, credit_limit, used_credit_limit) "
+            + "VALUES (?, ?, NULL, ?, ?, ?, ?)";
+    private static final String INSERT_LOAN = "INSERT INTO loan (id, idate, udate, customer_id, loan_amount, number_of_installment, is_paid, interest_rate) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_INSTALLMENT = "INSERT INTO loan_installment (id, idate, udate, loan_id, amount, paid_amount, due_date, payment_date, is_paid) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final int MAX_PAYMENT_DAYS_BEFORE_DUE = 5;
+
+    private final ShardRouter shardRouter;
+    private final List<DataSource> shardDataSources;
+
+    public PortfolioGenerator(ShardRouter shardRouter, List<DataSource> shardDataSources) {
+        if (shardDataSources.size() != shardRouter.shardCount()) {
+            throw new IllegalArgumentException("One data source per shard is required");
+        }
+        this.shardRouter = shardRouter;
+        this.shardDataSources = List.copyOf(shardDataSources);
+    }
+
+    public PortfolioGenerationResult generate(PortfolioSettings settings) {
+        long start = System.nanoTime();
+        List<ShardWriter> writers = new ArrayList<>(shardRouter.shardCount());
+        try {
+            for (int shard : shardRouter.shards()) {
+                writers.add(new ShardWriter(shard, shardRouter.shardCount(), shardDataSources.get(shard).getConnection()));
+            }
+            long firstCustomerId = writers.stream().mapToLong(writer -> writer.maxCustomerId).max().orElse(0) + 1;
+            SplittableRandom random = new SplittableRandom(settings.seed());
+            for (long customerId = firstCustomerId; customerId < firstCustomerId + settings.customers(); customerId++) {
+                ShardWriter writer = writers.get(shardRouter.shardOfCustomer(customerId));
+                writeCustomer(random, settings, writer, customerId);
+                if (writer.pendingRows >= settings.batchSize()) {
+                    writer.flush();
+                }
+            }
+            for (ShardWriter writer : writers) {
+                writer.flush();
+                writer.restartIdentities(firstCustomerId + settings.customers());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Portfolio could not be generated", e);
+        } finally {
+            writers.forEach(ShardWriter::close);
+        }
+        PortfolioGenerationResult result = new PortfolioGenerationResult(settings.customers(),
+                writers.stream().mapToLong(writer -> writer.loans).sum(),
+                writers.stream().mapToLong(writer -> writer.paidLoans).sum(),
+                writers.stream().mapToLong(writer -> writer.installments).sum(),
+                (System.nanoTime() - start) / 1_000_000);
+        log.info("Generated portfolio: {}", result);
+        return result;
+    }
+
+    private static void writeCustomer(SplittableRandom random, PortfolioSettings settings, ShardWriter writer, long customerId) throws SQLException {
+        int loanCount = settings.minLoansPerCustomer() + random.nextInt(settings.maxLoansPerCustomer() - settings.minLoansPerCustomer() + 1);
+        List<GeneratedLoan> loans = new ArrayList<>(loanCount);
+        BigDecimal loanAmounts = BigDecimal.ZERO;
+        BigDecimal paidAmounts = BigDecimal.ZERO;
+        LocalDateTime createDate = settings.asOf().atStartOfDay();
+        for (int i = 0; i < loanCount; i++) {
+            GeneratedLoan loan = generateLoan(random, settings);
+            loans.add(loan);
+            loanAmounts = loanAmounts.add(loan.amount());
+            paidAmounts = paidAmounts.add(loan.installmentAmount().multiply(BigDecimal.valueOf(loan.paymentDates().size())));
+            if (loan.createDate().isBefore(createDate)) {
+                createDate = loan.createDate();
+            }
+        }
+        BigDecimal creditLimit = loanAmounts.add(BigDecimal.valueOf(random.nextLong(settings.maxLoanAmount() + 1)));
+        writer.addCustomer(customerId, createDate, creditLimit.setScale(2), loanAmounts.subtract(paidAmounts));
+        for (GeneratedLoan loan : loans) {
+            writer.addLoan(customerId, loan);
+        }
+    }
+
+    private static GeneratedLoan generateLoan(SplittableRandom random, PortfolioSettings settings) {
+        int numberOfInstallment = installmentCount(random, settings);
+        long minRate = settings.minInterestRate().setScale(2, RoundingMode.CEILING).unscaledValue().longValueExact();
+        long maxRate = settings.maxInterestRate().setScale(2, RoundingMode.FLOOR).unscaledValue().longValueExact();
+        BigDecimal interestRate = BigDecimal.valueOf(minRate + random.nextLong(maxRate - minRate + 1), 2);
+        BigDecimal amount = BigDecimal.valueOf(settings.minLoanAmount() + random.nextLong(settings.maxLoanAmount() - settings.minLoanAmount() + 1), 0).setScale(2);
+        BigDecimal installmentAmount = amount.multiply(BigDecimal.ONE.add(interestRate)).divide(new BigDecimal(numberOfInstallment), 2, RoundingMode.HALF_UP);
+
+        LocalDate asOf = settings.asOf();
+        LocalDate createDay = asOf.minusMonths(random.nextInt(settings.maxAgeMonths() + 1)).withDayOfMonth(1 + random.nextInt(28));
+        LocalDateTime createDate = (createDay.isAfter(asOf) ? asOf : createDay).atStartOfDay().plusSeconds(random.nextInt(SECONDS_PER_DAY));
+
+        //due dates start on the first day of the month after the loan was created, like the schedule templates
+        List<LocalDate> dueDates = new ArrayList<>(numberOfInstallment);
+        LocalDate firstDueDate = YearMonth.from(createDate).plusMonths(1).atDay(1);
+        int dueCount = 0;
+        for (int i = 0; i < numberOfInstallment; i++) {
+            LocalDate dueDate = firstDueDate.plusMonths(i);
+            dueDates.add(dueDate);
+            if (!dueDate.isAfter(asOf)) {
+                dueCount++;
+            }
+        }
+        boolean paid = random.nextDouble() < settings.paidRatio();
+        int paidCount = paid ? numberOfInstallment : random.nextInt(Math.min(dueCount, numberOfInstallment - 1) + 1);
+        List<LocalDateTime> paymentDates = new ArrayList<>(paidCount);
+        for (int i = 0; i < paidCount; i++) {
+            LocalDate dueDate = dueDates.get(i);
+            LocalDateTime paymentDate = (dueDate.isAfter(asOf) ? asOf : dueDate).minusDays(random.nextInt(MAX_PAYMENT_DAYS_BEFORE_DUE + 1))
+                    .atStartOfDay().plusSeconds(random.nextInt(SECONDS_PER_DAY));
+            LocalDateTime previous = i == 0 ? createDate : paymentDates.get(i - 1);
+            paymentDates.add(paymentDate.isBefore(previous) ? previous : paymentDate);
+        }
+        return new GeneratedLoan(createDate, amount, numberOfInstallment, interestRate, installmentAmount, dueDates, paymentDates, paid);
+    }
+
+    private static int installmentCount(SplittableRandom random, PortfolioSettings settings) {
+        List<Integer> counts = settings.installmentCounts();
+        List<Integer> weights = settings.installmentWeights();
+        if (weights.isEmpty()) {
+            return counts.get(random.nextInt(counts.size()));
+        }
+        int pick = random.nextInt(weights.stream().mapToInt(Integer::intValue).sum());
+        for (int i = 0; i < counts.size(); i++) {
+            pick -= weights.get(i);
+            if (pick < 0) {
+                return counts.get(i);
+            }
+        }
+        throw new IllegalStateException("Installment weights exhausted");
+    }
+
+    private record GeneratedLoan(LocalDateTime createDate, BigDecimal amount, int numberOfInstallment, BigDecimal interestRate,
+                                 BigDecimal installmentAmount, List<LocalDate> dueDates, List<LocalDateTime> paymentDates, boolean paid) {
+    }
+
+    //one connection per shard, rows are batched in foreign key order and committed per flush
+    private static final class ShardWriter {
+
+        private final int shard;
+        private final int shardCount;
+        private final Connection connection;
+        private final PreparedStatement customers;
+        private final PreparedStatement loanRows;
+        private final PreparedStatement installmentRows;
+        private final long maxCustomerId;
+        private long nextLoanId;
+        private long nextInstallmentId;
+        private int pendingRows;
+        private long loans;
+        private long paidLoans;
+        private long installments;
+
+        private ShardWriter(int shard, int shardCount, Connection connection) throws SQLException {
+            this.shard = shard;
+            this.shardCount = shardCount;
+            this.connection = connection;
+            connection.setAutoCommit(false);
+            this.maxCustomerId = queryLong("SELECT COALESCE(MAX(id), 0) FROM customer");
+            long maxLoanId = queryLong("SELECT GREATEST(COALESCE((SELECT MAX(id) FROM loan), 0), COALESCE((SELECT MAX(id) FROM loan_archive), 0))");
+            this.nextLoanId = maxLoanId + 1 + Math.floorMod(shard - (maxLoanId + 1), shardCount);
+            this.nextInstallmentId = queryLong("SELECT GREATEST(COALESCE((SELECT MAX(id) FROM loan_installment), 0), "
+                                                       + "COALESCE((SELECT MAX(id) FROM loan_installment_archive), 0))") + 1;
+            this.customers = connection.prepareStatement(INSERT_CUSTOMER);
+            this.loanRows = connection.prepareStatement(INSERT_LOAN);
+            this.installmentRows = connection.prepareStatement(INSERT_INSTALLMENT);
+        }
+
+        private void addCustomer(long customerId, LocalDateTime createDate, BigDecimal creditLimit, BigDecimal usedCreditLimit) throws SQLException {
+            customers.setLong(1, customerId);
+            customers.setTimestamp(2, Timestamp.valueOf(createDate));
+            customers.setString(3, "customer");
+            customers.setString(4, Long.toString(customerId));
+            customers.setBigDecimal(5, creditLimit);
+            customers.setBigDecimal(6, usedCreditLimit);
+            customers.addBatch();
+            pendingRows++;
+        }
+
+        private void addLoan(long customerId, GeneratedLoan loan) throws SQLException {
+            long loanId = nextLoanId;
+            nextLoanId += shardCount;
+            List<LocalDateTime> paymentDates = loan.paymentDates();
+            Timestamp createDate = Timestamp.valueOf(loan.createDate());
+            loanRows.setLong(1, loanId);
+            loanRows.setTimestamp(2, createDate);
+            loanRows.setTimestamp(3, paymentDates.isEmpty() ? null : Timestamp.valueOf(paymentDates.get(paymentDates.size() - 1)));
+            loanRows.setLong(4, customerId);
+            loanRows.setBigDecimal(5, loan.amount());
+            loanRows.setInt(6, loan.numberOfInstallment());
+            loanRows.setBoolean(7, loan.paid());
+            loanRows.setBigDecimal(8, loan.interestRate());
+            loanRows.addBatch();
+            for (int i = 0; i < loan.numberOfInstallment(); i++) {
+                boolean installmentPaid = i < paymentDates.size();
+                Timestamp paymentDate = installmentPaid ? Timestamp.valueOf(paymentDates.get(i)) : null;
+                installmentRows.setLong(1, nextInstallmentId++);
+                installmentRows.setTimestamp(2, createDate);
+                installmentRows.setTimestamp(3, paymentDate);
+                installmentRows.setLong(4, loanId);
+                installmentRows.setBigDecimal(5, loan.installmentAmount());
+                installmentRows.setBigDecimal(6, installmentPaid ? loan.installmentAmount() : BigDecimal.ZERO.setScale(2));
+                installmentRows.setDate(7, Date.valueOf(loan.dueDates().get(i)));
+                installmentRows.setTimestamp(8, paymentDate);
+                installmentRows.setBoolean(9, installmentPaid);
+                installmentRows.addBatch();
+            }
+            pendingRows += 1 + loan.numberOfInstallment();
+            loans++;
+            installments += loan.numberOfInstallment();
+            if (loan.paid()) {
+                paidLoans++;
+            }
+        }
+
+        private void flush() throws SQLException {
+            customers.executeBatch();
+            loanRows.executeBatch();
+            installmentRows.executeBatch();
+            connection.commit();
+            pendingRows = 0;
+        }
+
+        //the rows carry explicit ids, move every identity past them
+        private void restartIdentities(long nextCustomerId) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER TABLE customer ALTER COLUMN id RESTART WITH " + nextCustomerId);
+                statement.execute("ALTER TABLE loan ALTER COLUMN id RESTART WITH " + nextLoanId + (shardCount > 1 ? " SET INCREMENT BY " + shardCount : ""));
+                statement.execute("ALTER TABLE loan_installment ALTER COLUMN id RESTART WITH " + nextInstallmentId);
+            }
+            connection.commit();
+            log.info("Shard {} holds {} generated loans and {} installments", shard, loans, installments);
+        }
+
+        private long queryLong(String sql) throws SQLException {
+            try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+
+        private void close() {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.warn("Connection of shard {} could not be closed", shard, e);
+            }
+        }
+    }
+}
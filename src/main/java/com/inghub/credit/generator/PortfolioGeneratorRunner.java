@@ -0,0 +1,96 @@
+package com.inghub.credit.generator;
+
+import com.inghub.credit.datasource.ShardRouter;
+import com.inghub.credit.datasource.ShardRoutingDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+//Generator tool, runs with the generate-portfolio profile and exits. Together with the snapshot-export profile it
+//runs first and leaves the exit to DatabaseSnapshotExportRunner, so the generated portfolio is saved as a snapshot.
+@Component
+@Profile("generate-portfolio")
+@Order(0)
+@Slf4j
+@RequiredArgsConstructor
+public class PortfolioGeneratorRunner implements ApplicationRunner {
+
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+    private final Clock clock;
+    private final Environment environment;
+    private final ApplicationContext applicationContext;
+
+    @Value("${credit.generator.customers:100000}")
+    private int customers;
+
+    @Value("${credit.generator.loans-per-customer.min:1}")
+    private int minLoansPerCustomer;
+
+    @Value("${credit.generator.loans-per-customer.max:5}")
+    private int maxLoansPerCustomer;
+
+    @Value("${credit.generator.installment-counts:6,9,12,24}")
+    private List<Integer> installmentCounts;
+
+    @Value("${credit.generator.installment-weights:}")
+    private List<Integer> installmentWeights;
+
+    @Value("${credit.generator.interest-rate.min:0.1}")
+    private BigDecimal minInterestRate;
+
+    @Value("${credit.generator.interest-rate.max:0.5}")
+    private BigDecimal maxInterestRate;
+
+    @Value("${credit.generator.loan-amount.min:1000}")
+    private long minLoanAmount;
+
+    @Value("${credit.generator.loan-amount.max:50000}")
+    private long maxLoanAmount;
+
+    @Value("${credit.generator.paid-ratio:0.3}")
+    private double paidRatio;
+
+    @Value("${credit.generator.max-age-months:24}")
+    private int maxAgeMonths;
+
+    @Value("${credit.generator.as-of:}")
+    private String asOf;
+
+    @Value("${credit.generator.seed:42}")
+    private long seed;
+
+    @Value("${credit.generator.batch-size:1000}")
+    private int batchSize;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        PortfolioSettings settings = new PortfolioSettings(customers, minLoansPerCustomer, maxLoansPerCustomer, installmentCounts,
+                installmentWeights == null ? List.of() : installmentWeights, minInterestRate, maxInterestRate, minLoanAmount, maxLoanAmount,
+                paidRatio, maxAgeMonths, StringUtils.isBlank(asOf) ? LocalDate.now(clock) : LocalDate.parse(asOf), seed, batchSize);
+        log.info("Generating portfolio: {}", settings);
+        List<DataSource> shardDataSources = Arrays.stream(shardRouter.shards())
+                .mapToObj(shard -> ((ShardRoutingDataSource) dataSource).getResolvedDataSources().get(shard))
+                .toList();
+        new PortfolioGenerator(shardRouter, shardDataSources).generate(settings);
+        if (!environment.matchesProfiles("snapshot-export")) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+}
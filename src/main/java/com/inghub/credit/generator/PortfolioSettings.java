@@ -0,0 +1,52 @@
+package com.inghub.credit.generator;
+
+import com.inghub.credit.constant.ConstantValues;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+//Shape of a generated portfolio. installmentWeights are relative weights of installmentCounts, empty for a uniform
+//pick. A loan is created up to maxAgeMonths before asOf; paidRatio of the loans are paid off, the others paid some
+//of the installments due until asOf.
+public record PortfolioSettings(int customers, int minLoansPerCustomer, int maxLoansPerCustomer,
+                                List<Integer> installmentCounts, List<Integer> installmentWeights,
+                                BigDecimal minInterestRate, BigDecimal maxInterestRate,
+                                long minLoanAmount, long maxLoanAmount,
+                                double paidRatio, int maxAgeMonths, LocalDate asOf, long seed, int batchSize) {
+
+    public PortfolioSettings {
+        if (customers < 1) {
+            throw new IllegalArgumentException("customers must be greater than 0");
+        }
+        if (minLoansPerCustomer < 0 || maxLoansPerCustomer < minLoansPerCustomer) {
+            throw new IllegalArgumentException("loans per customer must be a range of at least 0");
+        }
+        if (installmentCounts.isEmpty() || !ConstantValues.VALID_INSTALLMENT_NUMBERS.containsAll(installmentCounts)) {
+            throw new IllegalArgumentException("installment counts must be some of " + ConstantValues.VALID_INSTALLMENT_NUMBERS);
+        }
+        if (!installmentWeights.isEmpty() && (installmentWeights.size() != installmentCounts.size()
+                || installmentWeights.stream().anyMatch(weight -> weight < 0) || installmentWeights.stream().mapToInt(Integer::intValue).sum() == 0)) {
+            throw new IllegalArgumentException("installment weights must be one non-negative weight per installment count");
+        }
+        if (minInterestRate.compareTo(ConstantValues.VALID_INTEREST_RATE_RANGE_MIN) < 0 || maxInterestRate.compareTo(ConstantValues.VALID_INTEREST_RATE_RANGE_MAX) > 0
+                || minInterestRate.compareTo(maxInterestRate) > 0) {
+            throw new IllegalArgumentException("interest rates must be a range between " + ConstantValues.VALID_INTEREST_RATE_RANGE_MIN
+                                                       + " and " + ConstantValues.VALID_INTEREST_RATE_RANGE_MAX);
+        }
+        if (minLoanAmount < 1 || maxLoanAmount < minLoanAmount) {
+            throw new IllegalArgumentException("loan amounts must be a range of at least 1");
+        }
+        if (paidRatio < 0 || paidRatio > 1) {
+            throw new IllegalArgumentException("paid ratio must be between 0 and 1");
+        }
+        if (maxAgeMonths < 0) {
+            throw new IllegalArgumentException("max age must be at least 0 months");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be greater than 0");
+        }
+        installmentCounts = List.copyOf(installmentCounts);
+        installmentWeights = List.copyOf(installmentWeights);
+    }
+}
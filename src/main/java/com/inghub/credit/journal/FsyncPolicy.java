@@ -0,0 +1,19 @@
+package com.inghub.credit.journal;
+
+import java.util.Locale;
+
+//When appended journal records are forced to the storage device. Without a force they survive a crash of the
+//process (the page cache holds them) but not of the machine.
+public enum FsyncPolicy {
+
+    //every append, durable once payLoan returned
+    ALWAYS,
+    //every credit.journal.fsync-interval-ms, bounds the loss on a machine crash to that interval
+    INTERVAL,
+    //left to the operating system
+    NEVER;
+
+    public static FsyncPolicy of(String value) {
+        return FsyncPolicy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
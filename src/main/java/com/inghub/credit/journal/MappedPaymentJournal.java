@@ -0,0 +1,121 @@
+package com.inghub.credit.journal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+//Writes journal records into memory-mapped segment files of segmentRecords records each, an append is a copy into
+//the page cache. Every writer starts a new segment after the last one of the directory and never reopens one, so
+//a torn record (crash during an append) can only end a segment, and writers sharing a directory don't collide.
+@Slf4j
+public class MappedPaymentJournal implements PaymentJournal, Closeable {
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final FsyncPolicy fsyncPolicy;
+    private final Clock clock;
+    private final CRC32C crc = new CRC32C();
+    private final Counter appendCounter;
+    private final Counter failureCounter;
+
+    private MappedByteBuffer segment;
+    private int position;
+    private int forcedPosition;
+
+    public MappedPaymentJournal(Path directory, int segmentRecords, FsyncPolicy fsyncPolicy, Clock clock, MeterRegistry meterRegistry) throws IOException {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        this.fsyncPolicy = fsyncPolicy;
+        this.clock = clock;
+        this.appendCounter = meterRegistry.counter("credit.journal.appends");
+        this.failureCounter = meterRegistry.counter("credit.journal.failures");
+        Files.createDirectories(directory);
+        openNextSegment();
+        log.info("Payments are journaled to {}, fsync {}", directory.toAbsolutePath(), fsyncPolicy);
+    }
+
+    //failures are logged and counted, the payment itself already committed
+    @Override
+    public synchronized void append(long loanId, long amount, List<Long> installmentIds, long partialInstallmentId, long partialOutstandingAmount) {
+        try {
+            if (position == segment.capacity()) {
+                forceSegment();
+                openNextSegment();
+            }
+            PaymentJournalFormat.write(segment, position, timestampMicros(), loanId, amount, installmentIds, partialInstallmentId, partialOutstandingAmount, crc);
+            position += PaymentJournalFormat.RECORD_SIZE;
+            appendCounter.increment();
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                forceSegment();
+            }
+        } catch (RuntimeException | IOException e) {
+            failureCounter.increment();
+            log.error("Payment of Loan ID: {} with installments {} could not be journaled", loanId, installmentIds, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${credit.journal.fsync-interval-ms:100}")
+    public void forceOnInterval() {
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            force();
+        }
+    }
+
+    public synchronized void force() {
+        forceSegment();
+    }
+
+    @Override
+    public synchronized void close() {
+        forceSegment();
+    }
+
+    private void forceSegment() {
+        if (forcedPosition < position) {
+            segment.force(forcedPosition, position - forcedPosition);
+            forcedPosition = position;
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        long segmentNumber = lastSegmentNumber() + 1;
+        while (true) {
+            Path path = PaymentJournalFormat.segmentPath(directory, segmentNumber);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * PaymentJournalFormat.RECORD_SIZE);
+                position = 0;
+                forcedPosition = 0;
+                log.debug("Opened journal segment {}", path);
+                return;
+            } catch (FileAlreadyExistsException e) {
+                segmentNumber++;
+            }
+        }
+    }
+
+    private long lastSegmentNumber() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(PaymentJournalFormat::segmentNumber).max().orElse(0);
+        }
+    }
+
+    private long timestampMicros() {
+        Instant now = clock.instant();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+}
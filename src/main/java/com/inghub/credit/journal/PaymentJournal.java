@@ -0,0 +1,12 @@
+package com.inghub.credit.journal;
+
+import java.util.List;
+
+//Append-only record of accepted payments, see MappedPaymentJournal.
+public interface PaymentJournal {
+
+    PaymentJournal NONE = (loanId, amount, installmentIds, partialInstallmentId, partialOutstandingAmount) -> {
+    };
+
+    void append(long loanId, long amount, List<Long> installmentIds, long partialInstallmentId, long partialOutstandingAmount);
+}
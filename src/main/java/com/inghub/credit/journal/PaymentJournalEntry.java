@@ -0,0 +1,13 @@
+package com.inghub.credit.journal;
+
+import java.util.List;
+
+//One accepted payment: installments paid wholly and, when the payment ended in a partial one, that installment with
+//the amount it still owes afterwards (0 and 0 without). Amounts in minor units.
+public record PaymentJournalEntry(long timestampMicros, long loanId, long amount, List<Long> installmentIds,
+                                  long partialInstallmentId, long partialOutstandingAmount) {
+
+    public boolean hasPartialPayment() {
+        return partialInstallmentId != 0;
+    }
+}
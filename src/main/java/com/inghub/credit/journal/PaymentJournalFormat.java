@@ -0,0 +1,94 @@
+package com.inghub.credit.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+//Fixed-size journal records, big endian:
+//   0 int      magic, 0 marks the unwritten rest of a segment
+//   4 int      number of installment ids
+//   8 long     timestamp, epoch microseconds
+//  16 long     loan id
+//  24 long     amount, minor units
+//  32 long     partially paid installment id, 0 when none
+//  40 long     outstanding amount of that installment after the payment, minor units
+//  48 long[24] installment ids, a payment pays at most every installment of a 24 installment loan
+// 240 int      CRC32C of bytes 0-239
+// 244          reserved up to RECORD_SIZE
+public final class PaymentJournalFormat {
+
+    public static final int RECORD_SIZE = 256;
+    public static final int MAX_INSTALLMENT_IDS = 24;
+
+    private static final int MAGIC = 0x50594A31;
+    private static final int INSTALLMENT_IDS_OFFSET = 48;
+    private static final int CRC_OFFSET = INSTALLMENT_IDS_OFFSET + MAX_INSTALLMENT_IDS * Long.BYTES;
+    private static final String SEGMENT_PREFIX = "payments-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private PaymentJournalFormat() {
+    }
+
+    static void write(ByteBuffer buffer, int offset, long timestampMicros, long loanId, long amount, List<Long> installmentIds,
+                      long partialInstallmentId, long partialOutstandingAmount, CRC32C crc) {
+        int count = installmentIds.size();
+        if (count > MAX_INSTALLMENT_IDS) {
+            throw new IllegalArgumentException("A journal record holds at most " + MAX_INSTALLMENT_IDS + " installment ids, got " + count);
+        }
+        buffer.putInt(offset + 4, count);
+        buffer.putLong(offset + 8, timestampMicros);
+        buffer.putLong(offset + 16, loanId);
+        buffer.putLong(offset + 24, amount);
+        buffer.putLong(offset + 32, partialInstallmentId);
+        buffer.putLong(offset + 40, partialOutstandingAmount);
+        for (int i = 0; i < MAX_INSTALLMENT_IDS; i++) {
+            buffer.putLong(offset + INSTALLMENT_IDS_OFFSET + i * Long.BYTES, i < count ? installmentIds.get(i) : 0);
+        }
+        buffer.putInt(offset, MAGIC);
+        buffer.putInt(offset + CRC_OFFSET, checksum(buffer, offset, crc));
+    }
+
+    static boolean isWritten(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset) != 0;
+    }
+
+    //false for a record torn by a crash during its append
+    static boolean isIntact(ByteBuffer buffer, int offset, CRC32C crc) {
+        return buffer.getInt(offset) == MAGIC && buffer.getInt(offset + CRC_OFFSET) == checksum(buffer, offset, crc);
+    }
+
+    static PaymentJournalEntry read(ByteBuffer buffer, int offset) {
+        int count = buffer.getInt(offset + 4);
+        List<Long> installmentIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            installmentIds.add(buffer.getLong(offset + INSTALLMENT_IDS_OFFSET + i * Long.BYTES));
+        }
+        return new PaymentJournalEntry(buffer.getLong(offset + 8), buffer.getLong(offset + 16), buffer.getLong(offset + 24), installmentIds,
+                                       buffer.getLong(offset + 32), buffer.getLong(offset + 40));
+    }
+
+    static Path segmentPath(Path directory, long segmentNumber) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, segmentNumber, SEGMENT_SUFFIX));
+    }
+
+    //-1 for files that are not segments
+    static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, CRC32C crc) {
+        crc.reset();
+        crc.update(buffer.slice(offset, CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,63 @@
+package com.inghub.credit.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+//Reads the segments of a journal directory in order. A segment ends at its first unwritten record, or at a torn one.
+@Slf4j
+public final class PaymentJournalReader {
+
+    private PaymentJournalReader() {
+    }
+
+    //returns the number of records read
+    public static long read(Path directory, Consumer<PaymentJournalEntry> consumer) throws IOException {
+        CRC32C crc = new CRC32C();
+        long count = 0;
+        for (Path segment : segments(directory)) {
+            count += readSegment(segment, consumer, crc);
+        }
+        return count;
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> PaymentJournalFormat.segmentNumber(file) >= 0)
+                    .sorted(Comparator.comparingLong(PaymentJournalFormat::segmentNumber))
+                    .toList();
+        }
+    }
+
+    private static long readSegment(Path segment, Consumer<PaymentJournalEntry> consumer, CRC32C crc) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            long count = 0;
+            for (int offset = 0; offset + PaymentJournalFormat.RECORD_SIZE <= buffer.capacity(); offset += PaymentJournalFormat.RECORD_SIZE) {
+                if (!PaymentJournalFormat.isWritten(buffer, offset)) {
+                    break;
+                }
+                if (!PaymentJournalFormat.isIntact(buffer, offset, crc)) {
+                    log.warn("Torn journal record at offset {} of {}, skipping the rest of the segment", offset, segment);
+                    break;
+                }
+                consumer.accept(PaymentJournalFormat.read(buffer, offset));
+                count++;
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.inghub.credit.journal;
+
+//entries: journal records read, installments: installments checked (verify) or changed (rebuild), mismatches:
+//installments the database does not show paid as journaled (verify only)
+public record PaymentJournalReplayResult(long entries, long installments, long mismatches) {
+}
@@ -0,0 +1,49 @@
+package com.inghub.credit.journal;
+
+import com.inghub.credit.service.PaymentJournalReplayService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+//Replay tool, runs with the journal-replay profile and exits:
+//  --credit.journal.replay.mode=verify   exit code 1 when the database misses a journaled payment
+//  --credit.journal.replay.mode=rebuild  applies every journaled payment to the database
+@Component
+@Profile("journal-replay")
+@Slf4j
+@RequiredArgsConstructor
+public class PaymentJournalReplayRunner implements ApplicationRunner {
+
+    private final PaymentJournalReplayService paymentJournalReplayService;
+    private final ApplicationContext applicationContext;
+
+    @Value("${credit.journal.directory:}")
+    private String directory;
+
+    @Value("${credit.journal.replay.mode:verify}")
+    private String mode;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (StringUtils.isBlank(directory)) {
+            throw new IllegalArgumentException("credit.journal.directory is required for the journal replay");
+        }
+        PaymentJournalReplayResult result = switch (mode) {
+            case "verify" -> paymentJournalReplayService.verify(Path.of(directory));
+            case "rebuild" -> paymentJournalReplayService.rebuild(Path.of(directory));
+            default -> throw new IllegalArgumentException("Unsupported journal replay mode: " + mode + ". Must be one of: [verify, rebuild]");
+        };
+        log.info("Journal {} of {}: {}", mode, directory, result);
+        int exitCode = result.mismatches() > 0 ? 1 : 0;
+        System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+    }
+}
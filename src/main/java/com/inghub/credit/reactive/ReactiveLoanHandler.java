@@ -0,0 +1,132 @@
+package com.inghub.credit.reactive;
+
+import com.inghub.credit.exception.BadRequestException;
+import com.inghub.credit.exception.ErrorResponse;
+import com.inghub.credit.repository.LoanSearchCriteria;
+import com.inghub.credit.repository.page.CountMode;
+import com.inghub.credit.response.dto.LoanDTO;
+import com.inghub.credit.response.dto.LoanInstallmentDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+//GET /api/v1/loans and GET /api/v1/loans/{loanId}/installments of LoanController on the reactive server, with the same
+//query parameters. Accept: application/x-ndjson streams the rows one JSON document per line instead of returning a page;
+//the rows are read as fast as the client takes them.
+@Slf4j
+public class ReactiveLoanHandler {
+
+    private static final ConversionService CONVERSION_SERVICE = DefaultConversionService.getSharedInstance();
+
+    private final ReactiveLoanReadService reactiveLoanReadService;
+
+    public ReactiveLoanHandler(ReactiveLoanReadService reactiveLoanReadService) {
+        this.reactiveLoanReadService = reactiveLoanReadService;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                //deferred, so a parameter rejected while the handler runs reaches the error filters below
+                .GET("/api/v1/loans", request -> Mono.defer(() -> getLoansOfCustomer(request)))
+                .GET("/api/v1/loans/{loanId}/installments", request -> Mono.defer(() -> getLoanInstallments(request)))
+                //the filter registered first sees an error first
+                .onError(BadRequestException.class, (e, request) -> error(HttpStatus.BAD_REQUEST, e, request))
+                .onError(Exception.class, (e, request) -> {
+                    log.error("Reactive read of {} failed", request.path(), e);
+                    return error(HttpStatus.INTERNAL_SERVER_ERROR, e, request);
+                })
+                .build();
+    }
+
+    public Mono<ServerResponse> getLoansOfCustomer(ServerRequest request) {
+        Long customerId = param(request, "customerId", Long.class);
+        if (customerId == null) {
+            throw new BadRequestException("customerId is required");
+        }
+        LoanSearchCriteria criteria = new LoanSearchCriteria(param(request, "loanAmount", BigDecimal.class),
+                                                             param(request, "minLoanAmount", BigDecimal.class),
+                                                             param(request, "maxLoanAmount", BigDecimal.class),
+                                                             installmentCounts(request),
+                                                             param(request, "isPaid", Boolean.class),
+                                                             param(request, "createdFrom", LocalDate.class),
+                                                             param(request, "createdTo", LocalDate.class),
+                                                             param(request, "minInterestRate", BigDecimal.class),
+                                                             param(request, "maxInterestRate", BigDecimal.class));
+        boolean includeArchived = includeArchived(request);
+        String sort = request.queryParam("sort").orElse(null);
+        if (isStream(request)) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON)
+                    .body(reactiveLoanReadService.streamLoansByCustomerId(customerId, criteria, includeArchived, sort), LoanDTO.class);
+        }
+        return reactiveLoanReadService.searchLoansByCustomerId(customerId, criteria, includeArchived, countMode(request),
+                                                               param(request, "pageSize", Integer.class), param(request, "pageNumber", Integer.class), sort)
+                .flatMap(loans -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(loans));
+    }
+
+    public Mono<ServerResponse> getLoanInstallments(ServerRequest request) {
+        long loanId = convert("loanId", request.pathVariable("loanId"), Long.class);
+        boolean includeArchived = includeArchived(request);
+        String sort = request.queryParam("sort").orElse(null);
+        if (isStream(request)) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON)
+                    .body(reactiveLoanReadService.streamLoanInstallmentsByLoanId(loanId, includeArchived, sort), LoanInstallmentDTO.class);
+        }
+        return reactiveLoanReadService.searchLoanInstallmentsByLoanId(loanId, includeArchived, countMode(request),
+                                                                      param(request, "pageSize", Integer.class), param(request, "pageNumber", Integer.class), sort)
+                .flatMap(loanInstallments -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(loanInstallments));
+    }
+
+    private static boolean isStream(ServerRequest request) {
+        return request.headers().accept().stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+    }
+
+    private static boolean includeArchived(ServerRequest request) {
+        return Boolean.TRUE.equals(param(request, "includeArchived", Boolean.class));
+    }
+
+    private static CountMode countMode(ServerRequest request) {
+        return CountMode.of(request.queryParam("count").orElse(null));
+    }
+
+    //installmentCount=6,12 or installmentCount=6&installmentCount=12
+    private static List<Integer> installmentCounts(ServerRequest request) {
+        return request.queryParams().getOrDefault("installmentCount", List.of()).stream()
+                .flatMap(value -> Arrays.stream(StringUtils.split(value, ",")))
+                .map(value -> convert("installmentCount", value.trim(), Integer.class))
+                .toList();
+    }
+
+    private static <T> T param(ServerRequest request, String name, Class<T> type) {
+        return request.queryParam(name).filter(StringUtils::isNotBlank).map(value -> convert(name, value, type)).orElse(null);
+    }
+
+    //the conversions of @RequestParam: true/false/on/off/yes/no/1/0 for booleans, ISO dates
+    private static <T> T convert(String name, String value, Class<T> type) {
+        try {
+            return type == LocalDate.class ? type.cast(LocalDate.parse(value)) : CONVERSION_SERVICE.convert(value, type);
+        } catch (ConversionException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid value of " + name + ": " + value);
+        }
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, Throwable e, ServerRequest request) {
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ErrorResponse(new Date(), status.value(), e.getMessage(), request.path()));
+    }
+}
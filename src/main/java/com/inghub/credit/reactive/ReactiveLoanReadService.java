@@ -0,0 +1,115 @@
+package com.inghub.credit.reactive;
+
+import com.inghub.credit.repository.LoanSearchCriteria;
+import com.inghub.credit.repository.page.CountMode;
+import com.inghub.credit.repository.page.PageRequestBuilder;
+import com.inghub.credit.repository.page.SortRegistry;
+import com.inghub.credit.response.ApiModelPage;
+import com.inghub.credit.response.ListLoanInstallmentsResponse;
+import com.inghub.credit.response.ListLoanResponse;
+import com.inghub.credit.response.dto.LoanDTO;
+import com.inghub.credit.response.dto.LoanInstallmentDTO;
+import com.inghub.credit.service.LoanCountService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+//Non-blocking counterparts of LoanService.searchLoansByCustomerId and LoanInstallmentService.searchLoanInstallmentsByLoanId:
+//same paging, sorting and count modes, with the totals cached in LoanCountService. hasNextPage comes from reading
+//one row more than the page. A stream returns every matching row in the requested order, paging does not apply to it.
+@Slf4j
+public class ReactiveLoanReadService {
+
+    private final ReactiveLoanRepository reactiveLoanRepository;
+    private final LoanCountService loanCountService;
+
+    public ReactiveLoanReadService(ReactiveLoanRepository reactiveLoanRepository, LoanCountService loanCountService) {
+        this.reactiveLoanRepository = reactiveLoanRepository;
+        this.loanCountService = loanCountService;
+    }
+
+    public Mono<ListLoanResponse> searchLoansByCustomerId(long customerId, LoanSearchCriteria criteria, boolean includeArchived, CountMode countMode,
+                                                          Integer pageSize, Integer pageNumber, String sort) {
+        PageRequest pageRequest = PageRequestBuilder.getPageRequest(pageSize, pageNumber, sort, SortRegistry.LOANS);
+        return Mono.defer(() -> {
+            log.debug("Searching loans reactively for customerId: {}, criteria: {}, includeArchived: {}, countMode: {}, page: {}",
+                      customerId, criteria, includeArchived, countMode, pageRequest);
+            //read before the page query, like the blocking listing
+            long countGeneration = loanCountService.getLoanCountGeneration(customerId);
+            return reactiveLoanRepository.findLoans(customerId, criteria, includeArchived, pageRequest.getSort(), pageRequest.getOffset(),
+                                                    pageRequest.getPageSize() + 1)
+                    .collectList()
+                    .flatMap(rows -> {
+                        List<LoanDTO> loans = pageOf(rows, pageRequest);
+                        boolean hasNext = rows.size() > loans.size();
+                        return total(countMode, pageRequest, loans.size(), hasNext,
+                                     () -> loanCountService.findLoanCount(customerId, criteria, includeArchived),
+                                     count -> loanCountService.putLoanCount(customerId, criteria, includeArchived, countGeneration, count),
+                                     () -> reactiveLoanRepository.countLoans(customerId, criteria, includeArchived))
+                                .map(total -> new ListLoanResponse(loans, ApiModelPage.of(pageRequest, hasNext, total.orElse(null))));
+                    });
+        });
+    }
+
+    public Mono<ListLoanInstallmentsResponse> searchLoanInstallmentsByLoanId(long loanId, boolean includeArchived, CountMode countMode,
+                                                                             Integer pageSize, Integer pageNumber, String sort) {
+        PageRequest pageRequest = PageRequestBuilder.getPageRequest(pageSize, pageNumber, sort, SortRegistry.LOAN_INSTALLMENTS);
+        return Mono.defer(() -> {
+            log.debug("Searching LoanInstallments reactively for Loan ID: {}, includeArchived: {}, countMode: {}, page: {}",
+                      loanId, includeArchived, countMode, pageRequest);
+            long countGeneration = loanCountService.getLoanInstallmentCountGeneration(loanId);
+            return reactiveLoanRepository.findLoanInstallments(loanId, includeArchived, pageRequest.getSort(), pageRequest.getOffset(),
+                                                               pageRequest.getPageSize() + 1)
+                    .collectList()
+                    .flatMap(rows -> {
+                        List<LoanInstallmentDTO> loanInstallments = pageOf(rows, pageRequest);
+                        boolean hasNext = rows.size() > loanInstallments.size();
+                        return total(countMode, pageRequest, loanInstallments.size(), hasNext,
+                                     () -> loanCountService.findLoanInstallmentCount(loanId, includeArchived),
+                                     count -> loanCountService.putLoanInstallmentCount(loanId, includeArchived, countGeneration, count),
+                                     () -> reactiveLoanRepository.countLoanInstallments(loanId, includeArchived))
+                                .map(total -> new ListLoanInstallmentsResponse(loanId, loanInstallments,
+                                                                               ApiModelPage.of(pageRequest, hasNext, total.orElse(null))));
+                    });
+        });
+    }
+
+    //the sort is checked like the one of a page, pageSize and pageNumber are ignored
+    public Flux<LoanDTO> streamLoansByCustomerId(long customerId, LoanSearchCriteria criteria, boolean includeArchived, String sort) {
+        PageRequest pageRequest = PageRequestBuilder.getPageRequest(null, null, sort, SortRegistry.LOANS);
+        return Flux.defer(() -> reactiveLoanRepository.findLoans(customerId, criteria, includeArchived, pageRequest.getSort(), 0, null));
+    }
+
+    public Flux<LoanInstallmentDTO> streamLoanInstallmentsByLoanId(long loanId, boolean includeArchived, String sort) {
+        PageRequest pageRequest = PageRequestBuilder.getPageRequest(null, null, sort, SortRegistry.LOAN_INSTALLMENTS);
+        return Flux.defer(() -> reactiveLoanRepository.findLoanInstallments(loanId, includeArchived, pageRequest.getSort(), 0, null));
+    }
+
+    private static <T> List<T> pageOf(List<T> rows, PageRequest pageRequest) {
+        return rows.size() > pageRequest.getPageSize() ? rows.subList(0, pageRequest.getPageSize()) : rows;
+    }
+
+    //CountMode of LoanCountService, an empty Optional for NONE. The last page tells the total without the count query.
+    private static Mono<Optional<Long>> total(CountMode countMode, PageRequest pageRequest, int pageRows, boolean hasNext,
+                                              Supplier<Long> cached, LongConsumer cache, Supplier<Mono<Long>> countQuery) {
+        if (countMode == CountMode.NONE) {
+            return Mono.just(Optional.empty());
+        }
+        if (countMode == CountMode.ESTIMATE) {
+            Long count = cached.get();
+            if (count != null) {
+                return Mono.just(Optional.of(count));
+            }
+        }
+        Mono<Long> count = !hasNext && (pageRows > 0 || pageRequest.getOffset() == 0)
+                ? Mono.just(pageRequest.getOffset() + pageRows)
+                : Mono.defer(countQuery);
+        return count.doOnNext(cache::accept).map(Optional::of);
+    }
+}
@@ -0,0 +1,142 @@
+package com.inghub.credit.reactive;
+
+import com.inghub.credit.datasource.ShardRouter;
+import com.inghub.credit.repository.LoanSearchCriteria;
+import com.inghub.credit.repository.LoanSpecification;
+import com.inghub.credit.repository.LoanSpecification.SqlFilter;
+import com.inghub.credit.response.dto.LoanDTO;
+import com.inghub.credit.response.dto.LoanInstallmentDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+//Loan and installment listings over R2DBC on the shard of the customer or loan, with the filters of LoanSpecification
+//and the sorts of SortRegistry. Rows are emitted as the subscriber requests them and the connection goes back to the
+//pool once the result completed or was cancelled. Archived rows are read through the loan_all/loan_installment_all views.
+public class ReactiveLoanRepository {
+
+    //SortRegistry paths to columns, all of them are backed by the listing indexes
+    private static final Map<String, String> COLUMNS = Map.of(
+            "id", "id",
+            "createDate", "idate",
+            "loanAmount", "loan_amount",
+            "numberOfInstallment", "number_of_installment",
+            "paid", "is_paid",
+            "dueDate", "due_date");
+
+    private static final String LOAN_COLUMNS = "id, idate, udate, customer_id, loan_amount, number_of_installment, is_paid";
+    private static final String LOAN_INSTALLMENT_COLUMNS = "id, idate, udate, amount, paid_amount, due_date, payment_date, is_paid";
+
+    private final ReactiveShardConnections shardConnections;
+    private final ShardRouter shardRouter;
+
+    public ReactiveLoanRepository(ReactiveShardConnections shardConnections, ShardRouter shardRouter) {
+        this.shardConnections = shardConnections;
+        this.shardRouter = shardRouter;
+    }
+
+    //a null limit reads every matching row from offset on
+    public Flux<LoanDTO> findLoans(long customerId, LoanSearchCriteria criteria, boolean includeArchived, Sort sort, long offset, Integer limit) {
+        SqlFilter filter = LoanSpecification.getSqlFilterForLoan(customerId, criteria);
+        String sql = "SELECT " + LOAN_COLUMNS + " FROM " + loanTable(includeArchived) + " WHERE " + filter.where()
+                     + orderBy(sort) + page(offset, limit);
+        return shardOfCustomer(customerId).sql(sql)
+                .bindValues(pageParameters(filter.parameters(), offset, limit))
+                .map(ReactiveLoanRepository::mapLoan)
+                .all();
+    }
+
+    public Mono<Long> countLoans(long customerId, LoanSearchCriteria criteria, boolean includeArchived) {
+        SqlFilter filter = LoanSpecification.getSqlFilterForLoan(customerId, criteria);
+        return shardOfCustomer(customerId).sql("SELECT COUNT(*) FROM " + loanTable(includeArchived) + " WHERE " + filter.where())
+                .bindValues(filter.parameters())
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Flux<LoanInstallmentDTO> findLoanInstallments(long loanId, boolean includeArchived, Sort sort, long offset, Integer limit) {
+        String sql = "SELECT " + LOAN_INSTALLMENT_COLUMNS + " FROM " + loanInstallmentTable(includeArchived) + " WHERE loan_id = :loanId"
+                     + orderBy(sort) + page(offset, limit);
+        return shardOfLoan(loanId).sql(sql)
+                .bindValues(pageParameters(Map.of("loanId", loanId), offset, limit))
+                .map(ReactiveLoanRepository::mapLoanInstallment)
+                .all();
+    }
+
+    public Mono<Long> countLoanInstallments(long loanId, boolean includeArchived) {
+        return shardOfLoan(loanId).sql("SELECT COUNT(*) FROM " + loanInstallmentTable(includeArchived) + " WHERE loan_id = :loanId")
+                .bind("loanId", loanId)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    private DatabaseClient shardOfCustomer(long customerId) {
+        return shardConnections.databaseClient(shardRouter.shardOfCustomer(customerId));
+    }
+
+    private DatabaseClient shardOfLoan(long loanId) {
+        return shardConnections.databaseClient(shardRouter.shardOfLoan(loanId));
+    }
+
+    private static String loanTable(boolean includeArchived) {
+        return includeArchived ? "loan_all" : "loan";
+    }
+
+    private static String loanInstallmentTable(boolean includeArchived) {
+        return includeArchived ? "loan_installment_all" : "loan_installment";
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        return sort.stream()
+                .map(order -> column(order.getProperty()) + (order.isAscending() ? " ASC" : " DESC"))
+                .collect(Collectors.joining(", ", " ORDER BY ", ""));
+    }
+
+    private static String column(String path) {
+        String column = COLUMNS.get(path);
+        if (column == null) {
+            throw new IllegalArgumentException("No column for sort path: " + path);
+        }
+        return column;
+    }
+
+    private static String page(long offset, Integer limit) {
+        return (limit == null ? "" : " LIMIT :limit") + (offset == 0 ? "" : " OFFSET :offset");
+    }
+
+    private static Map<String, Object> pageParameters(Map<String, Object> parameters, long offset, Integer limit) {
+        Map<String, Object> pageParameters = new HashMap<>(parameters);
+        if (limit != null) {
+            pageParameters.put("limit", limit);
+        }
+        if (offset != 0) {
+            pageParameters.put("offset", offset);
+        }
+        return pageParameters;
+    }
+
+    private static LoanDTO mapLoan(Readable row) {
+        return new LoanDTO(row.get("id", Long.class), row.get("idate", LocalDateTime.class), row.get("udate", LocalDateTime.class),
+                           row.get("customer_id", Long.class), row.get("loan_amount", BigDecimal.class).doubleValue(),
+                           row.get("number_of_installment", Short.class), row.get("is_paid", Boolean.class));
+    }
+
+    private static LoanInstallmentDTO mapLoanInstallment(Readable row) {
+        return new LoanInstallmentDTO(row.get("id", Long.class), row.get("idate", LocalDateTime.class), row.get("udate", LocalDateTime.class),
+                                      row.get("amount", BigDecimal.class).doubleValue(), row.get("paid_amount", BigDecimal.class).doubleValue(),
+                                      row.get("due_date", LocalDate.class), row.get("payment_date", LocalDateTime.class),
+                                      row.get("is_paid", Boolean.class));
+    }
+}
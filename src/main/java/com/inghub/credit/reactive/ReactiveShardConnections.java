@@ -0,0 +1,91 @@
+package com.inghub.credit.reactive;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.PoolMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+//One R2DBC pool per shard, on the databases of the JDBC shard pools (see DataSourceConfiguration): the H2 R2DBC URL is
+//the JDBC one without its jdbc:h2: prefix, so both stacks read the same in-memory or snapshot databases.
+//A request waiting for a connection holds no thread, it is queued in the pool until one is released or max-acquire-time passed.
+//The H2 driver runs a query on the thread that subscribes to it, so a released connection is handed to the next waiting
+//request on the bounded elastic scheduler: delivered on the releasing thread, every queued request would run one after
+//the other inside the release of the previous one.
+@Slf4j
+public class ReactiveShardConnections implements DisposableBean {
+
+    private static final String H2_JDBC_PREFIX = "jdbc:h2:";
+
+    private final List<ConnectionPool> pools;
+    private final List<DatabaseClient> databaseClients;
+
+    //shardDataSources in shard order
+    public ReactiveShardConnections(List<HikariDataSource> shardDataSources, int initialSize, int maxSize, Duration maxAcquireTime,
+                                    MeterRegistry meterRegistry) {
+        if (initialSize < 0 || maxSize <= 0 || initialSize > maxSize) {
+            throw new IllegalArgumentException("Invalid reactive pool settings, initial-size: " + initialSize + ", max-size: " + maxSize);
+        }
+        this.pools = new ArrayList<>(shardDataSources.size());
+        this.databaseClients = new ArrayList<>(shardDataSources.size());
+        for (int shard = 0; shard < shardDataSources.size(); shard++) {
+            HikariDataSource shardDataSource = shardDataSources.get(shard);
+            String jdbcUrl = shardDataSource.getJdbcUrl();
+            if (!StringUtils.startsWith(jdbcUrl, H2_JDBC_PREFIX)) {
+                throw new IllegalArgumentException("Reactive reads only support H2 shard URLs, shard " + shard + " is at " + jdbcUrl);
+            }
+            H2ConnectionConfiguration connectionConfiguration = H2ConnectionConfiguration.builder()
+                    .url(StringUtils.removeStart(jdbcUrl, H2_JDBC_PREFIX))
+                    .username(shardDataSource.getUsername())
+                    .password(shardDataSource.getPassword())
+                    .build();
+            ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(new H2ConnectionFactory(connectionConfiguration))
+                                                             .name(shardDataSource.getPoolName() + "-reactive")
+                                                             .initialSize(initialSize)
+                                                             .maxSize(maxSize)
+                                                             .maxAcquireTime(maxAcquireTime)
+                                                             .customizer(builder -> builder.acquisitionScheduler(Schedulers.boundedElastic()))
+                                                             .build());
+            String shardTag = String.valueOf(shard);
+            Gauge.builder("credit.reactive.pool.acquired", pool, ReactiveShardConnections::acquiredSize).tag("shard", shardTag).register(meterRegistry);
+            Gauge.builder("credit.reactive.pool.pending", pool, ReactiveShardConnections::pendingAcquireSize).tag("shard", shardTag).register(meterRegistry);
+            pools.add(pool);
+            databaseClients.add(DatabaseClient.create(pool));
+            log.info("Shard {} serves reactive reads from {} with up to {} connections", shard, jdbcUrl, maxSize);
+        }
+    }
+
+    public DatabaseClient databaseClient(int shard) {
+        return databaseClients.get(shard);
+    }
+
+    //connections handed out over all shards right now
+    public int acquiredConnections() {
+        return pools.stream().mapToInt(ReactiveShardConnections::acquiredSize).sum();
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(ConnectionPool::dispose);
+    }
+
+    private static int acquiredSize(ConnectionPool pool) {
+        return pool.getMetrics().map(PoolMetrics::acquiredSize).orElse(0);
+    }
+
+    private static int pendingAcquireSize(ConnectionPool pool) {
+        return pool.getMetrics().map(PoolMetrics::pendingAcquireSize).orElse(0);
+    }
+}
@@ -0,0 +1,23 @@
+package com.inghub.credit.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Keeps sent reminders in memory, for tests and local runs (credit.reminder.sink=memory).
+public class InMemoryReminderSink implements ReminderSink {
+
+    private final List<InstallmentReminder> reminders = new ArrayList<>();
+
+    @Override
+    public synchronized void send(InstallmentReminder reminder) {
+        reminders.add(reminder);
+    }
+
+    public synchronized List<InstallmentReminder> getReminders() {
+        return List.copyOf(reminders);
+    }
+
+    public synchronized void clear() {
+        reminders.clear();
+    }
+}
@@ -0,0 +1,12 @@
+package com.inghub.credit.reminder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//outstandingAmount is the one read when the installment was loaded, a later partial payment is not reflected
+public record InstallmentReminder(long installmentId,
+                                  long loanId,
+                                  long customerId,
+                                  LocalDate dueDate,
+                                  BigDecimal outstandingAmount) {
+}
@@ -0,0 +1,14 @@
+package com.inghub.credit.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+
+//Default sink (credit.reminder.sink=log), until reminders are delivered to customers.
+@Slf4j
+public class LoggingReminderSink implements ReminderSink {
+
+    @Override
+    public void send(InstallmentReminder reminder) {
+        log.info("Installment ID: {} of Loan ID: {} (Customer ID: {}) is due on {}, outstanding amount: {}",
+                 reminder.installmentId(), reminder.loanId(), reminder.customerId(), reminder.dueDate(), reminder.outstandingAmount());
+    }
+}
@@ -0,0 +1,70 @@
+package com.inghub.credit.reminder;
+
+import java.util.function.Consumer;
+
+//One tracked installment, linked into a bucket of the TimingWheel. Primitive fields only, ~64 bytes with compressed
+//oops (header, five longs, an int and the two links). Each bucket is a circular list around a sentinel entry,
+//so unlinking a cancelled entry is O(1) without knowing its bucket.
+final class ReminderEntry {
+
+    final long installmentId;
+    final long loanId;
+    final long customerId;
+    //minor units, see UnpaidInstallments.toMinorUnits; lowered by partial payments, guarded by the ReminderScheduler
+    long outstandingAmount;
+    final int dueEpochDay;
+    final long expiration;
+
+    private ReminderEntry prev;
+    private ReminderEntry next;
+
+    ReminderEntry(long installmentId, long loanId, long customerId, long outstandingAmount, int dueEpochDay, long expiration) {
+        this.installmentId = installmentId;
+        this.loanId = loanId;
+        this.customerId = customerId;
+        this.outstandingAmount = outstandingAmount;
+        this.dueEpochDay = dueEpochDay;
+        this.expiration = expiration;
+    }
+
+    static ReminderEntry sentinel() {
+        ReminderEntry sentinel = new ReminderEntry(0, 0, 0, 0, 0, 0);
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+
+    //on a sentinel
+    void append(ReminderEntry entry) {
+        entry.prev = prev;
+        entry.next = this;
+        prev.next = entry;
+        prev = entry;
+    }
+
+    //false when the entry is not in a bucket (fired or drained)
+    boolean unlink() {
+        if (next == null) {
+            return false;
+        }
+        prev.next = next;
+        next.prev = prev;
+        prev = null;
+        next = null;
+        return true;
+    }
+
+    //on a sentinel, empties the bucket before handing out its entries so they may be added again
+    void drainTo(Consumer<ReminderEntry> consumer) {
+        ReminderEntry entry = next;
+        next = this;
+        prev = this;
+        while (entry != this) {
+            ReminderEntry following = entry.next;
+            entry.prev = null;
+            entry.next = null;
+            consumer.accept(entry);
+            entry = following;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.inghub.credit.reminder;
+
+import com.inghub.credit.datasource.ShardContext;
+import com.inghub.credit.datasource.ShardRouter;
+import com.inghub.credit.event.InstallmentsPaidEvent;
+import com.inghub.credit.event.LoanCreatedEvent;
+import com.inghub.credit.event.LoanEvent;
+import com.inghub.credit.repository.LoanInstallmentRepository;
+import com.inghub.credit.repository.ReminderInstallmentRow;
+import com.inghub.credit.service.InstallmentScheduleTemplateService;
+import com.inghub.credit.service.UnpaidInstallments;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//Reminds unpaid installments days-before days ahead of their due date, at time-of-day in the zone of the clock.
+//Instead of scanning loan_installment, the installments due until lookahead-days past the reminder horizon are loaded
+//one due date at a time, in id chunks over idx_loan_installment_due_date_paid, into a hierarchical TimingWheel; the
+//loaded due dates only move forward. Payments cancel their installments once committed, a partial payment lowers the
+//amount of its installment's reminder; created loans with a due date
+//already loaded are queued and their installments read on the next advance, not on the thread that created them.
+//A tracked installment costs ~120 bytes: ~64 for its ReminderEntry and ~56 for the node and boxed key of the id map;
+//at most max-tracked are held, loading stops when full and resumes after the last loaded row once reminders fired.
+//Payments committed on other nodes are not seen, like with UnpaidInstallmentIndex.
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "credit.reminder.enabled", havingValue = "true", matchIfMissing = true)
+public class ReminderScheduler {
+
+    private final LoanInstallmentRepository loanInstallmentRepository;
+    private final InstallmentScheduleTemplateService installmentScheduleTemplateService;
+    private final ShardRouter shardRouter;
+    private final ReminderSink reminderSink;
+    private final Clock clock;
+    private final int daysBefore;
+    private final LocalTime timeOfDay;
+    private final int lookaheadDays;
+    private final int chunkSize;
+    private final int maxTracked;
+
+    //guarded by this
+    private final TimingWheel wheel;
+    private final Map<Long, ReminderEntry> tracked = new HashMap<>();
+    //due dates up to this one are tracked (or being loaded), created loans only add installments due until then
+    private long loadedThroughEpochDay;
+    //installments paid while a due date is loaded, its rows may have been read before the payment
+    private Set<Long> cancelledWhileLoading;
+    //outstanding amounts (minor units) of installments paid partially while a due date is loaded
+    private Map<Long, Long> partiallyPaidWhileLoading;
+    //created loans whose first due date was already loaded, read by the next load or advance
+    private List<Long> createdLoanIds = new ArrayList<>();
+    //where loading continues after the scheduler got full or a load failed, only used by the loading thread
+    private int resumeShardIndex;
+    private long resumeAfterId;
+
+    private final Counter sent;
+    private final Counter failed;
+
+    public ReminderScheduler(LoanInstallmentRepository loanInstallmentRepository, InstallmentScheduleTemplateService installmentScheduleTemplateService,
+                             ShardRouter shardRouter, ReminderSink reminderSink, Clock clock, MeterRegistry meterRegistry,
+                             @Value("${credit.reminder.days-before:3}") int daysBefore,
+                             @Value("${credit.reminder.time-of-day:09:00}") String timeOfDay,
+                             @Value("${credit.reminder.lookahead-days:7}") int lookaheadDays,
+                             @Value("${credit.reminder.chunk-size:1000}") int chunkSize,
+                             @Value("${credit.reminder.max-tracked:500000}") int maxTracked,
+                             @Value("${credit.reminder.tick-ms:60000}") long tickMs,
+                             @Value("${credit.reminder.wheel-size:60}") int wheelSize) {
+        if (daysBefore < 0 || lookaheadDays < 0 || chunkSize <= 0 || maxTracked <= 0) {
+            throw new IllegalArgumentException("Invalid reminder settings, days-before: " + daysBefore + ", lookahead-days: " + lookaheadDays
+                                               + ", chunk-size: " + chunkSize + ", max-tracked: " + maxTracked);
+        }
+        this.loanInstallmentRepository = loanInstallmentRepository;
+        this.installmentScheduleTemplateService = installmentScheduleTemplateService;
+        this.shardRouter = shardRouter;
+        this.reminderSink = reminderSink;
+        this.clock = clock;
+        this.daysBefore = daysBefore;
+        this.timeOfDay = LocalTime.parse(timeOfDay);
+        this.lookaheadDays = lookaheadDays;
+        this.chunkSize = chunkSize;
+        this.maxTracked = maxTracked;
+        this.wheel = new TimingWheel(tickMs, wheelSize, clock.millis());
+        //the first load starts with the installments reminded today
+        this.loadedThroughEpochDay = LocalDate.now(clock).plusDays(daysBefore).toEpochDay() - 1;
+        this.sent = Counter.builder("credit.reminder.sent").tag("outcome", "sent").register(meterRegistry);
+        this.failed = Counter.builder("credit.reminder.sent").tag("outcome", "failed").register(meterRegistry);
+        meterRegistry.gauge("credit.reminder.tracked", this, ReminderScheduler::trackedCount);
+    }
+
+    @Scheduled(fixedDelayString = "${credit.reminder.load-interval-ms:3600000}")
+    public void load() {
+        loadThrough(LocalDate.now(clock).plusDays(daysBefore + lookaheadDays));
+        loadCreatedLoans();
+    }
+
+    @Scheduled(fixedDelayString = "${credit.reminder.advance-interval-ms:60000}")
+    public void advance() {
+        advanceTo(clock.millis());
+    }
+
+    //returns the number of installments loaded
+    public int loadThrough(LocalDate dueUntil) {
+        int added = 0;
+        for (long day = loadedThroughEpochDay() + 1; day <= dueUntil.toEpochDay(); day++) {
+            LocalDate dueDate = LocalDate.ofEpochDay(day);
+            beginLoad(day);
+            boolean complete = false;
+            try {
+                int[] shards = shardRouter.shards();
+                for (int i = resumeShardIndex; i < shards.length; i++) {
+                    resumeShardIndex = i;
+                    long afterId = resumeAfterId;
+                    added += ShardContext.callInShard(shards[i], () -> loadDueDate(dueDate, afterId));
+                    if (trackedCount() >= maxTracked) {
+                        log.warn("Reminder scheduler is full ({} installments), stopped loading at due date {}", maxTracked, dueDate);
+                        return added;
+                    }
+                    resumeAfterId = 0;
+                }
+                resumeShardIndex = 0;
+                complete = true;
+            } finally {
+                endLoad(day, complete);
+            }
+        }
+        if (added > 0) {
+            log.info("Loaded {} installments to remind, due until {}", added, dueUntil);
+        }
+        return added;
+    }
+
+    //returns the number of reminders fired
+    public int advanceTo(long nowMillis) {
+        loadCreatedLoans();
+        List<ReminderEntry> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advanceTo(nowMillis, entry -> {
+                if (!wheel.add(entry)) {
+                    tracked.remove(entry.installmentId);
+                    due.add(entry);
+                }
+            });
+        }
+        fire(due);
+        return due.size();
+    }
+
+    @TransactionalEventListener
+    public void onLoanEvent(LoanEvent event) {
+        if (event instanceof InstallmentsPaidEvent paidEvent) {
+            cancel(paidEvent.installmentIds());
+            if (paidEvent.partialInstallmentId() != null) {
+                payPartially(paidEvent.partialInstallmentId(), UnpaidInstallments.toMinorUnits(paidEvent.partialOutstandingAmount()));
+            }
+        } else if (event instanceof LoanCreatedEvent createdEvent) {
+            addCreatedLoan(createdEvent);
+        }
+    }
+
+    public synchronized int trackedCount() {
+        return tracked.size();
+    }
+
+    private synchronized void addCreatedLoan(LoanCreatedEvent event) {
+        LocalDate firstDueDate = installmentScheduleTemplateService.getInstallmentDates(event.numberOfInstallment()).get(0);
+        if (firstDueDate.toEpochDay() > loadedThroughEpochDay) {
+            //loaded with its due date
+            return;
+        }
+        createdLoanIds.add(event.loanId());
+    }
+
+    private void loadCreatedLoans() {
+        List<Long> loanIds;
+        long dueUntilEpochDay;
+        synchronized (this) {
+            if (createdLoanIds.isEmpty()) {
+                return;
+            }
+            loanIds = createdLoanIds;
+            createdLoanIds = new ArrayList<>();
+            dueUntilEpochDay = loadedThroughEpochDay;
+        }
+        LocalDate dueUntil = LocalDate.ofEpochDay(dueUntilEpochDay);
+        for (Long loanId : loanIds) {
+            log.debug("Loading installments to remind of created Loan ID: {}, due until {}", loanId, dueUntil);
+            List<ReminderInstallmentRow> rows;
+            try {
+                rows = ShardContext.callInShard(shardRouter.shardOfLoan(loanId),
+                        () -> loanInstallmentRepository.findReminderRowsByLoanIdDueUntil(loanId, dueUntil));
+            } catch (RuntimeException e) {
+                log.warn("Installments of created Loan ID: {} could not be loaded for reminders", loanId, e);
+                continue;
+            }
+            //a loan created less than days-before ahead of its first due date is reminded right away
+            List<ReminderEntry> due = new ArrayList<>();
+            track(rows, due);
+            fire(due);
+        }
+    }
+
+    //keeps resumeAfterId at the last row taken, so a full scheduler continues there
+    private int loadDueDate(LocalDate dueDate, long afterId) {
+        int loaded = 0;
+        resumeAfterId = afterId;
+        while (true) {
+            List<ReminderInstallmentRow> rows = loanInstallmentRepository.findReminderRowsDueOn(dueDate, resumeAfterId, Limit.of(chunkSize));
+            List<ReminderEntry> due = new ArrayList<>();
+            int taken = track(rows, due);
+            fire(due);
+            loaded += taken;
+            if (taken > 0) {
+                resumeAfterId = rows.get(taken - 1).id();
+            }
+            if (taken < rows.size() || rows.size() < chunkSize) {
+                return loaded;
+            }
+        }
+    }
+
+    //returns the number of rows taken before the scheduler got full, entries that already expired are collected in due
+    private synchronized int track(List<ReminderInstallmentRow> rows, List<ReminderEntry> due) {
+        int taken = 0;
+        for (ReminderInstallmentRow row : rows) {
+            if (tracked.size() >= maxTracked) {
+                break;
+            }
+            taken++;
+            if (tracked.containsKey(row.id()) || (cancelledWhileLoading != null && cancelledWhileLoading.contains(row.id()))) {
+                continue;
+            }
+            Long partiallyPaidOutstanding = partiallyPaidWhileLoading != null ? partiallyPaidWhileLoading.get(row.id()) : null;
+            long outstandingAmount = partiallyPaidOutstanding != null ? partiallyPaidOutstanding : UnpaidInstallments.toMinorUnits(row.outstandingAmount());
+            ReminderEntry entry = new ReminderEntry(row.id(), row.loanId(), row.customerId(), outstandingAmount,
+                                                    Math.toIntExact(row.dueDate().toEpochDay()), remindAt(row.dueDate()));
+            if (wheel.add(entry)) {
+                tracked.put(entry.installmentId, entry);
+            } else {
+                due.add(entry);
+            }
+        }
+        return taken;
+    }
+
+    private synchronized void cancel(Collection<Long> installmentIds) {
+        for (Long installmentId : installmentIds) {
+            ReminderEntry entry = tracked.remove(installmentId);
+            if (entry != null) {
+                entry.unlink();
+            }
+            if (cancelledWhileLoading != null) {
+                cancelledWhileLoading.add(installmentId);
+            }
+        }
+    }
+
+    private synchronized void payPartially(long installmentId, long outstandingAmount) {
+        ReminderEntry entry = tracked.get(installmentId);
+        if (entry != null) {
+            entry.outstandingAmount = outstandingAmount;
+        }
+        if (partiallyPaidWhileLoading != null) {
+            partiallyPaidWhileLoading.put(installmentId, outstandingAmount);
+        }
+    }
+
+    private synchronized void beginLoad(long epochDay) {
+        loadedThroughEpochDay = epochDay;
+        cancelledWhileLoading = new HashSet<>();
+        partiallyPaidWhileLoading = new HashMap<>();
+    }
+
+    private synchronized void endLoad(long epochDay, boolean complete) {
+        cancelledWhileLoading = null;
+        partiallyPaidWhileLoading = null;
+        if (!complete) {
+            loadedThroughEpochDay = epochDay - 1;
+        }
+    }
+
+    private synchronized long loadedThroughEpochDay() {
+        return loadedThroughEpochDay;
+    }
+
+    private long remindAt(LocalDate dueDate) {
+        return dueDate.minusDays(daysBefore).atTime(timeOfDay).atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+
+    private void fire(List<ReminderEntry> due) {
+        for (ReminderEntry entry : due) {
+            InstallmentReminder reminder = new InstallmentReminder(entry.installmentId, entry.loanId, entry.customerId,
+                                                                   LocalDate.ofEpochDay(entry.dueEpochDay),
+                                                                   UnpaidInstallments.fromMinorUnits(entry.outstandingAmount));
+            try {
+                reminderSink.send(reminder);
+                sent.increment();
+            } catch (Exception e) {
+                log.warn("Reminder of Installment ID: {} could not be sent", entry.installmentId, e);
+                failed.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.inghub.credit.reminder;
+
+//Destination of the due date reminders. A reminder is handed over once and not retried when send throws;
+//a restarted node may send the reminders of the current day again, so sinks should deduplicate on
+//(installmentId, dueDate). Loads and advances run on different scheduling threads, send must be thread-safe.
+public interface ReminderSink {
+
+    void send(InstallmentReminder reminder) throws Exception;
+}
@@ -0,0 +1,68 @@
+package com.inghub.credit.reminder;
+
+import java.util.function.Consumer;
+
+//Hierarchical timing wheel (Varghese & Lauck, as in Kafka's purgatory): wheelSize buckets of tickMs each, entries
+//further out than the wheel spans go to an overflow wheel whose tick is this wheel's span, created on demand.
+//Adding and cancelling are O(1) whatever the number of entries, advancing costs one step per elapsed tick and moves
+//the entries of an overflow bucket one level down once the clock reaches it. An entry expires at the start of the
+//tick its expiration falls into. Not thread-safe, see ReminderScheduler.
+final class TimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long interval;
+    private final ReminderEntry[] buckets;
+    private long currentTime;
+    private TimingWheel overflowWheel;
+
+    TimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("Invalid timing wheel, tick: " + tickMs + " ms, size: " + wheelSize);
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.interval = Math.multiplyExact(tickMs, wheelSize);
+        this.buckets = new ReminderEntry[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = ReminderEntry.sentinel();
+        }
+        this.currentTime = startMs - Math.floorMod(startMs, tickMs);
+    }
+
+    long currentTime() {
+        return currentTime;
+    }
+
+    //false when the entry already expired, the caller fires it
+    boolean add(ReminderEntry entry) {
+        long expiration = entry.expiration;
+        if (expiration < currentTime + tickMs) {
+            return false;
+        }
+        if (expiration < currentTime + interval) {
+            buckets[(int) Math.floorMod(expiration / tickMs, (long) wheelSize)].append(entry);
+            return true;
+        }
+        if (overflowWheel == null) {
+            overflowWheel = new TimingWheel(interval, wheelSize, currentTime);
+        }
+        return overflowWheel.add(entry);
+    }
+
+    //hands every entry of the buckets the clock passed to reinsert, which adds it back to the lowest wheel or fires it
+    void advanceTo(long timeMs, Consumer<ReminderEntry> reinsert) {
+        while (timeMs >= currentTime + tickMs) {
+            currentTime += tickMs;
+            buckets[(int) Math.floorMod(currentTime / tickMs, (long) wheelSize)].drainTo(reinsert);
+            if (overflowWheel != null) {
+                overflowWheel.advanceTo(currentTime, reinsert);
+            }
+        }
+    }
+
+    //levels created so far, for tests
+    int levels() {
+        return overflowWheel == null ? 1 : 1 + overflowWheel.levels();
+    }
+}
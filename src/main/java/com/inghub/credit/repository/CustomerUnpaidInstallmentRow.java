@@ -0,0 +1,10 @@
+package com.inghub.credit.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//Scalar row of LoanInstallmentRepository.findUnpaidRowsByCustomerIdDueUntil, loanUnpaidCount counts every unpaid
+//installment of the loan, also those past the horizon.
+public record CustomerUnpaidInstallmentRow(Long loanId, Long id, LocalDate dueDate, BigDecimal outstandingAmount, BigDecimal loanAmount,
+                                           Long loanUnpaidCount) {
+}
@@ -1,11 +1,21 @@
 package com.inghub.credit.repository;
 
 import com.inghub.credit.domain.LoanInstallment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,6 +23,76 @@ public interface LoanInstallmentRepository extends JpaRepository<LoanInstallment
 
     Page<LoanInstallment> findByLoanId(Long loanId, Pageable pageable);
 
+    //reads one row more than limit for hasNext, without a count query
+    Window<LoanInstallment> findByLoanId(Long loanId, ScrollPosition position, Limit limit, Sort sort);
+
+    long countByLoanId(Long loanId);
+
     List<LoanInstallment> findByLoanIdAndPaidOrderByDueDate(Long loanId, boolean paid);
 
-}
\ No newline at end of file
+    //unpaid installment index, one aggregate row over idx_loan_installment_loan_paid_due_date
+    @Query("select new com.inghub.credit.repository.UnpaidInstallmentSummary(count(li), min(li.amount - li.paidAmount)) " +
+            "from LoanInstallment li where li.loan.id = :loanId and li.paid = false")
+    UnpaidInstallmentSummary summarizeUnpaidByLoanId(Long loanId);
+
+    //unpaid installment index, scalar rows of the payable window without hydrating entities
+    @Query("select new com.inghub.credit.repository.UnpaidInstallmentRow(li.id, li.dueDate, li.amount - li.paidAmount, l.customer.id, l.loanAmount) " +
+            "from LoanInstallment li join li.loan l where l.id = :loanId and li.paid = false and li.dueDate <= :dueUntil order by li.dueDate, li.id")
+    List<UnpaidInstallmentRow> findUnpaidRowsByLoanIdDueUntil(Long loanId, LocalDate dueUntil, Limit limit);
+
+    //customer payment, the payable installments of every open loan of the customer in due date order:
+    //idx_loan_customer_paid for the loans, idx_loan_installment_loan_paid_due_date for their installments and counts
+    @Query("select new com.inghub.credit.repository.CustomerUnpaidInstallmentRow(l.id, li.id, li.dueDate, li.amount - li.paidAmount, l.loanAmount, " +
+            "(select count(u) from LoanInstallment u where u.loan = l and u.paid = false)) " +
+            "from LoanInstallment li join li.loan l where l.customer.id = :customerId and l.paid = false and li.paid = false " +
+            "and li.dueDate <= :dueUntil order by li.dueDate, l.id, li.id")
+    List<CustomerUnpaidInstallmentRow> findUnpaidRowsByCustomerIdDueUntil(Long customerId, LocalDate dueUntil);
+
+    //due date reminders, the unpaid installments of one due date in id chunks over idx_loan_installment_due_date_paid
+    @Query("select new com.inghub.credit.repository.ReminderInstallmentRow(li.id, l.id, l.customer.id, li.dueDate, li.amount - li.paidAmount) " +
+            "from LoanInstallment li join li.loan l where li.dueDate = :dueDate and li.paid = false and li.id > :afterId order by li.id")
+    List<ReminderInstallmentRow> findReminderRowsDueOn(LocalDate dueDate, Long afterId, Limit limit);
+
+    //due date reminders of a created loan, idx_loan_installment_loan_paid_due_date
+    @Query("select new com.inghub.credit.repository.ReminderInstallmentRow(li.id, l.id, l.customer.id, li.dueDate, li.amount - li.paidAmount) " +
+            "from LoanInstallment li join li.loan l where l.id = :loanId and li.paid = false and li.dueDate <= :dueUntil order by li.dueDate, li.id")
+    List<ReminderInstallmentRow> findReminderRowsByLoanIdDueUntil(Long loanId, LocalDate dueUntil);
+
+    //payment settlement, only installments still unpaid are updated so a stale index shows up as a lower count
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update LoanInstallment li set li.paidAmount = li.amount, li.paymentDate = :paymentDate, li.paid = true, li.updateDate = :paymentDate " +
+            "where li.id in :ids and li.paid = false")
+    int settle(Collection<Long> ids, LocalDateTime paymentDate);
+
+    //partial payment, the installment stays unpaid and must still owe more than amount afterwards
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update LoanInstallment li set li.paidAmount = li.paidAmount + :amount, li.updateDate = :paymentDate " +
+            "where li.id = :id and li.paid = false and li.amount - li.paidAmount > :amount")
+    int payPartially(Long id, BigDecimal amount, LocalDateTime paymentDate);
+
+    //journal replay, sets the paid amount a partial payment left so replaying it again changes nothing
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update LoanInstallment li set li.paidAmount = li.amount - :outstandingAmount, li.updateDate = :paymentDate " +
+            "where li.id = :id and li.paid = false and li.amount - li.paidAmount > :outstandingAmount")
+    int restorePartialPayment(Long id, BigDecimal outstandingAmount, LocalDateTime paymentDate);
+
+    //change feed, idx_loan_installment_udate
+    @Query("select li from LoanInstallment li where li.updateDate <= :until order by li.updateDate, li.id")
+    List<LoanInstallment> findChanges(LocalDateTime until, Pageable pageable);
+
+    @Query("select li from LoanInstallment li where li.updateDate >= :updateDate and (li.updateDate > :updateDate or li.id > :id) " +
+            "and li.updateDate <= :until order by li.updateDate, li.id")
+    List<LoanInstallment> findChangesAfter(LocalDateTime updateDate, Long id, LocalDateTime until, Pageable pageable);
+
+    //archiver, moves the installments of the given loans
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO loan_installment_archive (id, idate, udate, loan_id, amount, paid_amount, due_date, payment_date, is_paid) " +
+            "SELECT id, idate, udate, loan_id, amount, paid_amount, due_date, payment_date, is_paid FROM loan_installment WHERE loan_id IN (:loanIds)",
+            nativeQuery = true)
+    int copyToArchiveByLoanIdIn(Collection<Long> loanIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM loan_installment WHERE loan_id IN (:loanIds)", nativeQuery = true)
+    int deleteByLoanIdIn(Collection<Long> loanIds);
+
+}
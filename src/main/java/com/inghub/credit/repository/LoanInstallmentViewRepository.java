@@ -0,0 +1,18 @@
+package com.inghub.credit.repository;
+
+import com.inghub.credit.domain.LoanInstallmentView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LoanInstallmentViewRepository extends JpaRepository<LoanInstallmentView, Long> {
+
+    Window<LoanInstallmentView> findByLoanId(Long loanId, ScrollPosition position, Limit limit, Sort sort);
+
+    long countByLoanId(Long loanId);
+
+}
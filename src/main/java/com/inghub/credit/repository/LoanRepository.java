@@ -1,10 +1,48 @@
 package com.inghub.credit.repository;
 
 import com.inghub.credit.domain.Loan;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface LoanRepository extends JpaRepository<Loan, Long>, JpaSpecificationExecutor<Loan> {
-}
\ No newline at end of file
+
+    //change feed, idx_loan_udate
+    @Query("select l from Loan l where l.updateDate <= :until order by l.updateDate, l.id")
+    List<Loan> findChanges(LocalDateTime until, Pageable pageable);
+
+    @Query("select l from Loan l where l.updateDate >= :updateDate and (l.updateDate > :updateDate or l.id > :id) and l.updateDate <= :until " +
+            "order by l.updateDate, l.id")
+    List<Loan> findChangesAfter(LocalDateTime updateDate, Long id, LocalDateTime until, Pageable pageable);
+
+    //payment settlement, closes the loan once its last installment is paid
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Loan l set l.paid = true, l.updateDate = :updateDate where l.id = :id and l.paid = false")
+    int close(Long id, LocalDateTime updateDate);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Loan l set l.paid = true, l.updateDate = :updateDate where l.id in :ids and l.paid = false")
+    int closeAll(Collection<Long> ids, LocalDateTime updateDate);
+
+    //archiver, idx_loan_paid_udate: udate of a paid loan is the time it was closed
+    @Query(value = "SELECT id FROM loan WHERE is_paid = TRUE AND udate < :paidBefore ORDER BY udate, id LIMIT :limit", nativeQuery = true)
+    List<Long> findArchivableIds(LocalDateTime paidBefore, int limit);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO loan_archive (id, idate, udate, customer_id, loan_amount, number_of_installment, is_paid, interest_rate, archive_date) " +
+            "SELECT id, idate, udate, customer_id, loan_amount, number_of_installment, is_paid, interest_rate, :archiveDate FROM loan WHERE id IN (:ids)",
+            nativeQuery = true)
+    int copyToArchive(Collection<Long> ids, LocalDateTime archiveDate);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM loan WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,40 @@
+package com.inghub.credit.repository;
+
+import com.inghub.credit.exception.BadRequestException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+//Filters of GET /api/v1/loans besides the customer. Null values are not applied, ranges are inclusive
+//and the creation date range covers whole days.
+public record LoanSearchCriteria(BigDecimal loanAmount, BigDecimal minLoanAmount, BigDecimal maxLoanAmount,
+                                 List<Integer> installmentCounts, Boolean paid,
+                                 LocalDate createdFrom, LocalDate createdTo,
+                                 BigDecimal minInterestRate, BigDecimal maxInterestRate) {
+
+    public static final LoanSearchCriteria NONE = new LoanSearchCriteria(null, null, null, null, null, null, null, null, null);
+
+    public LoanSearchCriteria {
+        //non-positive values used to mean "no filter", keep it that way for amount and installment count
+        if (loanAmount != null && loanAmount.signum() <= 0) {
+            loanAmount = null;
+        }
+        installmentCounts = installmentCounts == null ? List.of()
+                : installmentCounts.stream().filter(count -> count != null && count > 0).distinct().sorted().toList();
+        checkRange("loanAmount", minLoanAmount, maxLoanAmount);
+        checkRange("createDate", createdFrom, createdTo);
+        checkRange("interestRate", minInterestRate, maxInterestRate);
+    }
+
+    public static LoanSearchCriteria of(BigDecimal loanAmount, Integer installmentCount, Boolean paid) {
+        return new LoanSearchCriteria(loanAmount, null, null, installmentCount == null ? null : List.of(installmentCount), paid,
+                                      null, null, null, null);
+    }
+
+    private static <C extends Comparable<? super C>> void checkRange(String name, C min, C max) {
+        if (min != null && max != null && min.compareTo(max) > 0) {
+            throw new BadRequestException("Lower bound of " + name + " must not be greater than its upper bound");
+        }
+    }
+}
@@ -1,41 +1,129 @@
 package com.inghub.credit.repository;
 
-import com.inghub.credit.domain.Loan;
 import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+//Every predicate is a range or IN on a column that follows customer_id in one of the idx_loan_customer_* indexes,
+//so a filtered listing reads only the matching index range of the customer (see schema.sql).
 public class LoanSpecification {
 
-    public static Specification<Loan> getSpecificationForLoan(Long customerId, BigDecimal loanAmount, Integer installmentCount, Boolean paid) {
+    //works for every loan entity with the Loan attribute names: Loan and LoanView
+    public static <T> Specification<T> getSpecificationForLoan(Long customerId, LoanSearchCriteria criteria) {
 
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicateList = new ArrayList<>();
 
             // Join Loan with Customer
-            Join<Object, Object> customerJoin = root.join("customer");
+            Join<T, Object> customerJoin = root.join("customer");
 
             if (customerId != null) {
                 predicateList.add(criteriaBuilder.equal(customerJoin.get("id"), customerId));
             }
 
-            if (loanAmount != null && loanAmount.compareTo(BigDecimal.ZERO) > 0) {
-                predicateList.add(criteriaBuilder.equal(root.get("loanAmount"), loanAmount));
+            if (criteria.loanAmount() != null) {
+                predicateList.add(criteriaBuilder.equal(root.get("loanAmount"), criteria.loanAmount()));
+            }
+            if (criteria.minLoanAmount() != null) {
+                predicateList.add(criteriaBuilder.greaterThanOrEqualTo(root.get("loanAmount"), criteria.minLoanAmount()));
+            }
+            if (criteria.maxLoanAmount() != null) {
+                predicateList.add(criteriaBuilder.lessThanOrEqualTo(root.get("loanAmount"), criteria.maxLoanAmount()));
+            }
+
+            //a single count stays an equality, H2 treats it as an index lookup either way
+            List<Integer> installmentCounts = criteria.installmentCounts();
+            if (installmentCounts.size() == 1) {
+                predicateList.add(criteriaBuilder.equal(root.get("numberOfInstallment"), installmentCounts.get(0)));
+            } else if (!installmentCounts.isEmpty()) {
+                predicateList.add(root.get("numberOfInstallment").in(installmentCounts));
             }
 
-            if (installmentCount != null && installmentCount > 0) {
-                predicateList.add(criteriaBuilder.equal(root.get("numberOfInstallment"), installmentCount));
+            if (criteria.paid() != null) {
+                predicateList.add(criteriaBuilder.equal(root.get("paid"), criteria.paid()));
             }
 
-            if (paid != null) {
-                predicateList.add(criteriaBuilder.equal(root.get("paid"), paid));
+            //[createdFrom 00:00, createdTo + 1 day 00:00)
+            if (criteria.createdFrom() != null) {
+                predicateList.add(criteriaBuilder.greaterThanOrEqualTo(root.get("createDate"), criteria.createdFrom().atStartOfDay()));
+            }
+            if (criteria.createdTo() != null) {
+                LocalDateTime createdBefore = criteria.createdTo().plusDays(1).atStartOfDay();
+                predicateList.add(criteriaBuilder.lessThan(root.get("createDate"), createdBefore));
+            }
+
+            if (criteria.minInterestRate() != null) {
+                predicateList.add(criteriaBuilder.greaterThanOrEqualTo(root.get("interestRate"), criteria.minInterestRate()));
+            }
+            if (criteria.maxInterestRate() != null) {
+                predicateList.add(criteriaBuilder.lessThanOrEqualTo(root.get("interestRate"), criteria.maxInterestRate()));
             }
 
             return criteriaBuilder.and(predicateList.toArray(new Predicate[0]));
         };
     }
-}
\ No newline at end of file
+
+    //the same predicates as SQL on the columns of loan and loan_all for the reactive listings (see ReactiveLoanRepository),
+    //keep both translations in step
+    public static SqlFilter getSqlFilterForLoan(Long customerId, LoanSearchCriteria criteria) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+
+        if (customerId != null) {
+            addCondition(conditions, parameters, "customer_id = :customerId", "customerId", customerId);
+        }
+
+        if (criteria.loanAmount() != null) {
+            addCondition(conditions, parameters, "loan_amount = :loanAmount", "loanAmount", criteria.loanAmount());
+        }
+        if (criteria.minLoanAmount() != null) {
+            addCondition(conditions, parameters, "loan_amount >= :minLoanAmount", "minLoanAmount", criteria.minLoanAmount());
+        }
+        if (criteria.maxLoanAmount() != null) {
+            addCondition(conditions, parameters, "loan_amount <= :maxLoanAmount", "maxLoanAmount", criteria.maxLoanAmount());
+        }
+
+        List<Integer> installmentCounts = criteria.installmentCounts();
+        if (installmentCounts.size() == 1) {
+            addCondition(conditions, parameters, "number_of_installment = :installmentCount", "installmentCount", installmentCounts.get(0));
+        } else if (!installmentCounts.isEmpty()) {
+            //a collection is expanded to one bind marker per value
+            addCondition(conditions, parameters, "number_of_installment IN (:installmentCounts)", "installmentCounts", installmentCounts);
+        }
+
+        if (criteria.paid() != null) {
+            addCondition(conditions, parameters, "is_paid = :paid", "paid", criteria.paid());
+        }
+
+        if (criteria.createdFrom() != null) {
+            addCondition(conditions, parameters, "idate >= :createdFrom", "createdFrom", criteria.createdFrom().atStartOfDay());
+        }
+        if (criteria.createdTo() != null) {
+            addCondition(conditions, parameters, "idate < :createdBefore", "createdBefore", criteria.createdTo().plusDays(1).atStartOfDay());
+        }
+
+        if (criteria.minInterestRate() != null) {
+            addCondition(conditions, parameters, "interest_rate >= :minInterestRate", "minInterestRate", criteria.minInterestRate());
+        }
+        if (criteria.maxInterestRate() != null) {
+            addCondition(conditions, parameters, "interest_rate <= :maxInterestRate", "maxInterestRate", criteria.maxInterestRate());
+        }
+
+        return new SqlFilter(conditions.isEmpty() ? "TRUE" : String.join(" AND ", conditions), parameters);
+    }
+
+    private static void addCondition(List<String> conditions, Map<String, Object> parameters, String condition, String name, Object value) {
+        conditions.add(condition);
+        parameters.put(name, value);
+    }
+
+    //where clause with named parameters
+    public record SqlFilter(String where, Map<String, Object> parameters) {
+    }
+}
@@ -0,0 +1,10 @@
+package com.inghub.credit.repository;
+
+import com.inghub.credit.domain.LoanView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LoanViewRepository extends JpaRepository<LoanView, Long>, JpaSpecificationExecutor<LoanView> {
+}
@@ -0,0 +1,18 @@
+package com.inghub.credit.repository;
+
+import com.inghub.credit.domain.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findAllByOrderByIdAsc(Pageable pageable);
+
+    Optional<OutboxEvent> findFirstByOrderByIdAsc();
+
+}
@@ -0,0 +1,8 @@
+package com.inghub.credit.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//Scalar row of the reminder queries of LoanInstallmentRepository, no entity is hydrated for it.
+public record ReminderInstallmentRow(Long id, Long loanId, Long customerId, LocalDate dueDate, BigDecimal outstandingAmount) {
+}
@@ -0,0 +1,8 @@
+package com.inghub.credit.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+//Scalar row of LoanInstallmentRepository.findUnpaidRowsByLoanIdDueUntil, no entity is hydrated for it.
+public record UnpaidInstallmentRow(Long id, LocalDate dueDate, BigDecimal outstandingAmount, Long customerId, BigDecimal loanAmount) {
+}
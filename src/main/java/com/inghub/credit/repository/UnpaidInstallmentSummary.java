@@ -0,0 +1,7 @@
+package com.inghub.credit.repository;
+
+import java.math.BigDecimal;
+
+//Aggregate of LoanInstallmentRepository.summarizeUnpaidByLoanId, minOutstandingAmount is null without unpaid installments.
+public record UnpaidInstallmentSummary(Long unpaidCount, BigDecimal minOutstandingAmount) {
+}
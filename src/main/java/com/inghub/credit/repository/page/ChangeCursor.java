@@ -0,0 +1,57 @@
+package com.inghub.credit.repository.page;
+
+import com.inghub.credit.exception.BadRequestException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+//Position of a change feed reader: last (udate, id) returned from loan and from loan_installment.
+//A null position means the table has not been read yet. Clients only see the opaque encoded form.
+public record ChangeCursor(Position loan, Position loanInstallment) {
+
+    public static final ChangeCursor START = new ChangeCursor(null, null);
+
+    private static final String SEPARATOR = "_";
+    private static final String EMPTY_POSITION = "-";
+
+    public static ChangeCursor decode(String value) {
+        if (StringUtils.isBlank(value)) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            String[] parts = StringUtils.splitPreserveAllTokens(decoded, SEPARATOR);
+            if (parts.length != 4) {
+                throw new BadRequestException("Invalid change cursor: " + value);
+            }
+            return new ChangeCursor(decodePosition(parts[0], parts[1]), decodePosition(parts[2], parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid change cursor: " + value);
+        }
+    }
+
+    public String encode() {
+        String value = encodePosition(loan) + SEPARATOR + encodePosition(loanInstallment);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Position decodePosition(String updateDate, String id) {
+        if (EMPTY_POSITION.equals(updateDate)) {
+            return null;
+        }
+        return new Position(LocalDateTime.parse(updateDate), Long.parseLong(id));
+    }
+
+    private static String encodePosition(Position position) {
+        if (position == null) {
+            return EMPTY_POSITION + SEPARATOR + EMPTY_POSITION;
+        }
+        return position.updateDate() + SEPARATOR + position.id();
+    }
+
+    public record Position(LocalDateTime updateDate, long id) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.inghub.credit.repository.page;
+
+import com.inghub.credit.exception.BadRequestException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+//How totalNumberOfRecords/totalNumberOfPages of a listing are filled. exact runs the count query on every request,
+//estimate reuses the count cached for the same filter until a write of the customer or loan drops it,
+//none leaves them out: hasNextPage comes from fetching one row more than the page.
+public enum CountMode {
+    EXACT,
+    ESTIMATE,
+    NONE;
+
+    public static CountMode of(String value) {
+        if (StringUtils.isBlank(value)) {
+            return EXACT;
+        }
+        return Arrays.stream(values())
+                .filter(mode -> mode.name().equalsIgnoreCase(value.trim()))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Unsupported count mode: " + value + ". Must be one of: " + keys()));
+    }
+
+    private static String keys() {
+        return Arrays.stream(values()).map(mode -> mode.name().toLowerCase(Locale.ROOT)).toList().toString();
+    }
+}
@@ -1,49 +1,94 @@
 package com.inghub.credit.repository.page;
 
+import com.inghub.credit.constant.ConstantValues;
+import com.inghub.credit.exception.BadRequestException;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.domain.Window;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.LongSupplier;
 
 public final class PageRequestBuilder {
 
     private PageRequestBuilder() {
     }
 
-    public static PageRequest getPageRequest(Integer pageSize, Integer pageNumber, String sortingCriteria) {
+    public static PageRequest getPageRequest(Integer pageSize, Integer pageNumber, String sortingCriteria, SortRegistry sortRegistry) {
 
         Set<String> sortingFields = new LinkedHashSet<>(
                 Arrays.asList(StringUtils.split(StringUtils.defaultIfEmpty(sortingCriteria, ""), ",")));
 
-        List<Order> sortingOrders = sortingFields.stream().map(PageRequestBuilder::getOrder)
-                .collect(Collectors.toList());
+        List<Order> sortingOrders = new ArrayList<>(sortingFields.size() + 1);
+        for (String sortingField : sortingFields) {
+            sortingOrders.add(getOrder(sortingField, sortRegistry));
+        }
 
-        Sort sort = sortingOrders.isEmpty() ? null : Sort.by(sortingOrders);
+        //id as the last order keeps paging stable when the other sort values are equal
+        boolean sortedById = sortingOrders.stream().anyMatch(order -> SortRegistry.ID_PATH.equals(order.getProperty()));
+        if (!sortedById) {
+            sortingOrders.add(Order.asc(SortRegistry.ID_PATH));
+        }
 
-        if (sort == null) {
-            return PageRequest.of(ObjectUtils.defaultIfNull(pageNumber, 1) - 1, ObjectUtils.defaultIfNull(pageSize, 20));
-        } else {
-            return PageRequest.of(ObjectUtils.defaultIfNull(pageNumber, 1) - 1, ObjectUtils.defaultIfNull(pageSize, 20), sort);
+        return PageRequest.of(getPageNumber(pageNumber) - 1, getPageSize(pageSize), Sort.by(sortingOrders));
+    }
+
+    //an offset position points at the last row already returned, the first page starts from the initial position
+    public static ScrollPosition getScrollPosition(PageRequest pageRequest) {
+        return pageRequest.getOffset() == 0 ? ScrollPosition.offset() : ScrollPosition.offset(pageRequest.getOffset() - 1);
+    }
+
+    //the last page tells the total without running countQuery
+    public static LongSupplier getTotalCounter(PageRequest pageRequest, Window<?> page, LongSupplier countQuery) {
+        return () -> !page.hasNext() && (!page.isEmpty() || pageRequest.getOffset() == 0)
+                ? pageRequest.getOffset() + page.size()
+                : countQuery.getAsLong();
+    }
+
+    private static int getPageNumber(Integer pageNumber) {
+        int number = ObjectUtils.defaultIfNull(pageNumber, 1);
+        if (number < 1) {
+            throw new BadRequestException("pageNumber must be greater than 0");
+        }
+        return number;
+    }
+
+    //larger page sizes are capped instead of rejected
+    private static int getPageSize(Integer pageSize) {
+        int size = ObjectUtils.defaultIfNull(pageSize, ConstantValues.DEFAULT_PAGE_SIZE);
+        if (size < 1) {
+            throw new BadRequestException("pageSize must be greater than 0");
         }
+        return Math.min(size, ConstantValues.MAX_PAGE_SIZE);
     }
 
-    private static Order getOrder(String value) {
+    private static Order getOrder(String value, SortRegistry sortRegistry) {
 
+        Direction direction;
+        String key;
         if (StringUtils.startsWith(value, "-")) {
-            return new Order(Direction.DESC, StringUtils.substringAfter(value, "-"));
+            direction = Direction.DESC;
+            key = StringUtils.substringAfter(value, "-");
         } else if (StringUtils.startsWith(value, "+")) {
-            return new Order(Direction.ASC, StringUtils.substringAfter(value, "+"));
+            direction = Direction.ASC;
+            key = StringUtils.substringAfter(value, "+");
         } else {
             // Sometimes '+' from query param can be replaced as ' '
-            return new Order(Direction.ASC, StringUtils.trim(value));
+            direction = Direction.ASC;
+            key = StringUtils.trim(value);
         }
+
+        String path = sortRegistry.findPath(key)
+                .orElseThrow(() -> new BadRequestException("Unsupported sort field: " + key + ". Must be one of: " + sortRegistry.keys()));
+        return new Order(direction, path);
     }
 }
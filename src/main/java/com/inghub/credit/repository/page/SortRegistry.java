@@ -0,0 +1,39 @@
+package com.inghub.credit.repository.page;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+//Public sort keys accepted by an endpoint, mapped to entity paths that are backed by an index (see schema.sql).
+public final class SortRegistry {
+
+    public static final String ID_PATH = "id";
+
+    //GET /loans, always filtered by customer_id: idx_loan_customer_* indexes
+    public static final SortRegistry LOANS = new SortRegistry(Map.of(
+            "id", ID_PATH,
+            "insertDate", "createDate",
+            "loanAmount", "loanAmount",
+            "numberOfInstallment", "numberOfInstallment",
+            "isPaid", "paid"));
+
+    //GET /loans/{loanId}/installments, always filtered by loan_id: idx_loan_installment_loan_due_date
+    public static final SortRegistry LOAN_INSTALLMENTS = new SortRegistry(Map.of(
+            "id", ID_PATH,
+            "dueDate", "dueDate"));
+
+    private final Map<String, String> pathsByKey;
+
+    private SortRegistry(Map<String, String> pathsByKey) {
+        this.pathsByKey = pathsByKey;
+    }
+
+    public Optional<String> findPath(String key) {
+        return Optional.ofNullable(pathsByKey.get(key));
+    }
+
+    public SortedSet<String> keys() {
+        return new TreeSet<>(pathsByKey.keySet());
+    }
+}
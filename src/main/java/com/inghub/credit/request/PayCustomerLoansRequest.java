@@ -0,0 +1,10 @@
+package com.inghub.credit.request;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public record PayCustomerLoansRequest(@NotNull @DecimalMin("1.00") @DecimalMax("1000000.00") BigDecimal paidAmount) {
+}
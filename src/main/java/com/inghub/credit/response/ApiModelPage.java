@@ -1,10 +1,21 @@
 package com.inghub.credit.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.data.domain.PageRequest;
 
+//totalNumberOfRecords and totalNumberOfPages are left out when the listing was requested with count=none
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record ApiModelPage(@JsonProperty("pageNumber") int pageNumber, @JsonProperty("pageSize") int pageSize,
-                           @JsonProperty("totalNumberOfRecords") long totalNumberOfRecords,
-                           @JsonProperty("totalNumberOfPages") int totalNumberOfPages,
+                           @JsonProperty("totalNumberOfRecords") Long totalNumberOfRecords,
+                           @JsonProperty("totalNumberOfPages") Integer totalNumberOfPages,
                            @JsonProperty("hasNextPage") boolean hasNextPage,
                            @JsonProperty("hasPreviousPage") boolean hasPreviousPage) {
-}
\ No newline at end of file
+
+    public static ApiModelPage of(PageRequest pageRequest, boolean hasNextPage, Long totalNumberOfRecords) {
+        Integer totalNumberOfPages = totalNumberOfRecords == null
+                ? null : (int) ((totalNumberOfRecords + pageRequest.getPageSize() - 1) / pageRequest.getPageSize());
+        return new ApiModelPage(pageRequest.getPageNumber() + 1, pageRequest.getPageSize(), totalNumberOfRecords, totalNumberOfPages,
+                                hasNextPage, pageRequest.getPageNumber() > 0);
+    }
+}
@@ -0,0 +1,14 @@
+package com.inghub.credit.response;
+
+import com.inghub.credit.response.dto.LoanDTO;
+import com.inghub.credit.response.dto.LoanInstallmentChangeDTO;
+
+import java.util.List;
+
+
+public record ListChangesResponse(List<LoanDTO> loans,
+                                  List<LoanInstallmentChangeDTO> loanInstallments,
+                                  String nextCursor,
+                                  boolean hasMore) {
+
+}
@@ -0,0 +1,10 @@
+package com.inghub.credit.response;
+
+import java.util.List;
+
+public record PayCustomerLoansResponse(Long customerId,
+                                       int paidInstallmentCount,
+                                       double totalAmountSpent,
+                                       List<PayLoanResponse> loans) {
+
+}
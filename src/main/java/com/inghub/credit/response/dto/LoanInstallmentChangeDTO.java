@@ -0,0 +1,16 @@
+package com.inghub.credit.response.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public record LoanInstallmentChangeDTO(Long id, long loanId,
+                                       @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime insertDate,
+                                       @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime updateDate,
+                                       double amount, double paidAmount,
+                                       @JsonFormat(pattern = "yyyy-MM-dd") LocalDate dueDate,
+                                       @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime paymentDate,
+                                       boolean isPaid) {
+
+}
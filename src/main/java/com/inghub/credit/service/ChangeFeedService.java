@@ -0,0 +1,106 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.constant.ConstantValues;
+import com.inghub.credit.datasource.ShardKey;
+import com.inghub.credit.domain.Loan;
+import com.inghub.credit.domain.LoanInstallment;
+import com.inghub.credit.exception.BadRequestException;
+import com.inghub.credit.repository.LoanInstallmentRepository;
+import com.inghub.credit.repository.LoanRepository;
+import com.inghub.credit.repository.page.ChangeCursor;
+import com.inghub.credit.repository.page.ChangeCursor.Position;
+import com.inghub.credit.response.ListChangesResponse;
+import com.inghub.credit.response.dto.LoanDTO;
+import com.inghub.credit.response.dto.LoanInstallmentChangeDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+//Incremental read of loans and installments ordered by (udate, id). Both tables are read from their own cursor
+//position and merged, so a page costs two index range scans of at most limit + 1 rows. Every shard has its own feed.
+@Service
+@Slf4j
+public class ChangeFeedService {
+
+    private final LoanRepository loanRepository;
+    private final LoanInstallmentRepository loanInstallmentRepository;
+    private final Clock clock;
+    //udate is set at flush, before commit: rows younger than this are held back so a slow transaction
+    //can't commit behind a cursor that was already handed out
+    private final Duration settleTime;
+
+    public ChangeFeedService(LoanRepository loanRepository, LoanInstallmentRepository loanInstallmentRepository, Clock clock,
+                             @Value("${credit.changes.settle-ms:2000}") long settleMillis) {
+        this.loanRepository = loanRepository;
+        this.loanInstallmentRepository = loanInstallmentRepository;
+        this.clock = clock;
+        this.settleTime = Duration.ofMillis(settleMillis);
+    }
+
+    @Transactional(readOnly = true)
+    public ListChangesResponse findChanges(@ShardKey(ShardKey.Type.SHARD) int shard, String since, Integer limit) {
+        log.info("Searching changes of shard: {} since: {}, limit: {}", shard, since, limit);
+        ChangeCursor cursor = ChangeCursor.decode(since);
+        int size = getLimit(limit);
+        LocalDateTime until = LocalDateTime.now(clock).minus(settleTime);
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+
+        List<Loan> loans = cursor.loan() == null
+                ? loanRepository.findChanges(until, pageRequest)
+                : loanRepository.findChangesAfter(cursor.loan().updateDate(), cursor.loan().id(), until, pageRequest);
+        List<LoanInstallment> installments = cursor.loanInstallment() == null
+                ? loanInstallmentRepository.findChanges(until, pageRequest)
+                : loanInstallmentRepository.findChangesAfter(cursor.loanInstallment().updateDate(), cursor.loanInstallment().id(), until, pageRequest);
+
+        List<LoanDTO> loanChanges = new ArrayList<>();
+        List<LoanInstallmentChangeDTO> installmentChanges = new ArrayList<>();
+        Position loanPosition = cursor.loan();
+        Position installmentPosition = cursor.loanInstallment();
+        int loanIndex = 0;
+        int installmentIndex = 0;
+        while (loanIndex + installmentIndex < size && (loanIndex < loans.size() || installmentIndex < installments.size())) {
+            //on equal udate loans go first, same order on every call
+            boolean takeLoan = installmentIndex == installments.size()
+                    || (loanIndex < loans.size()
+                    && !loans.get(loanIndex).getUpdateDate().isAfter(installments.get(installmentIndex).getUpdateDate()));
+            if (takeLoan) {
+                Loan loan = loans.get(loanIndex++);
+                loanChanges.add(LoanService.mapLoanEntityToDTO(loan));
+                loanPosition = new Position(loan.getUpdateDate(), loan.getId());
+            } else {
+                LoanInstallment installment = installments.get(installmentIndex++);
+                installmentChanges.add(mapLoanInstallmentEntityToChangeDTO(installment));
+                installmentPosition = new Position(installment.getUpdateDate(), installment.getId());
+            }
+        }
+
+        boolean hasMore = loans.size() + installments.size() > size;
+        String nextCursor = new ChangeCursor(loanPosition, installmentPosition).encode();
+        log.info("Returning {} loan and {} installment changes, hasMore: {}", loanChanges.size(), installmentChanges.size(), hasMore);
+        return new ListChangesResponse(loanChanges, installmentChanges, nextCursor, hasMore);
+    }
+
+    private static int getLimit(Integer limit) {
+        int value = ObjectUtils.defaultIfNull(limit, ConstantValues.DEFAULT_CHANGE_LIMIT);
+        if (value < 1) {
+            throw new BadRequestException("limit must be greater than 0");
+        }
+        return Math.min(value, ConstantValues.MAX_CHANGE_LIMIT);
+    }
+
+    private LoanInstallmentChangeDTO mapLoanInstallmentEntityToChangeDTO(LoanInstallment loanInstallment) {
+        return new LoanInstallmentChangeDTO(loanInstallment.getId(), loanInstallment.getLoan().getId(),
+                                            loanInstallment.getCreateDate(), loanInstallment.getUpdateDate(),
+                                            loanInstallment.getAmount().doubleValue(), loanInstallment.getPaidAmount().doubleValue(),
+                                            loanInstallment.getDueDate(), loanInstallment.getPaymentDate(), loanInstallment.isPaid());
+    }
+}
@@ -1,5 +1,6 @@
 package com.inghub.credit.service;
 
+import com.inghub.credit.datasource.ShardKey;
 import com.inghub.credit.domain.Customer;
 import com.inghub.credit.exception.ResourceNotFoundException;
 import com.inghub.credit.repository.CustomerRepository;
@@ -18,7 +19,7 @@ public class CustomerService {
 
     private final CustomerRepository customerRepository;
 
-    public Customer findById(Long id) {
+    public Customer findById(@ShardKey(ShardKey.Type.CUSTOMER) Long id) {
         log.info("Attempting to find Customer with ID: {}", id);
         Optional<Customer> customer = customerRepository.findById(id);
         if (customer.isEmpty()) {
@@ -30,7 +31,7 @@ public class CustomerService {
         }
     }
 
-    public void checkCustomerHasEnoughLimitToGetNewLoan(Long customerId, BigDecimal newLoanAmount) {
+    public void checkCustomerHasEnoughLimitToGetNewLoan(@ShardKey(ShardKey.Type.CUSTOMER) Long customerId, BigDecimal newLoanAmount) {
         log.info("Checking if Customer with ID: {} has enough credit limit for new loan of amount: {}", customerId, newLoanAmount);
         Customer customer = findById(customerId);
         BigDecimal customerAvailableLimit = customer.getCreditLimit().subtract(customer.getUsedCreditLimit());
@@ -43,7 +44,7 @@ public class CustomerService {
 
     //TODO: idempotent?
     @Transactional
-    public void decreaseCustomerUsedCreditLimit(Long customerId, BigDecimal closedLoanAmount) {
+    public void decreaseCustomerUsedCreditLimit(@ShardKey(ShardKey.Type.CUSTOMER) Long customerId, BigDecimal closedLoanAmount) {
         log.info("Decreasing the used credit limit for Customer with ID: {} by amount: {}", customerId, closedLoanAmount);
         Customer customer = findById(customerId);
         BigDecimal customerCurrentUsedLimit = customer.getUsedCreditLimit();
@@ -55,7 +56,7 @@ public class CustomerService {
 
     //TODO: idempotent?
     @Transactional
-    public void increaseCustomerUsedCreditLimit(Long customerId, BigDecimal usedLoanAmount) {
+    public void increaseCustomerUsedCreditLimit(@ShardKey(ShardKey.Type.CUSTOMER) Long customerId, BigDecimal usedLoanAmount) {
         log.info("Increasing the used credit limit for Customer with ID: {} by amount: {}", customerId, usedLoanAmount);
         Customer customer = findById(customerId);
         BigDecimal customerCurrentUsedLimit = customer.getUsedCreditLimit();
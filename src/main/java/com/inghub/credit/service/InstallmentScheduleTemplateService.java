@@ -0,0 +1,61 @@
+package com.inghub.credit.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Installment schedules only depend on the current month and the installment count, they are built once per month
+//and shared by every loan created with them.
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class InstallmentScheduleTemplateService {
+
+    private final Clock clock;
+
+    private final Map<ScheduleKey, List<LocalDate>> installmentDatesCache = new ConcurrentHashMap<>();
+    private volatile YearMonth currentMonth;
+
+    //Due dates start on the first day of next month, one per month.
+    public List<LocalDate> getInstallmentDates(int numberOfInstallment) {
+        YearMonth month = YearMonth.now(clock);
+        rollOverIfMonthChanged(month);
+        return installmentDatesCache.computeIfAbsent(new ScheduleKey(month, numberOfInstallment), this::createInstallmentDates);
+    }
+
+    //(loanAmount * (1 + interestRate)) / numberOfInstallment, rounded half up to cents
+    public BigDecimal calculateInstallmentAmount(BigDecimal loanAmount, int numberOfInstallment, BigDecimal interestRate) {
+        return loanAmount.multiply(BigDecimal.ONE.add(interestRate)).divide(BigDecimal.valueOf(numberOfInstallment), 2, RoundingMode.HALF_UP);
+    }
+
+    private void rollOverIfMonthChanged(YearMonth month) {
+        if (!month.equals(currentMonth)) {
+            log.info("Installment schedule templates rolled over to {}", month);
+            currentMonth = month;
+            installmentDatesCache.keySet().removeIf(key -> !key.startMonth().equals(month));
+        }
+    }
+
+    private List<LocalDate> createInstallmentDates(ScheduleKey key) {
+        log.debug("Creating installment schedule template for {} installments in {}", key.numberOfInstallment(), key.startMonth());
+        List<LocalDate> installmentDates = new ArrayList<>(key.numberOfInstallment());
+        LocalDate firstDayOfNextMonth = key.startMonth().plusMonths(1).atDay(1);
+        for (int i = 0; i < key.numberOfInstallment(); i++) {
+            installmentDates.add(firstDayOfNextMonth.plusMonths(i));
+        }
+        return List.copyOf(installmentDates);
+    }
+
+    private record ScheduleKey(YearMonth startMonth, int numberOfInstallment) {
+    }
+}
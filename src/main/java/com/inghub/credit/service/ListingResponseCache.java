@@ -0,0 +1,65 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.cache.ResponseCache;
+import com.inghub.credit.domain.Loan;
+import com.inghub.credit.event.LoanEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+//Serialized loan and installment listings served by ListingResponseCacheFilter. Loan listings belong to the customer,
+//installment listings to the loan; both are dropped once a write of their owner committed, and all of them after an
+//archive run.
+@Service
+@Slf4j
+public class ListingResponseCache {
+
+    private final ResponseCache loans;
+    private final ResponseCache loanInstallments;
+
+    public ListingResponseCache(MeterRegistry meterRegistry,
+                                @Value("${credit.response-cache.max-owners:10000}") int maxOwners,
+                                @Value("${credit.response-cache.max-entries-per-owner:16}") int maxEntriesPerOwner,
+                                @Value("${credit.response-cache.max-bytes:33554432}") long maxBytes) {
+        this.loans = new ResponseCache("searchLoansByCustomerId", maxOwners, maxEntriesPerOwner, maxBytes, meterRegistry);
+        this.loanInstallments = new ResponseCache("searchLoanInstallmentsByLoanId", maxOwners, maxEntriesPerOwner, maxBytes, meterRegistry);
+    }
+
+    //keyed by customer id
+    public ResponseCache loans() {
+        return loans;
+    }
+
+    //keyed by loan id
+    public ResponseCache loanInstallments() {
+        return loanInstallments;
+    }
+
+    //creates and payments, published through OutboxService
+    @TransactionalEventListener
+    public void onLoanEvent(LoanEvent event) {
+        log.debug("Invalidating cached listings of Customer ID: {} and Loan ID: {} after {} event", event.customerId(), event.loanId(), event.type());
+        invalidate(event.customerId(), event.loanId());
+    }
+
+    //writes without an event
+    public void invalidateAfterCommit(Loan loan) {
+        long customerId = loan.getCustomer().getId();
+        long loanId = loan.getId();
+        TransactionCallbacks.afterCommit(() -> invalidate(customerId, loanId));
+    }
+
+    public void invalidateAll() {
+        log.debug("Invalidating all cached listings");
+        loans.invalidateAll();
+        loanInstallments.invalidateAll();
+    }
+
+    private void invalidate(long customerId, long loanId) {
+        loans.invalidate(customerId);
+        //a listing of a loan id read before the loan was created is empty
+        loanInstallments.invalidate(loanId);
+    }
+}
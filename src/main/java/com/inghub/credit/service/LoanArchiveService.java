@@ -0,0 +1,108 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.datasource.ShardContext;
+import com.inghub.credit.datasource.ShardRouter;
+import com.inghub.credit.repository.LoanInstallmentRepository;
+import com.inghub.credit.repository.LoanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Moves paid loans and their installments to loan_archive/loan_installment_archive once they have been closed
+//for longer than min-age. Every chunk is its own transaction, so a run never holds locks on more than chunk-size loans.
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "credit.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class LoanArchiveService {
+
+    private final LoanRepository loanRepository;
+    private final LoanInstallmentRepository loanInstallmentRepository;
+    private final ShardRouter shardRouter;
+    private final LoanCountService loanCountService;
+    private final ListingResponseCache listingResponseCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final Duration minAge;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+
+    private final Counter archivedCounter;
+
+    public LoanArchiveService(LoanRepository loanRepository, LoanInstallmentRepository loanInstallmentRepository, ShardRouter shardRouter,
+                              LoanCountService loanCountService, ListingResponseCache listingResponseCache,
+                              PlatformTransactionManager transactionManager, Clock clock, MeterRegistry meterRegistry,
+                              @Value("${credit.archive.min-age:30d}") Duration minAge,
+                              @Value("${credit.archive.chunk-size:500}") int chunkSize,
+                              @Value("${credit.archive.max-chunks-per-run:20}") int maxChunksPerRun) {
+        this.loanRepository = loanRepository;
+        this.loanInstallmentRepository = loanInstallmentRepository;
+        this.shardRouter = shardRouter;
+        this.loanCountService = loanCountService;
+        this.listingResponseCache = listingResponseCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.minAge = minAge;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.archivedCounter = meterRegistry.counter("credit.archive.loans");
+    }
+
+    @Scheduled(fixedDelayString = "${credit.archive.interval-ms:3600000}")
+    public void archive() {
+        archivePaidLoans(LocalDateTime.now(clock).minus(minAge));
+    }
+
+    //returns the number of archived loans
+    public int archivePaidLoans(LocalDateTime paidBefore) {
+        int archived = 0;
+        for (int shard : shardRouter.shards()) {
+            archived += ShardContext.callInShard(shard, () -> archiveShard(paidBefore));
+        }
+        if (archived > 0) {
+            log.info("Archived {} loans paid before {}", archived, paidBefore);
+            //archived loans drop out of the hot table counts and listings of their customers, which the chunks do not read
+            loanCountService.invalidateAll();
+            listingResponseCache.invalidateAll();
+        }
+        return archived;
+    }
+
+    private int archiveShard(LocalDateTime paidBefore) {
+        int archived = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            Integer count = transactionTemplate.execute(status -> archiveChunk(paidBefore));
+            archived += count;
+            if (count < chunkSize) {
+                break;
+            }
+        }
+        return archived;
+    }
+
+    private int archiveChunk(LocalDateTime paidBefore) {
+        List<Long> loanIds = loanRepository.findArchivableIds(paidBefore, chunkSize);
+        if (loanIds.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime archiveDate = LocalDateTime.now(clock);
+        //parents first into the archive, children first out of the hot tables: foreign keys hold at every step
+        loanRepository.copyToArchive(loanIds, archiveDate);
+        int installmentCount = loanInstallmentRepository.copyToArchiveByLoanIdIn(loanIds);
+        loanInstallmentRepository.deleteByLoanIdIn(loanIds);
+        loanRepository.deleteByIdIn(loanIds);
+        log.debug("Archived loans: {} with {} installments", loanIds, installmentCount);
+        archivedCounter.increment(loanIds.size());
+        return loanIds.size();
+    }
+}
@@ -0,0 +1,97 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.cache.CountCache;
+import com.inghub.credit.event.LoanCreatedEvent;
+import com.inghub.credit.event.LoanEvent;
+import com.inghub.credit.repository.LoanSearchCriteria;
+import com.inghub.credit.repository.page.CountMode;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.function.LongSupplier;
+
+//Totals of the loan and installment listings. Loan counts belong to the customer, installment counts to the loan;
+//both are dropped once a create or pay of their owner committed, and all of them after an archive run.
+@Service
+@Slf4j
+public class LoanCountService {
+
+    private final CountCache<LoanCountKey> loanCounts;
+    private final CountCache<Boolean> loanInstallmentCounts;
+
+    public LoanCountService(MeterRegistry meterRegistry,
+                            @Value("${credit.count-cache.max-owners:10000}") int maxOwners,
+                            @Value("${credit.count-cache.max-counts-per-owner:32}") int maxCountsPerOwner) {
+        this.loanCounts = new CountCache<>("searchLoansByCustomerId", maxOwners, maxCountsPerOwner, meterRegistry);
+        this.loanInstallmentCounts = new CountCache<>("searchLoanInstallmentsByLoanId", maxOwners, maxCountsPerOwner, meterRegistry);
+    }
+
+    public long getLoanCountGeneration(long customerId) {
+        return loanCounts.generation(customerId);
+    }
+
+    public long getLoanInstallmentCountGeneration(long loanId) {
+        return loanInstallmentCounts.generation(loanId);
+    }
+
+    //null for CountMode.NONE, generation must be read before the page query
+    public Long countLoans(CountMode countMode, long customerId, LoanSearchCriteria criteria, boolean includeArchived,
+                           long generation, LongSupplier counter) {
+        return count(loanCounts, countMode, customerId, new LoanCountKey(criteria, includeArchived), generation, counter);
+    }
+
+    public Long countLoanInstallments(CountMode countMode, long loanId, boolean includeArchived, long generation, LongSupplier counter) {
+        return count(loanInstallmentCounts, countMode, loanId, includeArchived, generation, counter);
+    }
+
+    //cached total for CountMode.ESTIMATE without a counter, the reactive listings count without blocking and put the result
+    public Long findLoanCount(long customerId, LoanSearchCriteria criteria, boolean includeArchived) {
+        return loanCounts.find(customerId, new LoanCountKey(criteria, includeArchived));
+    }
+
+    public void putLoanCount(long customerId, LoanSearchCriteria criteria, boolean includeArchived, long generation, long count) {
+        loanCounts.put(customerId, new LoanCountKey(criteria, includeArchived), generation, count);
+    }
+
+    public Long findLoanInstallmentCount(long loanId, boolean includeArchived) {
+        return loanInstallmentCounts.find(loanId, includeArchived);
+    }
+
+    public void putLoanInstallmentCount(long loanId, boolean includeArchived, long generation, long count) {
+        loanInstallmentCounts.put(loanId, includeArchived, generation, count);
+    }
+
+    @TransactionalEventListener
+    public void onLoanEvent(LoanEvent event) {
+        log.debug("Invalidating listing counts of Customer ID: {} after {} event", event.customerId(), event.type());
+        loanCounts.invalidate(event.customerId());
+        //installments of a loan only change on creation, a count of 0 may have been cached before it existed
+        if (event instanceof LoanCreatedEvent) {
+            loanInstallmentCounts.invalidate(event.loanId());
+        }
+    }
+
+    public void invalidateAll() {
+        log.debug("Invalidating all listing counts");
+        loanCounts.invalidateAll();
+        loanInstallmentCounts.invalidateAll();
+    }
+
+    private static <K> Long count(CountCache<K> cache, CountMode countMode, long owner, K key, long generation, LongSupplier counter) {
+        return switch (countMode) {
+            case NONE -> null;
+            case ESTIMATE -> cache.get(owner, key, generation, counter);
+            case EXACT -> {
+                long count = counter.getAsLong();
+                cache.put(owner, key, generation, count);
+                yield count;
+            }
+        };
+    }
+
+    private record LoanCountKey(LoanSearchCriteria criteria, boolean includeArchived) {
+    }
+}
@@ -1,27 +1,34 @@
 package com.inghub.credit.service;
 
 import com.inghub.credit.constant.ConstantValues;
+import com.inghub.credit.datasource.ShardKey;
 import com.inghub.credit.domain.Loan;
 import com.inghub.credit.domain.LoanInstallment;
+import com.inghub.credit.domain.LoanInstallmentView;
 import com.inghub.credit.exception.ResourceNotFoundException;
+import com.inghub.credit.repository.CustomerUnpaidInstallmentRow;
 import com.inghub.credit.repository.LoanInstallmentRepository;
+import com.inghub.credit.repository.LoanInstallmentViewRepository;
+import com.inghub.credit.repository.page.CountMode;
 import com.inghub.credit.repository.page.PageRequestBuilder;
+import com.inghub.credit.repository.page.SortRegistry;
 import com.inghub.credit.response.ApiModelPage;
 import com.inghub.credit.response.ListLoanInstallmentsResponse;
 import com.inghub.credit.response.dto.LoanInstallmentDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -29,6 +36,9 @@ import java.util.stream.Collectors;
 public class LoanInstallmentService {
 
     private final LoanInstallmentRepository loanInstallmentRepository;
+    private final LoanInstallmentViewRepository loanInstallmentViewRepository;
+    private final InstallmentScheduleTemplateService installmentScheduleTemplateService;
+    private final LoanCountService loanCountService;
 
     public LoanInstallment findById(Long id) {
         log.info("Attempting to find LoanInstallment with ID: {}", id);
@@ -42,60 +52,46 @@ public class LoanInstallmentService {
         }
     }
 
-    public Page<LoanInstallment> getPaginatedLoanInstallmentsByLoanId(Long loanId, PageRequest pageRequest) {
+    public Page<LoanInstallment> getPaginatedLoanInstallmentsByLoanId(@ShardKey(ShardKey.Type.LOAN) Long loanId, PageRequest pageRequest) {
         log.info("Fetching paginated LoanInstallments for Loan ID: {}", loanId);
         return loanInstallmentRepository.findByLoanId(loanId, pageRequest);
     }
 
-    public List<LoanInstallment> findLoanInstallmentsByLoanIdAndIsPaid(Long loanId, boolean paid) {
+    public List<LoanInstallment> findLoanInstallmentsByLoanIdAndIsPaid(@ShardKey(ShardKey.Type.LOAN) Long loanId, boolean paid) {
         log.info("Fetching LoanInstallments for Loan ID: {} with paid status: {}", loanId, paid);
         return loanInstallmentRepository.findByLoanIdAndPaidOrderByDueDate(loanId, paid);
     }
 
-    public ListLoanInstallmentsResponse searchLoanInstallmentsByLoanId(Long loanId, Integer pageSize, Integer pageNumber, String sort) {
-        log.info("Searching LoanInstallments for Loan ID: {} with pageSize: {}, pageNumber: {}, sort: {}", loanId, pageSize, pageNumber, sort);
+    public ListLoanInstallmentsResponse searchLoanInstallmentsByLoanId(@ShardKey(ShardKey.Type.LOAN) Long loanId, boolean includeArchived, CountMode countMode,
+                                                                       Integer pageSize, Integer pageNumber, String sort) {
+        log.info("Searching LoanInstallments for Loan ID: {} with includeArchived: {}, countMode: {}, pageSize: {}, pageNumber: {}, sort: {}",
+                 loanId, includeArchived, countMode, pageSize, pageNumber, sort);
 
         //TODO: check whether the loan exists with given loanId and throw exception?
 
-        PageRequest pageRequest = PageRequestBuilder.getPageRequest(pageSize, pageNumber, sort);
-        Page<LoanInstallment> loanInstallmentsPage = getPaginatedLoanInstallmentsByLoanId(loanId, pageRequest);
-        List<LoanInstallment> loanInstallments = loanInstallmentsPage.getContent();
-
-        ApiModelPage pagingResponse = new ApiModelPage(pageRequest.getPageNumber() + 1, pageRequest.getPageSize(),
-                                                       loanInstallmentsPage.getTotalElements(), loanInstallmentsPage.getTotalPages(),
-                                                       loanInstallmentsPage.hasNext(), loanInstallmentsPage.hasPrevious());
+        PageRequest pageRequest = PageRequestBuilder.getPageRequest(pageSize, pageNumber, sort, SortRegistry.LOAN_INSTALLMENTS);
+        ScrollPosition position = PageRequestBuilder.getScrollPosition(pageRequest);
+        Limit limit = Limit.of(pageRequest.getPageSize());
+        long countGeneration = loanCountService.getLoanInstallmentCountGeneration(loanId);
+        Window<LoanInstallmentDTO> loanInstallmentsPage = includeArchived
+                ? loanInstallmentViewRepository.findByLoanId(loanId, position, limit, pageRequest.getSort()).map(this::mapLoanInstallmentViewToDTO)
+                : loanInstallmentRepository.findByLoanId(loanId, position, limit, pageRequest.getSort()).map(this::mapLoanInstallmentEntityToDTO);
+        List<LoanInstallmentDTO> loanInstallments = loanInstallmentsPage.getContent();
+
+        Long totalNumberOfRecords = loanCountService.countLoanInstallments(countMode, loanId, includeArchived, countGeneration,
+                PageRequestBuilder.getTotalCounter(pageRequest, loanInstallmentsPage, () -> includeArchived
+                        ? loanInstallmentViewRepository.countByLoanId(loanId)
+                        : loanInstallmentRepository.countByLoanId(loanId)));
+        ApiModelPage pagingResponse = ApiModelPage.of(pageRequest, loanInstallmentsPage.hasNext(), totalNumberOfRecords);
         log.info("LoanInstallments search result for Loan ID: {} returned {} installments.", loanId, loanInstallments.size());
-        return new ListLoanInstallmentsResponse(loanId, loanInstallments.stream().map(this::mapLoanInstallmentEntityToDTO).collect(Collectors.toList()), pagingResponse);
-    }
-
-    public static List<LocalDate> createInstallmentDatesByInstallmentCount(int numberOfInstallment) {
-        log.info("Creating installment dates for {} installments.", numberOfInstallment);
-        List<LocalDate> installmentDates = new ArrayList<>(numberOfInstallment);
-        LocalDate findFirstDayOfNextMonth = findFirstDayOfNextMonth();
-        for (int i = 0; i < numberOfInstallment; i++) {
-            LocalDate date = findFirstDayOfNextMonth.plusMonths(i);
-            installmentDates.add(date);
-        }
-
-        return installmentDates;
+        return new ListLoanInstallmentsResponse(loanId, loanInstallments, pagingResponse);
     }
 
-    public static LocalDate findFirstDayOfNextMonth() {
-        LocalDate today = LocalDate.now();
-        return today.withDayOfMonth(1).plusMonths(1);
-    }
-
-    public static BigDecimal calculateInstallmentAmount(BigDecimal loanAmount, int numberOfInstallment, BigDecimal interestRate) {
-        log.info("Calculating installment amount for loanAmount: {}, numberOfInstallments: {}, interestRate: {}", loanAmount, numberOfInstallment, interestRate);
-        BigDecimal interestRatio = BigDecimal.ONE.add(interestRate);
-        BigDecimal totalValueToBePaid = loanAmount.multiply(interestRatio);
-        return totalValueToBePaid.divide(new BigDecimal(numberOfInstallment), 2, RoundingMode.HALF_UP);
-    }
-
-    public List<LoanInstallment> createLoanInstallments(Loan loan, BigDecimal loanAmount, int numberOfInstallment, List<LocalDate> installmentDates, BigDecimal interestRate) {
+    public List<LoanInstallment> createLoanInstallments(Loan loan, BigDecimal loanAmount, int numberOfInstallment, BigDecimal interestRate) {
         log.info("Creating LoanInstallments for Loan ID: {} with loanAmount: {}, numberOfInstallments: {}, interestRate: {}", loan.getId(), loanAmount, numberOfInstallment, interestRate);
         List<LoanInstallment> loanInstallments = new ArrayList<>(numberOfInstallment);
-        BigDecimal calculateInstallmentAmount = calculateInstallmentAmount(loanAmount, numberOfInstallment, interestRate);
+        List<LocalDate> installmentDates = installmentScheduleTemplateService.getInstallmentDates(numberOfInstallment);
+        BigDecimal calculateInstallmentAmount = installmentScheduleTemplateService.calculateInstallmentAmount(loanAmount, numberOfInstallment, interestRate);
         for (LocalDate installmentDate : installmentDates) {
             LoanInstallment loanInstallment = new LoanInstallment();
             loanInstallment.setLoan(loan);
@@ -110,58 +106,24 @@ public class LoanInstallmentService {
         return loanInstallments;
     }
 
-    @Transactional
-    public void payMultipleLoanInstallments(List<Long> loanInstallmentIds) {
-        log.info("Processing payments for multiple LoanInstallments: {}", loanInstallmentIds);
-        for (Long id : loanInstallmentIds) {
-            LoanInstallment loanInstallment = findById(id);
-            loanInstallment.setPaidAmount(loanInstallment.getAmount());
-            loanInstallment.setPaymentDate(LocalDateTime.now());
-            loanInstallment.setPaid(true);
-            loanInstallmentRepository.save(loanInstallment);
-            log.info("LoanInstallment with ID: {} marked as paid.", id);
-        }
+    //Unpaid installments of every open loan of the customer due until dueUntil, in due date order.
+    public List<CustomerUnpaidInstallmentRow> findPayableInstallmentsByCustomerId(@ShardKey(ShardKey.Type.CUSTOMER) Long customerId, LocalDate dueUntil) {
+        log.info("Finding installments of Customer ID: {} due until {}", customerId, dueUntil);
+        return loanInstallmentRepository.findUnpaidRowsByCustomerIdDueUntil(customerId, dueUntil);
     }
 
-    //Installments have due date that still more than 3 calendar months cannot be paid.
-    public static boolean checkInstallmentHaveDueDateMoreThanGivenDurationInMonths(LocalDate installmentDueDate, int months) {
-        log.info("Checking if LoanInstallment with due date {} is more than {} months from now.", installmentDueDate, months);
-        LocalDate currentDate = LocalDate.now();
-        LocalDate dateAfterGivenMonthsFromNow = currentDate.plusMonths(months);
-        boolean result = installmentDueDate.isAfter(dateAfterGivenMonthsFromNow);
-        log.info("LoanInstallment with due date {} is {} months from now.", installmentDueDate, result ? "more" : "not more");
-        return result;
+    //Pays the given installments with one update, returns how many of them were still unpaid.
+    @Transactional
+    public int settleLoanInstallments(List<Long> loanInstallmentIds) {
+        log.info("Settling LoanInstallments: {}", loanInstallmentIds);
+        return loanInstallmentRepository.settle(loanInstallmentIds, LocalDateTime.now());
     }
 
-    public List<LoanInstallment> findEligibleInstallments(List<LoanInstallment> loanInstallmentList, BigDecimal paidAmount) {
-        log.debug("Finding installments that can be paid with amount: {}", paidAmount);
-
-        Queue<LoanInstallment> installPaymentQueue = new LinkedList<>(loanInstallmentList);
-        List<LoanInstallment> ableToPayInstallments = new ArrayList<>();
-
-        while (!installPaymentQueue.isEmpty() && paidAmount.compareTo(BigDecimal.ZERO) > 0) {
-            LoanInstallment nextInstallment = installPaymentQueue.peek(); // Get the earliest installment.
-            log.debug("Evaluating installment with ID: {}", nextInstallment.getId());
-
-            //Installments have due date that still more than 3 calendar months cannot be paid.
-            boolean installmentDueDateIsAfter3Months = LoanInstallmentService.checkInstallmentHaveDueDateMoreThanGivenDurationInMonths(nextInstallment.getDueDate(), 3);
-            if (installmentDueDateIsAfter3Months) {
-                log.info("Stopping payments. Installment with ID {} has a due date more than 3 months away.", nextInstallment.getId());
-                break;
-            }
-
-            if (paidAmount.compareTo(nextInstallment.getAmount()) >= 0) {
-                log.debug("Adding installment with ID: {} to payment list", nextInstallment.getId());
-                paidAmount = paidAmount.subtract(nextInstallment.getAmount()); // Deduct the installment amount from the payment.
-                ableToPayInstallments.add(nextInstallment);
-                installPaymentQueue.poll(); // Remove the paid installment and to list.
-            } else {
-                log.info("Insufficient funds to pay installment with ID: {}", nextInstallment.getId());
-                break; // Stop if the amount is insufficient to pay the next installment.
-            }
-        }
-        log.info("Total installments count that can be paid: {}", ableToPayInstallments.size());
-        return ableToPayInstallments;
+    //Adds amount to the paid amount of an installment that stays unpaid, false when it no longer owes more than amount.
+    @Transactional
+    public boolean payLoanInstallmentPartially(Long loanInstallmentId, BigDecimal amount) {
+        log.info("Paying {} of LoanInstallment with ID: {}", amount, loanInstallmentId);
+        return loanInstallmentRepository.payPartially(loanInstallmentId, amount, LocalDateTime.now()) == 1;
     }
 
     public static void checkNumberOfInstallmentIsValid(int numberOfInstallment) {
@@ -180,4 +142,11 @@ public class LoanInstallmentService {
                                       loanInstallment.getAmount().doubleValue(), loanInstallment.getPaidAmount().doubleValue(), loanInstallment.getDueDate(),
                                       loanInstallment.getPaymentDate(), loanInstallment.isPaid());
     }
-}
\ No newline at end of file
+
+    private LoanInstallmentDTO mapLoanInstallmentViewToDTO(LoanInstallmentView loanInstallment) {
+        log.debug("Mapping LoanInstallmentView to DTO for LoanInstallment ID: {}", loanInstallment.getId());
+        return new LoanInstallmentDTO(loanInstallment.getId(), loanInstallment.getCreateDate(), loanInstallment.getUpdateDate(),
+                                      loanInstallment.getAmount().doubleValue(), loanInstallment.getPaidAmount().doubleValue(), loanInstallment.getDueDate(),
+                                      loanInstallment.getPaymentDate(), loanInstallment.isPaid());
+    }
+}
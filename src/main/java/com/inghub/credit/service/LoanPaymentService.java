@@ -1,17 +1,27 @@
 package com.inghub.credit.service;
 
-import com.inghub.credit.domain.LoanInstallment;
+import com.inghub.credit.datasource.ShardKey;
+import com.inghub.credit.event.InstallmentsPaidEvent;
+import com.inghub.credit.event.LoanClosedEvent;
 import com.inghub.credit.exception.CreditException;
 import com.inghub.credit.exception.ResourceNotFoundException;
+import com.inghub.credit.journal.PaymentJournal;
+import com.inghub.credit.repository.CustomerUnpaidInstallmentRow;
+import com.inghub.credit.response.PayCustomerLoansResponse;
 import com.inghub.credit.response.PayLoanResponse;
+import com.inghub.credit.service.allocation.PaymentAllocation;
+import com.inghub.credit.service.allocation.PaymentAllocationEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 @Slf4j
@@ -21,54 +31,159 @@ public class LoanPaymentService {
     private final LoanService loanService;
     private final LoanInstallmentService loanInstallmentService;
     private final CustomerService customerService;
+    private final OutboxService outboxService;
+    private final UnpaidInstallmentIndex unpaidInstallmentIndex;
+    private final PaymentAllocationEngine paymentAllocationEngine;
+    private final PaymentJournal paymentJournal;
 
     @Transactional
-    public PayLoanResponse payLoan(Long loanId, BigDecimal paidAmount) {
+    public PayLoanResponse payLoan(@ShardKey(ShardKey.Type.LOAN) Long loanId, BigDecimal paidAmount) {
         log.info("Starting payLoan with loanId: {} and paidAmount: {}", loanId, paidAmount);
 
-        List<LoanInstallment> unPaidInstallmentList = loanInstallmentService.findLoanInstallmentsByLoanIdAndIsPaid(loanId, false);
-        if (unPaidInstallmentList.isEmpty()) {
+        long paidMinorUnits = UnpaidInstallments.toMinorUnits(paidAmount);
+        UnpaidInstallments unpaidInstallments = unpaidInstallmentIndex.get(loanId, paidMinorUnits);
+        if (unpaidInstallments.remainingCount() == 0) {
             log.error("No unpaid installments found for loanId: {}", loanId);
             throw new ResourceNotFoundException("Unpaid installment could not found for given loan id: " + loanId);
         }
 
-        BigDecimal installmentAmount = unPaidInstallmentList.get(0).getAmount();
-        log.debug("First unpaid installment amount for loanId {} is {}", loanId, installmentAmount);
+        if (paymentAllocationEngine.wholeInstallmentsOnly() && !unpaidInstallments.isEmpty()) {
+            BigDecimal installmentAmount = UnpaidInstallments.fromMinorUnits(unpaidInstallments.amount(0));
+            log.debug("First unpaid installment amount for loanId {} is {}", loanId, installmentAmount);
 
-        //Installments should be paid wholly or not at all.
-        checkPaymentAmountMoreThanInstallmentAmount(installmentAmount, paidAmount);
+            //Installments should be paid wholly or not at all.
+            checkPaymentAmountMoreThanInstallmentAmount(installmentAmount, paidAmount);
+        }
 
-        //find installments to be paid with paid amount
-        List<LoanInstallment> eligibleInstallmentList = loanInstallmentService.findEligibleInstallments(unPaidInstallmentList, paidAmount);
-        if (eligibleInstallmentList.isEmpty()) {
+        //find installments to be paid with paid amount, installments due past the horizon cannot be paid
+        PaymentAllocation allocation = paymentAllocationEngine.allocate(unpaidInstallments, paidMinorUnits);
+        if (allocation.isEmpty()) {
             log.error("No installments are eligible for payment for loanId: {}", loanId);
             throw new CreditException("No installments are eligible for payment for loanId: " + loanId);
         }
-
-        int eligibleInstallmentCount = eligibleInstallmentList.size();
+        int eligibleInstallmentCount = allocation.paidInstallmentCount();
         log.info("{} installments can be paid for loanId: {}", eligibleInstallmentCount, loanId);
 
         //pay eligible installments
-        loanInstallmentService.payMultipleLoanInstallments(eligibleInstallmentList.stream().map(LoanInstallment::getId).collect(Collectors.toList()));
+        List<Long> eligibleInstallmentIds = unpaidInstallments.ids(allocation.fromIndex(), allocation.toIndex());
+        int settledInstallmentCount = eligibleInstallmentIds.isEmpty() ? 0 : loanInstallmentService.settleLoanInstallments(eligibleInstallmentIds);
+        boolean partialPaymentApplied = !allocation.hasPartialPayment() || loanInstallmentService.payLoanInstallmentPartially(
+                unpaidInstallments.id(allocation.partialIndex()), UnpaidInstallments.fromMinorUnits(allocation.partialAmount()));
+        if (settledInstallmentCount != eligibleInstallmentCount || !partialPaymentApplied) {
+            unpaidInstallmentIndex.remove(loanId);
+            log.error("Expected to pay {} installments for loanId: {} but {} were unpaid", eligibleInstallmentCount, loanId, settledInstallmentCount);
+            throw new CreditException("Installments of loanId: " + loanId + " changed during payment, please retry");
+        }
         log.info("Paid {} installments for loanId: {}", eligibleInstallmentCount, loanId);
 
-        //if all installments are paid, update Loan entity
-        boolean allInstallmentsPaid = unPaidInstallmentList.size() == eligibleInstallmentList.size();
+        //if all installments are paid, close the loan
+        long customerId = unpaidInstallments.customerId();
+        boolean allInstallmentsPaid = unpaidInstallments.remainingCount() == eligibleInstallmentCount;
         if (allInstallmentsPaid) {
             log.info("All installments paid for loanId: {}", loanId);
-            loanService.updateLoanIsPaidStatus(loanId, true);
+            loanService.closeLoan(loanId);
         }
 
         //update customer used credit limit according to paid installment amount
-        long customerId = unPaidInstallmentList.get(0).getLoan().getCustomer().getId();
-        BigDecimal totalDeductedAmount = installmentAmount.multiply(BigDecimal.valueOf(eligibleInstallmentCount));
+        BigDecimal totalDeductedAmount = UnpaidInstallments.fromMinorUnits(allocation.totalAmount());
         log.debug("Decreasing credit limit for customerId: {} by {}", customerId, totalDeductedAmount);
         customerService.decreaseCustomerUsedCreditLimit(customerId, totalDeductedAmount);
 
+        outboxService.append(allocation.hasPartialPayment()
+                ? new InstallmentsPaidEvent(loanId, customerId, eligibleInstallmentIds, totalDeductedAmount, unpaidInstallments.id(allocation.partialIndex()),
+                                            UnpaidInstallments.fromMinorUnits(unpaidInstallments.amount(allocation.partialIndex()) - allocation.partialAmount()))
+                : new InstallmentsPaidEvent(loanId, customerId, eligibleInstallmentIds, totalDeductedAmount));
+        if (allInstallmentsPaid) {
+            outboxService.append(new LoanClosedEvent(loanId, customerId, UnpaidInstallments.fromMinorUnits(unpaidInstallments.loanAmount())));
+        }
+        unpaidInstallmentIndex.replaceAfterCommit(unpaidInstallments, unpaidInstallments.afterPayment(allocation));
+        TransactionCallbacks.afterCommit(() -> paymentJournal.append(loanId, allocation.totalAmount(), eligibleInstallmentIds,
+                allocation.hasPartialPayment() ? unpaidInstallments.id(allocation.partialIndex()) : 0,
+                allocation.hasPartialPayment() ? unpaidInstallments.amount(allocation.partialIndex()) - allocation.partialAmount() : 0));
+
         log.info("Completed payLoan for loanId: {}", loanId);
         return new PayLoanResponse(loanId, eligibleInstallmentCount, totalDeductedAmount.doubleValue(), allInstallmentsPaid);
     }
 
+    //One payment over every open loan of the customer, the loans live in the shard of the customer. The payable
+    //installments of all loans are read with one query and allocated by due date as if they were one loan, settled
+    //with one update and the used credit limit is decreased once. Events and journal records stay per loan.
+    @Transactional
+    public PayCustomerLoansResponse payCustomerLoans(@ShardKey(ShardKey.Type.CUSTOMER) Long customerId, BigDecimal paidAmount) {
+        log.info("Starting payCustomerLoans with customerId: {} and paidAmount: {}", customerId, paidAmount);
+
+        long paidMinorUnits = UnpaidInstallments.toMinorUnits(paidAmount);
+        List<CustomerUnpaidInstallmentRow> rows = loanInstallmentService.findPayableInstallmentsByCustomerId(
+                customerId, LocalDate.ofEpochDay(paymentAllocationEngine.horizonEpochDay()));
+        if (rows.isEmpty()) {
+            log.error("No payable installments found for customerId: {}", customerId);
+            throw new ResourceNotFoundException("Payable installment could not found for given customer id: " + customerId);
+        }
+        UnpaidInstallments unpaidInstallments = UnpaidInstallments.ofCustomer(customerId, rows);
+
+        if (paymentAllocationEngine.wholeInstallmentsOnly()) {
+            //Installments should be paid wholly or not at all.
+            checkPaymentAmountMoreThanInstallmentAmount(UnpaidInstallments.fromMinorUnits(unpaidInstallments.amount(0)), paidAmount);
+        }
+        PaymentAllocation allocation = paymentAllocationEngine.allocate(unpaidInstallments, paidMinorUnits);
+        if (allocation.isEmpty()) {
+            log.error("No installments are eligible for payment for customerId: {}", customerId);
+            throw new CreditException("No installments are eligible for payment for customerId: " + customerId);
+        }
+
+        //installments of all loans with one update, the partially paid one with a second
+        List<Long> eligibleInstallmentIds = unpaidInstallments.ids(allocation.fromIndex(), allocation.toIndex());
+        int settledInstallmentCount = eligibleInstallmentIds.isEmpty() ? 0 : loanInstallmentService.settleLoanInstallments(eligibleInstallmentIds);
+        boolean partialPaymentApplied = !allocation.hasPartialPayment() || loanInstallmentService.payLoanInstallmentPartially(
+                unpaidInstallments.id(allocation.partialIndex()), UnpaidInstallments.fromMinorUnits(allocation.partialAmount()));
+        if (settledInstallmentCount != allocation.paidInstallmentCount() || !partialPaymentApplied) {
+            rows.forEach(row -> unpaidInstallmentIndex.remove(row.loanId()));
+            log.error("Expected to pay {} installments for customerId: {} but {} were unpaid", allocation.paidInstallmentCount(), customerId, settledInstallmentCount);
+            throw new CreditException("Installments of customerId: " + customerId + " changed during payment, please retry");
+        }
+
+        Map<Long, LoanPayment> loanPayments = new LinkedHashMap<>();
+        for (int i = allocation.fromIndex(); i < allocation.toIndex(); i++) {
+            loanPayments.computeIfAbsent(rows.get(i).loanId(), loanId -> new LoanPayment()).pay(rows.get(i), unpaidInstallments.amount(i));
+        }
+        if (allocation.hasPartialPayment()) {
+            int partialIndex = allocation.partialIndex();
+            loanPayments.computeIfAbsent(rows.get(partialIndex).loanId(), loanId -> new LoanPayment())
+                    .payPartially(rows.get(partialIndex), allocation.partialAmount(), unpaidInstallments.amount(partialIndex) - allocation.partialAmount());
+        }
+        List<Long> closedLoanIds = loanPayments.values().stream().filter(LoanPayment::closesLoan).map(loanPayment -> loanPayment.row.loanId()).toList();
+        if (!closedLoanIds.isEmpty()) {
+            log.info("All installments paid for loanIds: {}", closedLoanIds);
+            loanService.closeLoans(closedLoanIds);
+        }
+
+        BigDecimal totalDeductedAmount = UnpaidInstallments.fromMinorUnits(allocation.totalAmount());
+        log.debug("Decreasing credit limit for customerId: {} by {}", customerId, totalDeductedAmount);
+        customerService.decreaseCustomerUsedCreditLimit(customerId, totalDeductedAmount);
+
+        List<PayLoanResponse> loanResponses = new ArrayList<>(loanPayments.size());
+        for (LoanPayment loanPayment : loanPayments.values()) {
+            long loanId = loanPayment.row.loanId();
+            BigDecimal loanPaidAmount = UnpaidInstallments.fromMinorUnits(loanPayment.amount);
+            outboxService.append(loanPayment.partialId != 0
+                    ? new InstallmentsPaidEvent(loanId, customerId, loanPayment.installmentIds, loanPaidAmount, loanPayment.partialId,
+                                                UnpaidInstallments.fromMinorUnits(loanPayment.partialOutstanding))
+                    : new InstallmentsPaidEvent(loanId, customerId, loanPayment.installmentIds, loanPaidAmount));
+            if (loanPayment.closesLoan()) {
+                outboxService.append(new LoanClosedEvent(loanId, customerId, loanPayment.row.loanAmount()));
+            }
+            loanResponses.add(new PayLoanResponse(loanId, loanPayment.installmentIds.size(), loanPaidAmount.doubleValue(), loanPayment.closesLoan()));
+        }
+        //index entries of the paid loans are reloaded by their next payment
+        TransactionCallbacks.afterCommit(() -> loanPayments.values().forEach(loanPayment -> {
+            unpaidInstallmentIndex.remove(loanPayment.row.loanId());
+            paymentJournal.append(loanPayment.row.loanId(), loanPayment.amount, loanPayment.installmentIds, loanPayment.partialId, loanPayment.partialOutstanding);
+        }));
+
+        log.info("Completed payCustomerLoans for customerId: {}, {} installments of {} loans", customerId, allocation.paidInstallmentCount(), loanPayments.size());
+        return new PayCustomerLoansResponse(customerId, allocation.paidInstallmentCount(), totalDeductedAmount.doubleValue(), loanResponses);
+    }
+
     //Installments should be paid wholly or not at all.
     public static void checkPaymentAmountMoreThanInstallmentAmount(BigDecimal installmentAmount, BigDecimal paidAmount) {
         log.debug("Validating payment amount. Installment amount: {}, Paid amount: {}", installmentAmount, paidAmount);
@@ -83,5 +198,30 @@ public class LoanPaymentService {
         }
     }
 
+    //what payCustomerLoans pays of one loan, amounts in minor units
+    private static final class LoanPayment {
 
+        private final List<Long> installmentIds = new ArrayList<>();
+        private CustomerUnpaidInstallmentRow row;
+        private long amount;
+        private long partialId;
+        private long partialOutstanding;
+
+        private void pay(CustomerUnpaidInstallmentRow installment, long installmentAmount) {
+            row = installment;
+            installmentIds.add(installment.id());
+            amount += installmentAmount;
+        }
+
+        private void payPartially(CustomerUnpaidInstallmentRow installment, long partialAmount, long outstanding) {
+            row = installment;
+            amount += partialAmount;
+            partialId = installment.id();
+            partialOutstanding = outstanding;
+        }
+
+        private boolean closesLoan() {
+            return installmentIds.size() == row.loanUnpaidCount();
+        }
+    }
 }
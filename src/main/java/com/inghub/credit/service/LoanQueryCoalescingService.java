@@ -0,0 +1,71 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.cache.SingleFlight;
+import com.inghub.credit.repository.LoanSearchCriteria;
+import com.inghub.credit.repository.page.CountMode;
+import com.inghub.credit.response.ListLoanInstallmentsResponse;
+import com.inghub.credit.response.ListLoanResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+//Identical listing requests in flight at the same time (several widgets of one screen) share one query and count.
+//Keys carry the ListingResponseCache generation of the owner, so a call started before a write of the owner committed
+//is not joined after it (its result could otherwise be cached as current). Writes on other nodes are not seen, keep
+//credit.coalescing.window-ms small (default 0: only calls that overlap are shared).
+@Service
+@Slf4j
+public class LoanQueryCoalescingService {
+
+    private final LoanService loanService;
+    private final LoanInstallmentService loanInstallmentService;
+    private final ListingResponseCache listingResponseCache;
+    private final boolean enabled;
+    private final SingleFlight<LoanSearchKey, ListLoanResponse> loanSearches;
+    private final SingleFlight<LoanInstallmentSearchKey, ListLoanInstallmentsResponse> loanInstallmentSearches;
+
+    public LoanQueryCoalescingService(LoanService loanService, LoanInstallmentService loanInstallmentService,
+                                      ListingResponseCache listingResponseCache, MeterRegistry meterRegistry,
+                                      @Value("${credit.coalescing.enabled:true}") boolean enabled,
+                                      @Value("${credit.coalescing.window-ms:0}") long windowMillis) {
+        this.loanService = loanService;
+        this.loanInstallmentService = loanInstallmentService;
+        this.listingResponseCache = listingResponseCache;
+        this.enabled = enabled;
+        this.loanSearches = new SingleFlight<>("searchLoansByCustomerId", Duration.ofMillis(windowMillis), meterRegistry);
+        this.loanInstallmentSearches = new SingleFlight<>("searchLoanInstallmentsByLoanId", Duration.ofMillis(windowMillis), meterRegistry);
+    }
+
+    public ListLoanResponse searchLoansByCustomerId(Long customerId, LoanSearchCriteria criteria, boolean includeArchived,
+                                                    CountMode countMode, Integer pageSize, Integer pageNumber, String sort) {
+        if (!enabled) {
+            return loanService.searchLoansByCustomerId(customerId, criteria, includeArchived, countMode, pageSize, pageNumber, sort);
+        }
+        LoanSearchKey key = new LoanSearchKey(customerId, listingResponseCache.loans().generation(customerId), criteria, includeArchived, countMode,
+                                              pageSize, pageNumber, sort);
+        return loanSearches.execute(key, () -> loanService.searchLoansByCustomerId(customerId, criteria, includeArchived, countMode,
+                                                                                   pageSize, pageNumber, sort));
+    }
+
+    public ListLoanInstallmentsResponse searchLoanInstallmentsByLoanId(Long loanId, boolean includeArchived, CountMode countMode,
+                                                                       Integer pageSize, Integer pageNumber, String sort) {
+        if (!enabled) {
+            return loanInstallmentService.searchLoanInstallmentsByLoanId(loanId, includeArchived, countMode, pageSize, pageNumber, sort);
+        }
+        LoanInstallmentSearchKey key = new LoanInstallmentSearchKey(loanId, listingResponseCache.loanInstallments().generation(loanId), includeArchived,
+                                                                    countMode, pageSize, pageNumber, sort);
+        return loanInstallmentSearches.execute(key, () -> loanInstallmentService.searchLoanInstallmentsByLoanId(loanId, includeArchived, countMode,
+                                                                                                               pageSize, pageNumber, sort));
+    }
+
+    private record LoanSearchKey(Long customerId, long generation, LoanSearchCriteria criteria, boolean includeArchived, CountMode countMode,
+                                 Integer pageSize, Integer pageNumber, String sort) {
+    }
+
+    private record LoanInstallmentSearchKey(Long loanId, long generation, boolean includeArchived, CountMode countMode,
+                                            Integer pageSize, Integer pageNumber, String sort) {
+    }
+}
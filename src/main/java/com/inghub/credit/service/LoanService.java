@@ -1,30 +1,37 @@
 package com.inghub.credit.service;
 
 import com.inghub.credit.constant.ConstantValues;
+import com.inghub.credit.datasource.ShardKey;
 import com.inghub.credit.domain.Customer;
 import com.inghub.credit.domain.Loan;
 import com.inghub.credit.domain.LoanInstallment;
+import com.inghub.credit.domain.LoanView;
+import com.inghub.credit.event.LoanCreatedEvent;
 import com.inghub.credit.exception.ResourceNotFoundException;
 import com.inghub.credit.repository.LoanRepository;
+import com.inghub.credit.repository.LoanSearchCriteria;
 import com.inghub.credit.repository.LoanSpecification;
+import com.inghub.credit.repository.LoanViewRepository;
+import com.inghub.credit.repository.page.CountMode;
 import com.inghub.credit.repository.page.PageRequestBuilder;
+import com.inghub.credit.repository.page.SortRegistry;
 import com.inghub.credit.response.ApiModelPage;
 import com.inghub.credit.response.CreateLoanResponse;
 import com.inghub.credit.response.ListLoanResponse;
 import com.inghub.credit.response.dto.LoanDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -32,10 +39,15 @@ import java.util.stream.Collectors;
 public class LoanService {
 
     private final LoanRepository loanRepository;
+    private final LoanViewRepository loanViewRepository;
     private final CustomerService customerService;
     private final LoanInstallmentService loanInstallmentService;
+    private final OutboxService outboxService;
+    private final LoanCountService loanCountService;
+    private final UnpaidInstallmentIndex unpaidInstallmentIndex;
+    private final ListingResponseCache listingResponseCache;
 
-    public Loan findById(Long id) {
+    public Loan findById(@ShardKey(ShardKey.Type.LOAN) Long id) {
         log.info("Attempting to find Loan with ID: {}", id);
         Optional<Loan> loan = loanRepository.findById(id);
         if (loan.isEmpty()) {
@@ -48,36 +60,62 @@ public class LoanService {
     }
 
     @Transactional
-    public void updateLoanIsPaidStatus(Long loanId, boolean paid) {
+    public void updateLoanIsPaidStatus(@ShardKey(ShardKey.Type.LOAN) Long loanId, boolean paid) {
         log.info("Updating Loan with ID: {} to paid status: {}", loanId, paid);
         Loan loan = findById(loanId);
         loan.setPaid(paid);
         loanRepository.save(loan);
+        listingResponseCache.invalidateAfterCommit(loan);
         log.info("Loan with ID: {} updated to paid status: {}", loanId, paid);
     }
 
-    public ListLoanResponse searchLoansByCustomerId(Long customerId, BigDecimal loanAmount, Integer installmentCount, Boolean paid, Integer pageSize, Integer pageNumber, String sort) {
-        log.info("Searching loans for customerId: {}, loanAmount: {}, installmentCount: {}, paid: {}, pageSize: {}, pageNumber: {}, sort: {}",
-                 customerId, loanAmount, installmentCount, paid, pageSize, pageNumber, sort);
+    //false when the loan was already closed
+    @Transactional
+    public boolean closeLoan(@ShardKey(ShardKey.Type.LOAN) Long loanId) {
+        log.info("Closing Loan with ID: {}", loanId);
+        return loanRepository.close(loanId, LocalDateTime.now()) == 1;
+    }
+
+    //loans of one customer, in the shard of the caller; returns how many were still open
+    @Transactional
+    public int closeLoans(List<Long> loanIds) {
+        log.info("Closing Loans with IDs: {}", loanIds);
+        return loanRepository.closeAll(loanIds, LocalDateTime.now());
+    }
+
+    public ListLoanResponse searchLoansByCustomerId(@ShardKey(ShardKey.Type.CUSTOMER) Long customerId, LoanSearchCriteria criteria,
+                                                    boolean includeArchived, CountMode countMode, Integer pageSize, Integer pageNumber, String sort) {
+        log.info("Searching loans for customerId: {}, criteria: {}, includeArchived: {}, countMode: {}, pageSize: {}, pageNumber: {}, sort: {}",
+                 customerId, criteria, includeArchived, countMode, pageSize, pageNumber, sort);
 
         //TODO: check whether the customer exists with given customerId and throw exception?
 
         log.debug("Building page request with pageSize: {}, pageNumber: {}, sort: {}", pageSize, pageNumber, sort);
-        PageRequest pageRequest = PageRequestBuilder.getPageRequest(pageSize, pageNumber, sort);
-        Specification<Loan> spec = LoanSpecification.getSpecificationForLoan(customerId, loanAmount, installmentCount, paid);
-        Page<Loan> loansPage = loanRepository.findAll(spec, pageRequest);
-        List<Loan> loans = loansPage.getContent();
-
-        ApiModelPage pagingResponse = new ApiModelPage(pageRequest.getPageNumber() + 1, pageRequest.getPageSize(),
-                                                       loansPage.getTotalElements(), loansPage.getTotalPages(),
-                                                       loansPage.hasNext(), loansPage.hasPrevious());
+        PageRequest pageRequest = PageRequestBuilder.getPageRequest(pageSize, pageNumber, sort, SortRegistry.LOANS);
+        ScrollPosition position = PageRequestBuilder.getScrollPosition(pageRequest);
+        long countGeneration = loanCountService.getLoanCountGeneration(customerId);
+        //archived loans are only reachable through the loan_all view, the hot table stays the default
+        Specification<LoanView> viewSpecification = LoanSpecification.getSpecificationForLoan(customerId, criteria);
+        Specification<Loan> loanSpecification = LoanSpecification.getSpecificationForLoan(customerId, criteria);
+        Window<LoanDTO> loansPage = includeArchived
+                ? loanViewRepository.findBy(viewSpecification, query -> query.sortBy(pageRequest.getSort()).limit(pageRequest.getPageSize()).scroll(position))
+                                    .map(LoanService::mapLoanViewToDTO)
+                : loanRepository.findBy(loanSpecification, query -> query.sortBy(pageRequest.getSort()).limit(pageRequest.getPageSize()).scroll(position))
+                                .map(LoanService::mapLoanEntityToDTO);
+        List<LoanDTO> loans = loansPage.getContent();
+
+        Long totalNumberOfRecords = loanCountService.countLoans(countMode, customerId, criteria, includeArchived, countGeneration,
+                PageRequestBuilder.getTotalCounter(pageRequest, loansPage, () -> includeArchived
+                        ? loanViewRepository.count(viewSpecification)
+                        : loanRepository.count(loanSpecification)));
+        ApiModelPage pagingResponse = ApiModelPage.of(pageRequest, loansPage.hasNext(), totalNumberOfRecords);
 
         log.info("Returning {} loans for the search criteria", loans.size());
-        return new ListLoanResponse(loans.stream().map(this::mapLoanEntityToDTO).collect(Collectors.toList()), pagingResponse);
+        return new ListLoanResponse(loans, pagingResponse);
     }
 
     @Transactional
-    public CreateLoanResponse createLoan(Long customerId, BigDecimal loanAmount, int numberOfInstallment, BigDecimal interestRate) {
+    public CreateLoanResponse createLoan(@ShardKey(ShardKey.Type.CUSTOMER) Long customerId, BigDecimal loanAmount, int numberOfInstallment, BigDecimal interestRate) {
         log.info("Creating loan for Customer ID: {} with loanAmount: {}, numberOfInstallments: {}, interestRate: {}", customerId, loanAmount, numberOfInstallment, interestRate);
         Loan loan = saveLoan(customerId, loanAmount, numberOfInstallment, interestRate);
         log.info("Loan created with ID: {}", loan.getId());
@@ -85,7 +123,7 @@ public class LoanService {
     }
 
     @Transactional
-    public Loan saveLoan(long customerId, BigDecimal loanAmount, int numberOfInstallment, BigDecimal interestRate) {
+    public Loan saveLoan(@ShardKey(ShardKey.Type.CUSTOMER) long customerId, BigDecimal loanAmount, int numberOfInstallment, BigDecimal interestRate) {
         log.info("Saving loan for Customer ID: {} with loanAmount: {}, numberOfInstallments: {}, interestRate: {}", customerId, loanAmount, numberOfInstallment, interestRate);
         Customer customer = customerService.findById(customerId);
         customerService.checkCustomerHasEnoughLimitToGetNewLoan(customerId, loanAmount);
@@ -95,16 +133,19 @@ public class LoanService {
         customerService.increaseCustomerUsedCreditLimit(customerId, loanAmount);
 
         Loan loan = new Loan();
-        List<LocalDate> installmentDates = LoanInstallmentService.createInstallmentDatesByInstallmentCount(numberOfInstallment);
-        List<LoanInstallment> installments = loanInstallmentService.createLoanInstallments(loan, loanAmount, numberOfInstallment, installmentDates, interestRate);
+        List<LoanInstallment> installments = loanInstallmentService.createLoanInstallments(loan, loanAmount, numberOfInstallment, interestRate);
 
         loan.setCustomer(customer);
         loan.setInterestRate(interestRate);
         loan.setLoanAmount(loanAmount);
         loan.setNumberOfInstallment(numberOfInstallment);
         loan.setLoanInstallments(installments);
-        log.info("Loan saved with ID: {}", loan.getId());
-        return loanRepository.save(loan);
+        Loan savedLoan = loanRepository.save(loan);
+        log.info("Loan saved with ID: {}", savedLoan.getId());
+
+        outboxService.append(new LoanCreatedEvent(savedLoan.getId(), customerId, loanAmount, numberOfInstallment, interestRate));
+        unpaidInstallmentIndex.putAfterCommit(savedLoan);
+        return savedLoan;
     }
 
     public static void checkInterestRateIsValid(BigDecimal interestRate) {
@@ -116,10 +157,17 @@ public class LoanService {
         log.debug("Interest rate {} is valid.", interestRate);
     }
 
-    private LoanDTO mapLoanEntityToDTO(Loan loan) {
+    static LoanDTO mapLoanEntityToDTO(Loan loan) {
         log.debug("Mapping Loan entity to DTO for Loan ID: {}", loan.getId());
         return new LoanDTO(loan.getId(), loan.getCreateDate(), loan.getUpdateDate(),
                            loan.getCustomer().getId(), loan.getLoanAmount().doubleValue(), loan.getNumberOfInstallment(),
                            loan.isPaid());
     }
-}
\ No newline at end of file
+
+    private static LoanDTO mapLoanViewToDTO(LoanView loan) {
+        log.debug("Mapping LoanView to DTO for Loan ID: {}", loan.getId());
+        return new LoanDTO(loan.getId(), loan.getCreateDate(), loan.getUpdateDate(),
+                           loan.getCustomer().getId(), loan.getLoanAmount().doubleValue(), loan.getNumberOfInstallment(),
+                           loan.isPaid());
+    }
+}
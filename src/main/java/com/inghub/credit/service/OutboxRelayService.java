@@ -0,0 +1,117 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.datasource.ShardContext;
+import com.inghub.credit.datasource.ShardRouter;
+import com.inghub.credit.domain.OutboxEvent;
+import com.inghub.credit.event.OutboxEventSink;
+import com.inghub.credit.event.OutboxMessage;
+import com.inghub.credit.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Drains the outbox in id order. Runs are not overlapping (fixed delay), a single relay instance is assumed.
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "credit.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelayService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxEventSink outboxEventSink;
+    private final ShardRouter shardRouter;
+    private final Clock clock;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Counter relayedCounter;
+    private final Counter failureCounter;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    public OutboxRelayService(OutboxEventRepository outboxEventRepository, OutboxEventSink outboxEventSink, ShardRouter shardRouter, Clock clock,
+                              MeterRegistry meterRegistry,
+                              @Value("${credit.outbox.relay.batch-size:100}") int batchSize,
+                              @Value("${credit.outbox.relay.max-batches-per-run:50}") int maxBatchesPerRun) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxEventSink = outboxEventSink;
+        this.shardRouter = shardRouter;
+        this.clock = clock;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.relayedCounter = meterRegistry.counter("credit.outbox.relayed");
+        this.failureCounter = meterRegistry.counter("credit.outbox.relay.failures");
+        this.batchTimer = meterRegistry.timer("credit.outbox.relay.batch");
+        meterRegistry.gauge("credit.outbox.lag.seconds", lagMillis, lag -> lag.get() / 1000.0);
+    }
+
+    @Scheduled(fixedDelayString = "${credit.outbox.relay.interval-ms:1000}")
+    public void relay() {
+        relayPendingEvents();
+    }
+
+    public int relayPendingEvents() {
+        int relayedCount = 0;
+        long oldestLagMillis = 0;
+        //events are only ordered within their shard, every shard is drained on its own
+        for (int shard : shardRouter.shards()) {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                BatchResult result = ShardContext.callInShard(shard, this::relayBatch);
+                relayedCount += result.count();
+                if (batch == 0) {
+                    oldestLagMillis = Math.max(oldestLagMillis, result.lagMillis());
+                }
+                if (result.count() < batchSize) {
+                    break;
+                }
+            }
+        }
+        lagMillis.set(oldestLagMillis);
+        if (relayedCount > 0) {
+            log.info("Relayed {} outbox events", relayedCount);
+        }
+        return relayedCount;
+    }
+
+    private BatchResult relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return new BatchResult(0, 0);
+        }
+        long lag = Math.max(0, Duration.between(events.get(0).getCreateDate(), LocalDateTime.now(clock)).toMillis());
+
+        List<OutboxMessage> messages = events.stream().map(OutboxRelayService::toMessage).toList();
+        long start = System.nanoTime();
+        try {
+            outboxEventSink.publish(messages);
+        } catch (Exception e) {
+            failureCounter.increment();
+            log.error("Outbox batch starting at event ID: {} could not be published, will be retried", events.get(0).getId(), e);
+            return new BatchResult(0, lag);
+        }
+        outboxEventRepository.deleteAllByIdInBatch(events.stream().map(OutboxEvent::getId).toList());
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        relayedCounter.increment(events.size());
+        return new BatchResult(events.size(), lag);
+    }
+
+    private static OutboxMessage toMessage(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getEventType(), event.getLoanId(), event.getCustomerId(),
+                                 event.getCreateDate(), event.getPayload());
+    }
+
+    private record BatchResult(int count, long lagMillis) {
+    }
+}
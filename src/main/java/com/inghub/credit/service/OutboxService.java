@@ -0,0 +1,47 @@
+package com.inghub.credit.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inghub.credit.domain.OutboxEvent;
+import com.inghub.credit.event.LoanEvent;
+import com.inghub.credit.exception.CreditException;
+import com.inghub.credit.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    //Must join the transaction of the change, the event row commits or rolls back together with it.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(LoanEvent event) {
+        log.debug("Appending {} event to outbox for Loan ID: {}", event.type(), event.loanId());
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setEventType(event.type());
+        outboxEvent.setLoanId(event.loanId());
+        outboxEvent.setCustomerId(event.customerId());
+        outboxEvent.setPayload(toPayload(event));
+        outboxEventRepository.save(outboxEvent);
+
+        applicationEventPublisher.publishEvent(event);
+    }
+
+    private String toPayload(LoanEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.error("Outbox payload could not be created for {} event of Loan ID: {}", event.type(), event.loanId(), e);
+            throw new CreditException("Outbox payload could not be created for loan id: " + event.loanId());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.datasource.ShardContext;
+import com.inghub.credit.datasource.ShardRouter;
+import com.inghub.credit.domain.LoanInstallmentView;
+import com.inghub.credit.journal.PaymentJournalEntry;
+import com.inghub.credit.journal.PaymentJournalReader;
+import com.inghub.credit.journal.PaymentJournalReplayResult;
+import com.inghub.credit.repository.LoanInstallmentRepository;
+import com.inghub.credit.repository.LoanInstallmentViewRepository;
+import com.inghub.credit.repository.LoanRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//Checks the installments of journaled payments against the database, or applies the payments to it. Applying is
+//idempotent: installments already paid are left alone, partial payments set the journaled outstanding amount.
+//Customer limits are not part of the journal and not rebuilt.
+@Service
+@Slf4j
+public class PaymentJournalReplayService {
+
+    private final LoanInstallmentRepository loanInstallmentRepository;
+    private final LoanInstallmentViewRepository loanInstallmentViewRepository;
+    private final LoanRepository loanRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+
+    public PaymentJournalReplayService(LoanInstallmentRepository loanInstallmentRepository, LoanInstallmentViewRepository loanInstallmentViewRepository,
+                                       LoanRepository loanRepository, ShardRouter shardRouter, PlatformTransactionManager transactionManager, Clock clock) {
+        this.loanInstallmentRepository = loanInstallmentRepository;
+        this.loanInstallmentViewRepository = loanInstallmentViewRepository;
+        this.loanRepository = loanRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    public PaymentJournalReplayResult verify(Path directory) throws IOException {
+        AtomicLong installments = new AtomicLong();
+        AtomicLong mismatches = new AtomicLong();
+        long entries = PaymentJournalReader.read(directory, entry -> {
+            installments.addAndGet(entry.installmentIds().size() + (entry.hasPartialPayment() ? 1 : 0));
+            mismatches.addAndGet(ShardContext.callInShard(shardRouter.shardOfLoan(entry.loanId()), () -> transactionTemplate.execute(status -> verifyEntry(entry))));
+        });
+        log.info("Verified {} journaled payments with {} installments against the database, {} mismatches", entries, installments.get(), mismatches.get());
+        return new PaymentJournalReplayResult(entries, installments.get(), mismatches.get());
+    }
+
+    public PaymentJournalReplayResult rebuild(Path directory) throws IOException {
+        AtomicLong installments = new AtomicLong();
+        long entries = PaymentJournalReader.read(directory, entry ->
+                installments.addAndGet(ShardContext.callInShard(shardRouter.shardOfLoan(entry.loanId()), () -> transactionTemplate.execute(status -> applyEntry(entry)))));
+        log.info("Replayed {} journaled payments, {} installments changed", entries, installments.get());
+        return new PaymentJournalReplayResult(entries, installments.get(), 0);
+    }
+
+    //archived installments are read through loan_installment_all
+    private long verifyEntry(PaymentJournalEntry entry) {
+        List<Long> ids = new ArrayList<>(entry.installmentIds());
+        if (entry.hasPartialPayment()) {
+            ids.add(entry.partialInstallmentId());
+        }
+        Map<Long, LoanInstallmentView> installments = loanInstallmentViewRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(LoanInstallmentView::getId, Function.identity()));
+
+        long mismatches = 0;
+        for (Long id : entry.installmentIds()) {
+            LoanInstallmentView installment = installments.get(id);
+            if (installment == null || installment.getLoanId() != entry.loanId() || !installment.isPaid()) {
+                log.warn("Journaled payment of Loan ID: {} paid installment {}, the database does not", entry.loanId(), id);
+                mismatches++;
+            }
+        }
+        if (entry.hasPartialPayment()) {
+            LoanInstallmentView installment = installments.get(entry.partialInstallmentId());
+            if (installment == null || installment.getLoanId() != entry.loanId()
+                    || !installment.isPaid() && UnpaidInstallments.toMinorUnits(installment.getAmount().subtract(installment.getPaidAmount())) > entry.partialOutstandingAmount()) {
+                log.warn("Journaled payment of Loan ID: {} partially paid installment {}, the database does not", entry.loanId(), entry.partialInstallmentId());
+                mismatches++;
+            }
+        }
+        return mismatches;
+    }
+
+    private long applyEntry(PaymentJournalEntry entry) {
+        LocalDateTime paymentDate = LocalDateTime.ofInstant(Instant.ofEpochSecond(entry.timestampMicros() / 1_000_000, entry.timestampMicros() % 1_000_000 * 1_000), clock.getZone());
+        long changed = entry.installmentIds().isEmpty() ? 0 : loanInstallmentRepository.settle(entry.installmentIds(), paymentDate);
+        if (entry.hasPartialPayment()) {
+            changed += loanInstallmentRepository.restorePartialPayment(entry.partialInstallmentId(),
+                                                                       UnpaidInstallments.fromMinorUnits(entry.partialOutstandingAmount()), paymentDate);
+        }
+        if (changed > 0 && loanInstallmentRepository.summarizeUnpaidByLoanId(entry.loanId()).unpaidCount() == 0) {
+            loanRepository.close(entry.loanId(), paymentDate);
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,111 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.datasource.ShardKey;
+import com.inghub.credit.domain.Loan;
+import com.inghub.credit.repository.LoanInstallmentRepository;
+import com.inghub.credit.repository.UnpaidInstallmentRow;
+import com.inghub.credit.repository.UnpaidInstallmentSummary;
+import com.inghub.credit.service.allocation.PaymentAllocationEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Unpaid installments per loan, so a payment is allocated without loading installment entities. Entries are added
+//when a loan is created or first paid and replaced once a payment committed; a loan without unpaid installments
+//leaves the index. An entry holds three arrays of at most 24 elements, ~700 bytes with the map node.
+//A loaded entry only holds the installments due until the allocation horizon and is reloaded once the horizon
+//moved past it. When the index is full, only the rows the allocation strategy can use are read.
+//An entry may still go stale (e.g. a write from another node), LoanInstallmentRepository.settle only pays unpaid
+//installments and the payment evicts the entry when fewer rows than expected were updated.
+@Service
+@Slf4j
+public class UnpaidInstallmentIndex {
+
+    private final LoanInstallmentRepository loanInstallmentRepository;
+    private final PaymentAllocationEngine paymentAllocationEngine;
+    private final int maxLoans;
+    private final Map<Long, UnpaidInstallments> entries = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    public UnpaidInstallmentIndex(LoanInstallmentRepository loanInstallmentRepository, PaymentAllocationEngine paymentAllocationEngine,
+                                  MeterRegistry meterRegistry, @Value("${credit.installment-index.max-loans:100000}") int maxLoans) {
+        this.loanInstallmentRepository = loanInstallmentRepository;
+        this.paymentAllocationEngine = paymentAllocationEngine;
+        this.maxLoans = maxLoans;
+        this.hits = Counter.builder("credit.installment.index").tag("outcome", "hit").register(meterRegistry);
+        this.misses = Counter.builder("credit.installment.index").tag("outcome", "miss").register(meterRegistry);
+        meterRegistry.gauge("credit.installment.index.size", entries, Map::size);
+    }
+
+    //remainingCount is 0 when the loan does not exist or is paid, paidAmount (minor units) limits the rows read
+    //when the entry cannot be cached
+    public UnpaidInstallments get(@ShardKey(ShardKey.Type.LOAN) long loanId, long paidAmount) {
+        long horizonEpochDay = paymentAllocationEngine.horizonEpochDay();
+        UnpaidInstallments unpaidInstallments = entries.get(loanId);
+        if (unpaidInstallments != null && unpaidInstallments.covers(horizonEpochDay)) {
+            hits.increment();
+            return unpaidInstallments;
+        }
+        misses.increment();
+
+        UnpaidInstallmentSummary summary = loanInstallmentRepository.summarizeUnpaidByLoanId(loanId);
+        int unpaidCount = summary.unpaidCount().intValue();
+        if (unpaidCount == 0) {
+            entries.remove(loanId);
+            return UnpaidInstallments.of(loanId, List.of());
+        }
+        boolean cacheable = unpaidInstallments != null || entries.size() < maxLoans;
+        Limit limit = cacheable ? Limit.unlimited()
+                : Limit.of(Math.min(unpaidCount, paymentAllocationEngine.maxInstallments(paidAmount, UnpaidInstallments.toMinorUnits(summary.minOutstandingAmount()))));
+        log.debug("Loading unpaid installments of Loan ID: {} due until {}, limit {}", loanId, LocalDate.ofEpochDay(horizonEpochDay), limit);
+        List<UnpaidInstallmentRow> rows = loanInstallmentRepository.findUnpaidRowsByLoanIdDueUntil(loanId, LocalDate.ofEpochDay(horizonEpochDay), limit);
+
+        UnpaidInstallments loaded = UnpaidInstallments.of(loanId, rows, unpaidCount, horizonEpochDay);
+        if (cacheable) {
+            entries.put(loanId, loaded);
+        }
+        return loaded;
+    }
+
+    //a created loan, visible once its transaction committed
+    public void putAfterCommit(Loan loan) {
+        UnpaidInstallments unpaidInstallments = UnpaidInstallments.of(loan);
+        TransactionCallbacks.afterCommit(() -> put(unpaidInstallments));
+    }
+
+    //a paid loan, current is the entry the payment was allocated from
+    public void replaceAfterCommit(UnpaidInstallments current, UnpaidInstallments updated) {
+        TransactionCallbacks.afterCommit(() -> {
+            long loanId = current.loanId();
+            if (updated.remainingCount() == 0) {
+                entries.remove(loanId);
+            } else if (!entries.replace(loanId, current, updated)) {
+                //another payment of the loan got in between, let the next one reload
+                entries.remove(loanId);
+            }
+        });
+    }
+
+    public void remove(long loanId) {
+        entries.remove(loanId);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void put(UnpaidInstallments unpaidInstallments) {
+        if (entries.size() < maxLoans) {
+            entries.putIfAbsent(unpaidInstallments.loanId(), unpaidInstallments);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.domain.Loan;
+import com.inghub.credit.domain.LoanInstallment;
+import com.inghub.credit.repository.CustomerUnpaidInstallmentRow;
+import com.inghub.credit.repository.UnpaidInstallmentRow;
+import com.inghub.credit.service.allocation.PaymentAllocation;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+//Unpaid installments of one loan in due date order as parallel primitive arrays: ids, due dates as epoch days and
+//outstanding amounts in minor units (cents). Loaded entries only hold the window due until windowEndEpochDay (or
+//fewer, see UnpaidInstallmentIndex), remainingCount counts every unpaid installment of the loan.
+//Immutable, a payment produces a new instance without the paid installments.
+public final class UnpaidInstallments {
+
+    private static final int MINOR_UNIT_SCALE = 2;
+
+    private final long loanId;
+    private final long customerId;
+    private final long loanAmount;
+    private final long[] ids;
+    private final long[] dueEpochDays;
+    private final long[] amounts;
+    private final int remainingCount;
+    private final long windowEndEpochDay;
+
+    private UnpaidInstallments(long loanId, long customerId, long loanAmount, long[] ids, long[] dueEpochDays, long[] amounts,
+                               int remainingCount, long windowEndEpochDay) {
+        this.loanId = loanId;
+        this.customerId = customerId;
+        this.loanAmount = loanAmount;
+        this.ids = ids;
+        this.dueEpochDays = dueEpochDays;
+        this.amounts = amounts;
+        this.remainingCount = remainingCount;
+        this.windowEndEpochDay = windowEndEpochDay;
+    }
+
+    //a new loan, every installment is unpaid
+    public static UnpaidInstallments of(Loan loan) {
+        List<LoanInstallment> installments = loan.getLoanInstallments();
+        int size = installments.size();
+        long[] ids = new long[size];
+        long[] dueEpochDays = new long[size];
+        long[] amounts = new long[size];
+        for (int i = 0; i < size; i++) {
+            LoanInstallment installment = installments.get(i);
+            ids[i] = installment.getId();
+            dueEpochDays[i] = installment.getDueDate().toEpochDay();
+            amounts[i] = toMinorUnits(installment.getAmount().subtract(installment.getPaidAmount()));
+        }
+        return new UnpaidInstallments(loan.getId(), loan.getCustomer().getId(), toMinorUnits(loan.getLoanAmount()), ids, dueEpochDays, amounts,
+                                      size, Long.MAX_VALUE);
+    }
+
+    //rows must be in due date order and belong to one loan
+    public static UnpaidInstallments of(long loanId, List<UnpaidInstallmentRow> rows) {
+        return of(loanId, rows, rows.size(), Long.MAX_VALUE);
+    }
+
+    public static UnpaidInstallments of(long loanId, List<UnpaidInstallmentRow> rows, int remainingCount, long windowEndEpochDay) {
+        int size = rows.size();
+        long[] ids = new long[size];
+        long[] dueEpochDays = new long[size];
+        long[] amounts = new long[size];
+        for (int i = 0; i < size; i++) {
+            UnpaidInstallmentRow row = rows.get(i);
+            ids[i] = row.id();
+            dueEpochDays[i] = row.dueDate().toEpochDay();
+            amounts[i] = toMinorUnits(row.outstandingAmount());
+        }
+        long customerId = size == 0 ? 0 : rows.get(0).customerId();
+        long loanAmount = size == 0 ? 0 : toMinorUnits(rows.get(0).loanAmount());
+        return new UnpaidInstallments(loanId, customerId, loanAmount, ids, dueEpochDays, amounts, remainingCount, windowEndEpochDay);
+    }
+
+    //installments of several loans of one customer (see LoanPaymentService.payCustomerLoans), rows must be in due date
+    //order; loanId and loanAmount are 0, the loan of an installment is the one of its row
+    public static UnpaidInstallments ofCustomer(long customerId, List<CustomerUnpaidInstallmentRow> rows) {
+        int size = rows.size();
+        long[] ids = new long[size];
+        long[] dueEpochDays = new long[size];
+        long[] amounts = new long[size];
+        for (int i = 0; i < size; i++) {
+            CustomerUnpaidInstallmentRow row = rows.get(i);
+            ids[i] = row.id();
+            dueEpochDays[i] = row.dueDate().toEpochDay();
+            amounts[i] = toMinorUnits(row.outstandingAmount());
+        }
+        return new UnpaidInstallments(0, customerId, 0, ids, dueEpochDays, amounts, size, Long.MAX_VALUE);
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(MINOR_UNIT_SCALE, RoundingMode.DOWN).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMinorUnits(long amount) {
+        return BigDecimal.valueOf(amount, MINOR_UNIT_SCALE);
+    }
+
+    public long loanId() {
+        return loanId;
+    }
+
+    public long customerId() {
+        return customerId;
+    }
+
+    public long loanAmount() {
+        return loanAmount;
+    }
+
+    //unpaid installments of the loan, including those past the window
+    public int remainingCount() {
+        return remainingCount;
+    }
+
+    //whether the window holds every installment payable until horizonEpochDay
+    public boolean covers(long horizonEpochDay) {
+        return windowEndEpochDay >= horizonEpochDay;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    public long id(int index) {
+        return ids[index];
+    }
+
+    public long dueEpochDay(int index) {
+        return dueEpochDays[index];
+    }
+
+    public long amount(int index) {
+        return amounts[index];
+    }
+
+    public List<Long> ids(int fromIndex, int toIndex) {
+        List<Long> result = new ArrayList<>(toIndex - fromIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+
+    //the installments left unpaid after the allocation was settled
+    public UnpaidInstallments afterPayment(PaymentAllocation allocation) {
+        int fromIndex = allocation.fromIndex();
+        int toIndex = allocation.toIndex();
+        int size = ids.length - allocation.paidInstallmentCount();
+        long[] remainingIds = new long[size];
+        long[] remainingDueEpochDays = new long[size];
+        long[] remainingAmounts = new long[size];
+        System.arraycopy(ids, 0, remainingIds, 0, fromIndex);
+        System.arraycopy(ids, toIndex, remainingIds, fromIndex, ids.length - toIndex);
+        System.arraycopy(dueEpochDays, 0, remainingDueEpochDays, 0, fromIndex);
+        System.arraycopy(dueEpochDays, toIndex, remainingDueEpochDays, fromIndex, ids.length - toIndex);
+        System.arraycopy(amounts, 0, remainingAmounts, 0, fromIndex);
+        System.arraycopy(amounts, toIndex, remainingAmounts, fromIndex, ids.length - toIndex);
+        if (allocation.hasPartialPayment()) {
+            int partialIndex = allocation.partialIndex() < fromIndex ? allocation.partialIndex() : allocation.partialIndex() - allocation.paidInstallmentCount();
+            remainingAmounts[partialIndex] -= allocation.partialAmount();
+        }
+        return new UnpaidInstallments(loanId, customerId, loanAmount, remainingIds, remainingDueEpochDays, remainingAmounts,
+                                      remainingCount - allocation.paidInstallmentCount(), windowEndEpochDay);
+    }
+}
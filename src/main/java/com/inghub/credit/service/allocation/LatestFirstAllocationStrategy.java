@@ -0,0 +1,35 @@
+package com.inghub.credit.service.allocation;
+
+import com.inghub.credit.service.UnpaidInstallments;
+
+//Prepayment: pays whole installments starting from the latest one due within the horizon, backwards, so the
+//earliest installments stay open. With a horizon beyond the last due date it shortens the loan from its end.
+public final class LatestFirstAllocationStrategy implements PaymentAllocationStrategy {
+
+    @Override
+    public PaymentAllocation allocate(UnpaidInstallments unpaidInstallments, long paidAmount, long horizonEpochDay) {
+        int size = unpaidInstallments.size();
+        int toIndex = 0;
+        while (toIndex < size && unpaidInstallments.dueEpochDay(toIndex) <= horizonEpochDay) {
+            toIndex++;
+        }
+        long remaining = paidAmount;
+        int fromIndex = toIndex;
+        while (fromIndex > 0 && unpaidInstallments.amount(fromIndex - 1) <= remaining) {
+            fromIndex--;
+            remaining -= unpaidInstallments.amount(fromIndex);
+        }
+        return PaymentAllocation.whole(fromIndex, toIndex, paidAmount - remaining);
+    }
+
+    @Override
+    public boolean wholeInstallmentsOnly() {
+        return true;
+    }
+
+    //the latest installments within the horizon are paid first, the whole window is needed
+    @Override
+    public int maxInstallments(long paidAmount, long minOutstandingAmount) {
+        return Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,30 @@
+package com.inghub.credit.service.allocation;
+
+import com.inghub.credit.service.UnpaidInstallments;
+
+//Pays whole installments in due date order and stops at the first one that is not affordable or due past the horizon.
+public final class OldestFirstAllocationStrategy implements PaymentAllocationStrategy {
+
+    @Override
+    public PaymentAllocation allocate(UnpaidInstallments unpaidInstallments, long paidAmount, long horizonEpochDay) {
+        int size = unpaidInstallments.size();
+        long remaining = paidAmount;
+        int toIndex = 0;
+        while (toIndex < size && unpaidInstallments.dueEpochDay(toIndex) <= horizonEpochDay && unpaidInstallments.amount(toIndex) <= remaining) {
+            remaining -= unpaidInstallments.amount(toIndex);
+            toIndex++;
+        }
+        return PaymentAllocation.whole(0, toIndex, paidAmount - remaining);
+    }
+
+    @Override
+    public boolean wholeInstallmentsOnly() {
+        return true;
+    }
+
+    //at least the first one, its amount is checked against the payment
+    @Override
+    public int maxInstallments(long paidAmount, long minOutstandingAmount) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, paidAmount / minOutstandingAmount));
+    }
+}
@@ -0,0 +1,34 @@
+package com.inghub.credit.service.allocation;
+
+import com.inghub.credit.service.UnpaidInstallments;
+
+//Pays whole installments in due date order like OldestFirstAllocationStrategy, the rest of the payment goes to the
+//next installment within the horizon, which stays unpaid with a lower outstanding amount.
+public final class PartialPaymentAllocationStrategy implements PaymentAllocationStrategy {
+
+    @Override
+    public PaymentAllocation allocate(UnpaidInstallments unpaidInstallments, long paidAmount, long horizonEpochDay) {
+        int size = unpaidInstallments.size();
+        long remaining = paidAmount;
+        int toIndex = 0;
+        while (toIndex < size && unpaidInstallments.dueEpochDay(toIndex) <= horizonEpochDay && unpaidInstallments.amount(toIndex) <= remaining) {
+            remaining -= unpaidInstallments.amount(toIndex);
+            toIndex++;
+        }
+        if (remaining > 0 && toIndex < size && unpaidInstallments.dueEpochDay(toIndex) <= horizonEpochDay) {
+            return new PaymentAllocation(0, toIndex, toIndex, remaining, paidAmount);
+        }
+        return PaymentAllocation.whole(0, toIndex, paidAmount - remaining);
+    }
+
+    @Override
+    public boolean wholeInstallmentsOnly() {
+        return false;
+    }
+
+    //the installments paid wholly and the one paid partially
+    @Override
+    public int maxInstallments(long paidAmount, long minOutstandingAmount) {
+        return (int) Math.min(Integer.MAX_VALUE, paidAmount / minOutstandingAmount + 1);
+    }
+}
@@ -0,0 +1,24 @@
+package com.inghub.credit.service.allocation;
+
+//Result of a PaymentAllocationStrategy over UnpaidInstallments indexes: the installments in [fromIndex, toIndex) are
+//paid wholly, partialAmount (minor units) goes to the installment at partialIndex when it is not negative.
+public record PaymentAllocation(int fromIndex, int toIndex, int partialIndex, long partialAmount, long totalAmount) {
+
+    public static final PaymentAllocation NONE = new PaymentAllocation(0, 0, -1, 0, 0);
+
+    public static PaymentAllocation whole(int fromIndex, int toIndex, long totalAmount) {
+        return fromIndex == toIndex ? NONE : new PaymentAllocation(fromIndex, toIndex, -1, 0, totalAmount);
+    }
+
+    public int paidInstallmentCount() {
+        return toIndex - fromIndex;
+    }
+
+    public boolean hasPartialPayment() {
+        return partialIndex >= 0;
+    }
+
+    public boolean isEmpty() {
+        return totalAmount == 0;
+    }
+}
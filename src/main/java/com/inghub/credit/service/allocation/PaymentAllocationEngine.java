@@ -0,0 +1,73 @@
+package com.inghub.credit.service.allocation;
+
+import com.inghub.credit.service.UnpaidInstallments;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+//Allocates payments with the strategy configured by credit.payment.allocation-strategy. The horizon (last payable
+//due date, today plus credit.payment.horizon-months) is computed once per day of the clock, not per installment.
+@Component
+@Slf4j
+public class PaymentAllocationEngine {
+
+    private final Clock clock;
+    private final PaymentAllocationStrategy strategy;
+    private final int horizonMonths;
+    private volatile Horizon horizon = new Horizon(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    @Autowired
+    public PaymentAllocationEngine(Clock clock,
+                                   @Value("${credit.payment.allocation-strategy:oldest-first}") String strategy,
+                                   @Value("${credit.payment.horizon-months:3}") int horizonMonths) {
+        this(clock, strategyOf(strategy), horizonMonths);
+    }
+
+    public PaymentAllocationEngine(Clock clock, PaymentAllocationStrategy strategy, int horizonMonths) {
+        this.clock = clock;
+        this.strategy = strategy;
+        this.horizonMonths = horizonMonths;
+        log.info("Allocating payments with {}, horizon {} months", strategy.getClass().getSimpleName(), horizonMonths);
+    }
+
+    public static PaymentAllocationStrategy strategyOf(String name) {
+        return switch (name) {
+            case "oldest-first" -> new OldestFirstAllocationStrategy();
+            case "partial" -> new PartialPaymentAllocationStrategy();
+            case "latest-first" -> new LatestFirstAllocationStrategy();
+            default -> throw new IllegalArgumentException("Unsupported payment allocation strategy: " + name + ". Must be one of: [oldest-first, partial, latest-first]");
+        };
+    }
+
+    public PaymentAllocation allocate(UnpaidInstallments unpaidInstallments, long paidAmount) {
+        return strategy.allocate(unpaidInstallments, paidAmount, horizonEpochDay());
+    }
+
+    public boolean wholeInstallmentsOnly() {
+        return strategy.wholeInstallmentsOnly();
+    }
+
+    public int maxInstallments(long paidAmount, long minOutstandingAmount) {
+        return minOutstandingAmount > 0 ? strategy.maxInstallments(paidAmount, minOutstandingAmount) : Integer.MAX_VALUE;
+    }
+
+    //installments due on or before this day can be paid
+    public long horizonEpochDay() {
+        Horizon current = horizon;
+        if (clock.millis() < current.validUntilMillis()) {
+            return current.epochDay();
+        }
+        LocalDate today = LocalDate.now(clock);
+        long validUntilMillis = today.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        current = new Horizon(validUntilMillis, today.plusMonths(horizonMonths).toEpochDay());
+        horizon = current;
+        return current.epochDay();
+    }
+
+    private record Horizon(long validUntilMillis, long epochDay) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.inghub.credit.service.allocation;
+
+import com.inghub.credit.service.UnpaidInstallments;
+
+//Splits a payment (minor units) over the unpaid installments of a loan, installments due after horizonEpochDay
+//cannot be paid. Implementations walk the installments by index and allocate nothing but the result.
+public interface PaymentAllocationStrategy {
+
+    PaymentAllocation allocate(UnpaidInstallments unpaidInstallments, long paidAmount, long horizonEpochDay);
+
+    //a payment below the next installment amount is rejected up front
+    boolean wholeInstallmentsOnly();
+
+    //installments the allocation reads from the start of the window at most, when none owes less than
+    //minOutstandingAmount; Integer.MAX_VALUE when it may read any of them
+    int maxInstallments(long paidAmount, long minOutstandingAmount);
+}
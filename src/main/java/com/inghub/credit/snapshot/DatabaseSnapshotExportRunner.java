@@ -0,0 +1,50 @@
+package com.inghub.credit.snapshot;
+
+import com.inghub.credit.datasource.ShardRouter;
+import com.inghub.credit.datasource.ShardRoutingDataSource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+//Snapshot tool, runs with the snapshot-export profile and exits: the shards are seeded as on a normal start
+//(schema.sql and data.sql, or an older snapshot) and written to credit.snapshot.export.directory, which a later
+//start takes as credit.snapshot.directory.
+@Component
+@Profile("snapshot-export")
+@Slf4j
+@RequiredArgsConstructor
+public class DatabaseSnapshotExportRunner implements ApplicationRunner {
+
+    private final DataSource dataSource;
+    private final ShardRouter shardRouter;
+    private final ApplicationContext applicationContext;
+
+    @Value("${credit.snapshot.export.directory}")
+    private String directory;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        for (int shard : shardRouter.shards()) {
+            DataSource shardDataSource = ((ShardRoutingDataSource) dataSource).getResolvedDataSources().get(shard);
+            DatabaseSnapshots.export(shardDataSource, Path.of(directory), shard, username, password);
+        }
+        log.info("Snapshot of {} shards written to {} in {} ms", shardRouter.shardCount(), directory, (System.nanoTime() - start) / 1_000_000);
+        System.exit(SpringApplication.exit(applicationContext, () -> 0));
+    }
+}
@@ -0,0 +1,16 @@
+package com.inghub.credit.snapshot;
+
+import java.util.Locale;
+
+//How a shard is started from credit.snapshot.directory.
+public enum SnapshotMode {
+
+    //the shard opens a copy of credit-shard-N.mv.db as a file database, nothing is replayed
+    FILE,
+    //the in-memory shard runs RUNSCRIPT of credit-shard-N.sql.gz, one bulk load instead of schema.sql and data.sql
+    SCRIPT;
+
+    public static SnapshotMode of(String value) {
+        return SnapshotMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
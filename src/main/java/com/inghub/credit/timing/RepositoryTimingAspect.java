@@ -0,0 +1,37 @@
+package com.inghub.credit.timing;
+
+import com.inghub.credit.timing.RequestTimings.Phase;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+//Hydration is what a repository call costs beyond waiting for a connection and executing statements.
+//Lazy loads triggered outside repositories (e.g. loan.getCustomer()) only show up as sql.
+@Aspect
+public class RepositoryTimingAspect {
+
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object timeRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            return joinPoint.proceed();
+        }
+        if (!timings.enterRepository()) {
+            try {
+                return joinPoint.proceed();
+            } finally {
+                timings.exitRepository();
+            }
+        }
+
+        long start = System.nanoTime();
+        long jdbcStart = timings.getNanos(Phase.POOL) + timings.getNanos(Phase.SQL);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            timings.exitRepository();
+            long jdbcNanos = timings.getNanos(Phase.POOL) + timings.getNanos(Phase.SQL) - jdbcStart;
+            timings.add(Phase.HYDRATION, Math.max(0, System.nanoTime() - start - jdbcNanos));
+        }
+    }
+}
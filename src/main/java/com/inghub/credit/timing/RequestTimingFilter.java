@@ -0,0 +1,88 @@
+package com.inghub.credit.timing;
+
+import com.inghub.credit.timing.RequestTimings.Phase;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//Registered in front of the security filters so authentication is part of the timed request.
+//Server-Timing is set right before the first byte of the body is written, so its serialization and total end there;
+//the slow request log and the statement budget see the whole request.
+@Slf4j
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final String UNKNOWN_HANDLER = "unknown";
+
+    private final long slowRequestNanos;
+    private final double sampleRate;
+    private final int statementBudget;
+    private final MeterRegistry meterRegistry;
+
+    //sampleRate: share of requests that are timed at all, the others pass through untouched
+    //statementBudget: timed requests issuing more statements are counted and logged
+    public RequestTimingFilter(long slowRequestMillis, double sampleRate, int statementBudget, MeterRegistry meterRegistry) {
+        this.slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(slowRequestMillis);
+        this.sampleRate = sampleRate;
+        this.statementBudget = statementBudget;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestTimings timings = RequestTimings.start();
+        ServerTimingResponse responseWrapper = new ServerTimingResponse(response, () -> timings.toServerTiming(System.nanoTime()));
+        try {
+            filterChain.doFilter(request, responseWrapper);
+        } finally {
+            RequestTimings.clear();
+            long now = System.nanoTime();
+            timings.markSerializationEnd(now);
+            //responses without a body
+            responseWrapper.setServerTiming();
+            if (timings.getElapsedNanos(now) >= slowRequestNanos) {
+                logSlowRequest(request, responseWrapper.getStatus(), timings, now);
+            }
+            if (timings.getStatements() > statementBudget) {
+                reportBudgetExceeded(request, timings);
+            }
+        }
+    }
+
+    private void reportBudgetExceeded(HttpServletRequest request, RequestTimings timings) {
+        //the mapping pattern (/api/v1/loans/{loanId}/installments) keeps the tag bounded, ids are in the log line only
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String handler = pattern == null ? UNKNOWN_HANDLER : request.getMethod() + " " + pattern;
+        meterRegistry.counter("credit.timing.statement.budget.exceeded", "handler", handler).increment();
+        log.warn("Statement budget exceeded method={} uri={} statements={} budget={} rows={}",
+                 request.getMethod(), request.getRequestURI(), timings.getStatements(), statementBudget, timings.getRows());
+    }
+
+    private static void logSlowRequest(HttpServletRequest request, int status, RequestTimings timings, long now) {
+        log.warn("Slow request method={} uri={} status={} total_ms={} auth_ms={} pool_ms={} sql_ms={} hydration_ms={} serialization_ms={} statements={} rows={}",
+                 request.getMethod(), request.getRequestURI(), status,
+                 RequestTimings.formatMillis(timings.getElapsedNanos(now)),
+                 RequestTimings.formatMillis(timings.getNanos(Phase.AUTH)),
+                 RequestTimings.formatMillis(timings.getNanos(Phase.POOL)),
+                 RequestTimings.formatMillis(timings.getNanos(Phase.SQL)),
+                 RequestTimings.formatMillis(timings.getNanos(Phase.HYDRATION)),
+                 RequestTimings.formatMillis(timings.getNanos(Phase.SERIALIZATION)),
+                 timings.getStatements(), timings.getRows());
+    }
+}
@@ -0,0 +1,130 @@
+package com.inghub.credit.timing;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+//Time spent per phase of the current request, plus the number of SQL statements and result rows.
+//Started by RequestTimingFilter. When no request is being timed current() is null and the JDBC, repository and
+//password encoder hooks only do that lookup.
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    public enum Phase {
+        //BCrypt check of the basic auth password
+        AUTH("auth"),
+        //waiting for a pooled connection
+        POOL("pool"),
+        //JDBC execute calls
+        SQL("sql"),
+        //repository time not spent in pool or JDBC execute: reading rows and building entities
+        HYDRATION("hydration"),
+        //writing the response body
+        SERIALIZATION("serialization");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String metricName() {
+            return metricName;
+        }
+    }
+
+    private final long startNanos;
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private int statements;
+    private long rows;
+    private int repositoryDepth;
+    private long serializationStartNanos;
+
+    private RequestTimings(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    public static RequestTimings start() {
+        RequestTimings timings = new RequestTimings(System.nanoTime());
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public void add(Phase phase, long nanos) {
+        phaseNanos[phase.ordinal()] += nanos;
+    }
+
+    public long getNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    public void incrementStatements() {
+        statements++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public void incrementRows() {
+        rows++;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    //only the outermost repository call is timed, repositories calling each other are not counted twice
+    boolean enterRepository() {
+        return repositoryDepth++ == 0;
+    }
+
+    void exitRepository() {
+        repositoryDepth--;
+    }
+
+    void markSerializationStart() {
+        serializationStartNanos = System.nanoTime();
+    }
+
+    void markSerializationEnd(long nowNanos) {
+        if (serializationStartNanos != 0) {
+            add(Phase.SERIALIZATION, nowNanos - serializationStartNanos);
+            serializationStartNanos = 0;
+        }
+    }
+
+    public long getElapsedNanos(long nowNanos) {
+        return nowNanos - startNanos;
+    }
+
+    //e.g. auth;dur=93.1, pool;dur=0.0, sql;dur=1.2;desc="3 statements, 8 rows", hydration;dur=0.8, serialization;dur=0.4, total;dur=97.0
+    //a serialization still running counts until nowNanos
+    public String toServerTiming(long nowNanos) {
+        StringBuilder header = new StringBuilder(160);
+        for (Phase phase : Phase.values()) {
+            long nanos = getNanos(phase);
+            if (phase == Phase.SERIALIZATION && serializationStartNanos != 0) {
+                nanos += nowNanos - serializationStartNanos;
+            }
+            header.append(phase.metricName()).append(";dur=").append(formatMillis(nanos));
+            if (phase == Phase.SQL) {
+                header.append(";desc=\"").append(statements).append(" statements, ").append(rows).append(" rows\"");
+            }
+            header.append(", ");
+        }
+        return header.append("total;dur=").append(formatMillis(getElapsedNanos(nowNanos))).toString();
+    }
+
+    static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,123 @@
+package com.inghub.credit.timing;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.function.Supplier;
+
+//Sets the Server-Timing header right before the response can be committed: on the first byte written, a flush or an
+//error/redirect. The body goes straight to the container, nothing is buffered.
+final class ServerTimingResponse extends HttpServletResponseWrapper {
+
+    private final Supplier<String> serverTiming;
+    private boolean headerSet;
+    private ServletOutputStream outputStream;
+
+    ServerTimingResponse(HttpServletResponse response, Supplier<String> serverTiming) {
+        super(response);
+        this.serverTiming = serverTiming;
+    }
+
+    //once per response, a committed response no longer takes headers
+    void setServerTiming() {
+        if (!headerSet) {
+            headerSet = true;
+            if (!isCommitted()) {
+                setHeader(RequestTimingFilter.SERVER_TIMING_HEADER, serverTiming.get());
+            }
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new FirstWriteOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    //only error pages and plain text write through the writer, the header is set when it is requested
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        setServerTiming();
+        return super.getWriter();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        setServerTiming();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        setServerTiming();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        setServerTiming();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        setServerTiming();
+        super.sendRedirect(location);
+    }
+
+    //reset() drops the header, it is set again on the next write
+    @Override
+    public void reset() {
+        super.reset();
+        headerSet = false;
+    }
+
+    private final class FirstWriteOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        private FirstWriteOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            setServerTiming();
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            setServerTiming();
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            setServerTiming();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            setServerTiming();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+}
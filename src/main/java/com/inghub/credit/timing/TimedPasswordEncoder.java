@@ -0,0 +1,36 @@
+package com.inghub.credit.timing;
+
+import com.inghub.credit.timing.RequestTimings.Phase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+//BCrypt is deliberately slow and runs for every basic auth request, its share of a request is reported as auth.
+@RequiredArgsConstructor
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        long start = System.nanoTime();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            timings.add(Phase.AUTH, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,54 @@
+package com.inghub.credit.web;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+//Global in-flight limit, additive increase / multiplicative decrease: the limit shrinks by 1/8 on a completed call
+//while the connection pools are congested and grows by one when a call completed at the limit without congestion.
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final BooleanSupplier congested;
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, BooleanSupplier congested) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 0 < min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.congested = congested;
+        this.limit = new AtomicInteger(initialLimit);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        int completedAt = inFlight.getAndDecrement();
+        if (congested.getAsBoolean()) {
+            limit.updateAndGet(current -> Math.max(minLimit, current - Math.max(1, current >> 3)));
+        } else if (completedAt >= limit.get()) {
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
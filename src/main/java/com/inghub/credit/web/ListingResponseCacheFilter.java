@@ -0,0 +1,106 @@
+package com.inghub.credit.web;
+
+import com.inghub.credit.cache.ResponseCache;
+import com.inghub.credit.cache.ResponseCache.CachedResponse;
+import com.inghub.credit.service.ListingResponseCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//Serves GET /loans and GET /loans/{loanId}/installments from ListingResponseCache: a hit writes the stored bytes
+//without reaching the controller, so neither the database nor Jackson is involved. A response is keyed by its owner
+//(customerId parameter or loanId path variable), the query parameters in name order and the Accept header, and only
+//stored for 200. Runs after Spring Security, so cached listings are still only served to authenticated callers.
+public class ListingResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String LOANS_PATH = "/api/v1/loans";
+    private static final Pattern LOAN_INSTALLMENTS_PATH = Pattern.compile("/api/v1/loans/(\\d{1,18})/installments");
+
+    private final ListingResponseCache listingResponseCache;
+
+    public ListingResponseCacheFilter(ListingResponseCache listingResponseCache) {
+        this.listingResponseCache = listingResponseCache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        ResponseCache cache;
+        Long owner;
+        if (LOANS_PATH.equals(path)) {
+            cache = listingResponseCache.loans();
+            owner = parseId(request.getParameter("customerId"));
+        } else {
+            Matcher matcher = LOAN_INSTALLMENTS_PATH.matcher(path);
+            cache = listingResponseCache.loanInstallments();
+            owner = matcher.matches() ? parseId(matcher.group(1)) : null;
+        }
+        if (owner == null) {
+            //not a listing, or one the controller rejects
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = key(request);
+        CachedResponse cached = cache.get(owner, key);
+        if (cached != null) {
+            response.setContentType(cached.contentType());
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+            return;
+        }
+
+        long generation = cache.generation(owner);
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            if (responseWrapper.getStatus() == HttpServletResponse.SC_OK && responseWrapper.getContentType() != null) {
+                cache.put(owner, key, generation, new CachedResponse(responseWrapper.getContentType(), responseWrapper.getContentAsByteArray()));
+            }
+        } finally {
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder();
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : parameter.getValue()) {
+                key.append(URLEncoder.encode(parameter.getKey(), StandardCharsets.UTF_8)).append('=')
+                   .append(URLEncoder.encode(value, StandardCharsets.UTF_8)).append('&');
+            }
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return key.append('|').append(accept == null ? "" : accept).toString();
+    }
+
+    private static Long parseId(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
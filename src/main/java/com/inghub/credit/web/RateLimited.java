@@ -0,0 +1,12 @@
+package com.inghub.credit.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//Controller methods behind the per-user rate limit and the global concurrency limit, see WriteAdmissionInterceptor.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+}
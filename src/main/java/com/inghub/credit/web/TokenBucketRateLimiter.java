@@ -0,0 +1,52 @@
+package com.inghub.credit.web;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+//Token bucket per key, kept as a single "theoretical arrival time" (GCRA): a bucket is one AtomicLong updated
+//with CAS, no locks. A request is allowed while the arrival time stays within burst * interval of now.
+public class TokenBucketRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoTime;
+    private final Map<String, AtomicLong> arrivalTimes = new ConcurrentHashMap<>();
+
+    public TokenBucketRateLimiter(double permitsPerSecond, int burst, LongSupplier nanoTime) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond and burst must be greater than 0");
+        }
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = emissionIntervalNanos * burst;
+        this.nanoTime = nanoTime;
+    }
+
+    //0 when a token was taken, otherwise the nanos until the next token
+    public long tryAcquire(String key) {
+        AtomicLong arrivalTime = arrivalTimes.computeIfAbsent(key, k -> new AtomicLong(nanoTime.getAsLong()));
+        while (true) {
+            long now = nanoTime.getAsLong();
+            long current = arrivalTime.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            if (next - now > burstNanos) {
+                return next - now - burstNanos;
+            }
+            if (arrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    //buckets that refilled completely carry no state, drop them so the map only holds active keys
+    public void evictIdle() {
+        long now = nanoTime.getAsLong();
+        arrivalTimes.values().removeIf(arrivalTime -> arrivalTime.get() <= now);
+    }
+
+    public int size() {
+        return arrivalTimes.size();
+    }
+}
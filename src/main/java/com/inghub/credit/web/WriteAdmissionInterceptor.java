@@ -0,0 +1,114 @@
+package com.inghub.credit.web;
+
+import com.inghub.credit.datasource.ConnectionWaitMonitor;
+import com.inghub.credit.exception.RequestThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
+//Admission control for @RateLimited endpoints, cheapest check first:
+//1. pools congested (average connection wait above threshold or too many waiting threads): 503, nothing else is tried
+//2. token bucket of the API user empty: 429
+//3. global adaptive concurrency limit reached: 503
+@Slf4j
+public class WriteAdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = WriteAdmissionInterceptor.class.getName() + ".permit";
+    private static final String ANONYMOUS = "anonymous";
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ConnectionWaitMonitor connectionWaitMonitor;
+    private final long poolWaitThresholdMillis;
+    private final int maxWaitingThreads;
+    private final long retryAfterSeconds;
+
+    private final Counter allowedCounter;
+    private final Counter rateLimitedCounter;
+    private final Counter concurrencyLimitedCounter;
+    private final Counter poolShedCounter;
+
+    public WriteAdmissionInterceptor(TokenBucketRateLimiter rateLimiter, ConnectionWaitMonitor connectionWaitMonitor, MeterRegistry meterRegistry,
+                                     int initialLimit, int minLimit, int maxLimit,
+                                     long poolWaitThresholdMillis, int maxWaitingThreads, long retryAfterSeconds) {
+        this.rateLimiter = rateLimiter;
+        this.connectionWaitMonitor = connectionWaitMonitor;
+        this.poolWaitThresholdMillis = poolWaitThresholdMillis;
+        this.maxWaitingThreads = maxWaitingThreads;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, this::isPoolCongested);
+        this.allowedCounter = meterRegistry.counter("credit.limiter.decisions", "outcome", "allowed");
+        this.rateLimitedCounter = meterRegistry.counter("credit.limiter.decisions", "outcome", "rate_limited");
+        this.concurrencyLimitedCounter = meterRegistry.counter("credit.limiter.decisions", "outcome", "concurrency_limited");
+        this.poolShedCounter = meterRegistry.counter("credit.limiter.decisions", "outcome", "pool_congested");
+        meterRegistry.gauge("credit.limiter.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit);
+        meterRegistry.gauge("credit.limiter.concurrency.inflight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight);
+        meterRegistry.gauge("credit.datasource.connection.wait.millis", connectionWaitMonitor, ConnectionWaitMonitor::getAverageWaitMillis);
+        meterRegistry.gauge("credit.limiter.buckets", rateLimiter, TokenBucketRateLimiter::size);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || !handlerMethod.hasMethodAnnotation(RateLimited.class)) {
+            return true;
+        }
+
+        if (isPoolCongested()) {
+            poolShedCounter.increment();
+            throw new RequestThrottledException(HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds, "Service is overloaded, retry later");
+        }
+
+        String apiUser = getApiUser(request);
+        long waitNanos = rateLimiter.tryAcquire(apiUser);
+        if (waitNanos > 0) {
+            rateLimitedCounter.increment();
+            log.warn("Rate limit exceeded for API user: {}", apiUser);
+            throw new RequestThrottledException(HttpStatus.TOO_MANY_REQUESTS, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)),
+                                                "Rate limit exceeded");
+        }
+
+        if (!concurrencyLimiter.tryAcquire()) {
+            concurrencyLimitedCounter.increment();
+            throw new RequestThrottledException(HttpStatus.SERVICE_UNAVAILABLE, retryAfterSeconds, "Service is overloaded, retry later");
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, Boolean.TRUE);
+        allowedCounter.increment();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            concurrencyLimiter.release();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${credit.limiter.rate.evict-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        rateLimiter.evictIdle();
+    }
+
+    AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    private boolean isPoolCongested() {
+        return connectionWaitMonitor.getAverageWaitMillis() > poolWaitThresholdMillis
+                || connectionWaitMonitor.getWaitingThreads() > maxWaitingThreads;
+    }
+
+    private static String getApiUser(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal != null ? principal.getName() : ANONYMOUS;
+    }
+}
@@ -11,3 +11,8 @@ VALUES (1, '2025-01-22 11:59:35', '2025-01-22 18:31:19', 1, 20.00, 0.00, '2025-0
        (4, '2025-01-22 11:59:35', '2025-01-22 18:31:55', 1, 20.00, 0.00, '2025-05-01', NULL, 0),
        (5, '2025-01-22 11:59:35', '2025-01-22 18:08:35', 1, 20.00, 0.00, '2025-06-01', NULL, 0),
        (6, '2025-01-22 11:59:35', '2025-01-22 18:08:35', 1, 20.00, 0.00, '2025-07-01', NULL, 0);
+
+-- rows above use explicit ids, move the identity columns past them
+ALTER TABLE customer ALTER COLUMN id RESTART WITH 2;
+ALTER TABLE loan ALTER COLUMN id RESTART WITH 2;
+ALTER TABLE loan_installment ALTER COLUMN id RESTART WITH 7;
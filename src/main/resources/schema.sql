@@ -38,3 +38,82 @@ CREATE TABLE IF NOT EXISTS loan_installment
     PRIMARY KEY (id),
     FOREIGN KEY (loan_id) REFERENCES loan (id)
 );
+
+-- paid loans moved out of the hot tables by LoanArchiveService, same ids as before
+CREATE TABLE IF NOT EXISTS loan_archive
+(
+    id                    BIGINT         NOT NULL,
+    idate                 TIMESTAMP      NOT NULL,
+    udate                 TIMESTAMP DEFAULT NULL,
+    customer_id           BIGINT         NOT NULL,
+    loan_amount           DECIMAL(15, 2) NOT NULL,
+    number_of_installment SMALLINT       NOT NULL,
+    is_paid               BOOLEAN        NOT NULL,
+    interest_rate         DECIMAL(15, 2) NOT NULL,
+    archive_date          TIMESTAMP      NOT NULL,
+    PRIMARY KEY (id),
+    FOREIGN KEY (customer_id) REFERENCES customer (id)
+);
+
+CREATE TABLE IF NOT EXISTS loan_installment_archive
+(
+    id           BIGINT         NOT NULL,
+    idate        TIMESTAMP      NOT NULL,
+    udate        TIMESTAMP DEFAULT NULL,
+    loan_id      BIGINT         NOT NULL,
+    amount       DECIMAL(15, 2) NOT NULL,
+    paid_amount  DECIMAL(15, 2) NOT NULL,
+    due_date     DATE           NOT NULL,
+    payment_date TIMESTAMP DEFAULT NULL,
+    is_paid      BOOLEAN        NOT NULL,
+    PRIMARY KEY (id),
+    FOREIGN KEY (loan_id) REFERENCES loan_archive (id)
+);
+
+-- listings with includeArchived=true, see LoanView/LoanInstallmentView
+CREATE OR REPLACE VIEW loan_all AS
+SELECT id, idate, udate, customer_id, loan_amount, number_of_installment, is_paid, interest_rate, FALSE AS archived
+FROM loan
+UNION ALL
+SELECT id, idate, udate, customer_id, loan_amount, number_of_installment, is_paid, interest_rate, TRUE AS archived
+FROM loan_archive;
+
+CREATE OR REPLACE VIEW loan_installment_all AS
+SELECT id, idate, udate, loan_id, amount, paid_amount, due_date, payment_date, is_paid
+FROM loan_installment
+UNION ALL
+SELECT id, idate, udate, loan_id, amount, paid_amount, due_date, payment_date, is_paid
+FROM loan_installment_archive;
+
+CREATE TABLE IF NOT EXISTS outbox_event
+(
+    id          BIGINT        NOT NULL AUTO_INCREMENT,
+    idate       TIMESTAMP     NOT NULL,
+    udate       TIMESTAMP DEFAULT NULL,
+    event_type  VARCHAR(32)   NOT NULL,
+    customer_id BIGINT        NOT NULL,
+    loan_id     BIGINT        NOT NULL,
+    payload     VARCHAR(4096) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- listing filters/sorts, see SortRegistry; every index ends with id for the paging tie-breaker
+CREATE INDEX IF NOT EXISTS idx_loan_customer_idate ON loan (customer_id, idate, id);
+CREATE INDEX IF NOT EXISTS idx_loan_customer_amount ON loan (customer_id, loan_amount, id);
+CREATE INDEX IF NOT EXISTS idx_loan_customer_installment ON loan (customer_id, number_of_installment, id);
+CREATE INDEX IF NOT EXISTS idx_loan_customer_paid ON loan (customer_id, is_paid, id);
+CREATE INDEX IF NOT EXISTS idx_loan_customer_interest_rate ON loan (customer_id, interest_rate, id);
+CREATE INDEX IF NOT EXISTS idx_loan_installment_loan_due_date ON loan_installment (loan_id, due_date, id);
+-- payments: unpaid installments of a loan up to the horizon, see UnpaidInstallmentIndex
+CREATE INDEX IF NOT EXISTS idx_loan_installment_loan_paid_due_date ON loan_installment (loan_id, is_paid, due_date, id);
+-- due date reminders: unpaid installments of one due date, see ReminderScheduler
+CREATE INDEX IF NOT EXISTS idx_loan_installment_due_date_paid ON loan_installment (due_date, is_paid, id);
+
+-- archiver candidates: paid loans by the time they were closed
+CREATE INDEX IF NOT EXISTS idx_loan_paid_udate ON loan (is_paid, udate, id);
+CREATE INDEX IF NOT EXISTS idx_loan_archive_customer_idate ON loan_archive (customer_id, idate, id);
+CREATE INDEX IF NOT EXISTS idx_loan_installment_archive_loan_due_date ON loan_installment_archive (loan_id, due_date, id);
+
+-- change feed, see ChangeFeedService
+CREATE INDEX IF NOT EXISTS idx_loan_udate ON loan (udate, id);
+CREATE INDEX IF NOT EXISTS idx_loan_installment_udate ON loan_installment (udate, id);
@@ -0,0 +1,65 @@
+package com.inghub.credit.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void get_SameOwnerAndKey_CountsOnce() {
+        CountCache<String> cache = new CountCache<>("test", 10, 10, meterRegistry);
+        AtomicInteger counts = new AtomicInteger();
+
+        assertEquals(7, cache.get(1L, "unpaid", cache.generation(1L), () -> 7 + counts.getAndIncrement()));
+        assertEquals(7, cache.get(1L, "unpaid", cache.generation(1L), () -> 7 + counts.getAndIncrement()));
+        assertEquals(8, cache.get(1L, "paid", cache.generation(1L), () -> 7 + counts.getAndIncrement()));
+
+        assertEquals(2, counts.get());
+        assertEquals(1.0, meterRegistry.get("credit.count.cache").tag("outcome", "hit").counter().count());
+    }
+
+    @Test
+    void invalidate_DropsCountsOfOwnerOnly() {
+        CountCache<String> cache = new CountCache<>("test", 10, 10, meterRegistry);
+        cache.put(1L, "all", cache.generation(1L), 3);
+        cache.put(2L, "all", cache.generation(2L), 5);
+
+        cache.invalidate(1L);
+
+        assertEquals(4, cache.get(1L, "all", cache.generation(1L), () -> 4));
+        assertEquals(5, cache.get(2L, "all", cache.generation(2L), () -> 6));
+    }
+
+    @Test
+    void put_CountedBeforeInvalidation_IsNotCached() {
+        CountCache<String> cache = new CountCache<>("test", 10, 10, meterRegistry);
+        long generation = cache.generation(1L);
+
+        cache.invalidate(1L);
+        cache.put(1L, "all", generation, 3);
+
+        assertEquals(0, cache.size());
+        assertEquals(4, cache.get(1L, "all", cache.generation(1L), () -> 4));
+    }
+
+    @Test
+    void put_BeyondBounds_IsNotCached() {
+        CountCache<String> cache = new CountCache<>("test", 2, 2, meterRegistry);
+        cache.put(1L, "a", cache.generation(1L), 1);
+        cache.put(1L, "b", cache.generation(1L), 1);
+        cache.put(1L, "c", cache.generation(1L), 1);
+        cache.put(2L, "a", cache.generation(2L), 1);
+        cache.put(3L, "a", cache.generation(3L), 1);
+
+        assertEquals(3, cache.size());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,63 @@
+package com.inghub.credit.cache;
+
+import com.inghub.credit.cache.ResponseCache.CachedResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void invalidate_DropsResponsesOfOwnerOnly() {
+        ResponseCache cache = new ResponseCache("test", 10, 10, 1000, meterRegistry);
+        cache.put(1L, "a", cache.generation(1L), response(10));
+        cache.put(2L, "a", cache.generation(2L), response(20));
+
+        cache.invalidate(1L);
+
+        assertNull(cache.get(1L, "a"));
+        assertNotNull(cache.get(2L, "a"));
+        assertEquals(20, cache.bytes());
+        assertEquals(1.0, meterRegistry.get("credit.response.cache").tag("outcome", "hit").counter().count());
+    }
+
+    @Test
+    void put_ReadBeforeInvalidation_IsNotCached() {
+        ResponseCache cache = new ResponseCache("test", 10, 10, 1000, meterRegistry);
+        long generation = cache.generation(1L);
+
+        cache.invalidate(1L);
+        cache.put(1L, "a", generation, response(10));
+
+        assertNull(cache.get(1L, "a"));
+        assertEquals(0, cache.bytes());
+    }
+
+    @Test
+    void put_BeyondBounds_IsNotCached() {
+        ResponseCache cache = new ResponseCache("test", 2, 2, 100, meterRegistry);
+        cache.put(1L, "a", cache.generation(1L), response(10));
+        cache.put(1L, "b", cache.generation(1L), response(10));
+        cache.put(1L, "c", cache.generation(1L), response(10));
+        cache.put(2L, "a", cache.generation(2L), response(90));
+        cache.put(3L, "a", cache.generation(3L), response(10));
+        cache.put(4L, "a", cache.generation(4L), response(10));
+
+        assertEquals(3, cache.size());
+        assertEquals(30, cache.bytes());
+
+        cache.put(1L, "a", cache.generation(1L), response(30));
+        assertEquals(50, cache.bytes());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.bytes());
+    }
+
+    private static CachedResponse response(int length) {
+        return new CachedResponse("application/json", new byte[length]);
+    }
+}
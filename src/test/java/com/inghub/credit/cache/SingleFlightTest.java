@@ -0,0 +1,99 @@
+package com.inghub.credit.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void execute_ConcurrentEqualKeys_ShareOneExecution() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test", Duration.ZERO, meterRegistry);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Integer> leader = executor.submit(() -> singleFlight.execute("customer-1", () -> {
+                started.countDown();
+                await(release);
+                return executions.incrementAndGet();
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<Integer> follower1 = executor.submit(() -> singleFlight.execute("customer-1", executions::incrementAndGet));
+            Future<Integer> follower2 = executor.submit(() -> singleFlight.execute("customer-1", executions::incrementAndGet));
+            while (coalesced() < 2) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals(1, leader.get(5, TimeUnit.SECONDS));
+            assertEquals(1, follower1.get(5, TimeUnit.SECONDS));
+            assertEquals(1, follower2.get(5, TimeUnit.SECONDS));
+            assertEquals(1, executions.get());
+            assertEquals(1, count("executed"));
+            assertEquals(0, singleFlight.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_ZeroWindow_DoesNotReuseCompletedCall() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test", Duration.ZERO, meterRegistry);
+        AtomicInteger executions = new AtomicInteger();
+
+        assertEquals(1, singleFlight.execute("customer-1", executions::incrementAndGet));
+        assertEquals(2, singleFlight.execute("customer-1", executions::incrementAndGet));
+        assertEquals(3, singleFlight.execute("customer-2", executions::incrementAndGet));
+    }
+
+    @Test
+    void execute_WithinWindow_ReusesCompletedCall() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test", Duration.ofMinutes(1), meterRegistry);
+        AtomicInteger executions = new AtomicInteger();
+
+        assertEquals(1, singleFlight.execute("customer-1", executions::incrementAndGet));
+        assertEquals(1, singleFlight.execute("customer-1", executions::incrementAndGet));
+        assertEquals(1, coalesced());
+    }
+
+    @Test
+    void execute_Failure_IsNotReused() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>("test", Duration.ofMinutes(1), meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute("customer-1", () -> {
+            throw new IllegalStateException("failed");
+        }));
+        assertEquals(7, singleFlight.execute("customer-1", () -> 7));
+        assertEquals(0, coalesced());
+    }
+
+    private double coalesced() {
+        return count("coalesced");
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("credit.coalescing.calls").tag("outcome", outcome).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.inghub.credit.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.inghub.credit.Application;
+import com.inghub.credit.config.BinaryFormatConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoanControllerContentNegotiationTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private ResponseEntity<byte[]> get(String url, MediaType accept) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(accept));
+        return restTemplate.withBasicAuth("user", "12345").exchange(url, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+
+    @Test
+    void getLoanInstallments_AcceptCbor_ReturnsCborWithEpochDates() throws Exception {
+        ResponseEntity<byte[]> response = get("/api/v1/loans/1/installments", MediaType.APPLICATION_CBOR);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(MediaType.APPLICATION_CBOR.isCompatibleWith(response.getHeaders().getContentType()));
+
+        JsonNode body = BinaryFormatConfiguration.cborObjectMapper().readTree(response.getBody());
+        JsonNode firstInstallment = body.get("loanInstallments").get(0);
+        assertTrue(firstInstallment.get("dueDate").isNumber());
+        assertEquals(LocalDate.of(2025, 2, 1).toEpochDay(), firstInstallment.get("dueDate").asLong());
+        assertTrue(firstInstallment.get("insertDate").isNumber());
+        assertEquals(6, body.get("paging").get("totalNumberOfRecords").asInt());
+    }
+
+    @Test
+    void getLoansOfCustomer_AcceptSmile_ReturnsSmile() throws Exception {
+        ResponseEntity<byte[]> response = get("/api/v1/loans?customerId=1", SMILE);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(SMILE.isCompatibleWith(response.getHeaders().getContentType()));
+
+        JsonNode body = BinaryFormatConfiguration.smileObjectMapper().readTree(response.getBody());
+        assertEquals(1L, body.get("loans").get(0).get("customerId").asLong());
+        assertTrue(body.get("loans").get(0).get("insertDate").isNumber());
+    }
+
+    @Test
+    void getLoansOfCustomer_AcceptJson_KeepsFormattedDates() throws Exception {
+        ResponseEntity<byte[]> response = get("/api/v1/loans?customerId=1", MediaType.APPLICATION_JSON);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        JsonNode body = new ObjectMapper().readTree(response.getBody());
+        assertTrue(body.get("loans").get(0).get("insertDate").isTextual());
+    }
+}
@@ -0,0 +1,211 @@
+package com.inghub.credit.controller;
+
+import com.inghub.credit.Application;
+import com.inghub.credit.request.CreateLoanRequest;
+import com.inghub.credit.request.PayCustomerLoansRequest;
+import com.inghub.credit.request.PayLoanRequest;
+import com.inghub.credit.response.CreateLoanResponse;
+import com.inghub.credit.response.ListChangesResponse;
+import com.inghub.credit.response.ListLoanInstallmentsResponse;
+import com.inghub.credit.response.ListLoanResponse;
+import com.inghub.credit.response.PayLoanResponse;
+import com.inghub.credit.response.dto.LoanDTO;
+import com.inghub.credit.response.dto.LoanInstallmentDTO;
+import com.inghub.credit.service.ListingResponseCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Runs on the JVM with "mvn test" and inside the native test image with "mvn -PnativeTest test".
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoanControllerSmokeTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ListingResponseCache listingResponseCache;
+
+    private TestRestTemplate client() {
+        return restTemplate.withBasicAuth("user", "12345");
+    }
+
+    @Test
+    void getLoansOfCustomer_ReturnsSeededLoan() {
+        ResponseEntity<ListLoanResponse> response = client().getForEntity("/api/v1/loans?customerId=1", ListLoanResponse.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertFalse(response.getBody().loans().isEmpty());
+    }
+
+    @Test
+    void getLoansOfCustomer_RangeFilters_MatchSeededLoanOnly() {
+        String filters = "&minLoanAmount=100&maxLoanAmount=120&installmentCount=6,12&minInterestRate=0.1&maxInterestRate=0.1";
+
+        ResponseEntity<ListLoanResponse> matching = client().getForEntity(
+                "/api/v1/loans?customerId=1&createdFrom=2025-01-22&createdTo=2025-01-22" + filters, ListLoanResponse.class);
+        ResponseEntity<ListLoanResponse> dayBefore = client().getForEntity(
+                "/api/v1/loans?customerId=1&createdTo=2025-01-21" + filters, ListLoanResponse.class);
+
+        assertEquals(HttpStatus.OK, matching.getStatusCode());
+        assertEquals(List.of(1L), matching.getBody().loans().stream().map(LoanDTO::id).toList());
+        assertTrue(dayBefore.getBody().loans().isEmpty());
+    }
+
+    @Test
+    void getLoansOfCustomer_InvertedRange_ReturnsBadRequest() {
+        ResponseEntity<String> response = client().getForEntity("/api/v1/loans?customerId=1&minLoanAmount=200&maxLoanAmount=100", String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void getLoanInstallments_ReturnsSeededInstallments() {
+        ResponseEntity<ListLoanInstallmentsResponse> response = client().getForEntity("/api/v1/loans/1/installments", ListLoanInstallmentsResponse.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(1L, response.getBody().loanId());
+        assertEquals(6, response.getBody().loanInstallments().size());
+    }
+
+    @Test
+    void getLoanInstallments_CountModes_PageThroughSeededInstallments() {
+        ResponseEntity<ListLoanInstallmentsResponse> firstPage = client().getForEntity(
+                "/api/v1/loans/1/installments?pageSize=4&count=none", ListLoanInstallmentsResponse.class);
+        ResponseEntity<ListLoanInstallmentsResponse> lastPage = client().getForEntity(
+                "/api/v1/loans/1/installments?pageSize=4&pageNumber=2&count=estimate", ListLoanInstallmentsResponse.class);
+
+        assertEquals(HttpStatus.OK, firstPage.getStatusCode());
+        assertEquals(4, firstPage.getBody().loanInstallments().size());
+        assertTrue(firstPage.getBody().apiModelPage().hasNextPage());
+        assertNull(firstPage.getBody().apiModelPage().totalNumberOfRecords());
+        assertEquals(List.of(5L, 6L), lastPage.getBody().loanInstallments().stream().map(LoanInstallmentDTO::id).toList());
+        assertEquals(6L, lastPage.getBody().apiModelPage().totalNumberOfRecords());
+        assertFalse(lastPage.getBody().apiModelPage().hasNextPage());
+    }
+
+    @Test
+    void getLoanInstallments_UnknownCountMode_ReturnsBadRequest() {
+        ResponseEntity<String> response = client().getForEntity("/api/v1/loans/1/installments?count=approximate", String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void getLoanInstallments_ReturnsServerTiming() {
+        //a cached listing is written without statements or serialization
+        listingResponseCache.invalidateAll();
+        ResponseEntity<ListLoanInstallmentsResponse> response = client().getForEntity("/api/v1/loans/1/installments", ListLoanInstallmentsResponse.class);
+
+        String serverTiming = response.getHeaders().getFirst("Server-Timing");
+        assertNotNull(serverTiming);
+        assertTrue(serverTiming.startsWith("auth;dur="), serverTiming);
+        assertTrue(serverTiming.contains(", serialization;dur="), serverTiming);
+        assertFalse(serverTiming.contains("desc=\"0 statements"), serverTiming);
+    }
+
+    @Test
+    void getLoansOfCustomer_Cached_InvalidatedByCreate() {
+        String url = "/api/v1/loans?customerId=1&count=exact&pageSize=1&sort=-id";
+        ResponseEntity<ListLoanResponse> first = client().getForEntity(url, ListLoanResponse.class);
+        ResponseEntity<ListLoanResponse> cached = client().getForEntity(url, ListLoanResponse.class);
+
+        String serverTiming = cached.getHeaders().getFirst("Server-Timing");
+        assertTrue(serverTiming.contains("desc=\"0 statements"), serverTiming);
+        assertEquals(first.getBody(), cached.getBody());
+
+        CreateLoanRequest request = new CreateLoanRequest(1L, new BigDecimal("100.00"), 6, new BigDecimal("0.1"));
+        CreateLoanResponse created = client().postForEntity("/api/v1/loans", request, CreateLoanResponse.class).getBody();
+
+        ResponseEntity<ListLoanResponse> afterCreate = client().getForEntity(url, ListLoanResponse.class);
+        assertEquals(first.getBody().apiModelPage().totalNumberOfRecords() + 1, afterCreate.getBody().apiModelPage().totalNumberOfRecords());
+        assertEquals(created.id(), afterCreate.getBody().loans().get(0).id());
+    }
+
+    @Test
+    void createLoan_ReturnsCreated() {
+        CreateLoanRequest request = new CreateLoanRequest(1L, new BigDecimal("100.00"), 6, new BigDecimal("0.1"));
+
+        ResponseEntity<CreateLoanResponse> response = client().postForEntity("/api/v1/loans", request, CreateLoanResponse.class);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertNotNull(response.getBody().id());
+        assertEquals(6, response.getBody().numberOfInstallment());
+    }
+
+    @Test
+    void payLoan_PaysOverdueInstallment() {
+        PayLoanRequest request = new PayLoanRequest(1L, new BigDecimal("20.00"));
+
+        ResponseEntity<PayLoanResponse> response = client().postForEntity("/api/v1/loans/pay", request, PayLoanResponse.class);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(1, response.getBody().paidInstallmentCount());
+    }
+
+    @Test
+    void payCustomerLoans_UnknownCustomer_ReturnsNotFound() {
+        PayCustomerLoansRequest request = new PayCustomerLoansRequest(new BigDecimal("20.00"));
+
+        ResponseEntity<String> response = client().postForEntity("/api/v1/customers/999/pay", request, String.class);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void getChanges_FollowsCursorWithoutDuplicates() {
+        List<Long> loanIds = new ArrayList<>();
+        List<Long> installmentIds = new ArrayList<>();
+        String cursor = "";
+        ListChangesResponse changes;
+        do {
+            ResponseEntity<ListChangesResponse> response = client().getForEntity("/api/v1/changes?limit=2&since=" + cursor, ListChangesResponse.class);
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            changes = response.getBody();
+            assertNotNull(changes);
+            changes.loans().forEach(loan -> loanIds.add(loan.id()));
+            changes.loanInstallments().forEach(installment -> installmentIds.add(installment.id()));
+            cursor = changes.nextCursor();
+        } while (changes.hasMore());
+
+        assertTrue(loanIds.contains(1L));
+        assertTrue(installmentIds.size() >= 5);
+        assertEquals(loanIds.size(), new HashSet<>(loanIds).size());
+        assertEquals(installmentIds.size(), new HashSet<>(installmentIds).size());
+    }
+
+    @Test
+    void getChanges_InvalidCursor_ReturnsBadRequest() {
+        ResponseEntity<String> response = client().getForEntity("/api/v1/changes?since=invalid", String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void getLoansOfCustomer_UnknownSortField_ReturnsBadRequest() {
+        ResponseEntity<String> response = client().getForEntity("/api/v1/loans?customerId=1&sort=-customer.name", String.class);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void getLoansOfCustomer_WithoutCredentials_ReturnsUnauthorized() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/v1/loans?customerId=1", String.class);
+
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+}
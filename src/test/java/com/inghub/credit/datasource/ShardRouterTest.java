@@ -0,0 +1,48 @@
+package com.inghub.credit.datasource;
+
+import com.inghub.credit.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+
+    @Test
+    void shardOfLoan_UsesIdResidue() {
+        ShardRouter shardRouter = new ShardRouter(4);
+
+        assertEquals(1, shardRouter.shardOfLoan(1));
+        assertEquals(0, shardRouter.shardOfLoan(8));
+        assertEquals(3, shardRouter.shardOfLoan(11));
+    }
+
+    @Test
+    void shardOfCustomer_SpreadsCustomersOverAllShards() {
+        ShardRouter shardRouter = new ShardRouter(4);
+        int[] customers = new int[4];
+
+        for (long customerId = 1; customerId <= 1000; customerId++) {
+            customers[shardRouter.shardOfCustomer(customerId)]++;
+        }
+
+        assertArrayEquals(new int[]{250, 250, 250, 250}, customers);
+    }
+
+    @Test
+    void singleShard_RoutesEverythingToShardZero() {
+        ShardRouter shardRouter = new ShardRouter(1);
+
+        assertEquals(0, shardRouter.shardOfCustomer(42));
+        assertEquals(0, shardRouter.shardOfLoan(42));
+        assertArrayEquals(new int[]{0}, shardRouter.shards());
+    }
+
+    @Test
+    void checkShard_OutOfRange_ThrowsBadRequest() {
+        ShardRouter shardRouter = new ShardRouter(2);
+
+        assertEquals(1, shardRouter.checkShard(1));
+        assertThrows(BadRequestException.class, () -> shardRouter.checkShard(2));
+        assertThrows(IllegalArgumentException.class, () -> new ShardRouter(0));
+    }
+}
@@ -0,0 +1,93 @@
+package com.inghub.credit.datasource;
+
+import com.inghub.credit.Application;
+import com.inghub.credit.domain.Loan;
+import com.inghub.credit.repository.LoanSearchCriteria;
+import com.inghub.credit.repository.page.CountMode;
+import com.inghub.credit.response.ListLoanResponse;
+import com.inghub.credit.response.PayLoanResponse;
+import com.inghub.credit.response.dto.LoanDTO;
+import com.inghub.credit.service.CustomerService;
+import com.inghub.credit.service.LoanInstallmentService;
+import com.inghub.credit.service.LoanPaymentService;
+import com.inghub.credit.service.LoanService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Three local H2 databases, customer 1 of data.sql lives on shard 1.
+@SpringBootTest(classes = Application.class, properties = {
+        "credit.sharding.urls=jdbc:h2:mem:credit-shard-0,jdbc:h2:mem:credit-shard-1,jdbc:h2:mem:credit-shard-2",
+        "credit.outbox.relay.enabled=false",
+        "credit.archive.enabled=false"})
+class ShardedPersistenceTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanInstallmentService loanInstallmentService;
+
+    @Autowired
+    private LoanPaymentService loanPaymentService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @BeforeEach
+    void setUp() {
+        //customers 2 and 3 hash to shard 2 and shard 0
+        for (long customerId = 2; customerId <= 3; customerId++) {
+            shard((int) customerId % 3).update("MERGE INTO customer KEY (id) VALUES (?, CURRENT_TIMESTAMP, NULL, 'name', 'surname', 1000000.00, 0.00)",
+                                                customerId);
+        }
+    }
+
+    @Test
+    void saveLoan_StoresLoanOnCustomerShardWithShardEncodedId() {
+        for (long customerId = 1; customerId <= 3; customerId++) {
+            Loan loan = loanService.saveLoan(customerId, new BigDecimal("60.00"), 6, new BigDecimal("0.1"));
+            int expectedShard = (int) (customerId % 3);
+
+            assertEquals(expectedShard, loan.getId() % 3);
+            for (int shard = 0; shard < 3; shard++) {
+                Integer rows = shard(shard).queryForObject("SELECT COUNT(*) FROM loan WHERE id = ?", Integer.class, loan.getId());
+                assertEquals(shard == expectedShard ? 1 : 0, rows);
+            }
+        }
+    }
+
+    @Test
+    void loanIdRoutesInstallmentsAndPayment() {
+        Loan loan = loanService.saveLoan(3L, new BigDecimal("60.00"), 6, new BigDecimal("0.1"));
+
+        assertEquals(6, loanInstallmentService.searchLoanInstallmentsByLoanId(loan.getId(), false, CountMode.EXACT, 10, 1, null).loanInstallments().size());
+        PayLoanResponse response = loanPaymentService.payLoan(loan.getId(), new BigDecimal("11.00"));
+        assertEquals(1, response.paidInstallmentCount());
+
+        ListLoanResponse loans = loanService.searchLoansByCustomerId(3L, LoanSearchCriteria.NONE, false, CountMode.EXACT, 100, 1, null);
+        assertTrue(loans.loans().stream().map(LoanDTO::id).anyMatch(loan.getId()::equals));
+        assertTrue(loanService.searchLoansByCustomerId(2L, LoanSearchCriteria.NONE, false, CountMode.EXACT, 100, 1, null).loans().stream()
+                              .map(LoanDTO::id).noneMatch(loan.getId()::equals));
+    }
+
+    @Test
+    void crossShardCallInsideShard_IsRejected() {
+        assertThrows(IllegalStateException.class,
+                     () -> ShardContext.runInShard(0, () -> customerService.findById(1L)));
+    }
+
+    private JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(((ShardRoutingDataSource) dataSource).getResolvedDataSources().get(shard));
+    }
+}
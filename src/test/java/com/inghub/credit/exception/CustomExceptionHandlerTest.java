@@ -0,0 +1,56 @@
+package com.inghub.credit.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomExceptionHandlerTest {
+
+    private final CustomExceptionHandler handler = new CustomExceptionHandler(2);
+    private final ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest("GET", "/api/v1/loans"));
+
+    @Test
+    void connectionUnavailableException_PoolTimeout_Returns503WithRetryAfter() {
+        CannotCreateTransactionException ex = new CannotCreateTransactionException("Could not open JPA EntityManager",
+                                                                                   poolTimeout());
+
+        ResponseEntity<ErrorResponse> response = handler.connectionUnavailableException(ex, request);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(503, response.getBody().getStatusCode());
+        assertEquals("/api/v1/loans", response.getBody().getPath());
+    }
+
+    @Test
+    void globalExceptionHandler_PoolTimeoutCause_Returns503WithRetryAfter() {
+        DataAccessResourceFailureException ex = new DataAccessResourceFailureException("Unable to acquire JDBC Connection",
+                                                                                       poolTimeout());
+
+        ResponseEntity<ErrorResponse> response = handler.globalExceptionHandler(ex, request);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void globalExceptionHandler_OtherException_Returns500WithoutRetryAfter() {
+        ResponseEntity<ErrorResponse> response = handler.globalExceptionHandler(new IllegalStateException("broken"), request);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    private static SQLTransientConnectionException poolTimeout() {
+        return new SQLTransientConnectionException("credit-pool - Connection is not available, request timed out after 30000ms.");
+    }
+}
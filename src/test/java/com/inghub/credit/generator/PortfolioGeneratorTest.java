@@ -0,0 +1,114 @@
+package com.inghub.credit.generator;
+
+import com.inghub.credit.datasource.ShardRouter;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioGeneratorTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2025, 6, 15);
+
+    @Test
+    void generate_WritesConsistentPortfolio() {
+        DataSource dataSource = shard();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        PortfolioGenerationResult result = new PortfolioGenerator(new ShardRouter(1), List.of(dataSource)).generate(settings(200, 42, 7));
+
+        assertEquals(200, result.customers());
+        assertEquals(result.loans(), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan", Long.class));
+        assertEquals(result.paidLoans(), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan WHERE is_paid", Long.class));
+        assertEquals(result.installments(), jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan_installment", Long.class));
+        assertTrue(result.paidLoans() > 0 && result.paidLoans() < result.loans());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan WHERE number_of_installment NOT IN (6, 9, 12, 24) "
+                                                            + "OR interest_rate NOT BETWEEN 0.1 AND 0.5 OR loan_amount NOT BETWEEN 1000 AND 50000", Long.class));
+        //paid loans have no unpaid installment, open loans at least one and nothing paid past as-of
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan l WHERE l.is_paid = (EXISTS "
+                                                            + "(SELECT 1 FROM loan_installment i WHERE i.loan_id = l.id AND NOT i.is_paid))", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan_installment WHERE payment_date > DATE '2025-06-16' "
+                                                            + "OR (is_paid AND paid_amount <> amount)", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan l JOIN loan_installment i ON i.loan_id = l.id "
+                                                            + "WHERE i.amount <> ROUND(l.loan_amount * (1 + l.interest_rate) / l.number_of_installment, 2)", Long.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer c WHERE c.used_credit_limit <> "
+                                                            + "(SELECT COALESCE(SUM(l.loan_amount), 0) FROM loan l WHERE l.customer_id = c.id) - "
+                                                            + "(SELECT COALESCE(SUM(i.paid_amount), 0) FROM loan l JOIN loan_installment i ON i.loan_id = l.id WHERE l.customer_id = c.id)", Long.class));
+    }
+
+    @Test
+    void generate_SameSeed_WritesSameRows() {
+        DataSource first = shard();
+        DataSource second = shard();
+        DataSource other = shard();
+
+        new PortfolioGenerator(new ShardRouter(1), List.of(first)).generate(settings(50, 42, 7));
+        new PortfolioGenerator(new ShardRouter(1), List.of(second)).generate(settings(50, 42, 13));
+        new PortfolioGenerator(new ShardRouter(1), List.of(other)).generate(settings(50, 43, 7));
+
+        assertEquals(rows(first), rows(second));
+        assertNotEquals(rows(first), rows(other));
+    }
+
+    @Test
+    void generate_TwoShards_PlacesRowsOnShardOfCustomerAndLoanId() {
+        ShardRouter shardRouter = new ShardRouter(2);
+        List<DataSource> shards = List.of(shard(), shard());
+
+        new PortfolioGenerator(shardRouter, shards).generate(settings(100, 42, 7));
+
+        for (int shard : shardRouter.shards()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(shards.get(shard));
+            for (Long customerId : jdbcTemplate.queryForList("SELECT id FROM customer", Long.class)) {
+                assertEquals(shard, shardRouter.shardOfCustomer(customerId));
+            }
+            for (Long loanId : jdbcTemplate.queryForList("SELECT id FROM loan", Long.class)) {
+                assertEquals(shard, shardRouter.shardOfLoan(loanId));
+            }
+            //the identity continues on the shard's residue
+            Long customerId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM customer", Long.class);
+            jdbcTemplate.update("INSERT INTO loan (idate, customer_id, loan_amount, number_of_installment, is_paid, interest_rate) "
+                                        + "VALUES (CURRENT_TIMESTAMP, ?, 100, 6, FALSE, 0.1)", customerId);
+            Long maxLoanId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM loan", Long.class);
+            assertEquals(shard, shardRouter.shardOfLoan(maxLoanId));
+        }
+    }
+
+    @Test
+    void settings_InvalidInstallmentCount_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioSettings(10, 1, 2, List.of(6, 7), List.of(), new BigDecimal("0.1"),
+                                                                                  new BigDecimal("0.5"), 1000, 2000, 0.5, 12, AS_OF, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioSettings(10, 1, 2, List.of(6, 12), List.of(1), new BigDecimal("0.1"),
+                                                                                  new BigDecimal("0.5"), 1000, 2000, 0.5, 12, AS_OF, 1, 10));
+    }
+
+    private static PortfolioSettings settings(int customers, long seed, int batchSize) {
+        return new PortfolioSettings(customers, 0, 4, List.of(6, 9, 12, 24), List.of(1, 1, 2, 1), new BigDecimal("0.1"), new BigDecimal("0.5"),
+                                     1000, 50000, 0.3, 24, AS_OF, seed, batchSize);
+    }
+
+    private static List<Map<String, Object>> rows(DataSource dataSource) {
+        return new JdbcTemplate(dataSource).queryForList("SELECT l.id, l.idate, l.customer_id, l.loan_amount, l.interest_rate, l.is_paid, "
+                                                                 + "SUM(i.paid_amount) AS paid, MAX(i.payment_date) AS last_payment, c.credit_limit "
+                                                                 + "FROM loan l JOIN loan_installment i ON i.loan_id = l.id JOIN customer c ON c.id = l.customer_id "
+                                                                 + "GROUP BY l.id ORDER BY l.id");
+    }
+
+    private static DataSource shard() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,73 @@
+package com.inghub.credit.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedPaymentJournalTest {
+
+    private final Clock clock = Clock.fixed(Instant.parse("2025-01-22T11:59:35.123456Z"), ZoneOffset.UTC);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void append_RollsSegmentsAndReadsBackInOrder() throws IOException {
+        MappedPaymentJournal journal = new MappedPaymentJournal(directory, 2, FsyncPolicy.ALWAYS, clock, new SimpleMeterRegistry());
+        journal.append(1L, 3300, List.of(11L, 12L, 13L), 0, 0);
+        journal.append(2L, 1000, List.of(), 21L, 500);
+        journal.append(1L, 1100, List.of(14L), 0, 0);
+        journal.close();
+
+        List<PaymentJournalEntry> entries = new ArrayList<>();
+        assertEquals(3, PaymentJournalReader.read(directory, entries::add));
+
+        assertEquals(2, PaymentJournalReader.segments(directory).size());
+        assertEquals(new PaymentJournalEntry(1737547175123456L, 1L, 3300, List.of(11L, 12L, 13L), 0, 0), entries.get(0));
+        assertEquals(new PaymentJournalEntry(1737547175123456L, 2L, 1000, List.of(), 21L, 500), entries.get(1));
+        assertEquals(List.of(14L), entries.get(2).installmentIds());
+    }
+
+    @Test
+    void append_SecondWriterStartsNewSegment() throws IOException {
+        MappedPaymentJournal first = new MappedPaymentJournal(directory, 16, FsyncPolicy.NEVER, clock, new SimpleMeterRegistry());
+        MappedPaymentJournal second = new MappedPaymentJournal(directory, 16, FsyncPolicy.NEVER, clock, new SimpleMeterRegistry());
+        first.append(1L, 100, List.of(1L), 0, 0);
+        second.append(2L, 100, List.of(2L), 0, 0);
+        first.close();
+        second.close();
+
+        assertEquals(2, PaymentJournalReader.segments(directory).size());
+        assertEquals(2, PaymentJournalReader.read(directory, entry -> {
+        }));
+    }
+
+    @Test
+    void read_TornRecord_EndsSegment() throws IOException {
+        MappedPaymentJournal journal = new MappedPaymentJournal(directory, 16, FsyncPolicy.ALWAYS, clock, new SimpleMeterRegistry());
+        journal.append(1L, 100, List.of(1L), 0, 0);
+        journal.append(1L, 100, List.of(2L), 0, 0);
+        journal.append(1L, 100, List.of(3L), 0, 0);
+        journal.close();
+
+        try (RandomAccessFile segment = new RandomAccessFile(PaymentJournalReader.segments(directory).get(0).toFile(), "rw")) {
+            segment.seek(PaymentJournalFormat.RECORD_SIZE + 16);
+            segment.writeLong(99L);
+        }
+
+        List<PaymentJournalEntry> entries = new ArrayList<>();
+        assertEquals(1, PaymentJournalReader.read(directory, entries::add));
+        assertEquals(List.of(1L), entries.get(0).installmentIds());
+    }
+}
@@ -0,0 +1,106 @@
+package com.inghub.credit.reactive;
+
+import com.inghub.credit.Application;
+import com.inghub.credit.response.ListLoanInstallmentsResponse;
+import com.inghub.credit.response.ListLoanResponse;
+import com.inghub.credit.response.dto.LoanInstallmentDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//The reactive listings against the servlet ones of LoanController on the same database.
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:credit-reactive",
+        "credit.reactive.enabled=true",
+        "credit.reactive.port=0",
+        "credit.outbox.relay.enabled=false",
+        "credit.archive.enabled=false"})
+class ReactiveReadApiTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ReactiveReadServer reactiveReadServer;
+
+    private WebTestClient reactiveClient;
+
+    @BeforeEach
+    void setUp() {
+        reactiveClient = WebTestClient.bindToServer().baseUrl("http://localhost:" + reactiveReadServer.getPort()).build();
+    }
+
+    @Test
+    void getLoansOfCustomer_SameAsServletListing() {
+        String query = "/api/v1/loans?customerId=1&minLoanAmount=100&installmentCount=6,12&createdFrom=2025-01-22&count=exact&sort=-loanAmount";
+
+        ListLoanResponse servlet = restTemplate.withBasicAuth("user", "12345").getForObject(query, ListLoanResponse.class);
+        ListLoanResponse reactive = reactiveClient.get().uri(query).headers(headers -> headers.setBasicAuth("user", "12345"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ListLoanResponse.class).returnResult().getResponseBody();
+
+        assertFalse(reactive.loans().isEmpty());
+        assertEquals(servlet, reactive);
+    }
+
+    @Test
+    void getLoanInstallments_PagedLikeServletListing() {
+        String query = "/api/v1/loans/1/installments?pageSize=4&pageNumber=2&count=exact&sort=-dueDate";
+
+        ListLoanInstallmentsResponse servlet = restTemplate.withBasicAuth("user", "12345").getForObject(query, ListLoanInstallmentsResponse.class);
+        ListLoanInstallmentsResponse reactive = reactiveClient.get().uri(query).headers(headers -> headers.setBasicAuth("user", "12345"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ListLoanInstallmentsResponse.class).returnResult().getResponseBody();
+
+        assertEquals(servlet, reactive);
+        assertEquals(2, reactive.loanInstallments().size());
+        assertEquals(6L, reactive.apiModelPage().totalNumberOfRecords());
+        assertFalse(reactive.apiModelPage().hasNextPage());
+    }
+
+    @Test
+    void getLoanInstallments_Ndjson_StreamsEveryRowInOrder() {
+        List<LoanInstallmentDTO> installments = reactiveClient.get().uri("/api/v1/loans/1/installments?pageSize=2&sort=dueDate")
+                .headers(headers -> headers.setBasicAuth("user", "12345"))
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(LoanInstallmentDTO.class).getResponseBody()
+                .collectList().block();
+
+        assertEquals(6, installments.size());
+        List<LocalDate> dueDates = installments.stream().map(LoanInstallmentDTO::dueDate).toList();
+        assertEquals(dueDates.stream().sorted().toList(), dueDates);
+    }
+
+    @Test
+    void getLoansOfCustomer_BadRequestAndUnauthenticated() {
+        reactiveClient.get().uri("/api/v1/loans?customerId=1&minLoanAmount=200&maxLoanAmount=100")
+                .headers(headers -> headers.setBasicAuth("user", "12345"))
+                .exchange()
+                .expectStatus().isBadRequest();
+        reactiveClient.get().uri("/api/v1/loans?customerId=1&isPaid=maybe")
+                .headers(headers -> headers.setBasicAuth("user", "12345"))
+                .exchange()
+                .expectStatus().isBadRequest();
+        reactiveClient.get().uri("/api/v1/loans?customerId=1")
+                .exchange()
+                .expectStatus().isUnauthorized();
+        reactiveClient.get().uri("/api/v1/loans?customerId=1")
+                .headers(headers -> headers.setBasicAuth("user", "wrong"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+}
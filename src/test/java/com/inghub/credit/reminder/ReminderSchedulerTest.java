@@ -0,0 +1,118 @@
+package com.inghub.credit.reminder;
+
+import com.inghub.credit.datasource.ShardRouter;
+import com.inghub.credit.event.InstallmentsPaidEvent;
+import com.inghub.credit.event.LoanCreatedEvent;
+import com.inghub.credit.repository.LoanInstallmentRepository;
+import com.inghub.credit.repository.ReminderInstallmentRow;
+import com.inghub.credit.service.InstallmentScheduleTemplateService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReminderSchedulerTest {
+
+    private static final LocalDate DUE_DATE = LocalDate.of(2025, 1, 13);
+
+    private final LoanInstallmentRepository loanInstallmentRepository = mock(LoanInstallmentRepository.class);
+    private final InMemoryReminderSink reminderSink = new InMemoryReminderSink();
+
+    @Test
+    void loadThrough_LoadsDueDateInChunks_FiresDaysBeforeAtTimeOfDay() {
+        ReminderScheduler scheduler = scheduler("2025-01-10T00:00:00Z", 10);
+        stubDueDate();
+
+        assertEquals(3, scheduler.loadThrough(LocalDate.of(2025, 1, 15)));
+        verify(loanInstallmentRepository).findReminderRowsDueOn(LocalDate.of(2025, 1, 15), 0L, Limit.of(2));
+
+        assertEquals(0, scheduler.advanceTo(millis("2025-01-10T08:59:00Z")));
+        assertEquals(3, scheduler.advanceTo(millis("2025-01-10T09:00:00Z")));
+        assertEquals(new InstallmentReminder(1L, 7L, 5L, DUE_DATE, new BigDecimal("10.00")), reminderSink.getReminders().get(0));
+        assertEquals(0, scheduler.trackedCount());
+    }
+
+    @Test
+    void onLoanEvent_InstallmentsPaid_CancelsReminder() {
+        ReminderScheduler scheduler = scheduler("2025-01-10T00:00:00Z", 10);
+        stubDueDate();
+        scheduler.loadThrough(DUE_DATE);
+
+        scheduler.onLoanEvent(new InstallmentsPaidEvent(7L, 5L, List.of(2L), new BigDecimal("10.00")));
+
+        assertEquals(2, scheduler.trackedCount());
+        scheduler.advanceTo(millis("2025-01-10T09:00:00Z"));
+        assertEquals(List.of(1L, 3L), reminderSink.getReminders().stream().map(InstallmentReminder::installmentId).toList());
+    }
+
+    @Test
+    void onLoanEvent_InstallmentPaidPartially_RemindsOutstandingAmount() {
+        ReminderScheduler scheduler = scheduler("2025-01-10T00:00:00Z", 10);
+        stubDueDate();
+        scheduler.loadThrough(DUE_DATE);
+
+        scheduler.onLoanEvent(new InstallmentsPaidEvent(7L, 5L, List.of(1L), new BigDecimal("14.00"), 2L, new BigDecimal("6.00")));
+
+        scheduler.advanceTo(millis("2025-01-10T09:00:00Z"));
+        assertEquals(List.of(new InstallmentReminder(2L, 7L, 5L, DUE_DATE, new BigDecimal("6.00")),
+                             new InstallmentReminder(3L, 7L, 5L, DUE_DATE, new BigDecimal("10.00"))), reminderSink.getReminders());
+    }
+
+    @Test
+    void onLoanEvent_LoanCreated_TracksInstallmentsOfLoadedDueDatesOnNextAdvance() {
+        //due dates up to 2025-02-01 are loaded, the first installment of a loan created now is due then
+        ReminderScheduler scheduler = scheduler("2025-01-27T10:00:00Z", 10);
+        scheduler.load();
+        when(loanInstallmentRepository.findReminderRowsByLoanIdDueUntil(9L, LocalDate.of(2025, 2, 1)))
+                .thenReturn(List.of(new ReminderInstallmentRow(90L, 9L, 5L, LocalDate.of(2025, 2, 1), new BigDecimal("50.00"))));
+
+        scheduler.onLoanEvent(new LoanCreatedEvent(9L, 5L, new BigDecimal("300.00"), 6, new BigDecimal("0.1")));
+
+        //nothing is read on the thread that created the loan
+        verify(loanInstallmentRepository, never()).findReminderRowsByLoanIdDueUntil(anyLong(), any());
+        assertEquals(0, scheduler.advanceTo(millis("2025-01-27T10:01:00Z")));
+        assertEquals(1, scheduler.trackedCount());
+        assertEquals(1, scheduler.advanceTo(millis("2025-01-29T09:00:00Z")));
+    }
+
+    @Test
+    void loadThrough_Full_ResumesAfterLastLoadedRow() {
+        ReminderScheduler scheduler = scheduler("2025-01-10T00:00:00Z", 2);
+        stubDueDate();
+
+        assertEquals(2, scheduler.loadThrough(DUE_DATE));
+        assertEquals(2, scheduler.advanceTo(millis("2025-01-10T09:00:00Z")));
+
+        //the remaining installment was due to be reminded already and is fired while loading
+        assertEquals(1, scheduler.loadThrough(DUE_DATE));
+        assertEquals(List.of(1L, 2L, 3L), reminderSink.getReminders().stream().map(InstallmentReminder::installmentId).toList());
+    }
+
+    private ReminderScheduler scheduler(String now, int maxTracked) {
+        Clock clock = Clock.fixed(Instant.parse(now), ZoneOffset.UTC);
+        return new ReminderScheduler(loanInstallmentRepository, new InstallmentScheduleTemplateService(clock), new ShardRouter(1), reminderSink,
+                                     clock, new SimpleMeterRegistry(), 3, "09:00", 2, 2, maxTracked, 60_000, 60);
+    }
+
+    private void stubDueDate() {
+        when(loanInstallmentRepository.findReminderRowsDueOn(DUE_DATE, 0L, Limit.of(2))).thenReturn(List.of(row(1L), row(2L)));
+        when(loanInstallmentRepository.findReminderRowsDueOn(DUE_DATE, 2L, Limit.of(2))).thenReturn(List.of(row(3L)));
+    }
+
+    private static ReminderInstallmentRow row(long id) {
+        return new ReminderInstallmentRow(id, 7L, 5L, DUE_DATE, new BigDecimal("10.00"));
+    }
+
+    private static long millis(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+}
@@ -0,0 +1,74 @@
+package com.inghub.credit.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private final TimingWheel wheel = new TimingWheel(10, 4, 1000);
+    private final List<Long> fired = new ArrayList<>();
+
+    @Test
+    void add_Expired_IsRejected() {
+        assertFalse(wheel.add(entry(1, 1009)));
+        assertTrue(wheel.add(entry(2, 1010)));
+    }
+
+    @Test
+    void advanceTo_FiresEntriesInTheirTick() {
+        wheel.add(entry(1, 1015));
+        wheel.add(entry(2, 1025));
+        wheel.add(entry(3, 1039));
+
+        advanceTo(1019);
+        assertEquals(List.of(1L), fired);
+
+        advanceTo(1040);
+        assertEquals(List.of(1L, 2L, 3L), fired);
+    }
+
+    @Test
+    void advanceTo_EntryBeyondSpan_CascadesFromOverflowWheels() {
+        wheel.add(entry(1, 1045));
+        wheel.add(entry(2, 1500));
+        assertEquals(3, wheel.levels());
+
+        advanceTo(1049);
+        assertEquals(List.of(1L), fired);
+
+        advanceTo(1499);
+        assertEquals(List.of(1L), fired);
+
+        advanceTo(1500);
+        assertEquals(List.of(1L, 2L), fired);
+    }
+
+    @Test
+    void unlink_CancelledEntry_NeverFires() {
+        ReminderEntry entry = entry(1, 1100);
+        wheel.add(entry);
+        wheel.add(entry(2, 1100));
+
+        assertTrue(entry.unlink());
+        assertFalse(entry.unlink());
+
+        advanceTo(1200);
+        assertEquals(List.of(2L), fired);
+    }
+
+    private void advanceTo(long time) {
+        wheel.advanceTo(time, entry -> {
+            if (!wheel.add(entry)) {
+                fired.add(entry.installmentId);
+            }
+        });
+    }
+
+    private static ReminderEntry entry(long installmentId, long expiration) {
+        return new ReminderEntry(installmentId, 1, 1, 100, 0, expiration);
+    }
+}
@@ -0,0 +1,53 @@
+package com.inghub.credit.repository;
+
+import com.inghub.credit.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoanSearchCriteriaTest {
+
+    @Test
+    void installmentCounts_NonPositiveAndDuplicatesDropped() {
+        LoanSearchCriteria criteria = new LoanSearchCriteria(null, null, null, Arrays.asList(12, 0, 6, null, 12, -1), null,
+                                                             null, null, null, null);
+
+        assertEquals(List.of(6, 12), criteria.installmentCounts());
+    }
+
+    @Test
+    void of_ZeroValuesMeanNoFilter() {
+        LoanSearchCriteria criteria = LoanSearchCriteria.of(BigDecimal.ZERO, 0, null);
+
+        assertEquals(LoanSearchCriteria.NONE, criteria);
+    }
+
+    @Test
+    void equalCriteria_AreEqual() {
+        assertEquals(LoanSearchCriteria.of(new BigDecimal("100.00"), 6, true), LoanSearchCriteria.of(new BigDecimal("100.00"), 6, true));
+        assertEquals(new LoanSearchCriteria(null, null, null, List.of(12, 6), null, null, null, null, null),
+                     new LoanSearchCriteria(null, null, null, List.of(6, 12), null, null, null, null, null));
+    }
+
+    @Test
+    void invertedRanges_ThrowBadRequest() {
+        assertThrows(BadRequestException.class, () -> new LoanSearchCriteria(null, new BigDecimal("200"), new BigDecimal("100"), null, null,
+                                                                             null, null, null, null));
+        assertThrows(BadRequestException.class, () -> new LoanSearchCriteria(null, null, null, null, null,
+                                                                             LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 31), null, null));
+        assertThrows(BadRequestException.class, () -> new LoanSearchCriteria(null, null, null, null, null, null, null,
+                                                                             new BigDecimal("0.5"), new BigDecimal("0.1")));
+    }
+
+    @Test
+    void singleDayRange_IsAllowed() {
+        LocalDate day = LocalDate.of(2025, 1, 31);
+
+        assertEquals(day, new LoanSearchCriteria(null, null, null, null, null, day, day, null, null).createdTo());
+    }
+}
@@ -0,0 +1,32 @@
+package com.inghub.credit.repository.page;
+
+import com.inghub.credit.exception.BadRequestException;
+import com.inghub.credit.repository.page.ChangeCursor.Position;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeCursorTest {
+
+    @Test
+    void decode_Blank_ReturnsStart() {
+        assertEquals(ChangeCursor.START, ChangeCursor.decode(null));
+        assertEquals(ChangeCursor.START, ChangeCursor.decode(""));
+    }
+
+    @Test
+    void encode_RoundTripsPositions() {
+        ChangeCursor cursor = new ChangeCursor(new Position(LocalDateTime.of(2025, 1, 22, 18, 8, 35, 123456000), 1L), null);
+
+        assertEquals(cursor, ChangeCursor.decode(cursor.encode()));
+        assertEquals(ChangeCursor.START, ChangeCursor.decode(ChangeCursor.START.encode()));
+    }
+
+    @Test
+    void decode_Invalid_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> ChangeCursor.decode("not a cursor"));
+        assertThrows(BadRequestException.class, () -> ChangeCursor.decode("bm90X2FfY3Vyc29y"));
+    }
+}
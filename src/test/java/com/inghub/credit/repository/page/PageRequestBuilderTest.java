@@ -0,0 +1,65 @@
+package com.inghub.credit.repository.page;
+
+import com.inghub.credit.constant.ConstantValues;
+import com.inghub.credit.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageRequestBuilderTest {
+
+    @Test
+    void getPageRequest_NoSort_SortsById() {
+        PageRequest pageRequest = PageRequestBuilder.getPageRequest(null, null, null, SortRegistry.LOANS);
+
+        assertEquals(0, pageRequest.getPageNumber());
+        assertEquals(ConstantValues.DEFAULT_PAGE_SIZE, pageRequest.getPageSize());
+        assertEquals(Sort.by(Sort.Order.asc("id")), pageRequest.getSort());
+    }
+
+    @Test
+    void getPageRequest_MapsPublicKeysAndAppendsIdTieBreaker() {
+        PageRequest pageRequest = PageRequestBuilder.getPageRequest(10, 2, "-insertDate, loanAmount", SortRegistry.LOANS);
+
+        assertEquals(1, pageRequest.getPageNumber());
+        assertEquals(List.of(Sort.Order.desc("createDate"), Sort.Order.asc("loanAmount"), Sort.Order.asc("id")),
+                     pageRequest.getSort().toList());
+    }
+
+    @Test
+    void getPageRequest_SortedById_DoesNotAppendIdAgain() {
+        PageRequest pageRequest = PageRequestBuilder.getPageRequest(10, 1, "-id", SortRegistry.LOAN_INSTALLMENTS);
+
+        assertEquals(List.of(Sort.Order.desc("id")), pageRequest.getSort().toList());
+    }
+
+    @Test
+    void getPageRequest_UnknownSortKey_ThrowsBadRequest() {
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                                                     () -> PageRequestBuilder.getPageRequest(10, 1, "+customer.name", SortRegistry.LOANS));
+        assertEquals("Unsupported sort field: customer.name. Must be one of: [id, insertDate, isPaid, loanAmount, numberOfInstallment]",
+                     exception.getMessage());
+    }
+
+    @Test
+    void getPageRequest_KeyOfOtherEndpoint_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> PageRequestBuilder.getPageRequest(10, 1, "dueDate", SortRegistry.LOANS));
+    }
+
+    @Test
+    void getPageRequest_PageSizeAboveMaximum_IsCapped() {
+        PageRequest pageRequest = PageRequestBuilder.getPageRequest(100_000, 1, null, SortRegistry.LOANS);
+
+        assertEquals(ConstantValues.MAX_PAGE_SIZE, pageRequest.getPageSize());
+    }
+
+    @Test
+    void getPageRequest_InvalidPaging_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> PageRequestBuilder.getPageRequest(0, 1, null, SortRegistry.LOANS));
+        assertThrows(BadRequestException.class, () -> PageRequestBuilder.getPageRequest(10, 0, null, SortRegistry.LOANS));
+    }
+}
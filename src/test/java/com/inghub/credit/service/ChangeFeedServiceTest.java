@@ -0,0 +1,114 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.domain.Customer;
+import com.inghub.credit.domain.Loan;
+import com.inghub.credit.domain.LoanInstallment;
+import com.inghub.credit.exception.BadRequestException;
+import com.inghub.credit.repository.LoanInstallmentRepository;
+import com.inghub.credit.repository.LoanRepository;
+import com.inghub.credit.repository.page.ChangeCursor;
+import com.inghub.credit.repository.page.ChangeCursor.Position;
+import com.inghub.credit.response.ListChangesResponse;
+import com.inghub.credit.response.dto.LoanDTO;
+import com.inghub.credit.response.dto.LoanInstallmentChangeDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ChangeFeedServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 1, 23, 12, 0, 0);
+    private static final LocalDateTime UNTIL = NOW.minusSeconds(2);
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    @Mock
+    private LoanInstallmentRepository loanInstallmentRepository;
+
+    private ChangeFeedService changeFeedService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        changeFeedService = new ChangeFeedService(loanRepository, loanInstallmentRepository, clock, 2000);
+    }
+
+    @Test
+    void findChanges_MergesTablesByUpdateDateAndReturnsNextCursor() {
+        Loan loan = createLoan(1L, LocalDateTime.of(2025, 1, 22, 10, 0));
+        when(loanRepository.findChanges(UNTIL, PageRequest.of(0, 3))).thenReturn(List.of(loan));
+        when(loanInstallmentRepository.findChanges(UNTIL, PageRequest.of(0, 3))).thenReturn(List.of(
+                createInstallment(5L, loan, LocalDateTime.of(2025, 1, 22, 9, 0)),
+                createInstallment(6L, loan, LocalDateTime.of(2025, 1, 22, 10, 0)),
+                createInstallment(7L, loan, LocalDateTime.of(2025, 1, 22, 11, 0))));
+
+        ListChangesResponse response = changeFeedService.findChanges(0, null, 2);
+
+        assertEquals(List.of(1L), response.loans().stream().map(LoanDTO::id).toList());
+        assertEquals(List.of(5L), response.loanInstallments().stream().map(LoanInstallmentChangeDTO::id).toList());
+        assertTrue(response.hasMore());
+        assertEquals(new ChangeCursor(new Position(LocalDateTime.of(2025, 1, 22, 10, 0), 1L),
+                                      new Position(LocalDateTime.of(2025, 1, 22, 9, 0), 5L)),
+                     ChangeCursor.decode(response.nextCursor()));
+    }
+
+    @Test
+    void findChanges_ContinuesFromCursorPositions() {
+        Position loanPosition = new Position(LocalDateTime.of(2025, 1, 22, 10, 0), 1L);
+        String since = new ChangeCursor(loanPosition, null).encode();
+        when(loanRepository.findChangesAfter(eq(loanPosition.updateDate()), eq(1L), eq(UNTIL), any(Pageable.class))).thenReturn(List.of());
+        when(loanInstallmentRepository.findChanges(eq(UNTIL), any(Pageable.class))).thenReturn(List.of());
+
+        ListChangesResponse response = changeFeedService.findChanges(0, since, null);
+
+        assertTrue(response.loans().isEmpty());
+        assertFalse(response.hasMore());
+        assertEquals(since, response.nextCursor());
+        verify(loanRepository, never()).findChanges(any(), any());
+    }
+
+    @Test
+    void findChanges_InvalidLimit_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> changeFeedService.findChanges(0, null, 0));
+    }
+
+    private Loan createLoan(Long id, LocalDateTime updateDate) {
+        Customer customer = new Customer();
+        customer.setId(1L);
+        Loan loan = new Loan();
+        loan.setId(id);
+        loan.setCustomer(customer);
+        loan.setLoanAmount(BigDecimal.valueOf(120));
+        loan.setNumberOfInstallment(6);
+        loan.setUpdateDate(updateDate);
+        return loan;
+    }
+
+    private LoanInstallment createInstallment(Long id, Loan loan, LocalDateTime updateDate) {
+        LoanInstallment installment = new LoanInstallment();
+        installment.setId(id);
+        installment.setLoan(loan);
+        installment.setAmount(BigDecimal.valueOf(20));
+        installment.setPaidAmount(BigDecimal.ZERO);
+        installment.setDueDate(LocalDate.of(2025, 2, 1));
+        installment.setUpdateDate(updateDate);
+        return installment;
+    }
+}
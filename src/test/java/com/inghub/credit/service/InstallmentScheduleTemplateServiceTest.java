@@ -0,0 +1,82 @@
+package com.inghub.credit.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstallmentScheduleTemplateServiceTest {
+
+    private static Clock fixedClock(String instant) {
+        return Clock.fixed(Instant.parse(instant), ZoneOffset.UTC);
+    }
+
+    @Test
+    void getInstallmentDates_StartsFirstDayOfNextMonth() {
+        InstallmentScheduleTemplateService service = new InstallmentScheduleTemplateService(fixedClock("2025-01-22T10:00:00Z"));
+
+        List<LocalDate> dates = service.getInstallmentDates(6);
+
+        assertEquals(List.of(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 3, 1), LocalDate.of(2025, 4, 1),
+                             LocalDate.of(2025, 5, 1), LocalDate.of(2025, 6, 1), LocalDate.of(2025, 7, 1)), dates);
+    }
+
+    @Test
+    void getInstallmentDates_SameMonth_ReturnsCachedTemplate() {
+        InstallmentScheduleTemplateService service = new InstallmentScheduleTemplateService(fixedClock("2025-01-22T10:00:00Z"));
+
+        assertSame(service.getInstallmentDates(12), service.getInstallmentDates(12));
+        assertThrows(UnsupportedOperationException.class, () -> service.getInstallmentDates(12).add(LocalDate.now()));
+    }
+
+    @Test
+    void getInstallmentDates_MonthBoundary_RollsOver() {
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-31T23:59:59Z"));
+        InstallmentScheduleTemplateService service = new InstallmentScheduleTemplateService(clock);
+
+        assertEquals(LocalDate.of(2025, 2, 1), service.getInstallmentDates(6).get(0));
+
+        clock.instant = Instant.parse("2025-02-01T00:00:00Z");
+        assertEquals(LocalDate.of(2025, 3, 1), service.getInstallmentDates(6).get(0));
+    }
+
+    @Test
+    void calculateInstallmentAmount_SplitsAmountWithInterest() {
+        InstallmentScheduleTemplateService service = new InstallmentScheduleTemplateService(fixedClock("2025-01-22T10:00:00Z"));
+
+        assertEquals(new BigDecimal("220.00"), service.calculateInstallmentAmount(new BigDecimal("1000"), 5, new BigDecimal("0.1")));
+        assertEquals(new BigDecimal("366.67"), service.calculateInstallmentAmount(new BigDecimal("1000.00"), 3, new BigDecimal("0.10")));
+        assertEquals(new BigDecimal("0.10"), service.calculateInstallmentAmount(new BigDecimal("1.00"), 12, new BigDecimal("0.23")));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
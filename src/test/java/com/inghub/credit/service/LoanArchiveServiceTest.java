@@ -0,0 +1,55 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.Application;
+import com.inghub.credit.domain.Loan;
+import com.inghub.credit.repository.LoanSearchCriteria;
+import com.inghub.credit.repository.page.CountMode;
+import com.inghub.credit.response.ListLoanInstallmentsResponse;
+import com.inghub.credit.response.ListLoanResponse;
+import com.inghub.credit.response.dto.LoanDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//Runs the archive SQL against H2, shares the application context with the controller tests.
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoanArchiveServiceTest {
+
+    @Autowired
+    private LoanArchiveService loanArchiveService;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanInstallmentService loanInstallmentService;
+
+    @Test
+    void archivePaidLoans_MovesLoanOutOfHotTables() {
+        Loan loan = loanService.saveLoan(1L, new BigDecimal("10.00"), 6, new BigDecimal("0.1"));
+        loanService.updateLoanIsPaidStatus(loan.getId(), true);
+
+        assertTrue(loanArchiveService.archivePaidLoans(LocalDateTime.now().plusMinutes(1)) >= 1);
+
+        ListLoanResponse hot = loanService.searchLoansByCustomerId(1L, LoanSearchCriteria.of(null, null, true), false, CountMode.EXACT, 100, 1, null);
+        assertTrue(hot.loans().stream().map(LoanDTO::id).noneMatch(loan.getId()::equals));
+        ListLoanResponse all = loanService.searchLoansByCustomerId(1L, LoanSearchCriteria.of(null, null, true), true, CountMode.EXACT, 100, 1, null);
+        assertTrue(all.loans().stream().map(LoanDTO::id).anyMatch(loan.getId()::equals));
+
+        assertTrue(loanInstallmentService.searchLoanInstallmentsByLoanId(loan.getId(), false, CountMode.EXACT, 10, 1, null).loanInstallments().isEmpty());
+        ListLoanInstallmentsResponse archivedInstallments = loanInstallmentService.searchLoanInstallmentsByLoanId(loan.getId(), true, CountMode.EXACT, 10, 1, null);
+        assertEquals(6, archivedInstallments.loanInstallments().size());
+    }
+
+    @Test
+    void archivePaidLoans_UnpaidLoan_StaysHot() {
+        loanArchiveService.archivePaidLoans(LocalDateTime.now().plusMinutes(1));
+
+        assertEquals(6, loanInstallmentService.searchLoanInstallmentsByLoanId(1L, false, CountMode.EXACT, 10, 1, null).loanInstallments().size());
+    }
+}
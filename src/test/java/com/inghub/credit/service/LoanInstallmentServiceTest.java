@@ -1,17 +1,27 @@
 package com.inghub.credit.service;
 
+import com.inghub.credit.domain.Loan;
 import com.inghub.credit.domain.LoanInstallment;
+import com.inghub.credit.domain.LoanInstallmentView;
 import com.inghub.credit.exception.ResourceNotFoundException;
 import com.inghub.credit.repository.LoanInstallmentRepository;
+import com.inghub.credit.repository.LoanInstallmentViewRepository;
+import com.inghub.credit.repository.page.CountMode;
 import com.inghub.credit.response.ListLoanInstallmentsResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -32,6 +42,15 @@ class LoanInstallmentServiceTest {
     @Mock
     private LoanInstallmentRepository loanInstallmentRepository;
 
+    @Mock
+    private LoanInstallmentViewRepository loanInstallmentViewRepository;
+
+    @Mock
+    private InstallmentScheduleTemplateService installmentScheduleTemplateService;
+
+    @Spy
+    private LoanCountService loanCountService = new LoanCountService(new SimpleMeterRegistry(), 100, 10);
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -71,6 +90,25 @@ class LoanInstallmentServiceTest {
         assertNotNull(result);
         assertEquals(2, result.getContent().size());
         verify(loanInstallmentRepository, times(1)).findByLoanId(eq(1L), any(PageRequest.class));
+        verifyNoInteractions(loanInstallmentViewRepository);
+    }
+
+    @Test
+    void testSearchLoanInstallmentsByLoanId_IncludeArchived_ReadsView() {
+        LoanInstallmentView archivedInstallment = new LoanInstallmentView();
+        archivedInstallment.setId(1L);
+        archivedInstallment.setLoanId(1L);
+        archivedInstallment.setAmount(BigDecimal.valueOf(100));
+        archivedInstallment.setPaidAmount(BigDecimal.valueOf(100));
+        archivedInstallment.setDueDate(LocalDate.of(2025, 2, 1));
+        archivedInstallment.setPaid(true);
+        when(loanInstallmentViewRepository.findByLoanId(eq(1L), any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(Window.from(List.of(archivedInstallment), ScrollPosition::offset));
+
+        ListLoanInstallmentsResponse response = loanInstallmentService.searchLoanInstallmentsByLoanId(1L, true, CountMode.EXACT, 10, 1, null);
+
+        assertEquals(1, response.loanInstallments().size());
+        verify(loanInstallmentRepository, never()).findByLoanId(any(), any(), any(), any());
     }
 
     @Test
@@ -94,47 +132,47 @@ class LoanInstallmentServiceTest {
                 createDummyLoanInstallment(1L),
                 createDummyLoanInstallment(2L)
         );
-        Page<LoanInstallment> page = new PageImpl<>(installments);
-        when(loanInstallmentRepository.findByLoanId(eq(1L), any(PageRequest.class))).thenReturn(page);
+        when(loanInstallmentRepository.findByLoanId(eq(1L), any(ScrollPosition.class), eq(Limit.of(2)), any(Sort.class)))
+                .thenReturn(Window.from(installments, ScrollPosition::offset, true));
+        when(loanInstallmentRepository.countByLoanId(1L)).thenReturn(6L);
 
-        ListLoanInstallmentsResponse response = loanInstallmentService.searchLoanInstallmentsByLoanId(1L, 10, 1, "dueDate");
+        ListLoanInstallmentsResponse response = loanInstallmentService.searchLoanInstallmentsByLoanId(1L, false, CountMode.EXACT, 2, 1, "dueDate");
 
         assertNotNull(response);
         assertEquals(2, response.loanInstallments().size());
-        verify(loanInstallmentRepository, times(1)).findByLoanId(eq(1L), any(PageRequest.class));
-    }
-
-    @Test
-    void testCreateInstallmentDatesByInstallmentCount() {
-        List<LocalDate> dates = LoanInstallmentService.createInstallmentDatesByInstallmentCount(3);
-
-        assertEquals(3, dates.size());
-        assertTrue(dates.get(0).isAfter(LocalDate.now()));
+        assertEquals(6L, response.apiModelPage().totalNumberOfRecords());
+        assertEquals(3, response.apiModelPage().totalNumberOfPages());
+        assertTrue(response.apiModelPage().hasNextPage());
+        verify(loanInstallmentRepository, times(1)).findByLoanId(eq(1L), any(ScrollPosition.class), eq(Limit.of(2)), any(Sort.class));
     }
 
     @Test
-    void testCalculateInstallmentAmount() {
-        BigDecimal loanAmount = BigDecimal.valueOf(1000);
-        int numberOfInstallments = 5;
-        BigDecimal interestRate = BigDecimal.valueOf(0.1);
+    void testSearchLoanInstallmentsByLoanId_CountNone_SkipsCount() {
+        when(loanInstallmentRepository.findByLoanId(eq(1L), any(ScrollPosition.class), any(Limit.class), any(Sort.class)))
+                .thenReturn(Window.from(List.of(createDummyLoanInstallment(1L)), ScrollPosition::offset, true));
 
-        BigDecimal result = LoanInstallmentService.calculateInstallmentAmount(loanAmount, numberOfInstallments, interestRate);
+        ListLoanInstallmentsResponse response = loanInstallmentService.searchLoanInstallmentsByLoanId(1L, false, CountMode.NONE, 1, 1, null);
 
-        assertNotNull(result);
-        assertEquals(0, result.compareTo(BigDecimal.valueOf(220.00)));
+        assertNull(response.apiModelPage().totalNumberOfRecords());
+        assertTrue(response.apiModelPage().hasNextPage());
+        verify(loanInstallmentRepository, never()).countByLoanId(any());
     }
 
     @Test
-    void testPayMultipleLoanInstallments() {
-        LoanInstallment installment = createDummyLoanInstallment(1L);
-        installment.setPaid(false);
-        when(loanInstallmentRepository.findById(1L)).thenReturn(Optional.of(installment));
-
-        loanInstallmentService.payMultipleLoanInstallments(Arrays.asList(1L));
-
-        assertTrue(installment.isPaid());
-        assertEquals(installment.getAmount(), installment.getPaidAmount());
-        verify(loanInstallmentRepository, times(1)).save(installment);
+    void testCreateLoanInstallments_UsesScheduleTemplate() {
+        Loan loan = new Loan();
+        List<LocalDate> dates = List.of(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 3, 1));
+        when(installmentScheduleTemplateService.getInstallmentDates(2)).thenReturn(dates);
+        when(installmentScheduleTemplateService.calculateInstallmentAmount(BigDecimal.valueOf(100), 2, BigDecimal.valueOf(0.1)))
+                .thenReturn(BigDecimal.valueOf(55));
+
+        List<LoanInstallment> installments = loanInstallmentService.createLoanInstallments(loan, BigDecimal.valueOf(100), 2, BigDecimal.valueOf(0.1));
+
+        assertEquals(2, installments.size());
+        assertEquals(dates.get(1), installments.get(1).getDueDate());
+        assertEquals(BigDecimal.valueOf(55), installments.get(0).getAmount());
+        assertSame(loan, installments.get(0).getLoan());
+        assertFalse(installments.get(0).isPaid());
     }
 
     private LoanInstallment createDummyLoanInstallment(Long id) {
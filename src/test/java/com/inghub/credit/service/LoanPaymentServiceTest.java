@@ -1,18 +1,27 @@
 package com.inghub.credit.service;
 
-import com.inghub.credit.domain.Customer;
-import com.inghub.credit.domain.Loan;
-import com.inghub.credit.domain.LoanInstallment;
+import com.inghub.credit.event.InstallmentsPaidEvent;
+import com.inghub.credit.event.LoanClosedEvent;
 import com.inghub.credit.exception.CreditException;
 import com.inghub.credit.exception.ResourceNotFoundException;
+import com.inghub.credit.journal.PaymentJournal;
+import com.inghub.credit.repository.CustomerUnpaidInstallmentRow;
+import com.inghub.credit.repository.UnpaidInstallmentRow;
+import com.inghub.credit.response.PayCustomerLoansResponse;
 import com.inghub.credit.response.PayLoanResponse;
+import com.inghub.credit.service.allocation.OldestFirstAllocationStrategy;
+import com.inghub.credit.service.allocation.PartialPaymentAllocationStrategy;
+import com.inghub.credit.service.allocation.PaymentAllocationEngine;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 
@@ -33,6 +42,18 @@ class LoanPaymentServiceTest {
     @Mock
     private CustomerService customerService;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private UnpaidInstallmentIndex unpaidInstallmentIndex;
+
+    @Mock
+    private PaymentJournal paymentJournal;
+
+    @Spy
+    private PaymentAllocationEngine paymentAllocationEngine = new PaymentAllocationEngine(Clock.systemDefaultZone(), new OldestFirstAllocationStrategy(), 3);
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -40,37 +61,9 @@ class LoanPaymentServiceTest {
 
     @Test
     void testPayLoan_AllInstallmentsPaid() {
-        // Create dummy Customer
-        Customer customer = new Customer();
-        customer.setId(1L);
-        customer.setName("John");
-        customer.setSurname("Doe");
-        customer.setCreditLimit(BigDecimal.valueOf(10000));
-        customer.setUsedCreditLimit(BigDecimal.valueOf(5000));
-
-        // Create dummy Loan
-        Loan loan = new Loan();
-        loan.setId(1L);
-        loan.setCustomer(customer);
-
-        // Create dummy LoanInstallments
-        LoanInstallment installment1 = new LoanInstallment();
-        installment1.setId(1L);
-        installment1.setLoan(loan);
-        installment1.setAmount(BigDecimal.valueOf(500));
-        installment1.setPaid(false);
-
-        LoanInstallment installment2 = new LoanInstallment();
-        installment2.setId(2L);
-        installment2.setLoan(loan);
-        installment2.setAmount(BigDecimal.valueOf(500));
-        installment2.setPaid(false);
-
-        List<LoanInstallment> unpaidInstallments = Arrays.asList(installment1, installment2);
-
-        when(loanInstallmentService.findLoanInstallmentsByLoanIdAndIsPaid(1L, false)).thenReturn(unpaidInstallments);
-        when(loanInstallmentService.findEligibleInstallments(unpaidInstallments, BigDecimal.valueOf(1000)))
-                .thenReturn(unpaidInstallments);
+        UnpaidInstallments unpaidInstallments = unpaidInstallments(1L, new BigDecimal("1000.00"), "500.00", "500.00");
+        when(unpaidInstallmentIndex.get(eq(1L), anyLong())).thenReturn(unpaidInstallments);
+        when(loanInstallmentService.settleLoanInstallments(Arrays.asList(1L, 2L))).thenReturn(2);
 
         PayLoanResponse response = loanPaymentService.payLoan(1L, BigDecimal.valueOf(1000));
 
@@ -80,44 +73,22 @@ class LoanPaymentServiceTest {
         assertEquals(1000.0, response.totalAmountSpent());
         assertTrue(response.loanPaidCompletely());
 
-        verify(loanInstallmentService, times(1)).payMultipleLoanInstallments(Arrays.asList(1L, 2L));
-        verify(loanService, times(1)).updateLoanIsPaidStatus(1L, true);
-        verify(customerService, times(1)).decreaseCustomerUsedCreditLimit(1L, BigDecimal.valueOf(1000));
+        verify(loanInstallmentService, times(1)).settleLoanInstallments(Arrays.asList(1L, 2L));
+        verify(loanService, times(1)).closeLoan(1L);
+        verify(customerService, times(1)).decreaseCustomerUsedCreditLimit(1L, new BigDecimal("1000.00"));
+        verify(outboxService, times(1)).append(new InstallmentsPaidEvent(1L, 1L, Arrays.asList(1L, 2L), new BigDecimal("1000.00")));
+        verify(outboxService, times(1)).append(new LoanClosedEvent(1L, 1L, new BigDecimal("1000.00")));
+        verify(unpaidInstallmentIndex, times(1)).replaceAfterCommit(eq(unpaidInstallments), argThat(UnpaidInstallments::isEmpty));
+        verify(paymentJournal, times(1)).append(1L, 100000, Arrays.asList(1L, 2L), 0, 0);
     }
 
     @Test
     void testPayLoan_PartialInstallmentsPaid() {
-        // Create dummy Customer
-        Customer customer = new Customer();
-        customer.setId(1L);
-        customer.setName("John");
-        customer.setSurname("Doe");
-        customer.setCreditLimit(BigDecimal.valueOf(10000));
-        customer.setUsedCreditLimit(BigDecimal.valueOf(5000));
-
         Long loanId = 1L;
         BigDecimal paidAmount = BigDecimal.valueOf(100);
-
-        Loan loan = new Loan();
-        loan.setId(loanId);
-        loan.setCustomer(customer);
-
-        LoanInstallment installment1 = new LoanInstallment();
-        installment1.setId(1L);
-        installment1.setAmount(BigDecimal.valueOf(100));
-        installment1.setLoan(loan);
-        installment1.setPaid(false);
-
-        LoanInstallment installment2 = new LoanInstallment();
-        installment2.setId(2L);
-        installment2.setAmount(BigDecimal.valueOf(100));
-        installment2.setLoan(loan);
-        installment2.setPaid(false);
-
-        List<LoanInstallment> unpaidInstallments = Arrays.asList(installment1, installment2);
-
-        when(loanInstallmentService.findLoanInstallmentsByLoanIdAndIsPaid(loanId, false)).thenReturn(unpaidInstallments);
-        when(loanInstallmentService.findEligibleInstallments(unpaidInstallments, paidAmount)).thenReturn(List.of(installment1));
+        UnpaidInstallments unpaidInstallments = unpaidInstallments(loanId, new BigDecimal("200.00"), "100.00", "100.00");
+        when(unpaidInstallmentIndex.get(eq(loanId), anyLong())).thenReturn(unpaidInstallments);
+        when(loanInstallmentService.settleLoanInstallments(List.of(1L))).thenReturn(1);
 
         PayLoanResponse response = loanPaymentService.payLoan(loanId, paidAmount);
 
@@ -127,9 +98,12 @@ class LoanPaymentServiceTest {
         assertEquals(100.0, response.totalAmountSpent());
         assertFalse(response.loanPaidCompletely());
 
-        verify(loanInstallmentService, times(1)).payMultipleLoanInstallments(List.of(1L));
-        verify(loanService, never()).updateLoanIsPaidStatus(loanId, true);
-        verify(customerService, times(1)).decreaseCustomerUsedCreditLimit(anyLong(), eq(BigDecimal.valueOf(100)));
+        verify(loanInstallmentService, times(1)).settleLoanInstallments(List.of(1L));
+        verify(loanService, never()).closeLoan(loanId);
+        verify(customerService, times(1)).decreaseCustomerUsedCreditLimit(anyLong(), eq(new BigDecimal("100.00")));
+        verify(outboxService, times(1)).append(new InstallmentsPaidEvent(loanId, 1L, List.of(1L), new BigDecimal("100.00")));
+        verify(outboxService, never()).append(any(LoanClosedEvent.class));
+        verify(unpaidInstallmentIndex, times(1)).replaceAfterCommit(eq(unpaidInstallments), argThat(remaining -> remaining.size() == 1 && remaining.id(0) == 2L));
     }
 
     @Test
@@ -137,12 +111,12 @@ class LoanPaymentServiceTest {
         Long loanId = 1L;
         BigDecimal paidAmount = BigDecimal.valueOf(100);
 
-        when(loanInstallmentService.findLoanInstallmentsByLoanIdAndIsPaid(loanId, false)).thenReturn(List.of());
+        when(unpaidInstallmentIndex.get(eq(loanId), anyLong())).thenReturn(UnpaidInstallments.of(loanId, List.of()));
 
         assertThrows(ResourceNotFoundException.class, () -> loanPaymentService.payLoan(loanId, paidAmount));
 
-        verify(loanInstallmentService, never()).findEligibleInstallments(anyList(), any());
-        verify(loanService, never()).updateLoanIsPaidStatus(anyLong(), anyBoolean());
+        verify(loanInstallmentService, never()).settleLoanInstallments(anyList());
+        verify(loanService, never()).closeLoan(anyLong());
         verify(customerService, never()).decreaseCustomerUsedCreditLimit(anyLong(), any());
     }
 
@@ -151,23 +125,130 @@ class LoanPaymentServiceTest {
         Long loanId = 1L;
         BigDecimal paidAmount = BigDecimal.valueOf(50);
 
-        Loan loan = new Loan();
-        loan.setId(loanId);
+        when(unpaidInstallmentIndex.get(eq(loanId), anyLong())).thenReturn(unpaidInstallments(loanId, new BigDecimal("100.00"), "100.00"));
 
-        LoanInstallment installment1 = new LoanInstallment();
-        installment1.setId(1L);
-        installment1.setAmount(BigDecimal.valueOf(100));
-        installment1.setLoan(loan);
-        installment1.setPaid(false);
+        assertThrows(CreditException.class, () -> loanPaymentService.payLoan(loanId, paidAmount));
 
-        List<LoanInstallment> unpaidInstallments = List.of(installment1);
+        verify(loanInstallmentService, never()).settleLoanInstallments(anyList());
+        verify(loanService, never()).closeLoan(anyLong());
+        verify(customerService, never()).decreaseCustomerUsedCreditLimit(anyLong(), any());
+    }
 
-        when(loanInstallmentService.findLoanInstallmentsByLoanIdAndIsPaid(loanId, false)).thenReturn(unpaidInstallments);
+    @Test
+    void testPayLoan_PartialPaymentStrategy_PaysRestTowardsNextInstallment() {
+        Long loanId = 1L;
+        LoanPaymentService partialPaymentService = new LoanPaymentService(loanService, loanInstallmentService, customerService, outboxService, unpaidInstallmentIndex,
+                                                                          new PaymentAllocationEngine(Clock.systemDefaultZone(), new PartialPaymentAllocationStrategy(), 3),
+                                                                          paymentJournal);
+        UnpaidInstallments unpaidInstallments = unpaidInstallments(loanId, new BigDecimal("200.00"), "100.00", "100.00");
+        when(unpaidInstallmentIndex.get(eq(loanId), anyLong())).thenReturn(unpaidInstallments);
+        when(loanInstallmentService.settleLoanInstallments(List.of(1L))).thenReturn(1);
+        when(loanInstallmentService.payLoanInstallmentPartially(2L, new BigDecimal("30.00"))).thenReturn(true);
 
-        assertThrows(CreditException.class, () -> loanPaymentService.payLoan(loanId, paidAmount));
+        PayLoanResponse response = partialPaymentService.payLoan(loanId, new BigDecimal("130.00"));
+
+        assertEquals(1, response.paidInstallmentCount());
+        assertEquals(130.0, response.totalAmountSpent());
+        assertFalse(response.loanPaidCompletely());
+        verify(customerService, times(1)).decreaseCustomerUsedCreditLimit(1L, new BigDecimal("130.00"));
+        verify(unpaidInstallmentIndex, times(1)).replaceAfterCommit(eq(unpaidInstallments), argThat(remaining -> remaining.size() == 1 && remaining.amount(0) == 7000));
+        verify(paymentJournal, times(1)).append(loanId, 13000, List.of(1L), 2L, 7000);
+        verify(outboxService, times(1)).append(new InstallmentsPaidEvent(loanId, 1L, List.of(1L), new BigDecimal("130.00"), 2L, new BigDecimal("70.00")));
+    }
+
+    @Test
+    void testPayLoan_WindowPaid_KeepsLoanOpen() {
+        Long loanId = 1L;
+        List<UnpaidInstallmentRow> window = List.of(new UnpaidInstallmentRow(1L, LocalDate.now().minusMonths(1), new BigDecimal("100.00"), 1L, new BigDecimal("300.00")));
+        UnpaidInstallments unpaidInstallments = UnpaidInstallments.of(loanId, window, 3, LocalDate.now().plusMonths(3).toEpochDay());
+        when(unpaidInstallmentIndex.get(eq(loanId), anyLong())).thenReturn(unpaidInstallments);
+        when(loanInstallmentService.settleLoanInstallments(List.of(1L))).thenReturn(1);
 
-        verify(loanInstallmentService, never()).findEligibleInstallments(anyList(), any());
-        verify(loanService, never()).updateLoanIsPaidStatus(anyLong(), anyBoolean());
+        PayLoanResponse response = loanPaymentService.payLoan(loanId, BigDecimal.valueOf(300));
+
+        assertEquals(1, response.paidInstallmentCount());
+        assertFalse(response.loanPaidCompletely());
+        verify(loanService, never()).closeLoan(anyLong());
+        verify(unpaidInstallmentIndex, times(1)).replaceAfterCommit(eq(unpaidInstallments), argThat(remaining -> remaining.isEmpty() && remaining.remainingCount() == 2));
+    }
+
+    @Test
+    void testPayLoan_StaleIndexEntry_EvictsAndFails() {
+        Long loanId = 1L;
+        when(unpaidInstallmentIndex.get(eq(loanId), anyLong())).thenReturn(unpaidInstallments(loanId, new BigDecimal("200.00"), "100.00", "100.00"));
+        when(loanInstallmentService.settleLoanInstallments(List.of(1L, 2L))).thenReturn(1);
+
+        assertThrows(CreditException.class, () -> loanPaymentService.payLoan(loanId, BigDecimal.valueOf(200)));
+
+        verify(unpaidInstallmentIndex, times(1)).remove(loanId);
         verify(customerService, never()).decreaseCustomerUsedCreditLimit(anyLong(), any());
+        verify(unpaidInstallmentIndex, never()).replaceAfterCommit(any(), any());
+        verify(paymentJournal, never()).append(anyLong(), anyLong(), anyList(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testPayCustomerLoans_AllocatesAcrossLoansByDueDate() {
+        LocalDate firstDueDate = LocalDate.now().withDayOfMonth(1).minusMonths(3);
+        //loan 2 has one unpaid installment left, loan 1 three (one past the horizon)
+        List<CustomerUnpaidInstallmentRow> rows = List.of(
+                new CustomerUnpaidInstallmentRow(1L, 11L, firstDueDate, new BigDecimal("100.00"), new BigDecimal("300.00"), 3L),
+                new CustomerUnpaidInstallmentRow(2L, 21L, firstDueDate.plusDays(10), new BigDecimal("50.00"), new BigDecimal("50.00"), 1L),
+                new CustomerUnpaidInstallmentRow(1L, 12L, firstDueDate.plusMonths(1), new BigDecimal("100.00"), new BigDecimal("300.00"), 3L));
+        when(loanInstallmentService.findPayableInstallmentsByCustomerId(eq(7L), any())).thenReturn(rows);
+        when(loanInstallmentService.settleLoanInstallments(List.of(11L, 21L))).thenReturn(2);
+
+        PayCustomerLoansResponse response = loanPaymentService.payCustomerLoans(7L, new BigDecimal("160.00"));
+
+        assertEquals(7L, response.customerId());
+        assertEquals(2, response.paidInstallmentCount());
+        assertEquals(150.0, response.totalAmountSpent());
+        assertEquals(List.of(new PayLoanResponse(1L, 1, 100.0, false), new PayLoanResponse(2L, 1, 50.0, true)), response.loans());
+
+        verify(loanInstallmentService, times(1)).settleLoanInstallments(List.of(11L, 21L));
+        verify(loanService, times(1)).closeLoans(List.of(2L));
+        verify(customerService, times(1)).decreaseCustomerUsedCreditLimit(7L, new BigDecimal("150.00"));
+        verify(outboxService, times(1)).append(new InstallmentsPaidEvent(1L, 7L, List.of(11L), new BigDecimal("100.00")));
+        verify(outboxService, times(1)).append(new InstallmentsPaidEvent(2L, 7L, List.of(21L), new BigDecimal("50.00")));
+        verify(outboxService, times(1)).append(new LoanClosedEvent(2L, 7L, new BigDecimal("50.00")));
+        verify(unpaidInstallmentIndex, times(1)).remove(1L);
+        verify(unpaidInstallmentIndex, times(1)).remove(2L);
+        verify(paymentJournal, times(1)).append(1L, 10000, List.of(11L), 0, 0);
+        verify(paymentJournal, times(1)).append(2L, 5000, List.of(21L), 0, 0);
+    }
+
+    @Test
+    void testPayCustomerLoans_NoPayableInstallments() {
+        when(loanInstallmentService.findPayableInstallmentsByCustomerId(eq(7L), any())).thenReturn(List.of());
+
+        assertThrows(ResourceNotFoundException.class, () -> loanPaymentService.payCustomerLoans(7L, BigDecimal.TEN));
+
+        verify(customerService, never()).decreaseCustomerUsedCreditLimit(anyLong(), any());
+    }
+
+    @Test
+    void testPayCustomerLoans_StaleInstallments_EvictsAndFails() {
+        LocalDate dueDate = LocalDate.now().withDayOfMonth(1);
+        List<CustomerUnpaidInstallmentRow> rows = List.of(
+                new CustomerUnpaidInstallmentRow(1L, 11L, dueDate, new BigDecimal("100.00"), new BigDecimal("300.00"), 3L),
+                new CustomerUnpaidInstallmentRow(2L, 21L, dueDate, new BigDecimal("50.00"), new BigDecimal("50.00"), 1L));
+        when(loanInstallmentService.findPayableInstallmentsByCustomerId(eq(7L), any())).thenReturn(rows);
+        when(loanInstallmentService.settleLoanInstallments(List.of(11L, 21L))).thenReturn(1);
+
+        assertThrows(CreditException.class, () -> loanPaymentService.payCustomerLoans(7L, new BigDecimal("150.00")));
+
+        verify(unpaidInstallmentIndex, times(1)).remove(1L);
+        verify(unpaidInstallmentIndex, times(1)).remove(2L);
+        verify(loanService, never()).closeLoans(anyList());
+        verify(customerService, never()).decreaseCustomerUsedCreditLimit(anyLong(), any());
+    }
+
+    //installment ids start at 1, due on the first days of the past months
+    private static UnpaidInstallments unpaidInstallments(long loanId, BigDecimal loanAmount, String... amounts) {
+        LocalDate firstDueDate = LocalDate.now().withDayOfMonth(1).minusMonths(amounts.length);
+        UnpaidInstallmentRow[] rows = new UnpaidInstallmentRow[amounts.length];
+        for (int i = 0; i < amounts.length; i++) {
+            rows[i] = new UnpaidInstallmentRow(i + 1L, firstDueDate.plusMonths(i), new BigDecimal(amounts[i]), 1L, loanAmount);
+        }
+        return UnpaidInstallments.of(loanId, List.of(rows));
     }
 }
@@ -2,16 +2,24 @@ package com.inghub.credit.service;
 
 import com.inghub.credit.domain.Customer;
 import com.inghub.credit.domain.Loan;
+import com.inghub.credit.domain.LoanView;
+import com.inghub.credit.event.LoanCreatedEvent;
 import com.inghub.credit.exception.ResourceNotFoundException;
 import com.inghub.credit.repository.LoanRepository;
+import com.inghub.credit.repository.LoanSearchCriteria;
+import com.inghub.credit.repository.LoanViewRepository;
+import com.inghub.credit.repository.page.CountMode;
 import com.inghub.credit.response.CreateLoanResponse;
 import com.inghub.credit.response.ListLoanResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.data.domain.PageRequest;
+import org.mockito.Spy;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
@@ -29,12 +37,27 @@ class LoanServiceTest {
     @Mock
     private LoanRepository loanRepository;
 
+    @Mock
+    private LoanViewRepository loanViewRepository;
+
     @Mock
     private CustomerService customerService;
 
     @Mock
     private LoanInstallmentService loanInstallmentService;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private UnpaidInstallmentIndex unpaidInstallmentIndex;
+
+    @Mock
+    private ListingResponseCache listingResponseCache;
+
+    @Spy
+    private LoanCountService loanCountService = new LoanCountService(new SimpleMeterRegistry(), 100, 10);
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -88,6 +111,7 @@ class LoanServiceTest {
 
         verify(customerService, times(1)).findById(1L);
         verify(loanRepository, times(1)).save(any(Loan.class));
+        verify(outboxService, times(1)).append(new LoanCreatedEvent(1L, 1L, BigDecimal.valueOf(1000), 12, BigDecimal.valueOf(0.1)));
     }
 
     @Test
@@ -108,16 +132,69 @@ class LoanServiceTest {
         loan2.setNumberOfInstallment(6);
 
         List<Loan> loans = Arrays.asList(loan1, loan2);
-        when(loanRepository.findAll(any(Specification.class), any(PageRequest.class))).thenReturn(new org.springframework.data.domain.PageImpl<>(loans));
+        when(loanRepository.findBy(any(Specification.class), any())).thenReturn(Window.from(loans, ScrollPosition::offset));
 
-        ListLoanResponse response = loanService.searchLoansByCustomerId(1L, BigDecimal.valueOf(1000), 12, false, 10, 1, "+id");
+        ListLoanResponse response = loanService.searchLoansByCustomerId(1L, LoanSearchCriteria.of(BigDecimal.valueOf(1000), 12, false), false,
+                                                                        CountMode.EXACT, 10, 1, "+id");
 
         assertNotNull(response);
         assertEquals(2, response.loans().size());
         assertEquals(1, response.apiModelPage().pageNumber());
         assertEquals(10, response.apiModelPage().pageSize());
+        //a partial first page is the whole result, no count query needed
+        assertEquals(2L, response.apiModelPage().totalNumberOfRecords());
+        assertEquals(1, response.apiModelPage().totalNumberOfPages());
+
+        verify(loanRepository, times(1)).findBy(any(Specification.class), any());
+        verify(loanRepository, never()).count(any(Specification.class));
+        verifyNoInteractions(loanViewRepository);
+    }
+
+    @Test
+    void testSearchLoansByCustomerId_CountModes() {
+        List<Loan> loans = List.of(createDummyLoan(1L), createDummyLoan(2L));
+        when(loanRepository.findBy(any(Specification.class), any())).thenReturn(Window.from(loans, ScrollPosition::offset, true));
+        when(loanRepository.count(any(Specification.class))).thenReturn(5L);
+
+        ListLoanResponse withoutCount = loanService.searchLoansByCustomerId(1L, LoanSearchCriteria.NONE, false, CountMode.NONE, 2, 1, null);
+        assertNull(withoutCount.apiModelPage().totalNumberOfRecords());
+        assertNull(withoutCount.apiModelPage().totalNumberOfPages());
+        assertTrue(withoutCount.apiModelPage().hasNextPage());
+        verify(loanRepository, never()).count(any(Specification.class));
+
+        ListLoanResponse estimated = loanService.searchLoansByCustomerId(1L, LoanSearchCriteria.NONE, false, CountMode.ESTIMATE, 2, 1, null);
+        ListLoanResponse cached = loanService.searchLoansByCustomerId(1L, LoanSearchCriteria.NONE, false, CountMode.ESTIMATE, 2, 2, null);
+        assertEquals(5L, estimated.apiModelPage().totalNumberOfRecords());
+        assertEquals(3, estimated.apiModelPage().totalNumberOfPages());
+        assertEquals(5L, cached.apiModelPage().totalNumberOfRecords());
+        verify(loanRepository, times(1)).count(any(Specification.class));
+
+        loanCountService.onLoanEvent(new LoanCreatedEvent(3L, 1L, BigDecimal.TEN, 6, new BigDecimal("0.1")));
+        loanService.searchLoansByCustomerId(1L, LoanSearchCriteria.NONE, false, CountMode.ESTIMATE, 2, 1, null);
+        loanService.searchLoansByCustomerId(1L, LoanSearchCriteria.NONE, false, CountMode.EXACT, 2, 1, null);
+        verify(loanRepository, times(3)).count(any(Specification.class));
+    }
 
-        verify(loanRepository, times(1)).findAll(any(Specification.class), any(PageRequest.class));
+    @Test
+    void testSearchLoansByCustomerId_IncludeArchived_ReadsView() {
+        Customer customer = new Customer();
+        customer.setId(1L);
+
+        LoanView archivedLoan = new LoanView();
+        archivedLoan.setId(1L);
+        archivedLoan.setCustomer(customer);
+        archivedLoan.setLoanAmount(new BigDecimal("100.00"));
+        archivedLoan.setNumberOfInstallment(6);
+        archivedLoan.setPaid(true);
+        archivedLoan.setArchived(true);
+
+        when(loanViewRepository.findBy(any(Specification.class), any())).thenReturn(Window.from(List.of(archivedLoan), ScrollPosition::offset));
+
+        ListLoanResponse response = loanService.searchLoansByCustomerId(1L, LoanSearchCriteria.of(null, null, true), true, CountMode.EXACT, 10, 1, null);
+
+        assertEquals(1, response.loans().size());
+        assertTrue(response.loans().get(0).isPaid());
+        verify(loanRepository, never()).findBy(any(Specification.class), any());
     }
 
     @Test
@@ -141,4 +218,15 @@ class LoanServiceTest {
 
         verify(loanRepository, times(1)).findById(1L);
     }
+
+    private static Loan createDummyLoan(Long id) {
+        Customer customer = new Customer();
+        customer.setId(1L);
+        Loan loan = new Loan();
+        loan.setId(id);
+        loan.setCustomer(customer);
+        loan.setLoanAmount(new BigDecimal("100.00"));
+        loan.setNumberOfInstallment(6);
+        return loan;
+    }
 }
@@ -0,0 +1,94 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.datasource.ShardRouter;
+import com.inghub.credit.domain.OutboxEvent;
+import com.inghub.credit.event.InMemoryOutboxEventSink;
+import com.inghub.credit.event.LoanEventType;
+import com.inghub.credit.event.OutboxEventSink;
+import com.inghub.credit.event.OutboxMessage;
+import com.inghub.credit.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayServiceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2025-01-22T12:00:10Z"), ZoneOffset.UTC);
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    private InMemoryOutboxEventSink outboxEventSink;
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelayService outboxRelayService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        outboxEventSink = new InMemoryOutboxEventSink();
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelayService = new OutboxRelayService(outboxEventRepository, outboxEventSink, new ShardRouter(1), CLOCK, meterRegistry, 2, 10);
+    }
+
+    @Test
+    void relayPendingEvents_PublishesBatchesInOrderAndDeletesThem() {
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(createOutboxEvent(1L), createOutboxEvent(2L)))
+                .thenReturn(List.of(createOutboxEvent(3L)));
+
+        int relayed = outboxRelayService.relayPendingEvents();
+
+        assertEquals(3, relayed);
+        assertEquals(List.of(1L, 2L, 3L), outboxEventSink.getMessages().stream().map(OutboxMessage::id).toList());
+        verify(outboxEventRepository, times(1)).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxEventRepository, times(1)).deleteAllByIdInBatch(List.of(3L));
+        assertEquals(3.0, meterRegistry.counter("credit.outbox.relayed").count());
+        assertEquals(10.0, meterRegistry.get("credit.outbox.lag.seconds").gauge().value());
+    }
+
+    @Test
+    void relayPendingEvents_EmptyOutbox_ResetsLag() {
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, outboxRelayService.relayPendingEvents());
+        assertEquals(0.0, meterRegistry.get("credit.outbox.lag.seconds").gauge().value());
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    @Test
+    void relayPendingEvents_SinkFails_KeepsEventsForRetry() throws Exception {
+        OutboxEventSink failingSink = mock(OutboxEventSink.class);
+        doThrow(new IllegalStateException("sink down")).when(failingSink).publish(anyList());
+        OutboxRelayService relayService = new OutboxRelayService(outboxEventRepository, failingSink, new ShardRouter(1), CLOCK, meterRegistry, 2, 10);
+        when(outboxEventRepository.findAllByOrderByIdAsc(any(Pageable.class))).thenReturn(List.of(createOutboxEvent(1L)));
+
+        assertEquals(0, relayService.relayPendingEvents());
+        verify(outboxEventRepository, never()).deleteAllByIdInBatch(anyList());
+        assertEquals(1.0, meterRegistry.counter("credit.outbox.relay.failures").count());
+    }
+
+    private OutboxEvent createOutboxEvent(Long id) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setEventType(LoanEventType.INSTALLMENTS_PAID);
+        event.setLoanId(1L);
+        event.setCustomerId(1L);
+        event.setPayload("{\"loanId\":1}");
+        event.setCreateDate(LocalDateTime.of(2025, 1, 22, 12, 0, 0));
+        return event;
+    }
+}
@@ -0,0 +1,57 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.Application;
+import com.inghub.credit.domain.LoanInstallment;
+import com.inghub.credit.journal.FsyncPolicy;
+import com.inghub.credit.journal.MappedPaymentJournal;
+import com.inghub.credit.journal.PaymentJournalReplayResult;
+import com.inghub.credit.response.CreateLoanResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PaymentJournalReplayServiceTest {
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanInstallmentService loanInstallmentService;
+
+    @Autowired
+    private PaymentJournalReplayService paymentJournalReplayService;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void rebuild_AppliesJournaledPaymentsOnce() throws IOException {
+        CreateLoanResponse loan = loanService.createLoan(1L, new BigDecimal("60.00"), 6, new BigDecimal("0.1"));
+        List<Long> installmentIds = loanInstallmentService.findLoanInstallmentsByLoanIdAndIsPaid(loan.id(), false).stream().map(LoanInstallment::getId).toList();
+        //payments that never reached the database: two installments and 5.00 of the third (11.00 each)
+        MappedPaymentJournal journal = new MappedPaymentJournal(directory, 16, FsyncPolicy.ALWAYS, Clock.systemDefaultZone(), new SimpleMeterRegistry());
+        journal.append(loan.id(), 2200, installmentIds.subList(0, 2), 0, 0);
+        journal.append(loan.id(), 500, List.of(), installmentIds.get(2), 600);
+        journal.close();
+
+        assertEquals(new PaymentJournalReplayResult(2, 3, 3), paymentJournalReplayService.verify(directory));
+        assertEquals(new PaymentJournalReplayResult(2, 3, 0), paymentJournalReplayService.rebuild(directory));
+        assertEquals(new PaymentJournalReplayResult(2, 0, 0), paymentJournalReplayService.rebuild(directory));
+        assertEquals(new PaymentJournalReplayResult(2, 3, 0), paymentJournalReplayService.verify(directory));
+
+        List<LoanInstallment> unpaid = loanInstallmentService.findLoanInstallmentsByLoanIdAndIsPaid(loan.id(), false);
+        assertEquals(4, unpaid.size());
+        assertEquals(0, new BigDecimal("5.00").compareTo(unpaid.get(0).getPaidAmount()));
+    }
+}
@@ -0,0 +1,92 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.Application;
+import com.inghub.credit.domain.Customer;
+import com.inghub.credit.repository.CustomerRepository;
+import com.inghub.credit.repository.LoanSearchCriteria;
+import com.inghub.credit.repository.page.CountMode;
+import com.inghub.credit.response.CreateLoanResponse;
+import com.inghub.credit.response.PayCustomerLoansResponse;
+import com.inghub.credit.response.PayLoanResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.inghub.credit.timing.StatementCounter.countStatements;
+import static org.junit.jupiter.api.Assertions.*;
+
+//Guards the number of statements per service call, a new lazy load or per-row query fails here first.
+@SpringBootTest(classes = Application.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StatementBudgetTest {
+
+    private static final long CUSTOMER_ID = 1L;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private LoanInstallmentService loanInstallmentService;
+
+    @Autowired
+    private LoanPaymentService loanPaymentService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void createLoan_SixInstallments_WithinBudget() {
+        //customer, loan, one insert per installment, outbox event, customer limit
+        int statements = countStatements(() -> loanService.createLoan(CUSTOMER_ID, new BigDecimal("60.00"), 6, new BigDecimal("0.1")));
+
+        assertTrue(statements <= 10, "createLoan issued " + statements + " statements");
+    }
+
+    @Test
+    void payLoan_ThreeInstallments_WithinBudget() {
+        CreateLoanResponse loan = loanService.createLoan(CUSTOMER_ID, new BigDecimal("60.00"), 6, new BigDecimal("0.1"));
+        AtomicReference<PayLoanResponse> response = new AtomicReference<>();
+
+        //unpaid installments come from the index: one settle update, customer limit (select, update), outbox event
+        int statements = countStatements(() -> response.set(loanPaymentService.payLoan(loan.id(), new BigDecimal("33.00"))));
+
+        assertEquals(3, response.get().paidInstallmentCount());
+        assertTrue(statements <= 4, "payLoan issued " + statements + " statements");
+    }
+
+    @Test
+    void payCustomerLoans_TwoLoans_WithinBudget() {
+        //own customer, the seeded loan of customer 1 stays as the other tests expect it
+        Customer customer = new Customer();
+        customer.setName("budget");
+        customer.setSurname("test");
+        customer.setCreditLimit(new BigDecimal("1000.00"));
+        customer.setUsedCreditLimit(BigDecimal.ZERO);
+        long customerId = customerRepository.save(customer).getId();
+        loanService.createLoan(customerId, new BigDecimal("60.00"), 6, new BigDecimal("0.1"));
+        loanService.createLoan(customerId, new BigDecimal("60.00"), 6, new BigDecimal("0.1"));
+        AtomicReference<PayCustomerLoansResponse> response = new AtomicReference<>();
+
+        //payable installments, one settle update, customer limit (select, update), one outbox event per loan
+        int statements = countStatements(() -> response.set(loanPaymentService.payCustomerLoans(customerId, new BigDecimal("33.00"))));
+
+        assertEquals(3, response.get().paidInstallmentCount());
+        assertEquals(2, response.get().loans().size());
+        assertTrue(statements <= 6, "payCustomerLoans issued " + statements + " statements");
+    }
+
+    @Test
+    void searchLoansByCustomerId_WithinBudget() {
+        //page and count, customers of the loans must not be loaded one by one
+        assertTrue(countStatements(() -> loanService.searchLoansByCustomerId(CUSTOMER_ID, LoanSearchCriteria.NONE, false, CountMode.EXACT, 20, 1, null)) <= 2);
+        assertTrue(countStatements(() -> loanService.searchLoansByCustomerId(CUSTOMER_ID, LoanSearchCriteria.NONE, true, CountMode.EXACT, 20, 1, null)) <= 2);
+    }
+
+    @Test
+    void searchLoanInstallmentsByLoanId_WithinBudget() {
+        assertTrue(countStatements(() -> loanInstallmentService.searchLoanInstallmentsByLoanId(1L, false, CountMode.EXACT, 20, 1, null)) <= 2);
+        assertTrue(countStatements(() -> loanInstallmentService.searchLoanInstallmentsByLoanId(1L, true, CountMode.EXACT, 20, 1, null)) <= 2);
+    }
+}
@@ -0,0 +1,66 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.repository.LoanInstallmentRepository;
+import com.inghub.credit.repository.UnpaidInstallmentRow;
+import com.inghub.credit.repository.UnpaidInstallmentSummary;
+import com.inghub.credit.service.allocation.OldestFirstAllocationStrategy;
+import com.inghub.credit.service.allocation.PaymentAllocationEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UnpaidInstallmentIndexTest {
+
+    //horizon 2025-04-15
+    private final PaymentAllocationEngine engine = new PaymentAllocationEngine(Clock.fixed(Instant.parse("2025-01-15T10:00:00Z"), ZoneOffset.UTC),
+                                                                               new OldestFirstAllocationStrategy(), 3);
+    private final LoanInstallmentRepository loanInstallmentRepository = mock(LoanInstallmentRepository.class);
+    private final List<UnpaidInstallmentRow> rows = List.of(
+            new UnpaidInstallmentRow(1L, LocalDate.of(2025, 2, 1), new BigDecimal("10.00"), 5L, new BigDecimal("120.00")),
+            new UnpaidInstallmentRow(2L, LocalDate.of(2025, 3, 1), new BigDecimal("10.00"), 5L, new BigDecimal("120.00")));
+
+    @Test
+    void get_LoadsWindowUntilHorizonOnce() {
+        UnpaidInstallmentIndex index = new UnpaidInstallmentIndex(loanInstallmentRepository, engine, new SimpleMeterRegistry(), 10);
+        when(loanInstallmentRepository.summarizeUnpaidByLoanId(1L)).thenReturn(new UnpaidInstallmentSummary(12L, new BigDecimal("10.00")));
+        when(loanInstallmentRepository.findUnpaidRowsByLoanIdDueUntil(1L, LocalDate.of(2025, 4, 15), Limit.unlimited())).thenReturn(rows);
+
+        UnpaidInstallments unpaidInstallments = index.get(1L, 1000);
+
+        assertSame(unpaidInstallments, index.get(1L, 1000));
+        assertEquals(2, unpaidInstallments.size());
+        assertEquals(12, unpaidInstallments.remainingCount());
+        verify(loanInstallmentRepository, times(1)).summarizeUnpaidByLoanId(1L);
+    }
+
+    @Test
+    void get_IndexFull_ReadsRowsThePaymentCanCover() {
+        UnpaidInstallmentIndex index = new UnpaidInstallmentIndex(loanInstallmentRepository, engine, new SimpleMeterRegistry(), 0);
+        when(loanInstallmentRepository.summarizeUnpaidByLoanId(1L)).thenReturn(new UnpaidInstallmentSummary(12L, new BigDecimal("10.00")));
+        when(loanInstallmentRepository.findUnpaidRowsByLoanIdDueUntil(1L, LocalDate.of(2025, 4, 15), Limit.of(2))).thenReturn(rows);
+
+        UnpaidInstallments unpaidInstallments = index.get(1L, 2500);
+
+        assertEquals(2, unpaidInstallments.size());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void get_PaidLoan_ReturnsNothingToPay() {
+        UnpaidInstallmentIndex index = new UnpaidInstallmentIndex(loanInstallmentRepository, engine, new SimpleMeterRegistry(), 10);
+        when(loanInstallmentRepository.summarizeUnpaidByLoanId(1L)).thenReturn(new UnpaidInstallmentSummary(0L, null));
+
+        assertEquals(0, index.get(1L, 1000).remainingCount());
+        verify(loanInstallmentRepository, never()).findUnpaidRowsByLoanIdDueUntil(anyLong(), any(), any());
+    }
+}
@@ -0,0 +1,45 @@
+package com.inghub.credit.service;
+
+import com.inghub.credit.repository.UnpaidInstallmentRow;
+import com.inghub.credit.service.allocation.PaymentAllocation;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnpaidInstallmentsTest {
+
+    private static final LocalDate FIRST_DUE_DATE = LocalDate.of(2025, 2, 1);
+
+    private final UnpaidInstallments unpaidInstallments = UnpaidInstallments.of(7L, List.of(
+            new UnpaidInstallmentRow(11L, FIRST_DUE_DATE, new BigDecimal("18.33"), 3L, new BigDecimal("100.00")),
+            new UnpaidInstallmentRow(12L, FIRST_DUE_DATE.plusMonths(1), new BigDecimal("18.33"), 3L, new BigDecimal("100.00")),
+            new UnpaidInstallmentRow(13L, FIRST_DUE_DATE.plusMonths(2), new BigDecimal("18.33"), 3L, new BigDecimal("100.00"))));
+
+    @Test
+    void afterPayment_WholeInstallments_KeepsRemainingInOrder() {
+        UnpaidInstallments remaining = unpaidInstallments.afterPayment(PaymentAllocation.whole(0, 2, 3666));
+
+        assertEquals(1, remaining.size());
+        assertEquals(13L, remaining.id(0));
+        assertEquals(FIRST_DUE_DATE.plusMonths(2).toEpochDay(), remaining.dueEpochDay(0));
+        assertEquals(3L, remaining.customerId());
+        assertEquals(List.of(11L, 12L), unpaidInstallments.ids(0, 2));
+        assertTrue(unpaidInstallments.afterPayment(PaymentAllocation.whole(0, 3, 5499)).isEmpty());
+    }
+
+    @Test
+    void afterPayment_LatestInstallmentsAndPartialPayment_ReducesOutstandingAmount() {
+        UnpaidInstallments remaining = unpaidInstallments.afterPayment(new PaymentAllocation(2, 3, 0, 1000, 2833));
+
+        assertEquals(2, remaining.size());
+        assertEquals(11L, remaining.id(0));
+        assertEquals(833, remaining.amount(0));
+        assertEquals(12L, remaining.id(1));
+        assertEquals(1833, remaining.amount(1));
+        assertEquals(new BigDecimal("8.33"), UnpaidInstallments.fromMinorUnits(remaining.amount(0)));
+    }
+}
@@ -0,0 +1,88 @@
+package com.inghub.credit.service.allocation;
+
+import com.inghub.credit.repository.UnpaidInstallmentRow;
+import com.inghub.credit.service.UnpaidInstallments;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentAllocationStrategyTest {
+
+    private static final LocalDate FIRST_DUE_DATE = LocalDate.of(2025, 2, 1);
+
+    //six installments of 10.00, due monthly from FIRST_DUE_DATE
+    private final UnpaidInstallments unpaidInstallments = unpaidInstallments(6);
+    private final long fourthDueDate = FIRST_DUE_DATE.plusMonths(3).toEpochDay();
+
+    @Test
+    void oldestFirst_PaysWholeInstallmentsUntilFundsRunOut() {
+        PaymentAllocation allocation = new OldestFirstAllocationStrategy().allocate(unpaidInstallments, 2599, fourthDueDate);
+
+        assertEquals(new PaymentAllocation(0, 2, -1, 0, 2000), allocation);
+    }
+
+    @Test
+    void oldestFirst_StopsAtHorizon() {
+        PaymentAllocation allocation = new OldestFirstAllocationStrategy().allocate(unpaidInstallments, 100000, fourthDueDate);
+
+        assertEquals(new PaymentAllocation(0, 4, -1, 0, 4000), allocation);
+        assertTrue(new OldestFirstAllocationStrategy().allocate(unpaidInstallments, 999, fourthDueDate).isEmpty());
+    }
+
+    @Test
+    void partial_PaysRestTowardsNextInstallmentWithinHorizon() {
+        PartialPaymentAllocationStrategy strategy = new PartialPaymentAllocationStrategy();
+
+        assertEquals(new PaymentAllocation(0, 2, 2, 599, 2599), strategy.allocate(unpaidInstallments, 2599, fourthDueDate));
+        assertEquals(new PaymentAllocation(0, 0, 0, 500, 500), strategy.allocate(unpaidInstallments, 500, fourthDueDate));
+        assertEquals(new PaymentAllocation(0, 4, -1, 0, 4000), strategy.allocate(unpaidInstallments, 4500, fourthDueDate));
+    }
+
+    @Test
+    void latestFirst_PaysLatestInstallmentsWithinHorizon() {
+        LatestFirstAllocationStrategy strategy = new LatestFirstAllocationStrategy();
+
+        assertEquals(new PaymentAllocation(2, 4, -1, 0, 2000), strategy.allocate(unpaidInstallments, 2599, fourthDueDate));
+        assertEquals(new PaymentAllocation(3, 6, -1, 0, 3000), strategy.allocate(unpaidInstallments, 3000, Long.MAX_VALUE));
+        assertTrue(strategy.allocate(unpaidInstallments, 3000, FIRST_DUE_DATE.minusDays(1).toEpochDay()).isEmpty());
+    }
+
+    @Test
+    void maxInstallments_BoundsRowsReadFromStartOfWindow() {
+        assertEquals(1, new OldestFirstAllocationStrategy().maxInstallments(500, 1000));
+        assertEquals(2, new OldestFirstAllocationStrategy().maxInstallments(2599, 1000));
+        assertEquals(3, new PartialPaymentAllocationStrategy().maxInstallments(2599, 1000));
+        assertEquals(Integer.MAX_VALUE, new LatestFirstAllocationStrategy().maxInstallments(2599, 1000));
+    }
+
+    @Test
+    void engine_ComputesHorizonFromClock() {
+        Clock clock = Clock.fixed(Instant.parse("2025-01-31T23:00:00Z"), ZoneOffset.UTC);
+        PaymentAllocationEngine engine = new PaymentAllocationEngine(clock, new OldestFirstAllocationStrategy(), 3);
+
+        assertEquals(LocalDate.of(2025, 4, 30).toEpochDay(), engine.horizonEpochDay());
+        assertEquals(new PaymentAllocation(0, 3, -1, 0, 3000), engine.allocate(unpaidInstallments, 100000));
+    }
+
+    @Test
+    void strategyOf_UnknownName_Throws() {
+        assertInstanceOf(PartialPaymentAllocationStrategy.class, PaymentAllocationEngine.strategyOf("partial"));
+        assertThrows(IllegalArgumentException.class, () -> PaymentAllocationEngine.strategyOf("random"));
+    }
+
+    private static UnpaidInstallments unpaidInstallments(int count) {
+        List<UnpaidInstallmentRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new UnpaidInstallmentRow(i + 1L, FIRST_DUE_DATE.plusMonths(i), new BigDecimal("10.00"), 1L, new BigDecimal("60.00")));
+        }
+        return UnpaidInstallments.of(1L, rows);
+    }
+}
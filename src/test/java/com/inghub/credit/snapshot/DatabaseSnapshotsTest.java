@@ -0,0 +1,82 @@
+package com.inghub.credit.snapshot;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseSnapshotsTest {
+
+    @TempDir
+    Path directory;
+
+    private JdbcDataSource seeded;
+
+    @BeforeEach
+    void setUp() {
+        seeded = dataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(seeded);
+        jdbcTemplate.execute("CREATE TABLE loan (id BIGINT AUTO_INCREMENT PRIMARY KEY, amount DECIMAL(15, 2) NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_loan_amount ON loan (amount)");
+        jdbcTemplate.execute("INSERT INTO loan (amount) SELECT X FROM SYSTEM_RANGE(1, 1000)");
+    }
+
+    @Test
+    void export_WritesScriptAndDatabaseOfShard() {
+        DatabaseSnapshots.export(seeded, directory, 1, "sa", "password");
+
+        assertTrue(Files.isRegularFile(DatabaseSnapshots.scriptFile(directory, 1)));
+        assertTrue(Files.isRegularFile(DatabaseSnapshots.databaseFile(directory, 1)));
+    }
+
+    @Test
+    void load_RestoresRowsAndIdentity() {
+        DatabaseSnapshots.export(seeded, directory, 0, "sa", "password");
+        JdbcDataSource restored = dataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+
+        DatabaseSnapshots.load(restored, directory, 0);
+
+        assertRestored(new JdbcTemplate(restored));
+    }
+
+    @Test
+    void copy_OpensCopyOfDatabaseFile() {
+        DatabaseSnapshots.export(seeded, directory, 0, "sa", "password");
+        Path workDirectory = directory.resolve("work");
+
+        String url = DatabaseSnapshots.copy(directory, 0, workDirectory);
+
+        assertRestored(new JdbcTemplate(dataSource(url)));
+        assertTrue(Files.isRegularFile(DatabaseSnapshots.databaseFile(workDirectory, 0)));
+    }
+
+    @Test
+    void load_MissingSnapshot_Throws() {
+        JdbcDataSource restored = dataSource("jdbc:h2:mem:" + UUID.randomUUID());
+
+        assertThrows(IllegalStateException.class, () -> DatabaseSnapshots.load(restored, directory, 0));
+        assertThrows(IllegalStateException.class, () -> DatabaseSnapshots.copy(directory, 0, directory.resolve("work")));
+    }
+
+    private void assertRestored(JdbcTemplate jdbcTemplate) {
+        assertEquals(1000, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM loan", Integer.class));
+        assertEquals(500500, jdbcTemplate.queryForObject("SELECT SUM(amount) FROM loan", Integer.class));
+        jdbcTemplate.update("INSERT INTO loan (amount) VALUES (1)");
+        assertEquals(1001, jdbcTemplate.queryForObject("SELECT MAX(id) FROM loan", Long.class));
+    }
+
+    private static JdbcDataSource dataSource(String url) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        dataSource.setUser("sa");
+        dataSource.setPassword("password");
+        return dataSource;
+    }
+}
@@ -0,0 +1,93 @@
+package com.inghub.credit.timing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTimingFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void doFilter_SetsServerTimingAndKeepsBody() throws Exception {
+        RequestTimingFilter filter = new RequestTimingFilter(500, 1.0, 20, meterRegistry);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(), response, statements(2));
+
+        assertTrue(response.getHeader(RequestTimingFilter.SERVER_TIMING_HEADER).contains("desc=\"2 statements, 0 rows\""));
+        assertEquals("{}", response.getContentAsString());
+        assertNull(RequestTimings.current());
+        assertNull(meterRegistry.find("credit.timing.statement.budget.exceeded").counter());
+    }
+
+    @Test
+    void doFilter_SetsServerTimingBeforeFirstWrite_DoesNotBufferBody() throws Exception {
+        RequestTimingFilter filter = new RequestTimingFilter(500, 1.0, 20, meterRegistry);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(), response, (req, res) -> {
+            RequestTimings.current().incrementStatements();
+            res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+            res.flushBuffer();
+            assertEquals("{}", response.getContentAsString());
+            assertTrue(response.isCommitted());
+            RequestTimings.current().incrementStatements();
+        });
+
+        assertTrue(response.getHeader(RequestTimingFilter.SERVER_TIMING_HEADER).contains("desc=\"1 statements, 0 rows\""));
+    }
+
+    @Test
+    void doFilter_WithoutBody_SetsServerTiming() throws Exception {
+        RequestTimingFilter filter = new RequestTimingFilter(500, 1.0, 20, meterRegistry);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(), response, (req, res) -> RequestTimings.current().incrementStatements());
+
+        assertTrue(response.getHeader(RequestTimingFilter.SERVER_TIMING_HEADER).contains("desc=\"1 statements, 0 rows\""));
+    }
+
+    @Test
+    void doFilter_OverStatementBudget_CountsByHandlerPattern() throws Exception {
+        RequestTimingFilter filter = new RequestTimingFilter(500, 1.0, 2, meterRegistry);
+        MockHttpServletRequest request = request();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/loans/{loanId}/installments");
+
+        filter.doFilter(request, new MockHttpServletResponse(), statements(3));
+
+        assertEquals(1, meterRegistry.get("credit.timing.statement.budget.exceeded")
+                .tag("handler", "GET /api/v1/loans/{loanId}/installments").counter().count());
+    }
+
+    @Test
+    void doFilter_NotSampled_PassesThrough() throws Exception {
+        RequestTimingFilter filter = new RequestTimingFilter(500, 0.0, 0, meterRegistry);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(), response, (req, res) -> assertNull(RequestTimings.current()));
+
+        assertNull(response.getHeader(RequestTimingFilter.SERVER_TIMING_HEADER));
+        assertNull(meterRegistry.find("credit.timing.statement.budget.exceeded").counter());
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/api/v1/loans/1/installments");
+    }
+
+    private static FilterChain statements(int count) {
+        return (request, response) -> {
+            for (int i = 0; i < count; i++) {
+                RequestTimings.current().incrementStatements();
+            }
+            response.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package com.inghub.credit.timing;
+
+import com.inghub.credit.timing.RequestTimings.Phase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTimingsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.clear();
+    }
+
+    @Test
+    void current_NotStarted_IsNull() {
+        assertNull(RequestTimings.current());
+    }
+
+    @Test
+    void start_SetsCurrentUntilCleared() {
+        RequestTimings timings = RequestTimings.start();
+
+        assertSame(timings, RequestTimings.current());
+        RequestTimings.clear();
+        assertNull(RequestTimings.current());
+    }
+
+    @Test
+    void toServerTiming_ListsEveryPhaseWithCounts() {
+        RequestTimings timings = RequestTimings.start();
+        timings.add(Phase.AUTH, TimeUnit.MICROSECONDS.toNanos(93_140));
+        timings.add(Phase.SQL, TimeUnit.MICROSECONDS.toNanos(1_200));
+        timings.add(Phase.SQL, TimeUnit.MICROSECONDS.toNanos(50));
+        timings.incrementStatements();
+        timings.incrementStatements();
+        timings.incrementRows();
+
+        String header = timings.toServerTiming(System.nanoTime());
+
+        assertTrue(header.startsWith("auth;dur=93.1, pool;dur=0.0, sql;dur=1.3;desc=\"2 statements, 1 rows\", hydration;dur=0.0, serialization;dur=0.0, total;dur="),
+                   header);
+    }
+
+    @Test
+    void enterRepository_OnlyOutermostCallIsTimed() {
+        RequestTimings timings = RequestTimings.start();
+
+        assertTrue(timings.enterRepository());
+        assertFalse(timings.enterRepository());
+        timings.exitRepository();
+        timings.exitRepository();
+        assertTrue(timings.enterRepository());
+    }
+}
@@ -0,0 +1,22 @@
+package com.inghub.credit.timing;
+
+//Counts the JDBC statements an action issues on connections it borrows, for statement budget assertions.
+//Connections already held when the action starts (e.g. by a surrounding test transaction) are not counted.
+public final class StatementCounter {
+
+    private StatementCounter() {
+    }
+
+    public static int countStatements(Runnable action) {
+        if (RequestTimings.current() != null) {
+            throw new IllegalStateException("Statements are already counted on this thread");
+        }
+        RequestTimings timings = RequestTimings.start();
+        try {
+            action.run();
+            return timings.getStatements();
+        } finally {
+            RequestTimings.clear();
+        }
+    }
+}
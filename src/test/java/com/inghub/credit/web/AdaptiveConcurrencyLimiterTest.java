@@ -0,0 +1,53 @@
+package com.inghub.credit.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void tryAcquire_RejectsAboveLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 4, () -> false);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void release_AtLimitWithoutCongestion_GrowsUpToMax() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 3, () -> false);
+
+        for (int i = 0; i < 3; i++) {
+            while (limiter.tryAcquire()) {
+                //fill up to the limit
+            }
+            while (limiter.getInFlight() > 0) {
+                limiter.release();
+            }
+        }
+
+        assertEquals(3, limiter.getLimit());
+    }
+
+    @Test
+    void release_WhileCongested_ShrinksDownToMin() {
+        AtomicBoolean congested = new AtomicBoolean(true);
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(16, 10, 32, congested::get);
+
+        limiter.tryAcquire();
+        limiter.release();
+        assertEquals(14, limiter.getLimit());
+
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.release();
+        }
+        assertEquals(10, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,56 @@
+package com.inghub.credit.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong nanoTime = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+
+    @Test
+    void tryAcquire_AllowsBurstThenReturnsWaitTime() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(10, 3, nanoTime::get);
+
+        assertEquals(0, rateLimiter.tryAcquire("user"));
+        assertEquals(0, rateLimiter.tryAcquire("user"));
+        assertEquals(0, rateLimiter.tryAcquire("user"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.tryAcquire("user"));
+    }
+
+    @Test
+    void tryAcquire_RefillsOverTime() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(10, 1, nanoTime::get);
+
+        assertEquals(0, rateLimiter.tryAcquire("user"));
+        assertTrue(rateLimiter.tryAcquire("user") > 0);
+
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(0, rateLimiter.tryAcquire("user"));
+    }
+
+    @Test
+    void tryAcquire_KeysHaveSeparateBuckets() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(1, 1, nanoTime::get);
+
+        assertEquals(0, rateLimiter.tryAcquire("partner"));
+        assertTrue(rateLimiter.tryAcquire("partner") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("user"));
+    }
+
+    @Test
+    void evictIdle_DropsRefilledBuckets() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(10, 2, nanoTime::get);
+        rateLimiter.tryAcquire("idle");
+        rateLimiter.tryAcquire("busy");
+        rateLimiter.tryAcquire("busy");
+
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+        rateLimiter.evictIdle();
+
+        assertEquals(1, rateLimiter.size());
+    }
+}
@@ -0,0 +1,112 @@
+package com.inghub.credit.web;
+
+import com.inghub.credit.controller.LoanController;
+import com.inghub.credit.datasource.ConnectionWaitMonitor;
+import com.inghub.credit.exception.RequestThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class WriteAdmissionInterceptorTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final ConnectionWaitMonitor connectionWaitMonitor = new ConnectionWaitMonitor(TimeUnit.SECONDS.toNanos(1), nanoTime::get);
+    private SimpleMeterRegistry meterRegistry;
+    private WriteAdmissionInterceptor interceptor;
+    private HandlerMethod payLoan;
+    private HandlerMethod getLoans;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new WriteAdmissionInterceptor(new TokenBucketRateLimiter(1, 2, nanoTime::get), connectionWaitMonitor, meterRegistry,
+                                                    1, 1, 2, 100, 5, 3);
+        LoanController controller = mock(LoanController.class);
+        payLoan = new HandlerMethod(controller, LoanController.class.getMethod("payLoan",
+                                                                             com.inghub.credit.request.PayLoanRequest.class,
+                                                                             org.springframework.validation.BindingResult.class));
+        getLoans = new HandlerMethod(controller, LoanController.class.getMethod("getLoanInstallments", Long.class, boolean.class, String.class,
+                                                                              Integer.class, Integer.class, String.class));
+    }
+
+    @Test
+    void preHandle_ReadEndpoint_IsNotLimited() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(interceptor.preHandle(request("user"), new MockHttpServletResponse(), getLoans));
+        }
+    }
+
+    @Test
+    void preHandle_EmptyBucket_RejectsWith429() {
+        admitAndComplete("partner");
+        admitAndComplete("partner");
+
+        RequestThrottledException exception = assertThrows(RequestThrottledException.class,
+                                                           () -> interceptor.preHandle(request("partner"), new MockHttpServletResponse(), payLoan));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getStatus());
+        assertEquals(1, exception.getRetryAfterSeconds());
+        admitAndComplete("user");
+        assertEquals(1.0, meterRegistry.counter("credit.limiter.decisions", "outcome", "rate_limited").count());
+    }
+
+    @Test
+    void preHandle_ConcurrencyLimitReached_RejectsWith503UntilCompletion() {
+        MockHttpServletRequest first = request("user");
+        assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), payLoan));
+
+        RequestThrottledException exception = assertThrows(RequestThrottledException.class,
+                                                           () -> interceptor.preHandle(request("partner"), new MockHttpServletResponse(), payLoan));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals(3, exception.getRetryAfterSeconds());
+
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), payLoan, null);
+        admitAndComplete("partner");
+    }
+
+    @Test
+    void preHandle_PoolCongested_ShedsBeforeTakingToken() {
+        for (int i = 0; i < 6; i++) {
+            connectionWaitMonitor.beginWait();
+        }
+
+        RequestThrottledException exception = assertThrows(RequestThrottledException.class,
+                                                           () -> interceptor.preHandle(request("user"), new MockHttpServletResponse(), payLoan));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals(1.0, meterRegistry.counter("credit.limiter.decisions", "outcome", "pool_congested").count());
+    }
+
+    @Test
+    void preHandle_LongWaitDecaysWithoutTraffic_AdmitsAgain() {
+        long start = connectionWaitMonitor.beginWait();
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        connectionWaitMonitor.endWait(start);
+
+        assertThrows(RequestThrottledException.class, () -> interceptor.preHandle(request("user"), new MockHttpServletResponse(), payLoan));
+
+        //1250 ms average halves every second, below 100 ms after four
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        admitAndComplete("user");
+    }
+
+    private void admitAndComplete(String user) {
+        MockHttpServletRequest request = request(user);
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), payLoan));
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), payLoan, null);
+    }
+
+    private static MockHttpServletRequest request(String user) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/loans/pay");
+        request.setUserPrincipal(() -> user);
+        return request;
+    }
+}